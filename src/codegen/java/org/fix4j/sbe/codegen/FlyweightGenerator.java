@@ -0,0 +1,1064 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.codegen;
+
+import org.fix4j.sbe.codegen.MessageModel.Block;
+import org.fix4j.sbe.codegen.MessageModel.Component;
+import org.fix4j.sbe.codegen.MessageModel.Data;
+import org.fix4j.sbe.codegen.MessageModel.Field;
+import org.fix4j.sbe.codegen.MessageModel.FieldKind;
+import org.fix4j.sbe.codegen.MessageModel.Group;
+import org.fix4j.sbe.codegen.MessageModel.Message;
+import uk.co.real_logic.sbe.ir.Ir;
+import uk.co.real_logic.sbe.ir.Token;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatClassName;
+
+/**
+ * Generates flyweight encoders and decoders for all messages of an SBE schema.  For every message, the generator
+ * emits the same four types that are hand-written in the {@code org.fix4j.sbe.sample} package:
+ * <ul>
+ *     <li>an encoder interface and its default implementation with a fluent API for root fields, group iteration and
+ *     var data, the last element returning the payload provided by a {@code PayloadViewProvider}</li>
+ *     <li>a decoder interface and its default implementation with group iterators and string flyweights</li>
+ * </ul>
+ * The generated implementations delegate to the codecs generated by the {@code SbeTool} and are allocation free.
+ */
+final class FlyweightGenerator {
+
+    static final String FLYWEIGHT_PACKAGE = "flyweight";
+
+    private final Ir ir;
+    private final String sbePackage;
+    private final String packageName;
+
+    FlyweightGenerator(final Ir ir) {
+        this.ir = requireNonNull(ir);
+        this.sbePackage = ir.applicableNamespace();
+        this.packageName = sbePackage + "." + FLYWEIGHT_PACKAGE;
+    }
+
+    void generate(final Path outputDir) throws IOException {
+        final String headerClassName = sbePackage + "." +
+                formatClassName(ir.headerStructure().tokens().get(0).applicableTypeName());
+        for (final List<Token> tokens : ir.messages()) {
+            final Message message = MessageModel.message(tokens, sbePackage, headerClassName);
+            encoderInterface(message).write(outputDir);
+            encoderImplementation(message).write(outputDir);
+            decoderInterface(message).write(outputDir);
+            decoderImplementation(message).write(outputDir);
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------
+    // naming
+
+    private static String encoderName(final Message message) {
+        return message.className() + "Encoder";
+    }
+
+    private static String decoderName(final Message message) {
+        return message.className() + "Decoder";
+    }
+
+    private static String sbeClass(final Block block, final String suffix) {
+        if (block instanceof Message) {
+            return ((Message)block).packageName + "." + block.className() + suffix;
+        }
+        return sbeClass(block.parent, suffix) + "." + block.className() + suffix;
+    }
+
+    private static String sbeInstance(final Block block, final String suffix) {
+        return block instanceof Message ? suffix.toLowerCase() : block.propertyName() + suffix;
+    }
+
+    private static String implName(final Block block, final String suffix) {
+        return block instanceof Message ? "Default" + block.className() + suffix : "Default" + block.className() + "Group";
+    }
+
+    private static String flyweight(final String propertyName) {
+        return propertyName + "Flyweight";
+    }
+
+    private static String decimal(final String propertyName) {
+        return propertyName + "Decimal";
+    }
+
+    private static String groupInstance(final Group group) {
+        return group.propertyName() + "Group";
+    }
+
+    private static String stageName(final Component component) {
+        return component instanceof Group ? component.className() + "GroupStage" : component.className();
+    }
+
+    /**
+     * @return the type returned after encoding the root component with the given index
+     */
+    private static String rootStageType(final Message message, final int index) {
+        return index >= message.components.size() ? "P" : stageName(message.components.get(index)) + "<P>";
+    }
+
+    /**
+     * @return the concrete return type used in default implementations when a group is complete
+     */
+    private static String groupReturnType(final Group group) {
+        if (group.parent instanceof Message) {
+            return rootStageType((Message)group.parent, group.index + 1);
+        }
+        return elementType((Group)group.parent);
+    }
+
+    private static String elementType(final Group group) {
+        return group.qualifiedName() + "<" + groupReturnType(group) + ">";
+    }
+
+    private static String groupType(final Group group) {
+        return group.qualifiedName() + "Group<" + groupReturnType(group) + ">";
+    }
+
+    private static String completeReturnType(final Block block, final Component component) {
+        if (block instanceof Message) {
+            return rootStageType((Message)block, component.index() + 1);
+        }
+        return elementType((Group)block);
+    }
+
+    private static String completeReturnValue(final Block block, final Component component) {
+        if (block instanceof Message) {
+            return component.index() + 1 >= block.components.size() ? "payload()" :
+                    implName(block, "Encoder") + ".this";
+        }
+        return implName(block, "Encoder") + ".this";
+    }
+
+    private static String capitalized(final String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------
+    // encoder interface
+
+    private JavaSource encoderInterface(final Message message) {
+        final String name = encoderName(message);
+        final JavaSource src = new JavaSource(packageName, name).imports(
+                "org.agrona.DirectBuffer",
+                "org.fix4j.sbe.core.DataEncoder",
+                "org.fix4j.sbe.core.Decimal64",
+                "org.fix4j.sbe.core.MessageEncoder",
+                "org.fix4j.sbe.core.StringEncoder",
+                "org.fix4j.sbe.payload.PayloadViewProvider",
+                "org.fix4j.sbe.payload.StandardPayloadView",
+                "org.fix4j.sbe.payload.StandardPayloadViewProvider"
+        );
+        src.open("public interface " + name + "<P> extends MessageEncoder<" + name + "<P>>");
+        src.line();
+        src.open("static " + name + "<StandardPayloadView> create()")
+                .line("return create(new StandardPayloadViewProvider());")
+                .close().line();
+        src.open("static <P> " + name + "<P> create(PayloadViewProvider<? extends P> payloadViewProvider)")
+                .line("return new Default" + name + "<>(payloadViewProvider);")
+                .close().line();
+        final String self = name + "<P>";
+        encoderFieldDeclarations(src, message, self);
+        if (message.components.isEmpty()) {
+            src.line("P messageComplete();");
+        } else {
+            encoderComponentDeclarations(src, message.components.get(0), rootStageType(message, 1));
+        }
+        for (int i = 1; i < message.components.size(); i++) {
+            final Component component = message.components.get(i);
+            src.line();
+            src.open("interface " + stageName(component) + "<P>");
+            encoderComponentDeclarations(src, component, rootStageType(message, i + 1));
+            src.close();
+        }
+        for (final Group group : MessageModel.groups(message)) {
+            encoderGroupInterfaces(src, group);
+        }
+        src.close();
+        return src;
+    }
+
+    private void encoderGroupInterfaces(final JavaSource src, final Group group) {
+        final String element = group.className();
+        final String elementType = element + "<R>";
+        src.line();
+        src.open("interface " + element + "Group<R> extends java.lang.Iterable<" + elementType + ">")
+                .line(elementType + " next();")
+                .line("R " + group.propertyName() + "GroupComplete();")
+                .close();
+        src.line();
+        src.open("interface " + elementType + " extends " + element + "Group<R>");
+        encoderFieldDeclarations(src, group, elementType);
+        for (final Component component : group.components) {
+            encoderComponentDeclarations(src, component, elementType);
+        }
+        for (final Group nested : MessageModel.groups(group)) {
+            encoderGroupInterfaces(src, nested);
+        }
+        src.close();
+    }
+
+    private void encoderFieldDeclarations(final JavaSource src, final Block block, final String self) {
+        for (final Field field : block.fields) {
+            if (field.isConstant()) {
+                continue;
+            }
+            final String name = field.propertyName();
+            switch (field.kind()) {
+                case PRIMITIVE:
+                    src.line(self + " " + name + "(" + field.javaType() + " " + name + ");");
+                    break;
+                case PRIMITIVE_ARRAY:
+                    src.line(self + " " + name + "(int index, " + field.javaType() + " " + name + ");");
+                    break;
+                case CHAR_ARRAY:
+                    src.line("StringEncoder<" + self + "> " + name + "();");
+                    break;
+                case ENUM:
+                    src.line(self + " " + name + "(" + field.typeClassName(sbePackage) + " " + name + ");");
+                    break;
+                case SET:
+                case COMPOSITE:
+                    src.line(field.typeClassName(sbePackage) + "Encoder " + name + "();");
+                    break;
+                case DECIMAL:
+                    src.line(self + " " + name + "(long mantissa, int exponent);");
+                    src.line(self + " " + name + "(Decimal64 " + name + ");");
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported field kind: " + field.kind());
+            }
+        }
+    }
+
+    private void encoderComponentDeclarations(final JavaSource src, final Component component, final String next) {
+        final String name = component.propertyName();
+        if (component instanceof Group) {
+            src.line(component.className() + "Group<" + next + "> " + name + "GroupStart(int count);");
+            src.line(next + " " + name + "GroupEmpty();");
+        } else if (((Data)component).isString()) {
+            src.line("StringEncoder<" + next + "> " + name + "();");
+        } else {
+            src.line("DataEncoder<" + next + "> " + name + "();");
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------
+    // encoder implementation
+
+    private JavaSource encoderImplementation(final Message message) {
+        final String iface = encoderName(message);
+        final String name = implName(message, "Encoder");
+        final String sbeEncoder = sbeClass(message, "Encoder");
+        final JavaSource src = new JavaSource(packageName, name).imports(
+                "org.agrona.DirectBuffer",
+                "org.agrona.MutableDirectBuffer",
+                "org.fix4j.sbe.core.DataEncoder",
+                "org.fix4j.sbe.core.Decimal64",
+                "org.fix4j.sbe.core.FlyweightDataEncoder",
+                "org.fix4j.sbe.core.FlyweightStringEncoder",
+                "org.fix4j.sbe.core.StringEncoder",
+                "org.fix4j.sbe.meta.DefaultMetaData",
+                "org.fix4j.sbe.payload.PayloadViewProvider"
+        );
+        final StringBuilder implemented = new StringBuilder(iface).append("<P>");
+        for (int i = 1; i < message.components.size(); i++) {
+            implemented.append(", ").append(iface).append('.').append(stageName(message.components.get(i))).append("<P>");
+        }
+        src.open("public class " + name + "<P> implements " + implemented);
+        src.line();
+        src.line("private final PayloadViewProvider<? extends P> payloadViewProvider;");
+        src.line("private final " + message.headerClassName + "Encoder headerEncoder = new " +
+                message.headerClassName + "Encoder();");
+        src.line("private final " + sbeEncoder + " encoder = new " + sbeEncoder + "();");
+        encoderMembers(src, message, iface + "<P>");
+        src.line();
+        src.open("public " + name + "(final PayloadViewProvider<? extends P> payloadViewProvider)")
+                .line("this.payloadViewProvider = java.util.Objects.requireNonNull(payloadViewProvider);")
+                .close().line();
+        src.method("public " + iface + "<P> wrap(final MutableDirectBuffer buffer, final int offset)",
+                "headerEncoder.wrap(null, 0);",
+                "encoder.wrap(buffer, offset);",
+                "return cleanup();");
+        src.method("public " + iface + "<P> wrapAndApplyHeader(final MutableDirectBuffer buffer, final int offset)",
+                "encoder.wrapAndApplyHeader(buffer, offset, headerEncoder);",
+                "return cleanup();");
+        src.method("public " + iface + "<P> unwrap()",
+                "headerEncoder.wrap(null, 0);",
+                "encoder.wrap(null, 0);",
+                "return cleanup();");
+        src.open("private " + iface + "<P> cleanup()");
+        encoderReset(src, message);
+        src.line("return this;");
+        src.close().line();
+        flyweightDelegates(src, "MutableDirectBuffer", "encoder");
+        encoderFieldMethods(src, message, iface + "<P>");
+        encoderComponentMethods(src, message);
+        if (message.components.isEmpty()) {
+            src.method("public P messageComplete()", "return payload();");
+        }
+        src.method("public String toString()", "return encoder.toString();");
+        for (final Group group : MessageModel.groups(message)) {
+            encoderGroupImplementation(src, group);
+        }
+        src.open("private P payload()")
+                .line("return payloadViewProvider.payload(")
+                .line("        headerEncoder.buffer() != null ? headerEncoder : null, encoder")
+                .line(");")
+                .close();
+        src.close();
+        return src;
+    }
+
+    private void flyweightDelegates(final JavaSource src, final String bufferType, final String flyweight) {
+        src.method("public " + bufferType + " buffer()", "return " + flyweight + ".buffer();");
+        src.method("public int offset()", "return " + flyweight + ".offset();");
+        src.method("public int limit()", "return " + flyweight + ".limit();");
+        src.method("public void limit(final int limit)", flyweight + ".limit(limit);");
+        src.method("public int sbeSchemaId()", "return " + flyweight + ".sbeSchemaId();");
+        src.method("public int sbeSchemaVersion()", "return " + flyweight + ".sbeSchemaVersion();");
+        src.method("public int sbeTemplateId()", "return " + flyweight + ".sbeTemplateId();");
+        src.method("public int sbeBlockLength()", "return " + flyweight + ".sbeBlockLength();");
+        src.method("public String sbeSemanticType()", "return " + flyweight + ".sbeSemanticType();");
+        src.method("public int encodedLength()", "return " + flyweight + ".encodedLength();");
+    }
+
+    private void encoderMembers(final JavaSource src, final Block block, final String self) {
+        final String sbeEncoder = sbeClass(block, "Encoder");
+        for (final Field field : block.fields) {
+            if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                final String name = field.propertyName();
+                src.line("private final FlyweightStringEncoder.FixedLen<" + self + "> " + flyweight(name) +
+                        " = new FlyweightStringEncoder.FixedLen<>(");
+                src.line("        new DefaultMetaData.DefaultChar(\"" + field.name() + "\", " + sbeEncoder + "." + name + "Id(),");
+                src.line("                " + sbeEncoder + "." + name + "EncodingOffset(), " + sbeEncoder + "." + name + "Length(),");
+                src.line("                " + sbeEncoder + "." + name + "CharacterEncoding()),");
+                src.line("        () -> this);");
+            }
+        }
+        for (final Component component : block.components) {
+            final String name = component.propertyName();
+            if (component instanceof Group) {
+                src.line("private final " + implName((Group)component, "Encoder") + " " + groupInstance((Group)component) +
+                        " = new " + implName((Group)component, "Encoder") + "();");
+            } else if (((Data)component).isString()) {
+                src.line("private final FlyweightStringEncoder.VarLen<" + completeReturnType(block, component) + "> " +
+                        flyweight(name) + " = new FlyweightStringEncoder.VarLen<>(");
+                src.line("        new DefaultMetaData.DefaultVarChar(\"" + component.name() + "\", " + sbeEncoder + "." + name + "Id(),");
+                src.line("                " + sbeEncoder + "." + name + "HeaderLength(),");
+                src.line("                " + sbeEncoder + "." + name + "CharacterEncoding()),");
+                src.line("        this::" + name + "Complete);");
+            } else {
+                src.line("private final FlyweightDataEncoder<" + completeReturnType(block, component) + "> " +
+                        flyweight(name) + " = new FlyweightDataEncoder<>(");
+                src.line("        new DefaultMetaData.DefaultVarData(\"" + component.name() + "\", " + sbeEncoder + "." + name + "Id(),");
+                src.line("                " + sbeEncoder + "." + name + "HeaderLength()),");
+                src.line("        " + byteOrderArgument((Data)component) + "this::" + name + "Complete);");
+            }
+        }
+        if (block.hasComponents()) {
+            src.line("private int stage;");
+        }
+    }
+
+    private void encoderReset(final JavaSource src, final Block block) {
+        for (final Field field : block.fields) {
+            if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                src.line(flyweight(field.propertyName()) + ".wrap(null, 0);");
+            }
+        }
+        for (final Component component : block.components) {
+            if (component instanceof Group) {
+                src.line(groupInstance((Group)component) + ".unwrap();");
+            } else if (((Data)component).isString()) {
+                src.line(flyweight(component.propertyName()) + ".wrap(null, 0);");
+            } else {
+                src.line(flyweight(component.propertyName()) + ".wrap((MutableDirectBuffer)null, 0);");
+            }
+        }
+        if (block.hasComponents()) {
+            src.line("stage = 0;");
+        }
+    }
+
+    private static boolean isRoot(final Block block) {
+        return block instanceof Message;
+    }
+
+    private void encoderFieldMethods(final JavaSource src, final Block block, final String self) {
+        final String access = isRoot(block) ? "encoder" : "validateIndex()";
+        final String offset = isRoot(block) ? "encoder.offset()" : "blockOffset";
+        for (final Field field : block.fields) {
+            if (field.isConstant()) {
+                continue;
+            }
+            final String name = field.propertyName();
+            switch (field.kind()) {
+                case PRIMITIVE:
+                    src.method("public " + self + " " + name + "(final " + field.javaType() + " " + name + ")",
+                            access + "." + name + "(" + name + ");",
+                            "return this;");
+                    break;
+                case PRIMITIVE_ARRAY:
+                    src.method("public " + self + " " + name + "(final int index, final " + field.javaType() + " " + name + ")",
+                            access + "." + name + "(index, " + name + ");",
+                            "return this;");
+                    break;
+                case CHAR_ARRAY:
+                    if (isRoot(block)) {
+                        src.method("public StringEncoder<" + self + "> " + name + "()",
+                                flyweight(name) + ".wrap(encoder.buffer(), " + offset + ");",
+                                "return " + flyweight(name) + ";");
+                    } else {
+                        src.method("public StringEncoder<" + self + "> " + name + "()",
+                                "validateIndex();",
+                                flyweight(name) + ".wrap(encoder.buffer(), " + offset + ");",
+                                "return " + flyweight(name) + ";");
+                    }
+                    break;
+                case ENUM:
+                    src.method("public " + self + " " + name + "(final " + field.typeClassName(sbePackage) + " " + name + ")",
+                            access + "." + name + "(" + name + ");",
+                            "return this;");
+                    break;
+                case SET:
+                case COMPOSITE:
+                    src.method("public " + field.typeClassName(sbePackage) + "Encoder " + name + "()",
+                            "return " + access + "." + name + "();");
+                    break;
+                case DECIMAL:
+                    src.method("public " + self + " " + name + "(final long mantissa, final int exponent)",
+                            access + "." + name + "().mantissa(mantissa).exponent(Decimal64.exponent(exponent));",
+                            "return this;");
+                    src.method("public " + self + " " + name + "(final Decimal64 " + name + ")",
+                            "return " + name + "(" + name + ".mantissa(), " + name + ".exponent());");
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported field kind: " + field.kind());
+            }
+        }
+    }
+
+    private void encoderComponentMethods(final JavaSource src, final Block block) {
+        final String validate = isRoot(block) ? null : "validateIndex();";
+        for (final Component component : block.components) {
+            final String name = component.propertyName();
+            final String next = completeReturnType(block, component);
+            final String outOfOrder = "throw new IllegalStateException(\"out of order encoding of " + component.name() + "\");";
+            final String stageCheck = "if (stage != " + component.index() + ") {";
+            if (component instanceof Group) {
+                final Group group = (Group)component;
+                src.line("@Override");
+                src.open("public " + groupType(group) + " " + name + "GroupStart(final int count)");
+                if (validate != null) src.line(validate);
+                src.line(stageCheck).line("    " + outOfOrder).line("}");
+                src.line("return " + groupInstance(group) + ".init(count);");
+                src.close().line();
+                src.method("public " + next + " " + name + "GroupEmpty()",
+                        "return " + name + "GroupStart(0)." + name + "GroupComplete();");
+            } else {
+                final boolean string = ((Data)component).isString();
+                src.line("@Override");
+                src.open("public " + (string ? "StringEncoder<" : "DataEncoder<") + next + "> " + name + "()");
+                if (validate != null) src.line(validate);
+                src.line(stageCheck).line("    " + outOfOrder).line("}");
+                src.line(flyweight(name) + ".wrap(encoder.buffer(), encoder.limit());");
+                src.line("return " + flyweight(name) + ";");
+                src.close().line();
+                src.open("private " + next + " " + name + "Complete()")
+                        .line("encoder.limit(" + flyweight(name) + ".dataOffset() + " + flyweight(name) + ".dataLength());")
+                        .line(flyweight(name) + (string ? ".wrap(null, 0);" : ".wrap((MutableDirectBuffer)null, 0);"))
+                        .line("stage = " + (component.index() + 1) + ";")
+                        .line("return " + completeReturnValue(block, component) + ";")
+                        .close().line();
+            }
+        }
+    }
+
+    private void encoderGroupImplementation(final JavaSource src, final Group group) {
+        final String name = implName(group, "Encoder");
+        final String element = elementType(group);
+        final String sbeEncoder = sbeClass(group, "Encoder");
+        final String sbeInstance = sbeInstance(group, "Encoder");
+        final String parentInstance = sbeInstance(group.parent, "Encoder");
+        final String groupName = group.name();
+        final boolean resetElement = hasElementState(group);
+        src.open("private final class " + name + " implements " + element + ", java.util.Iterator<" + element + ">");
+        encoderMembers(src, group, element);
+        src.line("private " + sbeEncoder + " " + sbeInstance + ";");
+        src.line("private int count;");
+        src.line("private int index = -1;");
+        if (hasCharFields(group)) {
+            src.line("private int blockOffset;");
+        }
+        src.line();
+        src.open(name + " init(final int count)")
+                .line("if (" + sbeInstance + " != null) {")
+                .line("    throw new IllegalStateException(\"out of order encoding of " + groupName + "\");")
+                .line("}")
+                .line(sbeInstance + " = " + parentInstance + "." + group.propertyName() + "Count(count);")
+                .line("this.count = count;")
+                .line("this.index = -1;")
+                .line("return this;")
+                .close().line();
+        src.open("void unwrap()")
+                .line(sbeInstance + " = null;")
+                .line("count = 0;")
+                .line("index = -1;");
+        if (resetElement) {
+            src.line("resetElement();");
+        }
+        src.close().line();
+        if (resetElement) {
+            src.open("private void resetElement()");
+            encoderReset(src, group);
+            src.close().line();
+        }
+        src.open(sbeEncoder + " validateIndex()")
+                .line("if (index < 0 || index >= count) {")
+                .line("    throw new IllegalStateException(\"out of order encoding of " + groupName + "\");")
+                .line("}")
+                .line("return " + sbeInstance + ";")
+                .close().line();
+        if (group.hasComponents()) {
+            src.open("private void validateElementComplete()")
+                    .line("if (index >= 0 && index < count && stage != " + group.components.size() + ") {")
+                    .line("    throw new IllegalStateException(\"incomplete encoding of " + groupName + " element \" + index);")
+                    .line("}")
+                    .close().line();
+        }
+        src.method("public boolean hasNext()", "return index + 1 < count;");
+        src.line("@Override");
+        src.open("public " + element + " next()");
+        if (group.hasComponents()) {
+            src.line("validateElementComplete();");
+        }
+        src.line(sbeInstance + ".next();");
+        src.line("index++;");
+        if (hasCharFields(group)) {
+            src.line("blockOffset = encoder.limit() - " + sbeEncoder + ".sbeBlockLength();");
+        }
+        if (resetElement) {
+            src.line("resetElement();");
+        }
+        src.line("return this;");
+        src.close().line();
+        src.line("@Override");
+        src.open("public java.util.Iterator<" + element + "> iterator()")
+                .line("if (index != -1) {")
+                .line("    throw new IllegalStateException(\"out of order encoding of " + groupName + "\");")
+                .line("}")
+                .line("return this;")
+                .close().line();
+        src.line("@Override");
+        src.open("public " + groupReturnType(group) + " " + group.propertyName() + "GroupComplete()")
+                .line("if (index + 1 != count) {")
+                .line("    throw new IllegalStateException(\"missing elements when encoding " + groupName + " group\");")
+                .line("}");
+        if (group.hasComponents()) {
+            src.line("validateElementComplete();");
+        }
+        src.line("index = count;//make it same as count to prevent further element access");
+        src.line(implName(group.parent, "Encoder") + ".this.stage = " + (group.index + 1) + ";");
+        src.line("return " + completeReturnValue(group.parent, group) + ";");
+        src.close().line();
+        encoderFieldMethods(src, group, element);
+        encoderComponentMethods(src, group);
+        for (final Group nested : MessageModel.groups(group)) {
+            encoderGroupImplementation(src, nested);
+        }
+        src.close().line();
+    }
+
+    private static boolean hasCharFields(final Block block) {
+        for (final Field field : block.fields) {
+            if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasIndexedGroups(final Block block) {
+        for (final Component component : block.components) {
+            if (component instanceof Group && ((Group)component).hasComponents()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasElementState(final Block block) {
+        return hasCharFields(block) || block.hasComponents();
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------
+    // decoder interface
+
+    private JavaSource decoderInterface(final Message message) {
+        final String name = decoderName(message);
+        final JavaSource src = new JavaSource(packageName, name).imports(
+                "org.agrona.DirectBuffer",
+                "org.agrona.MutableDirectBuffer",
+                "org.fix4j.sbe.core.DataDecoder",
+                "org.fix4j.sbe.core.Decimal64",
+                "org.fix4j.sbe.core.MessageDecoder",
+                "org.fix4j.sbe.core.StringDecoder"
+        );
+        src.open("public interface " + name + " extends MessageDecoder<" + name + ">");
+        src.open("static " + name + " create()")
+                .line("return new Default" + name + "();")
+                .close().line();
+        decoderDeclarations(src, message);
+        for (final Group group : MessageModel.groups(message)) {
+            decoderGroupInterfaces(src, group);
+        }
+        src.close();
+        return src;
+    }
+
+    private void decoderGroupInterfaces(final JavaSource src, final Group group) {
+        final String element = group.className();
+        src.line();
+        src.open("interface " + element + "Group extends java.lang.Iterable<" + element + ">")
+                .line("int count();")
+                .line("boolean hasNext();")
+                .line(element + " next();")
+                .line(element + " " + group.propertyName() + "(int index);")
+                .close();
+        src.line();
+        src.open("interface " + element + " extends " + element + "Group");
+        decoderDeclarations(src, group);
+        for (final Group nested : MessageModel.groups(group)) {
+            decoderGroupInterfaces(src, nested);
+        }
+        src.close();
+    }
+
+    private void decoderDeclarations(final JavaSource src, final Block block) {
+        for (final Field field : block.fields) {
+            final String name = field.propertyName();
+            src.line(decoderFieldType(field) + " " + name + (field.kind() == FieldKind.PRIMITIVE_ARRAY ? "(int index);" : "();"));
+        }
+        for (final Component component : block.components) {
+            final String name = component.propertyName();
+            if (component instanceof Group) {
+                src.line(component.className() + "Group " + name + "();");
+            } else if (((Data)component).isString()) {
+                src.line("StringDecoder " + name + "();");
+            } else {
+                src.line("DataDecoder " + name + "();");
+            }
+        }
+    }
+
+    private String decoderFieldType(final Field field) {
+        switch (field.kind()) {
+            case PRIMITIVE:
+            case PRIMITIVE_ARRAY:
+                return field.javaType();
+            case CHAR_ARRAY:
+                return field.isConstant() ? "String" : "StringDecoder";
+            case ENUM:
+                return field.typeClassName(sbePackage);
+            case SET:
+            case COMPOSITE:
+                return field.typeClassName(sbePackage) + "Decoder";
+            case DECIMAL:
+                return "Decimal64";
+            default:
+                throw new IllegalStateException("Unsupported field kind: " + field.kind());
+        }
+    }
+
+    //-------------------------------------------------------------------------------------------------------------------
+    // decoder implementation
+
+    private JavaSource decoderImplementation(final Message message) {
+        final String iface = decoderName(message);
+        final String name = implName(message, "Decoder");
+        final String sbeDecoder = sbeClass(message, "Decoder");
+        final JavaSource src = new JavaSource(packageName, name).imports(
+                "org.agrona.DirectBuffer",
+                "org.agrona.MutableDirectBuffer",
+                "org.fix4j.sbe.core.DataDecoder",
+                "org.fix4j.sbe.core.Decimal64",
+                "org.fix4j.sbe.core.FlyweightDataDecoder",
+                "org.fix4j.sbe.core.FlyweightStringDecoder",
+                "org.fix4j.sbe.core.StringDecoder",
+                "org.fix4j.sbe.meta.DefaultMetaData"
+        );
+        src.open("public class " + name + " implements " + iface);
+        src.line();
+        src.line("private final " + sbeDecoder + " decoder = new " + sbeDecoder + "();");
+        decoderMembers(src, message);
+        src.line();
+        src.method("public " + iface + " wrap(final DirectBuffer buffer, final int offset, final int actingBlockLength, final int actingVersion)",
+                "decoder.wrap(buffer, offset, actingBlockLength, actingVersion);",
+                "return cleanup();");
+        src.method("public " + iface + " unwrap()",
+                "decoder.wrap(null, 0, 0, 0);",
+                "return cleanup();");
+        src.method("public " + iface + " reset()",
+                "decoder.sbeRewind();",
+                "return " + (hasIndexedGroups(message) ? "rewind();" : "cleanup();"));
+        src.open("private " + iface + " cleanup()");
+        decoderReset(src, message, false);
+        src.line("return this;");
+        src.close().line();
+        if (hasIndexedGroups(message)) {
+            //keeps the offsets recorded by indexed groups so that re-decoding after reset does not walk them again
+            src.open("private " + iface + " rewind()");
+            decoderReset(src, message, true);
+            src.line("return this;");
+            src.close().line();
+        }
+        flyweightDelegates(src, "DirectBuffer", "decoder");
+        decoderFieldMethods(src, message);
+        decoderComponentMethods(src, message);
+        src.method("public StringBuilder appendTo(final StringBuilder builder)", "return decoder.appendTo(builder);");
+        src.method("public String toString()", "return appendTo(new StringBuilder()).toString();");
+        for (final Group group : MessageModel.groups(message)) {
+            decoderGroupImplementation(src, group);
+        }
+        src.close();
+        return src;
+    }
+
+    private void decoderMembers(final JavaSource src, final Block block) {
+        final String sbeDecoder = sbeClass(block, "Decoder");
+        for (final Field field : block.fields) {
+            if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                final String name = field.propertyName();
+                src.line("private final FlyweightStringDecoder.FixedLen " + flyweight(name) + " = new FlyweightStringDecoder.FixedLen(");
+                src.line("        new DefaultMetaData.DefaultChar(\"" + field.name() + "\", " + sbeDecoder + "." + name + "Id(),");
+                src.line("                " + sbeDecoder + "." + name + "EncodingOffset(), " + sbeDecoder + "." + name + "Length(),");
+                src.line("                " + sbeDecoder + "." + name + "CharacterEncoding()));");
+            } else if (field.kind() == FieldKind.DECIMAL) {
+                src.line("private final Decimal64 " + decimal(field.propertyName()) + " = new Decimal64();");
+            }
+        }
+        for (final Component component : block.components) {
+            final String name = component.propertyName();
+            if (component instanceof Group) {
+                src.line("private final " + implName((Group)component, "Decoder") + " " + groupInstance((Group)component) +
+                        " = new " + implName((Group)component, "Decoder") + "();");
+            } else if (((Data)component).isString()) {
+                src.line("private final FlyweightStringDecoder.VarLen " + flyweight(name) + " = new FlyweightStringDecoder.VarLen(");
+                src.line("        new DefaultMetaData.DefaultVarChar(\"" + component.name() + "\", " + sbeDecoder + "." + name + "Id(),");
+                src.line("                " + sbeDecoder + "." + name + "HeaderLength(),");
+                src.line("                " + sbeDecoder + "." + name + "CharacterEncoding()));");
+            } else {
+                src.line("private final FlyweightDataDecoder " + flyweight(name) + " = new FlyweightDataDecoder(");
+                src.line("        new DefaultMetaData.DefaultVarData(\"" + component.name() + "\", " + sbeDecoder + "." + name + "Id(),");
+                src.line("                " + sbeDecoder + "." + name + "HeaderLength())" +
+                        (isBigEndian((Data)component) ? ", java.nio.ByteOrder.BIG_ENDIAN);" : ");"));
+            }
+        }
+        if (block.hasComponents()) {
+            src.line("private int stage;");
+        }
+    }
+
+    private void decoderReset(final JavaSource src, final Block block, final boolean rewind) {
+        for (final Field field : block.fields) {
+            if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                src.line(flyweight(field.propertyName()) + ".wrap(null, 0);");
+            }
+        }
+        for (final Component component : block.components) {
+            if (component instanceof Group) {
+                src.line(groupInstance((Group)component) + (rewind && ((Group)component).hasComponents() ? ".rewind();" : ".unwrap();"));
+            } else {
+                src.line(flyweight(component.propertyName()) + ".wrap(null, 0);");
+            }
+        }
+        if (block.hasComponents()) {
+            src.line("stage = 0;");
+        }
+    }
+
+    private void decoderFieldMethods(final JavaSource src, final Block block) {
+        final String access = isRoot(block) ? "decoder" : "validateIndex()";
+        final String offset = isRoot(block) ? "decoder.offset()" : "blockOffset";
+        for (final Field field : block.fields) {
+            final String name = field.propertyName();
+            final String type = decoderFieldType(field);
+            if (field.kind() == FieldKind.PRIMITIVE_ARRAY) {
+                src.method("public " + type + " " + name + "(final int index)", "return " + access + "." + name + "(index);");
+            } else if (field.kind() == FieldKind.CHAR_ARRAY && !field.isConstant()) {
+                if (isRoot(block)) {
+                    src.method("public StringDecoder " + name + "()",
+                            flyweight(name) + ".wrap(decoder.buffer(), " + offset + ");",
+                            "return " + flyweight(name) + ";");
+                } else {
+                    src.method("public StringDecoder " + name + "()",
+                            "validateIndex();",
+                            flyweight(name) + ".wrap(decoder.buffer(), " + offset + ");",
+                            "return " + flyweight(name) + ";");
+                }
+            } else if (field.kind() == FieldKind.DECIMAL) {
+                src.method("public Decimal64 " + name + "()",
+                        "final " + field.typeClassName(sbePackage) + "Decoder " + name + " = " + access + "." + name + "();",
+                        "return " + decimal(name) + ".set(" + name + ".mantissa(), " + name + ".exponent());");
+            } else {
+                src.method("public " + type + " " + name + "()", "return " + access + "." + name + "();");
+            }
+        }
+    }
+
+    private void decoderComponentMethods(final JavaSource src, final Block block) {
+        if (!block.hasComponents()) {
+            return;
+        }
+        final String validate = isRoot(block) ? null : "validateIndex();";
+        for (final Component component : block.components) {
+            final String name = component.propertyName();
+            final String skipTo = "skipTo(" + component.index() + ");";
+            if (component instanceof Group) {
+                final Group group = (Group)component;
+                src.line("@Override");
+                src.open("public " + group.qualifiedName() + "Group " + name + "()");
+                if (validate != null) src.line(validate);
+                src.line(skipTo);
+                src.line("return " + groupInstance(group) + ".init();");
+                src.close().line();
+            } else {
+                final String type = ((Data)component).isString() ? "StringDecoder" : "DataDecoder";
+                src.line("@Override");
+                src.open("public " + type + " " + name + "()");
+                if (validate != null) src.line(validate);
+                src.line(skipTo);
+                src.line("return position" + capitalized(name) + "();");
+                src.close().line();
+                src.open("private " + type + " position" + capitalized(name) + "()")
+                        .line("if (" + flyweight(name) + ".buffer() == null) {")
+                        .line("    " + flyweight(name) + ".wrap(decoder.buffer(), decoder.limit());")
+                        .line("    decoder.limit(" + flyweight(name) + ".dataOffset() + " + flyweight(name) + ".dataLength());")
+                        .line("}")
+                        .line("return " + flyweight(name) + ";")
+                        .close().line();
+            }
+        }
+        src.open("private void skipTo(final int component)");
+        src.open("while (stage < component)");
+        src.open("switch (stage)");
+        for (final Component component : block.components) {
+            src.line("case " + component.index() + ":");
+            if (component instanceof Group) {
+                src.line("    " + groupInstance((Group)component) + ".skip();");
+            } else {
+                src.line("    position" + capitalized(component.propertyName()) + "();");
+            }
+            src.line("    break;");
+        }
+        src.line("default:");
+        src.line("    throw new IllegalStateException(\"invalid stage: \" + stage);");
+        src.close();
+        src.line("stage++;");
+        src.close();
+        src.close().line();
+    }
+
+    private static boolean isBigEndian(final Data data) {
+        return data.lengthToken.encoding().byteOrder() == ByteOrder.BIG_ENDIAN;
+    }
+
+    private static String byteOrderArgument(final Data data) {
+        return isBigEndian(data) ? "java.nio.ByteOrder.BIG_ENDIAN, " : "";
+    }
+
+    private void decoderGroupImplementation(final JavaSource src, final Group group) {
+        final String name = implName(group, "Decoder");
+        final String element = group.qualifiedName();
+        final String sbeDecoder = sbeClass(group, "Decoder");
+        final String sbeInstance = sbeInstance(group, "Decoder");
+        final String parentInstance = sbeInstance(group.parent, "Decoder");
+        final String groupName = group.name();
+        final boolean resetElement = hasElementState(group);
+        final String outOfOrder = "throw new IllegalStateException(\"out of order decoding of " + groupName + "\");";
+        final boolean indexed = group.hasComponents();
+        src.open("private final class " + name + " implements " + element + ", java.util.Iterator<" + element + ">");
+        decoderMembers(src, group);
+        src.line("private " + sbeDecoder + " " + sbeInstance + ";");
+        src.line("private int index = -1;");
+        src.line("private int headerOffset;");
+        if (indexed) {
+            //element offsets are only known after decoding the var data of previous elements, we record them lazily
+            src.line("private int[] elementOffsets = new int[0];");
+            src.line("private int elementOffsetCount;");
+        } else {
+            src.line("private int firstElementOffset;");
+        }
+        if (hasCharFields(group)) {
+            src.line("private int blockOffset;");
+        }
+        src.line();
+        src.open(name + " init()")
+                .line("if (" + sbeInstance + " != null) {")
+                .line("    " + outOfOrder)
+                .line("}")
+                .line("headerOffset = decoder.limit();")
+                .line(sbeInstance + " = " + parentInstance + "." + group.propertyName() + "();");
+        if (indexed) {
+            src.line("if (elementOffsetCount == 0) {")
+                    .line("    if (elementOffsets.length <= count()) {")
+                    .line("        elementOffsets = new int[count() + 1];")
+                    .line("    }")
+                    .line("    elementOffsets[0] = decoder.limit();")
+                    .line("    elementOffsetCount = 1;")
+                    .line("}");
+        } else {
+            src.line("firstElementOffset = decoder.limit();");
+        }
+        src.line("index = -1;")
+                .line("return this;")
+                .close().line();
+        src.open("void skip()")
+                .line("if (" + sbeInstance + " == null) {")
+                .line("    init();")
+                .line("}");
+        if (indexed) {
+            src.open("if (elementOffsetCount <= count())")
+                    .line("//end of group not known yet, walk to the last element and past its var data")
+                    .line(group.propertyName() + "(count() - 1);")
+                    .line("skipTo(" + group.components.size() + ");")
+                    .line("elementOffsets[elementOffsetCount++] = decoder.limit();")
+                    .close();
+            src.line("decoder.limit(elementOffsets[count()]);");
+        } else {
+            src.line("decoder.limit(firstElementOffset + count() * " + sbeInstance + ".actingBlockLength());");
+        }
+        src.line("index = count();//make it same as count to prevent further element access");
+        src.close().line();
+        if (indexed) {
+            src.open("void unwrap()")
+                    .line("rewind();")
+                    .line("elementOffsetCount = 0;")
+                    .close().line();
+        }
+        src.open(indexed ? "void rewind()" : "void unwrap()")
+                .line(sbeInstance + " = null;")
+                .line("index = -1;");
+        if (resetElement) {
+            src.line("resetElement();");
+        }
+        src.close().line();
+        if (resetElement) {
+            src.open("private void resetElement()");
+            decoderReset(src, group, false);
+            src.close().line();
+        }
+        src.open(sbeDecoder + " validateIndex()")
+                .line("if (index < 0 || index >= count()) {")
+                .line("    " + outOfOrder)
+                .line("}")
+                .line("return " + sbeInstance + ";")
+                .close().line();
+        src.method("public int count()", "return " + sbeInstance + ".count();");
+        src.method("public boolean hasNext()", "return index + 1 < count();");
+        src.line("@Override");
+        src.open("public java.util.Iterator<" + element + "> iterator()")
+                .line("if (index != -1) {")
+                .line("    " + outOfOrder)
+                .line("}")
+                .line("return this;")
+                .close().line();
+        src.line("@Override");
+        src.open("public " + element + " next()");
+        src.line("if (!hasNext()) {")
+                .line("    throw new java.util.NoSuchElementException(\"index >= count\");")
+                .line("}");
+        if (indexed) {
+            src.line("if (index >= 0) {");
+            src.line("    skipTo(" + group.components.size() + ");");
+            src.line("}");
+            src.line("if (index + 1 == elementOffsetCount) {");
+            src.line("    elementOffsets[elementOffsetCount++] = decoder.limit();");
+            src.line("}");
+        }
+        src.line(sbeInstance + ".next();");
+        src.line("index++;");
+        if (hasCharFields(group)) {
+            src.line("blockOffset = decoder.limit() - " + sbeInstance + ".actingBlockLength();");
+        }
+        if (resetElement) {
+            src.line("resetElement();");
+        }
+        src.line("return this;");
+        src.close().line();
+        src.line("@Override");
+        src.open("public " + element + " " + group.propertyName() + "(final int index)")
+                .line("if (index < 0 || index >= count()) {")
+                .line("    throw new IndexOutOfBoundsException(\"index=\" + index + \", count=\" + count());")
+                .line("}")
+                .line("if (this.index >= count()) {")
+                .line("    " + outOfOrder)
+                .line("}");
+        if (indexed) {
+            src.line("if (index < elementOffsetCount) {")
+                    .line("    return jumpTo(index, elementOffsets[index]);")
+                    .line("}")
+                    .line("if (this.index + 1 < elementOffsetCount) {")
+                    .line("    jumpTo(elementOffsetCount - 1, elementOffsets[elementOffsetCount - 1]);")
+                    .line("}")
+                    .line("while (this.index < index) {")
+                    .line("    next();")
+                    .line("}")
+                    .line("return this;");
+        } else {
+            src.line("return jumpTo(index, firstElementOffset + index * " + sbeInstance + ".actingBlockLength());");
+        }
+        src.close().line();
+        src.open("private " + element + " jumpTo(final int index, final int offset)")
+                .line("//re-wrap to reset the iteration index of the SBE decoder")
+                .line("decoder.limit(headerOffset);")
+                .line(sbeInstance + " = " + parentInstance + "." + group.propertyName() + "();")
+                .line("decoder.limit(offset);")
+                .line(sbeInstance + ".next();")
+                .line("this.index = index;");
+        if (hasCharFields(group)) {
+            src.line("blockOffset = decoder.limit() - " + sbeInstance + ".actingBlockLength();");
+        }
+        if (resetElement) {
+            src.line("resetElement();");
+        }
+        src.line("return this;");
+        src.close().line();
+        decoderFieldMethods(src, group);
+        decoderComponentMethods(src, group);
+        for (final Group nested : MessageModel.groups(group)) {
+            decoderGroupImplementation(src, nested);
+        }
+        src.close().line();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.codegen;
+
+import uk.co.real_logic.sbe.SbeTool;
+import uk.co.real_logic.sbe.ir.Ir;
+import uk.co.real_logic.sbe.xml.IrGenerator;
+import uk.co.real_logic.sbe.xml.MessageSchema;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point generating flyweight encoders and decoders for SBE schema files.
+ * <p>
+ * The schema files are parsed and validated the same way as by the {@link SbeTool}, hence all {@code sbe.*} system
+ * properties for validation and xinclude processing apply.  Sources are generated into the directory given by the
+ * {@code sbe.output.dir} system property, in a {@value FlyweightGenerator#FLYWEIGHT_PACKAGE} sub-package of the
+ * schema package.
+ */
+public class FlyweightTool {
+
+    public static void main(final String... args) throws Exception {
+        if (args.length == 0) {
+            System.err.format("Usage: %s <schema-file>...%n", FlyweightTool.class.getName());
+            System.exit(-1);
+        }
+        final Path outputDir = Paths.get(System.getProperty(SbeTool.OUTPUT_DIR, "."));
+        for (final String fileName : args) {
+            final MessageSchema schema = SbeTool.parseSchema(fileName);
+            final Ir ir = new IrGenerator().generate(schema, System.getProperty(SbeTool.TARGET_NAMESPACE));
+            new FlyweightGenerator(ir).generate(outputDir);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.codegen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Minimal indentation aware builder for generated java source files.  Imports are candidates only: an import is
+ * written if its simple class name is referenced in the generated source.
+ */
+final class JavaSource {
+
+    private static final String INDENT = "    ";
+
+    private final String packageName;
+    private final String className;
+    private final List<String> imports = new ArrayList<>();
+    private final StringBuilder source = new StringBuilder(8192);
+    private int indent;
+
+    JavaSource(final String packageName, final String className) {
+        this.packageName = requireNonNull(packageName);
+        this.className = requireNonNull(className);
+    }
+
+    JavaSource imports(final String... imports) {
+        for (final String imp : imports) {
+            this.imports.add(imp);
+        }
+        return this;
+    }
+
+    JavaSource line(final String line) {
+        if (!line.isEmpty()) {
+            for (int i = 0; i < indent; i++) {
+                source.append(INDENT);
+            }
+            source.append(line);
+        }
+        source.append('\n');
+        return this;
+    }
+
+    JavaSource line() {
+        return line("");
+    }
+
+    JavaSource open(final String line) {
+        line(line + " {");
+        indent++;
+        return this;
+    }
+
+    JavaSource close() {
+        indent--;
+        return line("}");
+    }
+
+    JavaSource method(final String signature, final String... body) {
+        line("@Override");
+        open(signature);
+        for (final String line : body) {
+            line(line);
+        }
+        return close().line();
+    }
+
+    void write(final Path outputDir) throws IOException {
+        if (indent != 0) {
+            throw new IllegalStateException("Unbalanced source blocks in " + className + ": " + indent);
+        }
+        final Path dir = outputDir.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(className + ".java"), toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder file = new StringBuilder(source.length() + 1024);
+        file.append("/* Generated fix4j-sbe flyweight codec, do not edit. */\n");
+        file.append("package ").append(packageName).append(";\n\n");
+        boolean anyImport = false;
+        for (final String imp : imports) {
+            if (isReferenced(imp.substring(imp.lastIndexOf('.') + 1))) {
+                file.append("import ").append(imp).append(";\n");
+                anyImport = true;
+            }
+        }
+        if (anyImport) {
+            file.append('\n');
+        }
+        return file.append(source).toString();
+    }
+
+    private boolean isReferenced(final String simpleName) {
+        return Pattern.compile("\\b" + Pattern.quote(simpleName) + "\\b").matcher(source).find();
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.codegen;
+
+import uk.co.real_logic.sbe.PrimitiveType;
+import uk.co.real_logic.sbe.generation.Generators;
+import uk.co.real_logic.sbe.ir.GenerationUtil;
+import uk.co.real_logic.sbe.ir.Signal;
+import uk.co.real_logic.sbe.ir.Token;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatClassName;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.javaTypeName;
+
+/**
+ * Simplified view of the SBE IR tokens of a message: the root block with its fields followed by the variable length
+ * components, that is, the groups and var data elements in the order in which they have to be encoded.
+ */
+final class MessageModel {
+
+    enum FieldKind {
+        PRIMITIVE,
+        PRIMITIVE_ARRAY,
+        CHAR_ARRAY,
+        ENUM,
+        SET,
+        COMPOSITE,
+        DECIMAL
+    }
+
+    static class Block {
+        final Token token;
+        final Block parent;
+        final List<Field> fields = new ArrayList<>();
+        final List<Component> components = new ArrayList<>();
+
+        Block(final Token token, final Block parent) {
+            this.token = requireNonNull(token);
+            this.parent = parent;
+        }
+
+        String name() {
+            return token.name();
+        }
+
+        String className() {
+            return formatClassName(token.name());
+        }
+
+        String propertyName() {
+            return formatPropertyName(token.name());
+        }
+
+        boolean hasComponents() {
+            return !components.isEmpty();
+        }
+    }
+
+    static final class Message extends Block {
+        final String packageName;
+        final String headerClassName;
+
+        Message(final Token token, final String packageName, final String headerClassName) {
+            super(token, null);
+            this.packageName = requireNonNull(packageName);
+            this.headerClassName = requireNonNull(headerClassName);
+        }
+    }
+
+    interface Component {
+        String name();
+        String className();
+        String propertyName();
+        int index();
+    }
+
+    static final class Group extends Block implements Component {
+        final int index;
+
+        Group(final Token token, final Block parent, final int index) {
+            super(token, parent);
+            this.index = index;
+        }
+
+        @Override
+        public String name() {
+            return super.name();
+        }
+
+        @Override
+        public String className() {
+            return super.className();
+        }
+
+        @Override
+        public String propertyName() {
+            return super.propertyName();
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return the qualified name of the group relative to the outermost message interface
+         */
+        String qualifiedName() {
+            return parent instanceof Group ? ((Group)parent).qualifiedName() + "." + className() : className();
+        }
+    }
+
+    static final class Data implements Component {
+        final Token token;
+        final Token lengthToken;
+        final Token varDataToken;
+        final int index;
+
+        Data(final List<Token> tokens, final int index) {
+            this.token = tokens.get(0);
+            this.lengthToken = Generators.findFirst("length", tokens, 0);
+            this.varDataToken = Generators.findFirst("varData", tokens, 0);
+            this.index = index;
+        }
+
+        @Override
+        public String name() {
+            return token.name();
+        }
+
+        @Override
+        public String className() {
+            return formatClassName(token.name());
+        }
+
+        @Override
+        public String propertyName() {
+            return formatPropertyName(token.name());
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        String characterEncoding() {
+            return varDataToken.encoding().characterEncoding();
+        }
+
+        /**
+         * Character data with a standard 4 byte length header is exposed through string flyweights, all other var
+         * data is accessed through the raw SBE codec methods.
+         *
+         * @return true if this var data element can be accessed through string flyweights
+         */
+        boolean isString() {
+            return characterEncoding() != null &&
+                    lengthToken.encoding().primitiveType() == PrimitiveType.UINT32 &&
+                    lengthToken.encoding().byteOrder() == java.nio.ByteOrder.LITTLE_ENDIAN;
+        }
+    }
+
+    static final class Field {
+        final Token fieldToken;
+        final Token typeToken;
+        final List<Token> typeTokens;
+
+        Field(final Token fieldToken, final List<Token> typeTokens) {
+            this.fieldToken = requireNonNull(fieldToken);
+            this.typeToken = typeTokens.get(0);
+            this.typeTokens = requireNonNull(typeTokens);
+        }
+
+        String name() {
+            return fieldToken.name();
+        }
+
+        String propertyName() {
+            return formatPropertyName(fieldToken.name());
+        }
+
+        boolean isConstant() {
+            return fieldToken.isConstantEncoding() || typeToken.isConstantEncoding();
+        }
+
+        FieldKind kind() {
+            switch (typeToken.signal()) {
+                case BEGIN_ENUM:
+                    return FieldKind.ENUM;
+                case BEGIN_SET:
+                    return FieldKind.SET;
+                case BEGIN_COMPOSITE:
+                    return isDecimal() ? FieldKind.DECIMAL : FieldKind.COMPOSITE;
+                case ENCODING:
+                    if (typeToken.arrayLength() > 1) {
+                        return typeToken.encoding().primitiveType() == PrimitiveType.CHAR ?
+                                FieldKind.CHAR_ARRAY : FieldKind.PRIMITIVE_ARRAY;
+                    }
+                    return FieldKind.PRIMITIVE;
+                default:
+                    throw new IllegalStateException("Unsupported field type signal " + typeToken.signal() +
+                            " for field " + name());
+            }
+        }
+
+        /**
+         * Composites with exactly an int64 mantissa and a non-constant int8 exponent are exposed as
+         * {@code Decimal64} values in the flyweight API.
+         *
+         * @return true if this field is a decimal composite
+         */
+        boolean isDecimal() {
+            if (typeToken.signal() != Signal.BEGIN_COMPOSITE || typeTokens.size() != 4) {
+                return false;
+            }
+            final Token mantissa = typeTokens.get(1);
+            final Token exponent = typeTokens.get(2);
+            return mantissa.signal() == Signal.ENCODING && "mantissa".equals(mantissa.name()) &&
+                    mantissa.encoding().primitiveType() == PrimitiveType.INT64 && !mantissa.isConstantEncoding() &&
+                    exponent.signal() == Signal.ENCODING && "exponent".equals(exponent.name()) &&
+                    exponent.encoding().primitiveType() == PrimitiveType.INT8 && !exponent.isConstantEncoding();
+        }
+
+        String javaType() {
+            return javaTypeName(typeToken.encoding().primitiveType());
+        }
+
+        String typeClassName(final String defaultPackage) {
+            final String packageName = typeToken.packageName() != null ? typeToken.packageName() : defaultPackage;
+            return packageName + "." + formatClassName(typeToken.applicableTypeName());
+        }
+    }
+
+    private MessageModel() {
+        throw new IllegalStateException("No MessageModel for you");
+    }
+
+    static Message message(final List<Token> tokens, final String packageName, final String headerClassName) {
+        final Message message = new Message(tokens.get(0), packageName, headerClassName);
+        parseBody(message, GenerationUtil.getMessageBody(tokens));
+        return message;
+    }
+
+    private static void parseBody(final Block block, final List<Token> tokens) {
+        final List<Token> fields = new ArrayList<>();
+        final List<Token> groups = new ArrayList<>();
+        final List<Token> varData = new ArrayList<>();
+        int index = GenerationUtil.collectFields(tokens, 0, fields);
+        index = GenerationUtil.collectGroups(tokens, index, groups);
+        GenerationUtil.collectVarData(tokens, index, varData);
+
+        for (int i = 0; i < fields.size(); i++) {
+            final Token token = fields.get(i);
+            if (token.signal() == Signal.BEGIN_FIELD) {
+                final Token typeToken = fields.get(i + 1);
+                block.fields.add(new Field(token, fields.subList(i + 1, i + 1 + typeToken.componentTokenCount())));
+                i += token.componentTokenCount() - 1;
+            }
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            final Token token = groups.get(i);
+            if (token.signal() == Signal.BEGIN_GROUP) {
+                final int end = i + token.componentTokenCount();
+                final Group group = new Group(token, block, block.components.size());
+                final List<Token> groupTokens = groups.subList(i, end);
+                //skip group token and dimension composite
+                final int bodyStart = 1 + groupTokens.get(1).componentTokenCount();
+                parseBody(group, groupTokens.subList(bodyStart, groupTokens.size() - 1));
+                block.components.add(group);
+                i = end - 1;
+            }
+        }
+        for (int i = 0; i < varData.size(); i++) {
+            final Token token = varData.get(i);
+            if (token.signal() == Signal.BEGIN_VAR_DATA) {
+                final int end = i + token.componentTokenCount();
+                block.components.add(new Data(varData.subList(i, end), block.components.size()));
+                i = end - 1;
+            }
+        }
+    }
+
+    static List<Group> groups(final Block block) {
+        final List<Group> groups = new ArrayList<>();
+        for (final Component component : block.components) {
+            if (component instanceof Group) {
+                groups.add((Group)component);
+            }
+        }
+        return Collections.unmodifiableList(groups);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.bench;
+
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.transform.EnumNameCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Measures encoding and decoding of enum values as names, using order status values in round robin order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumNameCodecBenchmark {
+
+    public enum OrdStatus {
+        NEW,
+        PARTIALLY_FILLED,
+        FILLED,
+        DONE_FOR_DAY,
+        CANCELED,
+        REPLACED,
+        PENDING_CANCEL,
+        STOPPED,
+        REJECTED,
+        SUSPENDED,
+        PENDING_NEW,
+        CALCULATED,
+        EXPIRED,
+        ACCEPTED_FOR_BIDDING,
+        PENDING_REPLACE
+    }
+
+    private static final int NAME_LENGTH = 32;
+    private static final OrdStatus[] VALUES = OrdStatus.values();
+
+    private final EnumNameCodec<OrdStatus> codec = new EnumNameCodec<>(OrdStatus.class);
+    private final MutableDirectBuffer buffer = new ExpandableDirectByteBuffer(VALUES.length * NAME_LENGTH);
+    private final int[] lengths = new int[VALUES.length];
+    private final IntFunction<MutableDirectBuffer> lengthToBuffer = length -> buffer;
+    private int next;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < VALUES.length; i++) {
+            lengths[i] = buffer.putStringWithoutLengthAscii(i * NAME_LENGTH, VALUES[i].name());
+        }
+    }
+
+    private int nextIndex() {
+        final int index = next;
+        next = index + 1 == VALUES.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public OrdStatus decode() {
+        final int index = nextIndex();
+        return codec.get(buffer, index * NAME_LENGTH, lengths[index]);
+    }
+
+    @Benchmark
+    public int encode() {
+        return codec.put(VALUES[nextIndex()], lengthToBuffer);
+    }
+}
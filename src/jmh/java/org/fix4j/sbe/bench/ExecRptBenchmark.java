@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.bench;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.bytes.ByteWriter;
+import org.fix4j.sbe.payload.PayloadViewProvider;
+import org.fix4j.sbe.payload.PlainPayloadView;
+import org.fix4j.sbe.payload.StandardPayloadView;
+import org.fix4j.sbe.sample.ExecRptDecoder;
+import org.fix4j.sbe.sample.ExecRptEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding of an execution report through the user friendly {@link ExecRptEncoder} and
+ * {@link ExecRptDecoder} API.  Compare the results with {@link RawExecRptBenchmark} for the same parameters to
+ * measure the cost of the fluent layer;  both decode benchmarks read the same fields and copy the strings into the
+ * same scratch array.
+ * <p>
+ * Run with {@code gradle jmh}, the {@code gc} profiler is enabled by default and reports the allocated bytes per
+ * operation as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecRptBenchmark {
+
+    public enum PayloadView {
+        STANDARD {
+            @Override
+            PayloadViewProvider<?> provider() {
+                return StandardPayloadView.provider();
+            }
+        },
+        PLAIN {
+            @Override
+            PayloadViewProvider<?> provider() {
+                return PlainPayloadView.provider();
+            }
+        };
+
+        abstract PayloadViewProvider<?> provider();
+    }
+
+    /**
+     * Encoder state with the payload view returned by the encoder, a separate state so that the payload view is not
+     * a parameter of the decode benchmark.
+     */
+    @State(Scope.Thread)
+    public static class EncoderState {
+        @Param({"STANDARD", "PLAIN"})
+        public PayloadView payloadView;
+
+        private ExecRptEncoder<?> encoder;
+
+        @Setup
+        public void setup() {
+            encoder = ExecRptEncoder.create(payloadView.provider());
+        }
+    }
+
+    @Param({"0", "2", "10"})
+    public int legCount;
+
+    @Param({"0", "32", "256"})
+    public int rejectTextLength;
+
+    private final MutableDirectBuffer encodeBuffer = new ExpandableDirectByteBuffer(4096);
+    private final MutableDirectBuffer decodeBuffer = new ExpandableDirectByteBuffer(4096);
+    private final byte[] scratch = new byte[4096];
+    private final ExecRptDecoder decoder = ExecRptDecoder.create();
+    private final trading.MessageHeaderDecoder headerDecoder = new trading.MessageHeaderDecoder();
+    private ExecRptData data;
+
+    @Setup
+    public void setup() {
+        data = new ExecRptData(legCount, rejectTextLength);
+        data.encodeRaw(decodeBuffer, 0);
+    }
+
+    @Benchmark
+    public Object encode(final EncoderState state) {
+        final ExecRptEncoder.LegGroup<?> legGroup = state.encoder
+                .wrapAndApplyHeader(encodeBuffer, 0)
+                .symbol(data.symbol)
+                .legGroupStart(legCount);
+        for (int i = 0; i < legCount; i++) {
+            legGroup.next()
+                    .quantity(data.quantities[i])
+                    .price(data.prices[i], ExecRptData.PRICE_EXPONENT)
+                    .settlDate().put(data.settlDates[i]);
+        }
+        return legGroup.legGroupComplete()
+                .rejectText().put(data.rejectText);
+    }
+
+    @Benchmark
+    public void decode(final Blackhole blackhole) {
+        final DirectBuffer buffer = decodeBuffer;
+        headerDecoder.wrap(buffer, 0);
+        decoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        blackhole.consume(decoder.symbol());
+        for (final ExecRptDecoder.Leg leg : decoder.legs()) {
+            blackhole.consume(leg.quantity());
+            blackhole.consume(leg.price().mantissa());
+            blackhole.consume(leg.settlDate().get(scratch, 0, ByteWriter.BYTE_ARRAY_WRITER, scratch.length));
+        }
+        blackhole.consume(decoder.rejectText().get(scratch, 0, ByteWriter.BYTE_ARRAY_WRITER, scratch.length));
+        blackhole.consume(scratch);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.bench;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Execution report field values shared by the benchmarks, created once per trial to keep allocations out of the
+ * measured code.
+ */
+final class ExecRptData {
+    static final int PRICE_EXPONENT = -5;
+
+    final String symbol = "AUDUSD";
+    final long[] quantities;
+    final long[] prices;
+    final String[] settlDates;
+    final String rejectText;
+
+    private final trading.MessageHeaderEncoder headerEncoder = new trading.MessageHeaderEncoder();
+    private final trading.ExecRptEncoder encoder = new trading.ExecRptEncoder();
+
+    ExecRptData(final int legCount, final int rejectTextLength) {
+        this.quantities = new long[legCount];
+        this.prices = new long[legCount];
+        this.settlDates = new String[legCount];
+        for (int i = 0; i < legCount; i++) {
+            quantities[i] = 100000L * (i + 1);
+            prices[i] = 123000 + i * 1000;
+            settlDates[i] = String.valueOf(20191010 + i);
+        }
+        final StringBuilder text = new StringBuilder(rejectTextLength);
+        for (int i = 0; i < rejectTextLength; i++) {
+            text.append((char)('a' + (i % 26)));
+        }
+        this.rejectText = text.toString();
+    }
+
+    /**
+     * Encodes the message with the raw SBE tool codec.
+     *
+     * @param buffer the target buffer
+     * @param offset the offset in buffer where the header is written
+     * @return the total length including header
+     */
+    int encodeRaw(final MutableDirectBuffer buffer, final int offset) {
+        encoder.wrapAndApplyHeader(buffer, offset, headerEncoder)
+                .symbol(symbol);
+        final trading.ExecRptEncoder.LegsEncoder legs = encoder.legsCount(quantities.length);
+        for (int i = 0; i < quantities.length; i++) {
+            legs.next()
+                    .settlDate(settlDates[i])
+                    .quantity(quantities[i])
+                    .price().mantissa(prices[i]).exponent((byte)PRICE_EXPONENT);
+        }
+        encoder.rejectText(rejectText);
+        return headerEncoder.encodedLength() + encoder.encodedLength();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.bench;
+
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link ExecRptBenchmark} using the codecs generated by the SBE tool directly.  Decoding reads the same
+ * fields as {@link ExecRptBenchmark#decode(Blackhole)}:  the symbol as string, which is what the fluent API returns,
+ * and settlement dates and reject text copied into a scratch array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RawExecRptBenchmark {
+
+    @Param({"0", "2", "10"})
+    public int legCount;
+
+    @Param({"0", "32", "256"})
+    public int rejectTextLength;
+
+    private final MutableDirectBuffer encodeBuffer = new ExpandableDirectByteBuffer(4096);
+    private final MutableDirectBuffer decodeBuffer = new ExpandableDirectByteBuffer(4096);
+    private final byte[] scratch = new byte[4096];
+    private final trading.MessageHeaderDecoder headerDecoder = new trading.MessageHeaderDecoder();
+    private final trading.ExecRptDecoder decoder = new trading.ExecRptDecoder();
+    private ExecRptData data;
+
+    @Setup
+    public void setup() {
+        data = new ExecRptData(legCount, rejectTextLength);
+        data.encodeRaw(decodeBuffer, 0);
+    }
+
+    @Benchmark
+    public int encode() {
+        return data.encodeRaw(encodeBuffer, 0);
+    }
+
+    @Benchmark
+    public void decode(final Blackhole blackhole) {
+        headerDecoder.wrap(decodeBuffer, 0);
+        decoder.wrap(decodeBuffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        blackhole.consume(decoder.symbol());
+        for (final trading.ExecRptDecoder.LegsDecoder leg : decoder.legs()) {
+            blackhole.consume(leg.quantity());
+            blackhole.consume(leg.price().mantissa());
+            blackhole.consume(leg.getSettlDate(scratch, 0));
+        }
+        blackhole.consume(decoder.getRejectText(scratch, 0, decoder.rejectTextLength()));
+        blackhole.consume(scratch);
+    }
+}
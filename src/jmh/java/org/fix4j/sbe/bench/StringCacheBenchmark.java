@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.bench;
+
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.cache.StringCache;
+import org.fix4j.sbe.cache.StringFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a string cache shared by all benchmark threads with one cache per thread.  Keys are symbol like strings
+ * looked up in random order;  run with {@code -t} to change the number of threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class StringCacheBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedCache {
+        @Param({"100", "10000"})
+        public int keyCount;
+
+        StringCache cache;
+
+        @Setup
+        public void setup() {
+            cache = StringCache.concurrent(keyCount, Integer.MAX_VALUE, StringFactory.ASCII);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private static final int KEY_LENGTH = 8;
+
+        final MutableDirectBuffer buffer = new ExpandableDirectByteBuffer();
+        StringCache cache;
+        int keyCount;
+        int next;
+
+        @Setup
+        public void setup(final SharedCache shared) {
+            keyCount = shared.keyCount;
+            cache = new StringCache(keyCount);
+            for (int i = 0; i < keyCount; i++) {
+                buffer.putStringWithoutLengthAscii(i * KEY_LENGTH, String.format("SYM%05d", i));
+            }
+        }
+
+        int nextOffset() {
+            next = (next * 1103515245 + 12345) & Integer.MAX_VALUE;
+            return (next % keyCount) * KEY_LENGTH;
+        }
+    }
+
+    @Benchmark
+    public String sharedConcurrentCache(final SharedCache shared, final Keys keys) {
+        return shared.cache.get(keys.buffer, keys.nextOffset(), Keys.KEY_LENGTH);
+    }
+
+    @Benchmark
+    public String perThreadCache(final Keys keys) {
+        return keys.cache.get(keys.buffer, keys.nextOffset(), Keys.KEY_LENGTH);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics counters updated by a cache, either plain fields for single threaded caches or atomic counters for
+ * concurrent caches.  Concurrent hits are counted by a striped {@link LongAdder} as they are recorded by lock-free
+ * lookups of many threads;  the other counters are updated under a segment lock and are padded to a cache line each to
+ * avoid false sharing between counters of different segments.
+ */
+abstract class CacheCounters implements CacheStats {
+
+    abstract void hit();
+
+    abstract void miss();
+
+    abstract void evict(int bytes);
+
+    abstract void insert(int bytes);
+
+    abstract void clearBytes();
+
+    static CacheCounters plain() {
+        return new Plain();
+    }
+
+    static CacheCounters concurrent() {
+        return new Concurrent();
+    }
+
+    private static final class Plain extends CacheCounters {
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long inserts;
+        private long bytes;
+
+        @Override
+        void hit() {
+            hits++;
+        }
+
+        @Override
+        void miss() {
+            misses++;
+        }
+
+        @Override
+        void evict(final int bytes) {
+            evictions++;
+            this.bytes -= bytes;
+        }
+
+        @Override
+        void insert(final int bytes) {
+            inserts++;
+            this.bytes += bytes;
+        }
+
+        @Override
+        void clearBytes() {
+            bytes = 0;
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+
+        @Override
+        public long evictions() {
+            return evictions;
+        }
+
+        @Override
+        public long inserts() {
+            return inserts;
+        }
+
+        @Override
+        public long bytes() {
+            return bytes;
+        }
+    }
+
+    private static final class Concurrent extends CacheCounters {
+        //16 longs = 128 bytes, two cache lines to also defeat adjacent line prefetching
+        private static final int STRIDE = 16;
+        private static final int MISSES = 1 * STRIDE;
+        private static final int EVICTIONS = 2 * STRIDE;
+        private static final int INSERTS = 3 * STRIDE;
+        private static final int BYTES = 4 * STRIDE;
+        private static final int LENGTH = 5 * STRIDE;
+
+        private final LongAdder hits = new LongAdder();
+        private final AtomicLongArray counters = new AtomicLongArray(LENGTH);
+
+        @Override
+        void hit() {
+            hits.increment();
+        }
+
+        @Override
+        void miss() {
+            counters.incrementAndGet(MISSES);
+        }
+
+        @Override
+        void evict(final int bytes) {
+            counters.incrementAndGet(EVICTIONS);
+            counters.addAndGet(BYTES, -bytes);
+        }
+
+        @Override
+        void insert(final int bytes) {
+            counters.incrementAndGet(INSERTS);
+            counters.addAndGet(BYTES, bytes);
+        }
+
+        @Override
+        void clearBytes() {
+            counters.set(BYTES, 0);
+        }
+
+        @Override
+        public long hits() {
+            return hits.sum();
+        }
+
+        @Override
+        public long misses() {
+            return counters.get(MISSES);
+        }
+
+        @Override
+        public long evictions() {
+            return counters.get(EVICTIONS);
+        }
+
+        @Override
+        public long inserts() {
+            return counters.get(INSERTS);
+        }
+
+        @Override
+        public long bytes() {
+            return counters.get(BYTES);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+/**
+ * Statistics of a {@link ValueCache}.  Counters are cumulative since creation of the cache, except for
+ * {@link #bytes()} which reflects the current content and is reset by {@link ValueCache#clear()}.
+ * <p>
+ * The statistics returned by {@link ValueCache#stats()} are a live view;  use {@link #snapshot(Snapshot)} to obtain a
+ * copy without allocation, for instance to compute deltas between two points in time.  The counters are read one by
+ * one, hence a snapshot of a concurrently updated cache is not atomic and may reflect an update in one counter but not
+ * yet in another.
+ */
+public interface CacheStats {
+
+    /** @return the number of lookups that returned a cached value */
+    long hits();
+
+    /** @return the number of lookups that created a new value */
+    long misses();
+
+    /** @return the number of entries that were replaced by a new entry */
+    long evictions();
+
+    /** @return the number of values added to the cache */
+    long inserts();
+
+    /** @return the number of raw key bytes currently held by the cache */
+    long bytes();
+
+    /**
+     * @return the hit rate from 0.0 to 1.0, or NaN if no lookup was performed yet
+     */
+    default double hitRate() {
+        final long hits = hits();
+        final long lookups = hits + misses();
+        return lookups == 0 ? Double.NaN : hits / (double)lookups;
+    }
+
+    /**
+     * Copies the current statistics into the given target.
+     *
+     * @param target the snapshot to update
+     * @return the target snapshot
+     */
+    default Snapshot snapshot(final Snapshot target) {
+        return target.set(this);
+    }
+
+    /**
+     * @return a new snapshot with a copy of the current statistics
+     */
+    default Snapshot snapshot() {
+        return snapshot(new Snapshot());
+    }
+
+    /**
+     * Mutable copy of cache statistics.
+     */
+    final class Snapshot implements CacheStats {
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long inserts;
+        private long bytes;
+
+        public Snapshot set(final CacheStats stats) {
+            this.hits = stats.hits();
+            this.misses = stats.misses();
+            this.evictions = stats.evictions();
+            this.inserts = stats.inserts();
+            this.bytes = stats.bytes();
+            return this;
+        }
+
+        /**
+         * Sets this snapshot to the difference between two statistics, except for bytes which is taken from
+         * {@code current}.
+         *
+         * @param current   the current statistics
+         * @param previous  the previous statistics
+         * @return this snapshot
+         */
+        public Snapshot delta(final CacheStats current, final CacheStats previous) {
+            this.hits = current.hits() - previous.hits();
+            this.misses = current.misses() - previous.misses();
+            this.evictions = current.evictions() - previous.evictions();
+            this.inserts = current.inserts() - previous.inserts();
+            this.bytes = current.bytes();
+            return this;
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+
+        @Override
+        public long evictions() {
+            return evictions;
+        }
+
+        @Override
+        public long inserts() {
+            return inserts;
+        }
+
+        @Override
+        public long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats{hits=" + hits +
+                    ", misses=" + misses +
+                    ", evictions=" + evictions +
+                    ", inserts=" + inserts +
+                    ", bytes=" + bytes +
+                    "}";
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.fix4j.sbe.core.ValueDecoder;
+
+import java.util.concurrent.locks.StampedLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread safe value cache striped into segments, each segment a {@link HashValueCache} guarded by a
+ * {@link StampedLock}.  The segment is selected by the high bits of the key hash.
+ * <p>
+ * Lookups of cached values are lock free:  they use an optimistic read which is validated after the lookup.  Only if
+ * the value is not found or a concurrent insert into the same segment invalidates the read, the lookup is repeated
+ * under the segment's write lock and the value is created and inserted if necessary.
+ * <p>
+ * Hits are reported to the segment's {@link EvictionPolicy} without lock if the policy supports it, otherwise only if
+ * the segment's write lock is immediately available;  hence recency or frequency information of policies like
+ * {@link Eviction#LRU} is best effort under contention.
+ * <p>
+ * The max capacity is split across the segments such that the segment capacities add up to exactly the max capacity;
+ * the number of segments is reduced if necessary so that every segment holds at least one entry.  Since keys are
+ * assigned to segments by hash, a segment may evict entries while other segments still have space.
+ *
+ * @param <T> the value type
+ */
+public class ConcurrentValueCache<T> implements ValueCache<T> {
+
+    private final Segment<T>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentValueCache(final int initialCapacity,
+                                final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, Integer.MAX_VALUE, valueFactory);
+    }
+
+    public ConcurrentValueCache(final int initialCapacity,
+                                final int maxCapacity,
+                                final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, defaultConcurrencyLevel(), Eviction.RANDOM, valueFactory);
+    }
+
+    public ConcurrentValueCache(final int initialCapacity,
+                                final int maxCapacity,
+                                final EvictionPolicy.Factory eviction,
+                                final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, defaultConcurrencyLevel(), eviction, valueFactory);
+    }
+
+    /**
+     * Constructor with concurrency level
+     *
+     * @param initialCapacity   the initial capacity of the cache
+     * @param maxCapacity       the max capacity of the cache
+     * @param concurrencyLevel  the number of segments, rounded up to the next power of two and reduced to at most
+     *                          max capacity
+     * @param eviction          the eviction policy factory, invoked once per segment
+     * @param valueFactory      the factory for new values
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentValueCache(final int initialCapacity,
+                                final int maxCapacity,
+                                final int concurrencyLevel,
+                                final EvictionPolicy.Factory eviction,
+                                final ValueDecoder<? extends T> valueFactory) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrency level cannot be zero or negative: " + concurrencyLevel);
+        }
+        if (maxCapacity < 1) {
+            throw new IllegalArgumentException("max capacity cannot be zero or negative: " + maxCapacity);
+        }
+        if (maxCapacity < initialCapacity) {
+            throw new IllegalArgumentException("max capacity cannot be less than initial capacity: max=" +
+                    maxCapacity + ", initial=" + initialCapacity);
+        }
+        requireNonNull(eviction);
+        requireNonNull(valueFactory);
+        final int segmentCount = Math.min(Math.min(BitUtil.findNextPositivePowerOfTwo(concurrencyLevel), 1 << 16),
+                Integer.highestOneBit(maxCapacity));
+        @SuppressWarnings("unchecked")
+        final Segment<T>[] segments = (Segment<T>[])new Segment<?>[segmentCount];
+        this.segments = segments;
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            //the first (maxCapacity % segmentCount) segments hold one more entry
+            final int segmentMaxCapacity = maxCapacity / segmentCount + (i < maxCapacity % segmentCount ? 1 : 0);
+            final int segmentInitialCapacity = Math.min((initialCapacity + segmentCount - 1) / segmentCount,
+                    segmentMaxCapacity);
+            segments[i] = new Segment<>(new HashValueCache<>(
+                    segmentInitialCapacity, segmentMaxCapacity, segmentInitialCapacity * 16, eviction,
+                    CacheCounters.concurrent(), valueFactory
+            ));
+        }
+    }
+
+    private static int defaultConcurrencyLevel() {
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private final CacheStats stats = new CacheStats() {
+        @Override
+        public long hits() {
+            long hits = 0;
+            for (final Segment<T> segment : segments) {
+                hits += segment.cache.stats().hits();
+            }
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            long misses = 0;
+            for (final Segment<T> segment : segments) {
+                misses += segment.cache.stats().misses();
+            }
+            return misses;
+        }
+
+        @Override
+        public long evictions() {
+            long evictions = 0;
+            for (final Segment<T> segment : segments) {
+                evictions += segment.cache.stats().evictions();
+            }
+            return evictions;
+        }
+
+        @Override
+        public long inserts() {
+            long inserts = 0;
+            for (final Segment<T> segment : segments) {
+                inserts += segment.cache.stats().inserts();
+            }
+            return inserts;
+        }
+
+        @Override
+        public long bytes() {
+            long bytes = 0;
+            for (final Segment<T> segment : segments) {
+                bytes += segment.cache.stats().bytes();
+            }
+            return bytes;
+        }
+    };
+
+    private Segment<T> segment(final int hash) {
+        return segmentShift == Integer.SIZE ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    @Override
+    public T get(final DirectBuffer buffer, final int offset, final int length) {
+        final int hash = HashValueCache.hash(buffer, offset, length);
+        return segment(hash).get(hash, buffer, offset, length);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (final Segment<T> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the statistics of this cache aggregated over all segments.  Every segment has its own set of padded
+     * atomic counters so that threads accessing different segments do not contend on the counters, and lock-free hits
+     * within a segment are counted by a striped adder.  The aggregate is read counter by counter and is not atomic.
+     *
+     * @return the cache statistics
+     */
+    @Override
+    public CacheStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void clear() {
+        for (final Segment<T> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static final class Segment<T> {
+        private final StampedLock lock = new StampedLock();
+        private final HashValueCache<T> cache;
+
+        Segment(final HashValueCache<T> cache) {
+            this.cache = requireNonNull(cache);
+        }
+
+        T get(final int hash, final DirectBuffer buffer, final int offset, final int length) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                final int entry = cache.lookup(hash, buffer, offset, length);
+                if (entry >= 0) {
+                    final T value = cache.value(entry);
+                    if (value != null && lock.validate(stamp)) {
+                        cache.countHit();
+                        hit(entry, hash);
+                        return value;
+                    }
+                }
+            }
+            final long writeStamp = lock.writeLock();
+            try {
+                return cache.get(hash, buffer, offset, length);
+            } finally {
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+        private void hit(final int entry, final int hash) {
+            if (cache.lockFreeHits()) {
+                cache.hit(entry, hash);
+                return;
+            }
+            final long stamp = lock.tryWriteLock();
+            if (stamp != 0) {
+                try {
+                    cache.hit(entry, hash);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+        }
+
+        int size() {
+            final long stamp = lock.readLock();
+            try {
+                return cache.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            final long stamp = lock.writeLock();
+            try {
+                cache.clear();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
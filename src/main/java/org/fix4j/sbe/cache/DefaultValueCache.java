@@ -44,6 +44,7 @@ public class DefaultValueCache<T> implements ValueCache<T> {
     private final Comparator<? super DirectBuffer> comparator;
     private final ValueDecoder<? extends T> valueFactory;
     private final DirectBuffer view = new UnsafeBuffer(0, 0);
+    private final CacheCounters counters = CacheCounters.plain();
 
     public DefaultValueCache(final int initialCapacity,
                              final ValueDecoder<? extends T> valueFactory) {
@@ -80,6 +81,7 @@ public class DefaultValueCache<T> implements ValueCache<T> {
         try {
             final int index = Collections.binarySearch(rawData, view, comparator);
             if (index >= 0) {
+                counters.hit();
                 return valueData.get(index);
             }
             final int insertIndex = -(index + 1);
@@ -94,23 +96,32 @@ public class DefaultValueCache<T> implements ValueCache<T> {
         return rawData.size();
     }
 
+    @Override
+    public CacheStats stats() {
+        return counters;
+    }
+
     @Override
     public void clear() {
         rawData.clear();
         valueData.clear();
+        counters.clearBytes();
     }
 
     private T cache(final int insertIndex, final DirectBuffer view) {
         final DirectBuffer raw = copyOf(view);
         final T value = valueFactory.get(raw, 0, raw.capacity());
+        counters.miss();
         if (rawData.size() < maxCapacity) {
             rawData.add(insertIndex, raw);
             valueData.add(insertIndex, value);
         } else {
             final int setIndex = Math.min(insertIndex, rawData.size() - 1);
+            counters.evict(rawData.get(setIndex).capacity());
             rawData.set(setIndex, raw);
             valueData.set(setIndex, value);
         }
+        counters.insert(raw.capacity());
         return value;
     }
 
@@ -24,13 +24,13 @@
 package org.fix4j.sbe.cache;
 
 import org.agrona.DirectBuffer;
-import org.fix4j.sbe.core.ValueDecoder;
+import org.fix4j.sbe.core.CharCodec;
+import org.fix4j.sbe.core.Swar;
 
 import java.nio.charset.Charset;
 import java.util.Comparator;
 
 import static java.util.Objects.requireNonNull;
-import static org.fix4j.sbe.cache.StringFactory.stringDecoder;
 
 public enum DirectBufferComparator implements Comparator<DirectBuffer> {
     BYTE(byteComparator(0xff)),
@@ -52,37 +52,39 @@ public enum DirectBufferComparator implements Comparator<DirectBuffer> {
         return comparator;
     }
 
+    /**
+     * Compares masked bytes 8 at a time.
+     */
     private static Comparator<DirectBuffer> byteComparator(final int mask) {
-        return (buf1, buf2) -> {
-            final int len = Math.min(buf1.capacity(), buf2.capacity());
-            for (int i = 0; i < len; i++) {
-                final int byte1 = buf1.getByte(i) & mask;
-                final int byte2 = buf2.getByte(i) & mask;
-                if (byte1 != byte2) {
-                    return byte1 - byte2;
-                }
-            }
-            if (buf1.capacity() > len) return 1;
-            if (buf2.capacity() > len) return -1;
-            return 0;
-        };
+        return (buf1, buf2) -> Swar.compare(buf1, 0, buf1.capacity(), buf2, 0, buf2.capacity(), mask);
     }
 
+    /**
+     * Returns a comparator that compares the buffer contents as strings encoded in the given charset, in the same
+     * order as {@link String#compareTo(String)}.  The comparator does not allocate unless the charset has no
+     * specialised {@link CharCodec}.
+     *
+     * @param charset the charset of the string data
+     * @return a comparator for string data in the given charset
+     */
     public static Comparator<DirectBuffer> stringComparator(final Charset charset) {
-        final ValueDecoder<String> stringFactory = stringDecoder(charset);
-        return (buf1, buf2) -> {
-            final String s1 = stringFactory.get(buf1, 0, buf1.capacity());
-            final String s2 = stringFactory.get(buf2, 0, buf2.capacity());
-            return s1.compareTo(s2);
-        };
+        final CharCodec charCodec = CharCodec.forCharset(charset);
+        return (buf1, buf2) -> charCodec.compare(buf1, 0, buf1.capacity(), buf2, 0, buf2.capacity());
     }
 
+    /**
+     * Compares chars in native byte order, skipping equal prefixes 8 bytes at a time.
+     */
     private static Comparator<DirectBuffer> stringComparator() {
         return (buf1, buf2) -> {
             final int len1 = buf1.capacity();
             final int len2 = buf2.capacity();
             final int len = Math.min(len1, len2);
-            for (int i = 0; i < len; i += 2) {
+            int i = 0;
+            while (i + Long.BYTES <= len && buf1.getLong(i) == buf2.getLong(i)) {
+                i += Long.BYTES;
+            }
+            for (; i < len; i += 2) {
                 final char char1 = buf1.getChar(i);
                 final char char2 = buf2.getChar(i);
                 if (char1 != char2) {
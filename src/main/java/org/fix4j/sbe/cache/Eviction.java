@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Eviction policies for bounded value caches.  All policies can be combined with a TinyLFU admission filter via
+ * {@link #withTinyLfu()} which only caches a new value if its key has been accessed more frequently than the key of
+ * the victim entry;  this protects hot keys from being evicted by a stream of keys that are only accessed once.
+ */
+public enum Eviction implements EvictionPolicy.Factory {
+    /** Evicts a pseudo random entry */
+    RANDOM(maxCapacity -> new RandomEviction()),
+    /** Second chance algorithm evicting the first entry without access since the clock hand passed it last time */
+    CLOCK(maxCapacity -> new ClockEviction()),
+    /** Evicts the least recently used entry */
+    LRU(maxCapacity -> new LruEviction());
+
+    private final EvictionPolicy.Factory factory;
+
+    Eviction(final EvictionPolicy.Factory factory) {
+        this.factory = requireNonNull(factory);
+    }
+
+    @Override
+    public EvictionPolicy create(final int maxCapacity) {
+        return factory.create(maxCapacity);
+    }
+
+    public EvictionPolicy.Factory withTinyLfu() {
+        return tinyLfu(this);
+    }
+
+    public static EvictionPolicy.Factory tinyLfu(final EvictionPolicy.Factory eviction) {
+        requireNonNull(eviction);
+        return maxCapacity -> new TinyLfuAdmission(eviction.create(maxCapacity), maxCapacity);
+    }
+
+    private static int grow(final int length, final int entry) {
+        return Math.max(entry + 1, Math.max(16, length << 1));
+    }
+
+    private static final class RandomEviction implements EvictionPolicy {
+        private long seed = 0x2545F4914F6CDD1DL;
+
+        @Override
+        public void onHit(final int entry, final int hash) {
+            //no op
+        }
+
+        @Override
+        public void onMiss(final int hash) {
+            //no op
+        }
+
+        @Override
+        public void onInsert(final int entry, final int hash) {
+            //no op
+        }
+
+        @Override
+        public int victim(final int size) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (int)((seed >>> 1) % size);
+        }
+
+        @Override
+        public boolean admit(final int candidateHash, final int victimHash) {
+            return true;
+        }
+
+        @Override
+        public boolean lockFreeHits() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            //no op
+        }
+    }
+
+    private static final class ClockEviction implements EvictionPolicy {
+        private byte[] referenced = new byte[0];
+        private int hand;
+
+        @Override
+        public void onHit(final int entry, final int hash) {
+            final byte[] referenced = this.referenced;
+            if (entry < referenced.length) {
+                referenced[entry] = 1;
+            }
+        }
+
+        @Override
+        public void onMiss(final int hash) {
+            //no op
+        }
+
+        @Override
+        public void onInsert(final int entry, final int hash) {
+            if (entry >= referenced.length) {
+                referenced = Arrays.copyOf(referenced, grow(referenced.length, entry));
+            }
+            referenced[entry] = 0;
+        }
+
+        @Override
+        public int victim(final int size) {
+            while (true) {
+                if (hand >= size) {
+                    hand = 0;
+                }
+                if (referenced[hand] == 0) {
+                    return hand++;
+                }
+                referenced[hand++] = 0;
+            }
+        }
+
+        @Override
+        public boolean admit(final int candidateHash, final int victimHash) {
+            return true;
+        }
+
+        @Override
+        public boolean lockFreeHits() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(referenced, (byte)0);
+            hand = 0;
+        }
+    }
+
+    /**
+     * Doubly linked list over entry indices, most recently used at head.
+     */
+    private static final class LruEviction implements EvictionPolicy {
+        private static final int NONE = -1;
+        private int[] prev = new int[0];
+        private int[] next = new int[0];
+        private int count;
+        private int head = NONE;
+        private int tail = NONE;
+
+        @Override
+        public void onHit(final int entry, final int hash) {
+            if (entry < count && entry != head) {
+                unlink(entry);
+                linkHead(entry);
+            }
+        }
+
+        @Override
+        public void onMiss(final int hash) {
+            //no op
+        }
+
+        @Override
+        public void onInsert(final int entry, final int hash) {
+            if (entry < count) {
+                onHit(entry, hash);
+                return;
+            }
+            if (entry >= prev.length) {
+                prev = Arrays.copyOf(prev, grow(prev.length, entry));
+                next = Arrays.copyOf(next, prev.length);
+            }
+            count = entry + 1;
+            linkHead(entry);
+        }
+
+        private void unlink(final int entry) {
+            final int p = prev[entry];
+            final int n = next[entry];
+            if (p == NONE) {
+                head = n;
+            } else {
+                next[p] = n;
+            }
+            if (n == NONE) {
+                tail = p;
+            } else {
+                prev[n] = p;
+            }
+        }
+
+        private void linkHead(final int entry) {
+            prev[entry] = NONE;
+            next[entry] = head;
+            if (head != NONE) {
+                prev[head] = entry;
+            }
+            head = entry;
+            if (tail == NONE) {
+                tail = entry;
+            }
+        }
+
+        @Override
+        public int victim(final int size) {
+            return tail;
+        }
+
+        @Override
+        public boolean admit(final int candidateHash, final int victimHash) {
+            return true;
+        }
+
+        @Override
+        public boolean lockFreeHits() {
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            count = 0;
+            head = NONE;
+            tail = NONE;
+        }
+    }
+
+    /**
+     * Admission filter decorating an eviction policy;  the sketch counters are updated atomically and support
+     * concurrent lock free hits.
+     */
+    private static final class TinyLfuAdmission implements EvictionPolicy {
+        private final EvictionPolicy eviction;
+        private final FrequencySketch sketch;
+
+        TinyLfuAdmission(final EvictionPolicy eviction, final int maxCapacity) {
+            this.eviction = requireNonNull(eviction);
+            this.sketch = new FrequencySketch(maxCapacity);
+        }
+
+        @Override
+        public void onHit(final int entry, final int hash) {
+            sketch.increment(hash);
+            eviction.onHit(entry, hash);
+        }
+
+        @Override
+        public void onMiss(final int hash) {
+            sketch.increment(hash);
+            eviction.onMiss(hash);
+        }
+
+        @Override
+        public void onInsert(final int entry, final int hash) {
+            eviction.onInsert(entry, hash);
+        }
+
+        @Override
+        public int victim(final int size) {
+            return eviction.victim(size);
+        }
+
+        @Override
+        public boolean admit(final int candidateHash, final int victimHash) {
+            return sketch.frequency(candidateHash) > sketch.frequency(victimHash) &&
+                    eviction.admit(candidateHash, victimHash);
+        }
+
+        @Override
+        public boolean lockFreeHits() {
+            return eviction.lockFreeHits();
+        }
+
+        @Override
+        public void clear() {
+            sketch.clear();
+            eviction.clear();
+        }
+    }
+}
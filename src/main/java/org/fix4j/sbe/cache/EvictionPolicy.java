@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+/**
+ * Eviction and admission policy of a bounded value cache.  Cache entries are identified by a dense entry index from
+ * zero to size-1;  the index of an evicted entry is reused for the entry replacing it.
+ * <p>
+ * A policy instance belongs to a single cache and is notified while the cache is modified.  Only
+ * {@link #onHit(int, int)} may be invoked concurrently by a concurrent cache if {@link #lockFreeHits()} returns true,
+ * all other methods are invoked by one thread at a time.
+ *
+ * @see Eviction
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Invoked when a cached value is returned.
+     *
+     * @param entry the entry index
+     * @param hash  the key hash
+     */
+    void onHit(int entry, int hash);
+
+    /**
+     * Invoked when a value is not found in the cache.
+     *
+     * @param hash the key hash
+     */
+    void onMiss(int hash);
+
+    /**
+     * Invoked when a value is added to the cache, either as a new entry or replacing the victim entry.
+     *
+     * @param entry the entry index
+     * @param hash  the key hash
+     */
+    void onInsert(int entry, int hash);
+
+    /**
+     * Selects the entry to evict when the cache is full.
+     *
+     * @param size the cache size
+     * @return the entry index of the victim, from zero to size-1
+     */
+    int victim(int size);
+
+    /**
+     * Decides whether a new value replaces the victim;  if false is returned, the value is not cached.
+     *
+     * @param candidateHash the key hash of the new value
+     * @param victimHash    the key hash of the victim entry
+     * @return true if the new value should be cached
+     */
+    boolean admit(int candidateHash, int victimHash);
+
+    /**
+     * @return true if {@link #onHit(int, int)} tolerates concurrent invocation without lock
+     */
+    boolean lockFreeHits();
+
+    void clear();
+
+    /**
+     * Creates a new policy instance for a cache.
+     */
+    @FunctionalInterface
+    interface Factory {
+        EvictionPolicy create(int maxCapacity);
+    }
+}
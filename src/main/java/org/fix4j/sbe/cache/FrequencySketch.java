@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+import org.agrona.BitUtil;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch with 4-bit counters estimating the access frequency of key hashes, 16 counters are packed into a
+ * long.  All counters are halved after a sample of 10 times the capacity increments so that the sketch ages and
+ * adapts to changing key distributions.
+ * <p>
+ * Counters are incremented with compare-and-set and saturate at 15, hence concurrent increments never overflow into
+ * the neighbouring counter.  Only the sample count which triggers the aging may lose concurrent additions, which
+ * merely delays the next aging.
+ */
+final class FrequencySketch {
+
+    private static final int MAX_TABLE_SIZE = 1 << 18;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int[] SEEDS = {0x97cb3127, 0xb4b82e39, 0x9e3779b9, 0x7f4a7c15};
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(final int capacity) {
+        final int tableSize = BitUtil.findNextPositivePowerOfTwo(Math.max(16, Math.min(capacity, MAX_TABLE_SIZE)));
+        this.table = new AtomicLongArray(tableSize);
+        this.tableMask = tableSize - 1;
+        this.sampleSize = 10 * tableSize;
+    }
+
+    private static int indexHash(final int hash, final int depth) {
+        int h = (hash + SEEDS[depth]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    int frequency(final int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            final int h = indexHash(hash, depth);
+            final int shift = (h >>> 28) << 2;
+            frequency = Math.min(frequency, (int)((table.get(h & tableMask) >>> shift) & 0xf));
+        }
+        return frequency;
+    }
+
+    void increment(final int hash) {
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            final int h = indexHash(hash, depth);
+            added |= increment(h & tableMask, (h >>> 28) << 2);
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Increments the counter at the given shift unless it is saturated.
+     *
+     * @return true if the counter was incremented
+     */
+    private boolean increment(final int index, final int shift) {
+        long word;
+        do {
+            word = table.get(index);
+            if (((word >>> shift) & 0xf) == 0xf) {
+                return false;
+            }
+        } while (!table.compareAndSet(index, word, word + (1L << shift)));
+        return true;
+    }
+
+    void reset() {
+        final int length = table.length();
+        for (int i = 0; i < length; i++) {
+            long word;
+            do {
+                word = table.get(i);
+            } while (!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+        }
+        additions >>>= 1;
+    }
+
+    void clear() {
+        final int length = table.length();
+        for (int i = 0; i < length; i++) {
+            table.set(i, 0);
+        }
+        additions = 0;
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.cache;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.core.ValueDecoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Value cache with an open addressing hash table using linear probing.  The raw key bytes of all entries are stored
+ * in a single off-heap slab, table and entries consist of primitive arrays plus one array for the values.  Lookups
+ * are O(1) and do not allocate;  hash and key comparison process the key bytes 8 at a time.
+ * <p>
+ * Table slots refer to entries by index, the entry index is stable for the lifetime of the entry and is used by the
+ * {@link EvictionPolicy} which selects the entry to replace when the cache has reached its max capacity.  Slab space
+ * of replaced entries is reclaimed when the slab is compacted on the next growth.
+ * <p>
+ * As with {@link DefaultValueCache}, the value factory is invoked with a stable copy of the key:  the key is first
+ * copied to the slab and the factory receives the slab region.  Slab space is only ever appended to, and compaction as
+ * well as {@link #clear()} continue in a new slab, hence the bytes of the region are never overwritten and values may
+ * keep a view of them.
+ *
+ * @param <T> the value type
+ */
+public class HashValueCache<T> implements ValueCache<T> {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_TABLE_SIZE = 8;
+    private static final int MIN_ENTRY_CAPACITY = 16;
+    private static final int MIN_SLAB_CAPACITY = 64;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    private static final long PRIME = 0x9E3779B97F4A7C15L;
+
+    private final int maxCapacity;
+    private final ValueDecoder<? extends T> valueFactory;
+    private final EvictionPolicy policy;
+    private final CacheCounters counters;
+
+    //table
+    private int[] slots;
+    private int[] slotHashes;
+    private int mask;
+
+    //entries
+    private int[] hashes;
+    private int[] keyOffsets;
+    private int[] keyLengths;
+    private Object[] values;
+    private int size;
+
+    private UnsafeBuffer slab;
+    private int slabLimit;
+    private int slabGarbage;
+
+    public HashValueCache(final int initialCapacity,
+                          final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, Integer.MAX_VALUE, valueFactory);
+    }
+
+    public HashValueCache(final int initialCapacity,
+                          final int maxCapacity,
+                          final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, Eviction.RANDOM, valueFactory);
+    }
+
+    public HashValueCache(final int initialCapacity,
+                          final int maxCapacity,
+                          final int initialSlabCapacity,
+                          final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, initialSlabCapacity, Eviction.RANDOM, valueFactory);
+    }
+
+    public HashValueCache(final int initialCapacity,
+                          final int maxCapacity,
+                          final EvictionPolicy.Factory eviction,
+                          final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, initialCapacity * 16, eviction, valueFactory);
+    }
+
+    public HashValueCache(final int initialCapacity,
+                          final int maxCapacity,
+                          final int initialSlabCapacity,
+                          final EvictionPolicy.Factory eviction,
+                          final ValueDecoder<? extends T> valueFactory) {
+        this(initialCapacity, maxCapacity, initialSlabCapacity, eviction, CacheCounters.plain(), valueFactory);
+    }
+
+    HashValueCache(final int initialCapacity,
+                   final int maxCapacity,
+                   final int initialSlabCapacity,
+                   final EvictionPolicy.Factory eviction,
+                   final CacheCounters counters,
+                   final ValueDecoder<? extends T> valueFactory) {
+        if (maxCapacity < 1) {
+            throw new IllegalArgumentException("max capacity cannot be zero or negative: " + maxCapacity);
+        }
+        if (maxCapacity < initialCapacity) {
+            throw new IllegalArgumentException("max capacity cannot be less than initial capacity: max=" +
+                    maxCapacity + ", initial=" + initialCapacity);
+        }
+        if (initialSlabCapacity < 0) {
+            throw new IllegalArgumentException("initial slab capacity cannot be negative: " + initialSlabCapacity);
+        }
+        this.maxCapacity = maxCapacity;
+        this.valueFactory = requireNonNull(valueFactory);
+        this.policy = requireNonNull(eviction.create(maxCapacity));
+        this.counters = requireNonNull(counters);
+        this.slab = new UnsafeBuffer(ByteBuffer.allocateDirect(Math.max(MIN_SLAB_CAPACITY, initialSlabCapacity)));
+        final int entryCapacity = Math.max(0, initialCapacity);
+        this.hashes = new int[entryCapacity];
+        this.keyOffsets = new int[entryCapacity];
+        this.keyLengths = new int[entryCapacity];
+        this.values = new Object[entryCapacity];
+        initTable(tableSize(initialCapacity));
+    }
+
+    @Override
+    public T get(final DirectBuffer buffer, final int offset, final int length) {
+        return get(hash(buffer, offset, length), buffer, offset, length);
+    }
+
+    T get(final int hash, final DirectBuffer buffer, final int offset, final int length) {
+        int index = hash & mask;
+        int entry;
+        while ((entry = slots[index]) != EMPTY) {
+            if (slotHashes[index] == hash && keyLengths[entry] == length &&
+                    keyEquals(slab, keyOffsets[entry], buffer, offset, length)) {
+                policy.onHit(entry, hash);
+                counters.hit();
+                @SuppressWarnings("unchecked")
+                final T value = (T)values[entry];
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return cache(hash, buffer, offset, length);
+    }
+
+    /**
+     * Lookup tolerating concurrent modification of the cache, used for optimistic reads by
+     * {@link ConcurrentValueCache}.  The result is only valid if no modification occurred during the lookup.
+     *
+     * @return the entry index, or -1 if not found or if an inconsistent state was detected
+     */
+    int lookup(final int hash, final DirectBuffer buffer, final int offset, final int length) {
+        final int[] slots = this.slots;
+        final int[] slotHashes = this.slotHashes;
+        final int[] keyOffsets = this.keyOffsets;
+        final int[] keyLengths = this.keyLengths;
+        final UnsafeBuffer slab = this.slab;
+        final int tableSize = slots.length;
+        if (slotHashes.length != tableSize) {
+            return EMPTY;
+        }
+        final int mask = tableSize - 1;
+        int index = hash & mask;
+        for (int probe = 0; probe < tableSize; probe++) {
+            final int entry = slots[index];
+            if (entry < 0 || entry >= keyOffsets.length || entry >= keyLengths.length) {
+                return EMPTY;
+            }
+            if (slotHashes[index] == hash && keyLengths[entry] == length) {
+                final int keyOffset = keyOffsets[entry];
+                if (keyOffset < 0 || keyOffset > slab.capacity() - length) {
+                    return EMPTY;
+                }
+                if (keyEquals(slab, keyOffset, buffer, offset, length)) {
+                    return entry;
+                }
+            }
+            index = (index + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Returns the value of an entry found by {@link #lookup(int, DirectBuffer, int, int)}.
+     *
+     * @return the value, or null if the entry index is invalid
+     */
+    T value(final int entry) {
+        final Object[] values = this.values;
+        @SuppressWarnings("unchecked")
+        final T value = entry < values.length ? (T)values[entry] : null;
+        return value;
+    }
+
+    /**
+     * Notifies the eviction policy about a hit found by {@link #lookup(int, DirectBuffer, int, int)}.
+     */
+    void hit(final int entry, final int hash) {
+        if (entry < size) {
+            policy.onHit(entry, hash);
+        }
+    }
+
+    /**
+     * Counts a hit found by {@link #lookup(int, DirectBuffer, int, int)};  the counters must be thread safe if this
+     * method is invoked without lock.
+     */
+    void countHit() {
+        counters.hit();
+    }
+
+    boolean lockFreeHits() {
+        return policy.lockFreeHits();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return counters;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+        slab = new UnsafeBuffer(ByteBuffer.allocateDirect(slab.capacity()));
+        slabLimit = 0;
+        slabGarbage = 0;
+        policy.clear();
+        counters.clearBytes();
+    }
+
+    private T cache(final int hash, final DirectBuffer buffer, final int offset, final int length) {
+        policy.onMiss(hash);
+        counters.miss();
+        final int keyOffset = allocate(length);
+        slab.putBytes(keyOffset, buffer, offset, length);
+        final T value = valueFactory.get(slab, keyOffset, length);
+        final int entry;
+        if (size >= maxCapacity) {
+            entry = policy.victim(size);
+            if (!policy.admit(hash, hashes[entry])) {
+                slabGarbage += length;
+                return value;
+            }
+            counters.evict(keyLengths[entry]);
+            removeSlot(entry);
+        } else {
+            if (2 * (size + 1) > slots.length && slots.length < MAX_TABLE_SIZE) {
+                initTable(slots.length << 1);
+            }
+            if (size >= values.length) {
+                growEntries();
+            }
+            entry = size++;
+            keyLengths[entry] = 0;
+        }
+        hashes[entry] = hash;
+        keyOffsets[entry] = keyOffset;
+        keyLengths[entry] = length;
+        values[entry] = value;
+        insertSlot(entry, hash);
+        policy.onInsert(entry, hash);
+        counters.insert(length);
+        return value;
+    }
+
+    private void insertSlot(final int entry, final int hash) {
+        int index = hash & mask;
+        while (slots[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        slots[index] = entry;
+        slotHashes[index] = hash;
+    }
+
+    /**
+     * Removes the slot of the given entry and shifts subsequent slots of the probe sequence back into the hole.
+     */
+    private void removeSlot(final int entry) {
+        int hole = hashes[entry] & mask;
+        while (slots[hole] != entry) {
+            hole = (hole + 1) & mask;
+        }
+        int i = (hole + 1) & mask;
+        while (slots[i] != EMPTY) {
+            final int home = slotHashes[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = slots[i];
+                slotHashes[hole] = slotHashes[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[hole] = EMPTY;
+        slabGarbage += keyLengths[entry];
+        keyLengths[entry] = 0;
+    }
+
+    private static int tableSize(final int capacity) {
+        return Math.max(MIN_TABLE_SIZE, BitUtil.findNextPositivePowerOfTwo(Math.min(2 * capacity, MAX_TABLE_SIZE)));
+    }
+
+    private void initTable(final int tableSize) {
+        final int[] slots = new int[tableSize];
+        final int[] slotHashes = new int[tableSize];
+        Arrays.fill(slots, EMPTY);
+        this.slots = slots;
+        this.slotHashes = slotHashes;
+        this.mask = tableSize - 1;
+        for (int entry = 0; entry < size; entry++) {
+            insertSlot(entry, hashes[entry]);
+        }
+    }
+
+    private void growEntries() {
+        final int capacity = (int)Math.min(maxCapacity, Math.max(MIN_ENTRY_CAPACITY, 2L * values.length));
+        hashes = Arrays.copyOf(hashes, capacity);
+        keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+        keyLengths = Arrays.copyOf(keyLengths, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Allocates slab space for a key, growing and compacting the slab if necessary.
+     *
+     * @return the offset of the allocated space in the slab
+     */
+    private int allocate(final int length) {
+        if (slabLimit + length > slab.capacity()) {
+            final long required = 2L * (slabLimit - slabGarbage + length);
+            long capacity = slab.capacity();
+            while (capacity < required) {
+                capacity <<= 1;
+            }
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("slab capacity exceeded: " + capacity);
+            }
+            compact((int)capacity);
+        }
+        final int keyOffset = slabLimit;
+        slabLimit += length;
+        return keyOffset;
+    }
+
+    private void compact(final int capacity) {
+        final UnsafeBuffer newSlab = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        final int[] newKeyOffsets = new int[keyOffsets.length];
+        int limit = 0;
+        for (int entry = 0; entry < size; entry++) {
+            newSlab.putBytes(limit, slab, keyOffsets[entry], keyLengths[entry]);
+            newKeyOffsets[entry] = limit;
+            limit += keyLengths[entry];
+        }
+        keyOffsets = newKeyOffsets;
+        slab = newSlab;
+        slabLimit = limit;
+        slabGarbage = 0;
+    }
+
+    private static boolean keyEquals(final DirectBuffer slab, final int keyOffset,
+                                     final DirectBuffer buffer, final int offset, final int length) {
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if (slab.getLong(keyOffset + i, LITTLE_ENDIAN) != buffer.getLong(offset + i, LITTLE_ENDIAN)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (slab.getByte(keyOffset + i) != buffer.getByte(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int hash(final DirectBuffer buffer, final int offset, final int length) {
+        long hash = length * PRIME;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            hash = (hash ^ buffer.getLong(offset + i, LITTLE_ENDIAN)) * PRIME;
+            hash ^= hash >>> 32;
+        }
+        if (i < length) {
+            long word = 0;
+            for (int shift = 0; i < length; i++, shift += Byte.SIZE) {
+                word |= (buffer.getByte(offset + i) & 0xffL) << shift;
+            }
+            hash = (hash ^ word) * PRIME;
+        }
+        hash ^= hash >>> 29;
+        hash *= PRIME;
+        return (int)(hash ^ (hash >>> 32));
+    }
+}
@@ -53,13 +53,28 @@ public class StringCache implements ValueCache<String> {
     public StringCache(final int initialCapacity,
                        final int maxCapacity,
                        final ValueDecoder<? extends String> valueFactory) {
-        this(new DefaultValueCache<>(initialCapacity, maxCapacity, valueFactory));
+        this(new HashValueCache<>(initialCapacity, maxCapacity, valueFactory));
     }
 
     public StringCache(final ValueCache<? extends String> valueCache) {
         this.cache = requireNonNull(valueCache);
     }
 
+    /**
+     * Returns a thread safe string cache that can be shared by multiple decoder threads.
+     *
+     * @param initialCapacity   the initial capacity of the cache
+     * @param maxCapacity       the max capacity of the cache
+     * @param valueFactory      the factory for new strings, for instance a {@link StringFactory} constant
+     * @return a new concurrent string cache
+     * @see ConcurrentValueCache
+     */
+    public static StringCache concurrent(final int initialCapacity,
+                                         final int maxCapacity,
+                                         final ValueDecoder<? extends String> valueFactory) {
+        return new StringCache(new ConcurrentValueCache<>(initialCapacity, maxCapacity, valueFactory));
+    }
+
     @Override
     public String get(final DirectBuffer buffer, final int offset, final int length) {
         return cache.get(buffer, offset, length);
@@ -70,6 +85,11 @@ public class StringCache implements ValueCache<String> {
         return cache.size();
     }
 
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
     @Override
     public void clear() {
         cache.clear();
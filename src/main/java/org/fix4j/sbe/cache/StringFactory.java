@@ -24,9 +24,9 @@
 package org.fix4j.sbe.cache;
 
 import org.agrona.DirectBuffer;
+import org.fix4j.sbe.core.Strings;
 import org.fix4j.sbe.core.ValueDecoder;
 
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -57,32 +57,19 @@ public enum StringFactory implements ValueDecoder<String> {
         return decoder;
     }
 
+    /**
+     * Returns a string decoder for the given charset.  The decoder copies ASCII and Latin-1 data only once into the
+     * string and does not allocate temporary arrays for off-heap buffers, see {@link Strings}.
+     *
+     * @param charset the charset of the string data
+     * @return a string decoder for the charset
+     */
     public static ValueDecoder<String> stringDecoder(final Charset charset) {
         requireNonNull(charset);
-        return (buffer, offset, length) -> {
-            byte[] bytes = buffer.byteArray();
-            if (bytes != null) {
-                return new String(bytes, offset, length, charset);
-            }
-            final ByteBuffer bbuf = buffer.byteBuffer();
-            if (bbuf != null && bbuf.hasArray()) {
-                bytes = bbuf.array();
-                return new String(bytes, offset + bbuf.arrayOffset(), length, charset);
-            }
-            bytes = new byte[length];
-            buffer.getBytes(offset, bytes, 0, length);
-            return new String(bytes, charset);
-        };
-    };
+        return (buffer, offset, length) -> Strings.decode(buffer, offset, length, charset);
+    }
 
     private static ValueDecoder<String> stringDecoder() {
-        return (buffer, offset, length) -> {
-            final int charLen = length / Character.BYTES;
-            final char[] chars = new char[charLen];
-            for (int i = 0; i < charLen; i++) {
-                chars[i] = buffer.getChar(offset + i * Character.BYTES);
-            }
-            return new String(chars);
-        };
+        return Strings::chars;
     }
 }
@@ -29,6 +29,13 @@ public interface ValueCache<T> extends ValueDecoder<T> {
 
     int size();
 
+    /**
+     * Returns the live statistics of this cache;  reading statistics does not allocate.
+     *
+     * @return the cache statistics
+     */
+    CacheStats stats();
+
     void clear();
 
 }
@@ -0,0 +1,1002 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.bytes.CharReader;
+import org.fix4j.sbe.bytes.CharWriter;
+import org.fix4j.sbe.meta.MetaData;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes and decodes characters to and from buffers for a given charset.  Specialised codecs exist for ASCII,
+ * ISO-8859-1, UTF-8 and UTF-16 which work directly on the buffer without intermediate arrays or strings;  all other
+ * charsets are handled through the {@link Charset} which allocates.  Unpaired surrogates and malformed input are
+ * replaced the same way as by {@link String#getBytes(Charset)} and {@link String#String(byte[], Charset)}, for
+ * instance single byte codecs encode one byte per code point and replace unmappable code points with {@code '?'}.
+ * <p>
+ * String flyweights resolve their codec once when they are constructed, see {@link #forCharEncoding(String)}.
+ */
+public abstract class CharCodec {
+
+    public static final CharCodec ASCII = new SingleByte(StandardCharsets.US_ASCII, 0x7f);
+    public static final CharCodec ISO_8859_1 = new SingleByte(StandardCharsets.ISO_8859_1, 0xff);
+    public static final CharCodec UTF_8 = new Utf8();
+    public static final CharCodec UTF_16 = new Utf16(StandardCharsets.UTF_16, ByteOrder.BIG_ENDIAN, true);
+    public static final CharCodec UTF_16BE = new Utf16(StandardCharsets.UTF_16BE, ByteOrder.BIG_ENDIAN, false);
+    public static final CharCodec UTF_16LE = new Utf16(StandardCharsets.UTF_16LE, ByteOrder.LITTLE_ENDIAN, false);
+
+    private static final char REPLACEMENT_BYTE = '?';
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    private final Charset charset;
+
+    private CharCodec(final Charset charset) {
+        this.charset = requireNonNull(charset);
+    }
+
+    public static CharCodec forMetaData(final MetaData.CharEncoded metaData) {
+        return forCharEncoding(metaData.characterEncoding());
+    }
+
+    public static CharCodec forCharEncoding(final String characterEncoding) {
+        return forCharset(Charset.forName(characterEncoding));
+    }
+
+    public static CharCodec forCharset(final Charset charset) {
+        if (StandardCharsets.US_ASCII.equals(charset)) return ASCII;
+        if (StandardCharsets.ISO_8859_1.equals(charset)) return ISO_8859_1;
+        if (StandardCharsets.UTF_8.equals(charset)) return UTF_8;
+        if (StandardCharsets.UTF_16.equals(charset)) return UTF_16;
+        if (StandardCharsets.UTF_16BE.equals(charset)) return UTF_16BE;
+        if (StandardCharsets.UTF_16LE.equals(charset)) return UTF_16LE;
+        return new Generic(charset);
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    /**
+     * @return true if every code point is encoded as one byte and every byte decodes to one char
+     */
+    public boolean isSingleByte() {
+        return false;
+    }
+
+    /**
+     * @param s the characters to encode
+     * @return the number of bytes required to encode the given characters
+     */
+    abstract public int byteLength(CharSequence s);
+    abstract public <S> int byteLength(S src, int srcOffset, CharReader<? super S> reader, int length);
+
+    /**
+     * Encodes the given characters;  the caller must ensure that the target has capacity for
+     * {@link #byteLength(CharSequence)} bytes.
+     *
+     * @param s         the characters to encode
+     * @param dst       the target buffer
+     * @param dstOffset the offset in dst
+     * @return the number of bytes written
+     */
+    abstract public int encode(CharSequence s, MutableDirectBuffer dst, int dstOffset);
+    abstract public <S> int encode(S src, int srcOffset, CharReader<? super S> reader, int length,
+                                   MutableDirectBuffer dst, int dstOffset);
+
+    abstract public String decode(DirectBuffer src, int srcOffset, int length);
+
+    /**
+     * @param src       the source buffer
+     * @param srcOffset the offset in src
+     * @param length    the number of encoded bytes
+     * @return the number of chars of the decoded string
+     */
+    abstract public int charLength(DirectBuffer src, int srcOffset, int length);
+
+    /**
+     * Decodes at most maxChars characters into dst.
+     *
+     * @return the number of chars written
+     */
+    abstract public <D> int decode(DirectBuffer src, int srcOffset, int length,
+                                   D dst, int dstOffset, CharWriter<? super D> writer, int maxChars);
+    abstract public int appendTo(DirectBuffer src, int srcOffset, int length, StringBuilder dst);
+    abstract public int appendTo(DirectBuffer src, int srcOffset, int length, Appendable dst) throws IOException;
+
+    /**
+     * Compares two encoded strings the same way as {@link String#compareTo(String)} compares the decoded strings,
+     * without decoding them into strings.
+     *
+     * @return the difference of the first mismatching chars, or the difference of the char lengths if one string is
+     *         a prefix of the other
+     */
+    abstract public int compare(DirectBuffer src1, int srcOffset1, int length1,
+                                DirectBuffer src2, int srcOffset2, int length2);
+
+    @Override
+    public String toString() {
+        return charset.name();
+    }
+
+    private static boolean isSurrogatePair(final char ch, final int index, final int length, final CharSequence s) {
+        return Character.isHighSurrogate(ch) && index + 1 < length && Character.isLowSurrogate(s.charAt(index + 1));
+    }
+
+    private static <S> boolean isSurrogatePair(final char ch, final int index, final int length,
+                                               final S src, final int srcOffset, final CharReader<? super S> reader) {
+        return Character.isHighSurrogate(ch) && index + 1 < length &&
+                Character.isLowSurrogate(reader.read(src, srcOffset + index + 1));
+    }
+
+    /**
+     * Compares two different code points by their UTF-16 chars;  surrogates are never passed as code points.
+     */
+    private static int compareUtf16(final int cp1, final int cp2) {
+        final char ch1 = Character.isBmpCodePoint(cp1) ? (char)cp1 : Character.highSurrogate(cp1);
+        final char ch2 = Character.isBmpCodePoint(cp2) ? (char)cp2 : Character.highSurrogate(cp2);
+        return ch1 != ch2 ? ch1 - ch2 : Character.lowSurrogate(cp1) - Character.lowSurrogate(cp2);
+    }
+
+    private static final class SingleByte extends CharCodec {
+        private final int maxChar;
+
+        SingleByte(final Charset charset, final int maxChar) {
+            super(charset);
+            this.maxChar = maxChar;
+        }
+
+        @Override
+        public boolean isSingleByte() {
+            return true;
+        }
+
+        private byte encode(final char ch) {
+            return (byte)(ch <= maxChar ? ch : REPLACEMENT_BYTE);
+        }
+
+        /**
+         * Surrogate pairs are encoded as a single replacement byte, hence one byte per code point.
+         */
+        @Override
+        public int byteLength(final CharSequence s) {
+            final int length = s.length();
+            int bytes = length;
+            for (int i = 0; i < length; i++) {
+                if (isSurrogatePair(s.charAt(i), i, length, s)) {
+                    bytes--;
+                    i++;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public <S> int byteLength(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
+            int bytes = length;
+            for (int i = 0; i < length; i++) {
+                if (isSurrogatePair(reader.read(src, srcOffset + i), i, length, src, srcOffset, reader)) {
+                    bytes--;
+                    i++;
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * Encodes 8 chars at a time while none of them is unmappable, and char by char for the next 8 chars otherwise.
+         */
+        @Override
+        public int encode(final CharSequence s, final MutableDirectBuffer dst, final int dstOffset) {
+            final int length = s.length();
+            int pos = dstOffset;
+            int i = 0;
+            while (i < length) {
+                if (i + Long.BYTES <= length) {
+                    long word = 0;
+                    int chars = 0;
+                    for (int j = 0; j < Long.BYTES; j++) {
+                        final char ch = s.charAt(i + j);
+                        chars |= ch;
+                        word |= (long)(ch & 0xff) << (j << 3);
+                    }
+                    if (chars <= maxChar) {
+                        dst.putLong(pos, word, LITTLE_ENDIAN);
+                        pos += Long.BYTES;
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int end = Math.min(i + Long.BYTES, length);
+                for (; i < end; i++) {
+                    final char ch = s.charAt(i);
+                    dst.putByte(pos++, encode(ch));
+                    if (isSurrogatePair(ch, i, length, s)) i++;
+                }
+            }
+            return pos - dstOffset;
+        }
+
+        @Override
+        public <S> int encode(final S src, final int srcOffset, final CharReader<? super S> reader, final int length,
+                              final MutableDirectBuffer dst, final int dstOffset) {
+            int pos = dstOffset;
+            int i = 0;
+            while (i < length) {
+                if (i + Long.BYTES <= length) {
+                    long word = 0;
+                    int chars = 0;
+                    for (int j = 0; j < Long.BYTES; j++) {
+                        final char ch = reader.read(src, srcOffset + i + j);
+                        chars |= ch;
+                        word |= (long)(ch & 0xff) << (j << 3);
+                    }
+                    if (chars <= maxChar) {
+                        dst.putLong(pos, word, LITTLE_ENDIAN);
+                        pos += Long.BYTES;
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int end = Math.min(i + Long.BYTES, length);
+                for (; i < end; i++) {
+                    final char ch = reader.read(src, srcOffset + i);
+                    dst.putByte(pos++, encode(ch));
+                    if (isSurrogatePair(ch, i, length, src, srcOffset, reader)) i++;
+                }
+            }
+            return pos - dstOffset;
+        }
+
+        /**
+         * Decodes ASCII the same way as ISO-8859-1 which is identical for valid ASCII but allows the JDK to use its
+         * compact latin-1 strings without further checks.
+         */
+        @Override
+        public String decode(final DirectBuffer src, final int srcOffset, final int length) {
+            return Strings.latin1(src, srcOffset, length);
+        }
+
+        @Override
+        public int charLength(final DirectBuffer src, final int srcOffset, final int length) {
+            return length;
+        }
+
+        @Override
+        public <D> int decode(final DirectBuffer src, final int srcOffset, final int length,
+                              final D dst, final int dstOffset, final CharWriter<? super D> writer, final int maxChars) {
+            final int copyLen = Math.min(length, maxChars);
+            final int end = dstOffset + copyLen;
+            int i = 0;
+            for (; i + Long.BYTES <= copyLen; i += Long.BYTES) {
+                final long word = src.getLong(srcOffset + i, LITTLE_ENDIAN);
+                for (int j = 0; j < Long.BYTES; j++) {
+                    writer.write(dst, dstOffset + i + j, end, Swar.charAt(word, j));
+                }
+            }
+            for (; i < copyLen; i++) {
+                writer.write(dst, dstOffset + i, end, (char)(src.getByte(srcOffset + i) & 0xff));
+            }
+            return copyLen;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final StringBuilder dst) {
+            dst.ensureCapacity(dst.length() + length);
+            int i = 0;
+            for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                final long word = src.getLong(srcOffset + i, LITTLE_ENDIAN);
+                for (int j = 0; j < Long.BYTES; j++) {
+                    dst.append(Swar.charAt(word, j));
+                }
+            }
+            for (; i < length; i++) {
+                dst.append((char)(src.getByte(srcOffset + i) & 0xff));
+            }
+            return length;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final Appendable dst) throws IOException {
+            int i = 0;
+            for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                final long word = src.getLong(srcOffset + i, LITTLE_ENDIAN);
+                for (int j = 0; j < Long.BYTES; j++) {
+                    dst.append(Swar.charAt(word, j));
+                }
+            }
+            for (; i < length; i++) {
+                dst.append((char)(src.getByte(srcOffset + i) & 0xff));
+            }
+            return length;
+        }
+
+        @Override
+        public int compare(final DirectBuffer src1, final int srcOffset1, final int length1,
+                           final DirectBuffer src2, final int srcOffset2, final int length2) {
+            return Swar.compare(src1, srcOffset1, length1, src2, srcOffset2, length2, 0xff);
+        }
+    }
+
+    private static final class Utf8 extends CharCodec {
+        Utf8() {
+            super(StandardCharsets.UTF_8);
+        }
+
+        private static int byteLength(final char ch, final boolean surrogatePair) {
+            if (ch < 0x80) return 1;
+            if (ch < 0x800) return 2;
+            if (Character.isSurrogate(ch)) return surrogatePair ? 4 : 1;
+            return 3;
+        }
+
+        @Override
+        public int byteLength(final CharSequence s) {
+            final int length = s.length();
+            int bytes = 0;
+            for (int i = 0; i < length; i++) {
+                final char ch = s.charAt(i);
+                if (ch < 0x80) {
+                    bytes++;
+                } else {
+                    final boolean pair = isSurrogatePair(ch, i, length, s);
+                    bytes += byteLength(ch, pair);
+                    if (pair) i++;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public <S> int byteLength(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
+            int bytes = 0;
+            for (int i = 0; i < length; i++) {
+                final char ch = reader.read(src, srcOffset + i);
+                if (ch < 0x80) {
+                    bytes++;
+                } else {
+                    final boolean pair = isSurrogatePair(ch, i, length, src, srcOffset, reader);
+                    bytes += byteLength(ch, pair);
+                    if (pair) i++;
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * Encodes a single char or surrogate pair
+         * @return the number of bytes written
+         */
+        private static int encode(final char ch, final char low, final MutableDirectBuffer dst, final int dstOffset) {
+            if (ch < 0x80) {
+                dst.putByte(dstOffset, (byte)ch);
+                return 1;
+            }
+            if (ch < 0x800) {
+                dst.putByte(dstOffset, (byte)(0xc0 | (ch >> 6)));
+                dst.putByte(dstOffset + 1, (byte)(0x80 | (ch & 0x3f)));
+                return 2;
+            }
+            if (Character.isSurrogate(ch)) {
+                if (low == 0) {
+                    dst.putByte(dstOffset, (byte)REPLACEMENT_BYTE);
+                    return 1;
+                }
+                final int cp = Character.toCodePoint(ch, low);
+                dst.putByte(dstOffset, (byte)(0xf0 | (cp >> 18)));
+                dst.putByte(dstOffset + 1, (byte)(0x80 | ((cp >> 12) & 0x3f)));
+                dst.putByte(dstOffset + 2, (byte)(0x80 | ((cp >> 6) & 0x3f)));
+                dst.putByte(dstOffset + 3, (byte)(0x80 | (cp & 0x3f)));
+                return 4;
+            }
+            dst.putByte(dstOffset, (byte)(0xe0 | (ch >> 12)));
+            dst.putByte(dstOffset + 1, (byte)(0x80 | ((ch >> 6) & 0x3f)));
+            dst.putByte(dstOffset + 2, (byte)(0x80 | (ch & 0x3f)));
+            return 3;
+        }
+
+        /**
+         * Encodes 8 chars at a time while they are all ASCII, and char by char for the next 8 chars otherwise.
+         */
+        @Override
+        public int encode(final CharSequence s, final MutableDirectBuffer dst, final int dstOffset) {
+            final int length = s.length();
+            int pos = dstOffset;
+            int i = 0;
+            while (i < length) {
+                if (i + Long.BYTES <= length) {
+                    long word = 0;
+                    int chars = 0;
+                    for (int j = 0; j < Long.BYTES; j++) {
+                        final char ch = s.charAt(i + j);
+                        chars |= ch;
+                        word |= (long)ch << (j << 3);
+                    }
+                    if (chars < 0x80) {
+                        dst.putLong(pos, word, LITTLE_ENDIAN);
+                        pos += Long.BYTES;
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int end = Math.min(i + Long.BYTES, length);
+                for (; i < end; i++) {
+                    final char ch = s.charAt(i);
+                    if (ch < 0x80) {
+                        dst.putByte(pos++, (byte)ch);
+                    } else {
+                        final boolean pair = isSurrogatePair(ch, i, length, s);
+                        pos += encode(ch, pair ? s.charAt(++i) : 0, dst, pos);
+                    }
+                }
+            }
+            return pos - dstOffset;
+        }
+
+        @Override
+        public <S> int encode(final S src, final int srcOffset, final CharReader<? super S> reader, final int length,
+                              final MutableDirectBuffer dst, final int dstOffset) {
+            int pos = dstOffset;
+            int i = 0;
+            while (i < length) {
+                if (i + Long.BYTES <= length) {
+                    long word = 0;
+                    int chars = 0;
+                    for (int j = 0; j < Long.BYTES; j++) {
+                        final char ch = reader.read(src, srcOffset + i + j);
+                        chars |= ch;
+                        word |= (long)ch << (j << 3);
+                    }
+                    if (chars < 0x80) {
+                        dst.putLong(pos, word, LITTLE_ENDIAN);
+                        pos += Long.BYTES;
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int end = Math.min(i + Long.BYTES, length);
+                for (; i < end; i++) {
+                    final char ch = reader.read(src, srcOffset + i);
+                    if (ch < 0x80) {
+                        dst.putByte(pos++, (byte)ch);
+                    } else {
+                        final char low = Character.isHighSurrogate(ch) && i + 1 < length ?
+                                reader.read(src, srcOffset + i + 1) : 0;
+                        final boolean pair = Character.isLowSurrogate(low);
+                        pos += encode(ch, pair ? low : 0, dst, pos);
+                        if (pair) i++;
+                    }
+                }
+            }
+            return pos - dstOffset;
+        }
+
+        @Override
+        public String decode(final DirectBuffer src, final int srcOffset, final int length) {
+            return Strings.decode(src, srcOffset, length, StandardCharsets.UTF_8);
+        }
+
+        private static boolean isContinuation(final int b) {
+            return (b & 0xc0) == 0x80;
+        }
+
+        private static int replacement(final int bytes) {
+            return (REPLACEMENT_CHAR << 3) | bytes;
+        }
+
+        /**
+         * Decodes the code point at the given position.  Overlong forms, code points beyond U+10FFFF and truncated
+         * sequences are replaced with U+FFFD, one per maximal invalid subpart as {@link String#String(byte[], Charset)}
+         * does;  encoded surrogates are replaced with a single U+FFFD.
+         *
+         * @return the code point shifted left by 3 bits, or-ed with the number of bytes consumed
+         */
+        private static int decodeCodePoint(final DirectBuffer src, final int index, final int end) {
+            final int b0 = src.getByte(index) & 0xff;
+            if (b0 < 0x80) {
+                return (b0 << 3) | 1;
+            }
+            if (b0 < 0xc2 || b0 > 0xf4) {
+                return replacement(1);
+            }
+            if (index + 1 >= end) {
+                return replacement(1);
+            }
+            final int b1 = src.getByte(index + 1) & 0xff;
+            if (b0 < 0xe0) {
+                return isContinuation(b1) ? ((((b0 & 0x1f) << 6) | (b1 & 0x3f)) << 3) | 2 : replacement(1);
+            }
+            if (b0 < 0xf0) {
+                if (!isContinuation(b1) || (b0 == 0xe0 && b1 < 0xa0)) {
+                    return replacement(1);
+                }
+                if (index + 2 >= end) {
+                    return replacement(2);
+                }
+                final int b2 = src.getByte(index + 2) & 0xff;
+                if (!isContinuation(b2)) {
+                    return replacement(2);
+                }
+                final int cp = ((b0 & 0x0f) << 12) | ((b1 & 0x3f) << 6) | (b2 & 0x3f);
+                return Character.isSurrogate((char)cp) ? replacement(3) : (cp << 3) | 3;
+            }
+            if (!isContinuation(b1) || (b0 == 0xf0 && b1 < 0x90) || (b0 == 0xf4 && b1 > 0x8f)) {
+                return replacement(1);
+            }
+            if (index + 2 >= end) {
+                return replacement(2);
+            }
+            final int b2 = src.getByte(index + 2) & 0xff;
+            if (!isContinuation(b2)) {
+                return replacement(2);
+            }
+            if (index + 3 >= end) {
+                return replacement(3);
+            }
+            final int b3 = src.getByte(index + 3) & 0xff;
+            if (!isContinuation(b3)) {
+                return replacement(3);
+            }
+            final int cp = ((b0 & 0x07) << 18) | ((b1 & 0x3f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x3f);
+            return (cp << 3) | 4;
+        }
+
+        @Override
+        public int charLength(final DirectBuffer src, final int srcOffset, final int length) {
+            final int end = srcOffset + length;
+            int chars = 0;
+            for (int i = srcOffset; i < end; ) {
+                if (i + Long.BYTES <= end && Swar.isAscii(src.getLong(i, LITTLE_ENDIAN))) {
+                    chars += Long.BYTES;
+                    i += Long.BYTES;
+                    continue;
+                }
+                final int decoded = decodeCodePoint(src, i, end);
+                chars += Character.charCount(decoded >>> 3);
+                i += decoded & 0x7;
+            }
+            return chars;
+        }
+
+        @Override
+        public <D> int decode(final DirectBuffer src, final int srcOffset, final int length,
+                              final D dst, final int dstOffset, final CharWriter<? super D> writer, final int maxChars) {
+            final int end = srcOffset + length;
+            final int charEnd = dstOffset + Math.min(maxChars, charLength(src, srcOffset, length));
+            int pos = dstOffset;
+            for (int i = srcOffset; i < end && pos < charEnd; ) {
+                if (i + Long.BYTES <= end && pos + Long.BYTES <= charEnd) {
+                    final long word = src.getLong(i, LITTLE_ENDIAN);
+                    if (Swar.isAscii(word)) {
+                        for (int j = 0; j < Long.BYTES; j++) {
+                            writer.write(dst, pos++, charEnd, Swar.charAt(word, j));
+                        }
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int decoded = decodeCodePoint(src, i, end);
+                final int cp = decoded >>> 3;
+                if (Character.isBmpCodePoint(cp)) {
+                    writer.write(dst, pos++, charEnd, (char)cp);
+                } else {
+                    if (pos + 2 > charEnd) {
+                        break;
+                    }
+                    writer.write(dst, pos++, charEnd, Character.highSurrogate(cp));
+                    writer.write(dst, pos++, charEnd, Character.lowSurrogate(cp));
+                }
+                i += decoded & 0x7;
+            }
+            return pos - dstOffset;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final StringBuilder dst) {
+            final int start = dst.length();
+            final int end = srcOffset + length;
+            for (int i = srcOffset; i < end; ) {
+                if (i + Long.BYTES <= end) {
+                    final long word = src.getLong(i, LITTLE_ENDIAN);
+                    if (Swar.isAscii(word)) {
+                        for (int j = 0; j < Long.BYTES; j++) {
+                            dst.append(Swar.charAt(word, j));
+                        }
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int decoded = decodeCodePoint(src, i, end);
+                dst.appendCodePoint(decoded >>> 3);
+                i += decoded & 0x7;
+            }
+            return dst.length() - start;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final Appendable dst) throws IOException {
+            final int end = srcOffset + length;
+            int chars = 0;
+            for (int i = srcOffset; i < end; ) {
+                if (i + Long.BYTES <= end) {
+                    final long word = src.getLong(i, LITTLE_ENDIAN);
+                    if (Swar.isAscii(word)) {
+                        for (int j = 0; j < Long.BYTES; j++) {
+                            dst.append(Swar.charAt(word, j));
+                        }
+                        chars += Long.BYTES;
+                        i += Long.BYTES;
+                        continue;
+                    }
+                }
+                final int decoded = decodeCodePoint(src, i, end);
+                final int cp = decoded >>> 3;
+                if (Character.isBmpCodePoint(cp)) {
+                    dst.append((char)cp);
+                    chars++;
+                } else {
+                    dst.append(Character.highSurrogate(cp)).append(Character.lowSurrogate(cp));
+                    chars += 2;
+                }
+                i += decoded & 0x7;
+            }
+            return chars;
+        }
+
+        @Override
+        public int compare(final DirectBuffer src1, final int srcOffset1, final int length1,
+                           final DirectBuffer src2, final int srcOffset2, final int length2) {
+            final int end1 = srcOffset1 + length1;
+            final int end2 = srcOffset2 + length2;
+            int i1 = srcOffset1;
+            int i2 = srcOffset2;
+            while (i1 + Long.BYTES <= end1 && i2 + Long.BYTES <= end2) {
+                final long word = src1.getLong(i1, LITTLE_ENDIAN);
+                if (!Swar.isAscii(word) || word != src2.getLong(i2, LITTLE_ENDIAN)) {
+                    break;
+                }
+                i1 += Long.BYTES;
+                i2 += Long.BYTES;
+            }
+            while (i1 < end1 && i2 < end2) {
+                final int decoded1 = decodeCodePoint(src1, i1, end1);
+                final int decoded2 = decodeCodePoint(src2, i2, end2);
+                final int cp1 = decoded1 >>> 3;
+                final int cp2 = decoded2 >>> 3;
+                if (cp1 != cp2) {
+                    return compareUtf16(cp1, cp2);
+                }
+                i1 += decoded1 & 0x7;
+                i2 += decoded2 & 0x7;
+            }
+            return charLength(src1, i1, end1 - i1) - charLength(src2, i2, end2 - i2);
+        }
+    }
+
+    /**
+     * UTF-16 codec writing chars in the given byte order and without byte order mark.  If bomAware is true, a byte
+     * order mark is honoured when decoding.
+     */
+    private static final class Utf16 extends CharCodec {
+        private static final char BOM = '\uFEFF';
+        private static final char SWAPPED_BOM = '\uFFFE';
+
+        private final ByteOrder byteOrder;
+        private final boolean bomAware;
+
+        Utf16(final Charset charset, final ByteOrder byteOrder, final boolean bomAware) {
+            super(charset);
+            this.byteOrder = requireNonNull(byteOrder);
+            this.bomAware = bomAware;
+        }
+
+        @Override
+        public int byteLength(final CharSequence s) {
+            return s.length() * Character.BYTES;
+        }
+
+        @Override
+        public <S> int byteLength(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
+            return length * Character.BYTES;
+        }
+
+        /**
+         * Encodes chars as they are except for unpaired surrogates which are replaced with U+FFFD.
+         */
+        @Override
+        public int encode(final CharSequence s, final MutableDirectBuffer dst, final int dstOffset) {
+            final int length = s.length();
+            for (int i = 0; i < length; i++) {
+                final char ch = s.charAt(i);
+                if (!Character.isSurrogate(ch)) {
+                    dst.putChar(dstOffset + i * Character.BYTES, ch, byteOrder);
+                } else if (isSurrogatePair(ch, i, length, s)) {
+                    dst.putChar(dstOffset + i * Character.BYTES, ch, byteOrder);
+                    dst.putChar(dstOffset + ++i * Character.BYTES, s.charAt(i), byteOrder);
+                } else {
+                    dst.putChar(dstOffset + i * Character.BYTES, REPLACEMENT_CHAR, byteOrder);
+                }
+            }
+            return length * Character.BYTES;
+        }
+
+        @Override
+        public <S> int encode(final S src, final int srcOffset, final CharReader<? super S> reader, final int length,
+                              final MutableDirectBuffer dst, final int dstOffset) {
+            for (int i = 0; i < length; i++) {
+                final char ch = reader.read(src, srcOffset + i);
+                if (!Character.isSurrogate(ch)) {
+                    dst.putChar(dstOffset + i * Character.BYTES, ch, byteOrder);
+                } else if (isSurrogatePair(ch, i, length, src, srcOffset, reader)) {
+                    dst.putChar(dstOffset + i * Character.BYTES, ch, byteOrder);
+                    dst.putChar(dstOffset + ++i * Character.BYTES, reader.read(src, srcOffset + i), byteOrder);
+                } else {
+                    dst.putChar(dstOffset + i * Character.BYTES, REPLACEMENT_CHAR, byteOrder);
+                }
+            }
+            return length * Character.BYTES;
+        }
+
+        @Override
+        public String decode(final DirectBuffer src, final int srcOffset, final int length) {
+            return Strings.decode(src, srcOffset, length, charset());
+        }
+
+        private int bomLength(final DirectBuffer src, final int srcOffset, final int length) {
+            if (bomAware && length >= Character.BYTES) {
+                final char ch = src.getChar(srcOffset, byteOrder);
+                return ch == BOM || ch == SWAPPED_BOM ? Character.BYTES : 0;
+            }
+            return 0;
+        }
+
+        private ByteOrder byteOrder(final DirectBuffer src, final int srcOffset, final int bomLength) {
+            if (bomLength > 0 && src.getChar(srcOffset, byteOrder) == SWAPPED_BOM) {
+                return byteOrder == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            }
+            return byteOrder;
+        }
+
+        /**
+         * Decodes the char or surrogate pair at the given position.  Like {@link String#String(byte[], Charset)},
+         * a high surrogate followed by a char other than a low surrogate is replaced together with that char by a
+         * single U+FFFD;  lone low surrogates, truncated high surrogates and a trailing odd byte are replaced with
+         * U+FFFD as well.
+         *
+         * @return the code point shifted left by 3 bits, or-ed with the number of bytes consumed
+         */
+        private static int decodeCodePoint(final DirectBuffer src, final int index, final int end,
+                                           final ByteOrder order) {
+            if (index + Character.BYTES > end) {
+                return (REPLACEMENT_CHAR << 3) | (end - index);
+            }
+            final char ch = src.getChar(index, order);
+            if (!Character.isSurrogate(ch)) {
+                return (ch << 3) | Character.BYTES;
+            }
+            if (Character.isLowSurrogate(ch)) {
+                return (REPLACEMENT_CHAR << 3) | Character.BYTES;
+            }
+            if (index + 2 * Character.BYTES > end) {
+                return (REPLACEMENT_CHAR << 3) | (end - index);
+            }
+            final char low = src.getChar(index + Character.BYTES, order);
+            return ((Character.isLowSurrogate(low) ? Character.toCodePoint(ch, low) : REPLACEMENT_CHAR) << 3) |
+                    (2 * Character.BYTES);
+        }
+
+        private static int charLength(final DirectBuffer src, final int start, final int end, final ByteOrder order) {
+            int chars = 0;
+            for (int i = start; i < end; ) {
+                final int decoded = decodeCodePoint(src, i, end, order);
+                chars += Character.charCount(decoded >>> 3);
+                i += decoded & 0x7;
+            }
+            return chars;
+        }
+
+        @Override
+        public int charLength(final DirectBuffer src, final int srcOffset, final int length) {
+            final int bomLength = bomLength(src, srcOffset, length);
+            final ByteOrder order = byteOrder(src, srcOffset, bomLength);
+            return charLength(src, srcOffset + bomLength, srcOffset + length, order);
+        }
+
+        @Override
+        public <D> int decode(final DirectBuffer src, final int srcOffset, final int length,
+                              final D dst, final int dstOffset, final CharWriter<? super D> writer, final int maxChars) {
+            final int bomLength = bomLength(src, srcOffset, length);
+            final ByteOrder order = byteOrder(src, srcOffset, bomLength);
+            final int end = srcOffset + length;
+            final int charEnd = dstOffset + Math.min(maxChars, charLength(src, srcOffset + bomLength, end, order));
+            int pos = dstOffset;
+            for (int i = srcOffset + bomLength; i < end && pos < charEnd; ) {
+                final int decoded = decodeCodePoint(src, i, end, order);
+                final int cp = decoded >>> 3;
+                if (Character.isBmpCodePoint(cp)) {
+                    writer.write(dst, pos++, charEnd, (char)cp);
+                } else {
+                    if (pos + 2 > charEnd) {
+                        break;
+                    }
+                    writer.write(dst, pos++, charEnd, Character.highSurrogate(cp));
+                    writer.write(dst, pos++, charEnd, Character.lowSurrogate(cp));
+                }
+                i += decoded & 0x7;
+            }
+            return pos - dstOffset;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final StringBuilder dst) {
+            final int bomLength = bomLength(src, srcOffset, length);
+            final ByteOrder order = byteOrder(src, srcOffset, bomLength);
+            final int start = dst.length();
+            final int end = srcOffset + length;
+            dst.ensureCapacity(start + (length - bomLength + 1) / Character.BYTES);
+            for (int i = srcOffset + bomLength; i < end; ) {
+                final int decoded = decodeCodePoint(src, i, end, order);
+                dst.appendCodePoint(decoded >>> 3);
+                i += decoded & 0x7;
+            }
+            return dst.length() - start;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final Appendable dst) throws IOException {
+            final int bomLength = bomLength(src, srcOffset, length);
+            final ByteOrder order = byteOrder(src, srcOffset, bomLength);
+            final int end = srcOffset + length;
+            int chars = 0;
+            for (int i = srcOffset + bomLength; i < end; ) {
+                final int decoded = decodeCodePoint(src, i, end, order);
+                final int cp = decoded >>> 3;
+                if (Character.isBmpCodePoint(cp)) {
+                    dst.append((char)cp);
+                    chars++;
+                } else {
+                    dst.append(Character.highSurrogate(cp)).append(Character.lowSurrogate(cp));
+                    chars += 2;
+                }
+                i += decoded & 0x7;
+            }
+            return chars;
+        }
+
+        @Override
+        public int compare(final DirectBuffer src1, final int srcOffset1, final int length1,
+                           final DirectBuffer src2, final int srcOffset2, final int length2) {
+            final int bomLength1 = bomLength(src1, srcOffset1, length1);
+            final int bomLength2 = bomLength(src2, srcOffset2, length2);
+            final ByteOrder order1 = byteOrder(src1, srcOffset1, bomLength1);
+            final ByteOrder order2 = byteOrder(src2, srcOffset2, bomLength2);
+            final int end1 = srcOffset1 + length1;
+            final int end2 = srcOffset2 + length2;
+            int i1 = srcOffset1 + bomLength1;
+            int i2 = srcOffset2 + bomLength2;
+            while (i1 < end1 && i2 < end2) {
+                final int decoded1 = decodeCodePoint(src1, i1, end1, order1);
+                final int decoded2 = decodeCodePoint(src2, i2, end2, order2);
+                final int cp1 = decoded1 >>> 3;
+                final int cp2 = decoded2 >>> 3;
+                if (cp1 != cp2) {
+                    return compareUtf16(cp1, cp2);
+                }
+                i1 += decoded1 & 0x7;
+                i2 += decoded2 & 0x7;
+            }
+            return charLength(src1, i1, end1, order1) - charLength(src2, i2, end2, order2);
+        }
+    }
+
+    /**
+     * Fallback for charsets without specialised codec, converts through strings and byte arrays.
+     */
+    private static final class Generic extends CharCodec {
+        Generic(final Charset charset) {
+            super(charset);
+        }
+
+        private static <S> String toString(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
+            final char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = reader.read(src, srcOffset + i);
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public int byteLength(final CharSequence s) {
+            return s.toString().getBytes(charset()).length;
+        }
+
+        @Override
+        public <S> int byteLength(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
+            return byteLength(toString(src, srcOffset, reader, length));
+        }
+
+        @Override
+        public int encode(final CharSequence s, final MutableDirectBuffer dst, final int dstOffset) {
+            final byte[] bytes = s.toString().getBytes(charset());
+            dst.putBytes(dstOffset, bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public <S> int encode(final S src, final int srcOffset, final CharReader<? super S> reader, final int length,
+                              final MutableDirectBuffer dst, final int dstOffset) {
+            return encode(toString(src, srcOffset, reader, length), dst, dstOffset);
+        }
+
+        @Override
+        public String decode(final DirectBuffer src, final int srcOffset, final int length) {
+            return Strings.decode(src, srcOffset, length, charset());
+        }
+
+        @Override
+        public int charLength(final DirectBuffer src, final int srcOffset, final int length) {
+            return decode(src, srcOffset, length).length();
+        }
+
+        @Override
+        public <D> int decode(final DirectBuffer src, final int srcOffset, final int length,
+                              final D dst, final int dstOffset, final CharWriter<? super D> writer, final int maxChars) {
+            final String s = decode(src, srcOffset, length);
+            final int copyLen = Math.min(s.length(), maxChars);
+            final int end = dstOffset + copyLen;
+            for (int i = 0; i < copyLen; i++) {
+                writer.write(dst, dstOffset + i, end, s.charAt(i));
+            }
+            return copyLen;
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final StringBuilder dst) {
+            final String s = decode(src, srcOffset, length);
+            dst.append(s);
+            return s.length();
+        }
+
+        @Override
+        public int appendTo(final DirectBuffer src, final int srcOffset, final int length, final Appendable dst) throws IOException {
+            final String s = decode(src, srcOffset, length);
+            dst.append(s);
+            return s.length();
+        }
+
+        @Override
+        public int compare(final DirectBuffer src1, final int srcOffset1, final int length1,
+                           final DirectBuffer src2, final int srcOffset2, final int length2) {
+            return decode(src1, srcOffset1, length1).compareTo(decode(src2, srcOffset2, length2));
+        }
+    }
+}
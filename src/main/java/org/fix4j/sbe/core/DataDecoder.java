@@ -30,14 +30,21 @@ import org.agrona.sbe.MessageDecoderFlyweight;
 import org.fix4j.sbe.meta.MetaData;
 import org.fix4j.sbe.bytes.ByteWriter;
 
+import java.nio.ByteBuffer;
+
 public interface DataDecoder {
     MetaData.VarData metaData();
     int length();
     int get(byte[] dst, int dstOffset, int length);
     int get(MutableDirectBuffer dst, int dstOffset, int length);
+    int get(ByteBuffer dst, int dstOffset, int length);
     <T> T get(ValueDecoder<T> decoder);
+    long getLong(LongValueDecoder decoder);
+    int getInt(IntValueDecoder decoder);
+    double getDouble(DoubleValueDecoder decoder);
     <D> int get(D dst, int dstOffset, ByteWriter<? super D> writer, int length);
 
+    ByteBuffer byteBuffer();
     DirectBuffer wrap(DirectBuffer decoder);
     <D extends DirectView> D wrap(D decoder);
     <D extends CompositeDecoderFlyweight> D wrap(D decoder);
@@ -29,12 +29,18 @@ import org.agrona.sbe.EncoderFlyweight;
 import org.fix4j.sbe.meta.MetaData;
 import org.fix4j.sbe.bytes.ByteReader;
 
+import java.nio.ByteBuffer;
+
 public interface DataEncoder<P> {
     MetaData.VarData metaData();
     P empty();
     P put(byte[] src, int srcOffset, int length);
     P put(DirectBuffer src, int srcOffset, int length);
+    P put(ByteBuffer src, int srcOffset, int length);
     <T> P put(T value, ValueEncoder<? super T> encoder);
+    P putLong(long value, LongValueEncoder encoder);
+    P putInt(int value, IntValueEncoder encoder);
+    P putDouble(double value, DoubleValueEncoder encoder);
     <S> P put(S src, int srcOffset, ByteReader<? super S> reader, int length);
 
     MutableDirectBuffer wrap(MutableDirectBuffer encoder);
@@ -45,4 +51,12 @@ public interface DataEncoder<P> {
     P unwrap(MutableDirectView encoder);
     P unwrap(MutableDirectBuffer encoder);
     P unwrap(EncoderFlyweight encoder);
+
+    /**
+     * Completes data of the given length that was written directly after wrapping a buffer or view.
+     *
+     * @param length the number of bytes written
+     * @return the payload
+     */
+    P unwrap(int length);
 }
@@ -0,0 +1,395 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable fixed point decimal with value {@code mantissa * 10^exponent}, the value type of the SBE decimal composite
+ * with an int64 mantissa and an int8 exponent.
+ * <p>
+ * Arithmetic methods modify and return this decimal and do not allocate;  they throw an {@link ArithmeticException}
+ * if the resulting mantissa overflows or the exponent is out of int8 range.  Decimals are equal if they have the
+ * same value, regardless of their exponent.
+ */
+public final class Decimal64 implements Comparable<Decimal64> {
+
+    public static final int MIN_EXPONENT = Byte.MIN_VALUE;
+    public static final int MAX_EXPONENT = Byte.MAX_VALUE;
+
+    private static final int MAX_POWER = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_POWER + 1];
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+        double doublePower = 1;
+        for (int i = 0; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = doublePower;
+            doublePower *= 10;
+        }
+    }
+
+    private long mantissa;
+    private byte exponent;
+
+    public Decimal64() {
+        //zero
+    }
+
+    public Decimal64(final long mantissa, final int exponent) {
+        set(mantissa, exponent);
+    }
+
+    public long mantissa() {
+        return mantissa;
+    }
+
+    public byte exponent() {
+        return exponent;
+    }
+
+    public Decimal64 set(final long mantissa, final int exponent) {
+        this.exponent = exponent(exponent);
+        this.mantissa = mantissa;
+        return this;
+    }
+
+    public Decimal64 set(final Decimal64 value) {
+        this.mantissa = value.mantissa;
+        this.exponent = value.exponent;
+        return this;
+    }
+
+    /**
+     * Sets this decimal to the given double value rounded half up to the given exponent, see
+     * {@link #mantissa(double, int)}.
+     *
+     * @param value     the value to convert
+     * @param exponent  the exponent of the result, for instance -2 for 2 decimals
+     * @return this decimal
+     */
+    public Decimal64 set(final double value, final int exponent) {
+        return set(mantissa(value, exponent), exponent);
+    }
+
+    public boolean isZero() {
+        return mantissa == 0;
+    }
+
+    public int signum() {
+        return Long.signum(mantissa);
+    }
+
+    public double toDouble() {
+        return toDouble(mantissa, exponent);
+    }
+
+    public Decimal64 negate() {
+        mantissa = Math.negateExact(mantissa);
+        return this;
+    }
+
+    public Decimal64 add(final Decimal64 value) {
+        return add(value.mantissa, value.exponent);
+    }
+
+    /**
+     * Adds the given value;  the result has the smaller of the two exponents.  The sum is computed exactly, it only
+     * overflows if the resulting mantissa does not fit into a long even if the rescaled operand does not.
+     *
+     * @param mantissa  the mantissa of the value to add
+     * @param exponent  the exponent of the value to add
+     * @return this decimal
+     * @throws ArithmeticException if the result overflows or the exponent is out of int8 range
+     */
+    public Decimal64 add(final long mantissa, final int exponent) {
+        final byte exp = exponent(exponent);
+        if (exp < this.exponent) {
+            this.mantissa = scaleUpAndAdd(this.mantissa, this.exponent - exp, mantissa);
+            this.exponent = exp;
+        } else {
+            this.mantissa = scaleUpAndAdd(mantissa, exp - this.exponent, this.mantissa);
+        }
+        return this;
+    }
+
+    public Decimal64 subtract(final Decimal64 value) {
+        return add(Math.negateExact(value.mantissa), value.exponent);
+    }
+
+    public Decimal64 subtract(final long mantissa, final int exponent) {
+        return add(Math.negateExact(mantissa), exponent);
+    }
+
+    public Decimal64 multiply(final long factor) {
+        mantissa = Math.multiplyExact(mantissa, factor);
+        return this;
+    }
+
+    public Decimal64 multiply(final Decimal64 value) {
+        return multiply(value.mantissa, value.exponent);
+    }
+
+    /**
+     * Multiplies by the given value;  the result's exponent is the sum of the two exponents.  Use
+     * {@link #rescale(int)} to round the result to fewer decimals.
+     *
+     * @param mantissa  the mantissa of the factor
+     * @param exponent  the exponent of the factor
+     * @return this decimal
+     * @throws ArithmeticException if the result overflows
+     */
+    public Decimal64 multiply(final long mantissa, final int exponent) {
+        final byte product = exponent(this.exponent + exponent);
+        this.mantissa = Math.multiplyExact(this.mantissa, mantissa);
+        this.exponent = product;
+        return this;
+    }
+
+    /**
+     * Changes the exponent of this decimal, rounding the mantissa half up if the new exponent is larger.
+     *
+     * @param exponent the new exponent
+     * @return this decimal
+     * @throws ArithmeticException if the new exponent is smaller and the mantissa overflows
+     */
+    public Decimal64 rescale(final int exponent) {
+        final byte rescaled = exponent(exponent);
+        if (rescaled < this.exponent) {
+            mantissa = scaleUp(mantissa, this.exponent - rescaled);
+        } else if (rescaled > this.exponent) {
+            mantissa = scaleDown(mantissa, rescaled - this.exponent);
+        }
+        this.exponent = rescaled;
+        return this;
+    }
+
+    /**
+     * Removes trailing zeros from the mantissa, increasing the exponent accordingly.
+     *
+     * @return this decimal
+     */
+    public Decimal64 normalize() {
+        if (mantissa == 0) {
+            exponent = 0;
+            return this;
+        }
+        while (exponent < MAX_EXPONENT && mantissa % 10 == 0) {
+            mantissa /= 10;
+            exponent++;
+        }
+        return this;
+    }
+
+    @Override
+    public int compareTo(final Decimal64 other) {
+        return compare(mantissa, exponent, other.mantissa, other.exponent);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof Decimal64 && compareTo((Decimal64)o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        if (mantissa == 0) {
+            return 0;
+        }
+        long m = mantissa;
+        int e = exponent;
+        while (m % 10 == 0) {
+            m /= 10;
+            e++;
+        }
+        return 31 * Long.hashCode(m) + e;
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(mantissa, -exponent).toPlainString();
+    }
+
+    /**
+     * Compares two decimal values numerically.
+     *
+     * @return a negative value, zero or a positive value if the first value is less than, equal to or greater than
+     *         the second value
+     */
+    public static int compare(final long mantissa1, final int exponent1, final long mantissa2, final int exponent2) {
+        if (exponent1 == exponent2 || mantissa1 == 0 || mantissa2 == 0 || (mantissa1 < 0) != (mantissa2 < 0)) {
+            return exponent1 == exponent2 ? Long.compare(mantissa1, mantissa2) :
+                    Integer.compare(Long.signum(mantissa1), Long.signum(mantissa2));
+        }
+        //same sign and both non-zero: the one that overflows when scaled to the smaller exponent has larger magnitude
+        if (exponent1 > exponent2) {
+            final int diff = exponent1 - exponent2;
+            if (diff > MAX_POWER || mantissa1 > Long.MAX_VALUE / POWERS_OF_TEN[diff] ||
+                    mantissa1 < -Long.MAX_VALUE / POWERS_OF_TEN[diff]) {
+                return Long.signum(mantissa1);
+            }
+            return Long.compare(mantissa1 * POWERS_OF_TEN[diff], mantissa2);
+        }
+        return -compare(mantissa2, exponent2, mantissa1, exponent1);
+    }
+
+    /**
+     * Converts a decimal value to double;  the result is correctly rounded if the mantissa is less than 2^53 in
+     * magnitude and the exponent is within [-22, 22].
+     */
+    public static double toDouble(final long mantissa, final int exponent) {
+        if (exponent == 0) {
+            return mantissa;
+        }
+        if (Math.abs(mantissa) < MAX_EXACT_DOUBLE && Math.abs(exponent) < DOUBLE_POWERS_OF_TEN.length) {
+            return exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent] :
+                    mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+        }
+        return exponent < 0 ? mantissa / Math.pow(10, -exponent) : mantissa * Math.pow(10, exponent);
+    }
+
+    /**
+     * Returns the mantissa of the given double value for the given exponent, rounded half up.  Values are rounded as
+     * in their shortest decimal representation, that is, 17.465 with exponent -2 yields 1747 although the nearest
+     * double is slightly less than 17.465, whereas -0.10149999999999999 with exponent -3 yields -101.  This holds if
+     * the resulting mantissa has at most 15 significant digits;  beyond that, the exact binary value of the double is
+     * rounded.
+     *
+     * @param value     the value to convert
+     * @param exponent  the exponent of the result
+     * @return the mantissa such that {@code mantissa * 10^exponent} is the rounded value
+     * @throws ArithmeticException if value is not finite or the mantissa overflows
+     */
+    public static long mantissa(final double value, final int exponent) {
+        if (!Double.isFinite(value)) {
+            throw new ArithmeticException("Cannot convert " + value + " to decimal");
+        }
+        if (exponent > 0 || exponent < -MAX_POWER) {
+            final double scaled = value * Math.pow(10, -exponent);
+            if (Math.abs(scaled) >= Long.MAX_VALUE) {
+                throw new ArithmeticException("Value out of range for exponent " + exponent + ": " + value);
+            }
+            return Math.round(scaled);
+        }
+        //scale the fraction only, as a product with the full value could round across the half way point
+        final int scale = -exponent;
+        final double abs = Math.abs(value);
+        if (abs >= Long.MAX_VALUE) {
+            throw new ArithmeticException("Value out of range for exponent " + exponent + ": " + value);
+        }
+        final long intPart = (long)abs;
+        final double fractionPart = abs - intPart;
+        final double power = POWERS_OF_TEN[scale];
+        final double scaled = fractionPart * power;
+        //exact: fractionPart * power == scaled + error
+        final double error = Math.fma(fractionPart, power, -scaled);
+        final long floor = (long)scaled;
+        final double fraction = scaled - floor;
+        final long units = Math.addExact(Math.multiplyExact(intPart, POWERS_OF_TEN[scale]), floor);
+        //round up if the exact value is not below the tie, or if the tie is the shortest representation of value
+        final boolean roundUp = fraction - 0.5 >= -error ||
+                (fraction > 0.5 - Math.ulp(abs) * power && isTie(abs, units, scale));
+        final long mantissa = roundUp ? Math.addExact(units, 1) : units;
+        return value < 0 ? -mantissa : mantissa;
+    }
+
+    /**
+     * Returns true if the decimal half way between units and units + 1 is represented by value, that is, if value
+     * is written with a trailing 5 after the last decimal of the given scale in its shortest representation.
+     */
+    private static boolean isTie(final double value, final long units, final int scale) {
+        if (units >= MAX_EXACT_DOUBLE / 10 || scale + 1 >= DOUBLE_POWERS_OF_TEN.length) {
+            return false;
+        }
+        return (units * 10 + 5) / DOUBLE_POWERS_OF_TEN[scale + 1] == value;
+    }
+
+    /**
+     * @return the exponent as byte
+     * @throws ArithmeticException if exponent is out of int8 range
+     */
+    public static byte exponent(final int exponent) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            throw new ArithmeticException("Exponent out of range [" + MIN_EXPONENT + ", " + MAX_EXPONENT + "]: " +
+                    exponent);
+        }
+        return (byte)exponent;
+    }
+
+    private static long scaleUp(final long mantissa, final int diff) {
+        if (mantissa == 0) {
+            return 0;
+        }
+        if (diff > MAX_POWER) {
+            throw new ArithmeticException("Mantissa overflow scaling " + mantissa + " by 10^" + diff);
+        }
+        return Math.multiplyExact(mantissa, POWERS_OF_TEN[diff]);
+    }
+
+    /**
+     * Returns {@code mantissa * 10^diff + addend} computed with 128 bits so that an overflow of the scaled mantissa
+     * alone does not fail if the sum fits into a long.
+     */
+    private static long scaleUpAndAdd(final long mantissa, final int diff, final long addend) {
+        if (mantissa == 0 || diff == 0) {
+            return Math.addExact(mantissa, addend);
+        }
+        if (diff > MAX_POWER) {
+            //|mantissa| * 10^19 only fits together with the addend if |mantissa| is 1
+            if (diff == MAX_POWER + 1 && (mantissa == 1 || mantissa == -1)) {
+                final long part = mantissa * POWERS_OF_TEN[MAX_POWER];
+                return Math.addExact(Math.addExact(9 * part, addend), part);
+            }
+            throw new ArithmeticException("Mantissa overflow scaling " + mantissa + " by 10^" + diff);
+        }
+        final long power = POWERS_OF_TEN[diff];
+        final long productLow = mantissa * power;
+        final long productHigh = Math.multiplyHigh(mantissa, power);
+        final long sumLow = productLow + addend;
+        final long carry = Long.compareUnsigned(sumLow, productLow) < 0 ? 1 : 0;
+        final long sumHigh = productHigh + (addend >> 63) + carry;
+        if (sumHigh != (sumLow >> 63)) {
+            throw new ArithmeticException("Mantissa overflow adding " + addend + " to " + mantissa + " * 10^" + diff);
+        }
+        return sumLow;
+    }
+
+    private static long scaleDown(final long mantissa, final int diff) {
+        if (diff > MAX_POWER) {
+            //|mantissa| < 10^19, hence only rounds to a non-zero value if diff is 19 and |mantissa| >= 5 * 10^18
+            final long half = 5 * POWERS_OF_TEN[MAX_POWER];
+            return diff == MAX_POWER + 1 && (mantissa >= half || mantissa <= -half) ? Long.signum(mantissa) : 0;
+        }
+        final long divisor = POWERS_OF_TEN[diff];
+        final long quotient = mantissa / divisor;
+        final long remainder = Math.abs(mantissa % divisor);
+        return remainder >= divisor - remainder ? quotient + Long.signum(mantissa) : quotient;
+    }
+}
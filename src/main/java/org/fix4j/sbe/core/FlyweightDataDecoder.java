@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.CompositeDecoderFlyweight;
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.fix4j.sbe.bytes.ByteWriter;
+import org.fix4j.sbe.meta.MetaData;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Flyweight decoder for binary var data with a uint8, uint16 or uint32 length header as given by
+ * {@link MetaData.VarData#headerLength()}.  Data is either copied in bulk or accessed in place through buffer views,
+ * a {@link ByteBuffer} view or nested decoders wrapped at the data region.
+ */
+public class FlyweightDataDecoder implements DataDecoder {
+
+    /** Length of the standard SBE message header written by {@link FlyweightDataEncoder#wrapAndApplyHeader} */
+    public static final int MESSAGE_HEADER_LENGTH = 8;
+
+    private final MetaData.VarData metaData;
+    private final ByteOrder byteOrder;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private Object byteBufferSource;
+    private ByteBuffer byteBuffer;
+
+    public FlyweightDataDecoder(final MetaData.VarData metaData) {
+        this(metaData, LITTLE_ENDIAN);
+    }
+
+    public FlyweightDataDecoder(final MetaData.VarData metaData, final ByteOrder byteOrder) {
+        this.metaData = requireNonNull(metaData);
+        this.byteOrder = requireNonNull(byteOrder);
+        if (metaData.headerLength() != Byte.BYTES && metaData.headerLength() != Short.BYTES &&
+                metaData.headerLength() != Integer.BYTES) {
+            throw new IllegalArgumentException("Unsupported var data header length: " + metaData.headerLength());
+        }
+    }
+
+    public void wrap(final DirectBuffer buffer, final int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public DirectBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public ByteOrder byteOrder() {
+        return byteOrder;
+    }
+
+    @Override
+    public MetaData.VarData metaData() {
+        return metaData;
+    }
+
+    public int dataOffset() {
+        return offset + metaData.headerLength();
+    }
+
+    public int dataLength() {
+        switch (metaData.headerLength()) {
+            case Byte.BYTES:
+                return buffer.getByte(offset) & 0xff;
+            case Short.BYTES:
+                return buffer.getShort(offset, byteOrder) & 0xffff;
+            default:
+                return buffer.getInt(offset, byteOrder);
+        }
+    }
+
+    @Override
+    public int length() {
+        return dataLength();
+    }
+
+    @Override
+    public int get(final byte[] dst, final int dstOffset, final int length) {
+        final int copyLen = Math.min(dataLength(), length);
+        buffer.getBytes(dataOffset(), dst, dstOffset, copyLen);
+        return copyLen;
+    }
+
+    @Override
+    public int get(final MutableDirectBuffer dst, final int dstOffset, final int length) {
+        final int copyLen = Math.min(dataLength(), length);
+        dst.putBytes(dstOffset, buffer, dataOffset(), copyLen);
+        return copyLen;
+    }
+
+    @Override
+    public int get(final ByteBuffer dst, final int dstOffset, final int length) {
+        final int copyLen = Math.min(dataLength(), length);
+        buffer.getBytes(dataOffset(), dst, dstOffset, copyLen);
+        return copyLen;
+    }
+
+    @Override
+    public <T> T get(final ValueDecoder<T> decoder) {
+        return decoder.get(buffer, dataOffset(), dataLength());
+    }
+
+    @Override
+    public long getLong(final LongValueDecoder decoder) {
+        return decoder.get(buffer, dataOffset(), dataLength());
+    }
+
+    @Override
+    public int getInt(final IntValueDecoder decoder) {
+        return decoder.get(buffer, dataOffset(), dataLength());
+    }
+
+    @Override
+    public double getDouble(final DoubleValueDecoder decoder) {
+        return decoder.get(buffer, dataOffset(), dataLength());
+    }
+
+    @Override
+    public <D> int get(final D dst, final int dstOffset, final ByteWriter<? super D> writer, final int length) {
+        final DirectBuffer buffer = this.buffer;
+        final int dataOff = dataOffset();
+        final int copyLen = Math.min(dataLength(), length);
+        for (int i = 0; i < copyLen; i++) {
+            writer.write(dst, dstOffset + i, dstOffset + copyLen, buffer.getByte(dataOff + i));
+        }
+        return copyLen;
+    }
+
+    /**
+     * Returns a read-only byte buffer view with position and limit set to the data region.  The view is reused as long
+     * as the underlying byte array or byte buffer does not change.
+     *
+     * @return a read-only byte buffer positioned at the data
+     * @throws UnsupportedOperationException if the buffer wraps a raw memory address
+     */
+    @Override
+    public ByteBuffer byteBuffer() {
+        final ByteBuffer backing = buffer.byteBuffer();
+        final Object source = backing != null ? backing : buffer.byteArray();
+        if (source == null) {
+            throw new UnsupportedOperationException("No byte buffer view for address backed buffer " + buffer);
+        }
+        if (source != byteBufferSource) {
+            final ByteBuffer view = backing != null ? backing.duplicate() : ByteBuffer.wrap(buffer.byteArray());
+            byteBuffer = view.asReadOnlyBuffer();
+            byteBufferSource = source;
+        }
+        final int start = buffer.wrapAdjustment() + dataOffset();
+        byteBuffer.clear();
+        byteBuffer.position(start);
+        byteBuffer.limit(start + dataLength());
+        return byteBuffer;
+    }
+
+    @Override
+    public DirectBuffer wrap(final DirectBuffer view) {
+        view.wrap(buffer, dataOffset(), dataLength());
+        return view;
+    }
+
+    @Override
+    public <D extends DirectView> D wrap(final D view) {
+        view.wrap(buffer, dataOffset(), dataLength());
+        return view;
+    }
+
+    @Override
+    public <D extends CompositeDecoderFlyweight> D wrap(final D decoder) {
+        decoder.wrap(buffer, dataOffset());
+        return decoder;
+    }
+
+    /**
+     * Wraps the decoder at the message following the standard SBE message header at the start of the data, using
+     * the acting block length and version from the header.
+     *
+     * @param decoder the message decoder to wrap
+     * @param <D> the decoder type
+     * @return the wrapped decoder
+     * @throws IllegalArgumentException if the header schema or template id do not match the decoder
+     */
+    @Override
+    public <D extends MessageDecoderFlyweight> D wrap(final D decoder) {
+        final int dataOffset = dataOffset();
+        final int blockLength = buffer.getShort(dataOffset, byteOrder) & 0xffff;
+        final int templateId = buffer.getShort(dataOffset + 2, byteOrder) & 0xffff;
+        final int schemaId = buffer.getShort(dataOffset + 4, byteOrder) & 0xffff;
+        final int version = buffer.getShort(dataOffset + 6, byteOrder) & 0xffff;
+        validate(decoder, schemaId, templateId);
+        return wrap(decoder, MESSAGE_HEADER_LENGTH, blockLength, version);
+    }
+
+    protected void validate(final MessageDecoderFlyweight decoder, final int schemaId, final int templateId) {
+        if (decoder.sbeSchemaId() != schemaId || decoder.sbeTemplateId() != templateId) {
+            throw new IllegalArgumentException("Decoder for schemaId=" + decoder.sbeSchemaId() + ", templateId=" +
+                    decoder.sbeTemplateId() + " cannot decode " + metaData.name() + " message with schemaId=" +
+                    schemaId + ", templateId=" + templateId);
+        }
+    }
+
+    @Override
+    public <D extends MessageDecoderFlyweight> D wrap(final D decoder, final int offset,
+                                                      final int actingBlockLength, final int actingVersion) {
+        decoder.wrap(buffer, dataOffset() + offset, actingBlockLength, actingVersion);
+        return decoder;
+    }
+
+    @Override
+    public String toString() {
+        return buffer == null ? metaData.name() + "(?)" : metaData.name() + "(" + dataLength() + " bytes)";
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.sbe.EncoderFlyweight;
+import org.fix4j.sbe.bytes.ByteReader;
+import org.fix4j.sbe.meta.MetaData;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Flyweight encoder for binary var data with a uint8, uint16 or uint32 length header as given by
+ * {@link MetaData.VarData#headerLength()}.  Data is either copied in bulk, written by a value encoder, or encoded in
+ * place by wrapping a buffer, view or nested encoder at the data region which is completed through one of the
+ * {@code unwrap(..)} methods.
+ */
+public class FlyweightDataEncoder<P> implements DataEncoder<P> {
+
+    private static final int MAX_UINT32_LENGTH = 1073741824;
+
+    private final MetaData.VarData metaData;
+    private final ByteOrder byteOrder;
+    private final Supplier<? extends P> payloadSupplier;
+    private final MutableDirectBuffer valueView = new UnsafeBuffer(0, 0);
+    private final IntFunction<MutableDirectBuffer> lengthToBuffer = this::lengthToBuffer;
+
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private boolean wrapped;
+
+    public FlyweightDataEncoder(final MetaData.VarData metaData, final Supplier<? extends P> payloadSupplier) {
+        this(metaData, LITTLE_ENDIAN, payloadSupplier);
+    }
+
+    public FlyweightDataEncoder(final MetaData.VarData metaData,
+                                final ByteOrder byteOrder,
+                                final Supplier<? extends P> payloadSupplier) {
+        this.metaData = requireNonNull(metaData);
+        this.byteOrder = requireNonNull(byteOrder);
+        this.payloadSupplier = requireNonNull(payloadSupplier);
+        maxLength(metaData.headerLength());
+    }
+
+    private static int maxLength(final int headerLength) {
+        switch (headerLength) {
+            case Byte.BYTES:
+                return 0xff;
+            case Short.BYTES:
+                return 0xffff;
+            case Integer.BYTES:
+                return MAX_UINT32_LENGTH;
+            default:
+                throw new IllegalArgumentException("Unsupported var data header length: " + headerLength);
+        }
+    }
+
+    public void wrap(final MutableDirectBuffer buffer, final int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.wrapped = false;
+    }
+
+    public MutableDirectBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public ByteOrder byteOrder() {
+        return byteOrder;
+    }
+
+    @Override
+    public MetaData.VarData metaData() {
+        return metaData;
+    }
+
+    public int maxLength() {
+        return maxLength(metaData.headerLength());
+    }
+
+    public int dataOffset() {
+        return offset + metaData.headerLength();
+    }
+
+    public int dataLength() {
+        switch (metaData.headerLength()) {
+            case Byte.BYTES:
+                return buffer.getByte(offset) & 0xff;
+            case Short.BYTES:
+                return buffer.getShort(offset, byteOrder) & 0xffff;
+            default:
+                return buffer.getInt(offset, byteOrder);
+        }
+    }
+
+    protected P payload() {
+        return payloadSupplier.get();
+    }
+
+    private int validateWrite(final int length) {
+        if (buffer == null) {
+            throw new IllegalStateException("Data encoder for " + metaData.name() + " is not wrapped");
+        }
+        if (wrapped) {
+            throw new IllegalStateException("Data " + metaData.name() + " is wrapped for encoding, complete it first");
+        }
+        if (length < 0 || length > maxLength()) {
+            throw new IllegalArgumentException("Invalid length for " + metaData.name() + ": " + length);
+        }
+        return dataOffset();
+    }
+
+    private int validateWrapped() {
+        if (!wrapped) {
+            throw new IllegalStateException("Data " + metaData.name() + " is not wrapped for encoding");
+        }
+        return dataOffset();
+    }
+
+    /**
+     * Writes the length header and completes the data.
+     */
+    private P complete(final int length) {
+        if (length < 0 || length > maxLength()) {
+            throw new IllegalStateException("Invalid length for " + metaData.name() + ": " + length);
+        }
+        switch (metaData.headerLength()) {
+            case Byte.BYTES:
+                buffer.putByte(offset, (byte)length);
+                break;
+            case Short.BYTES:
+                buffer.putShort(offset, (short)length, byteOrder);
+                break;
+            default:
+                buffer.putInt(offset, length, byteOrder);
+                break;
+        }
+        wrapped = false;
+        return payload();
+    }
+
+    private MutableDirectBuffer lengthToBuffer(final int length) {
+        final int dataOffset = validateWrite(length);
+        buffer.checkLimit(dataOffset + length);
+        valueView.wrap(buffer, dataOffset, length);
+        return valueView;
+    }
+
+    private P completeValue(final int length) {
+        valueView.wrap(0, 0);
+        return complete(length);
+    }
+
+    private int remaining(final int dataOffset) {
+        return Math.max(0, Math.min(buffer.capacity() - dataOffset, maxLength()));
+    }
+
+    @Override
+    public P empty() {
+        validateWrite(0);
+        return complete(0);
+    }
+
+    @Override
+    public P put(final byte[] src, final int srcOffset, final int length) {
+        final int dataOffset = validateWrite(length);
+        buffer.putBytes(dataOffset, src, srcOffset, length);
+        return complete(length);
+    }
+
+    @Override
+    public P put(final DirectBuffer src, final int srcOffset, final int length) {
+        final int dataOffset = validateWrite(length);
+        buffer.putBytes(dataOffset, src, srcOffset, length);
+        return complete(length);
+    }
+
+    @Override
+    public P put(final ByteBuffer src, final int srcOffset, final int length) {
+        final int dataOffset = validateWrite(length);
+        buffer.putBytes(dataOffset, src, srcOffset, length);
+        return complete(length);
+    }
+
+    @Override
+    public <T> P put(final T value, final ValueEncoder<? super T> encoder) {
+        validateWrite(0);
+        return completeValue(encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public P putLong(final long value, final LongValueEncoder encoder) {
+        validateWrite(0);
+        return completeValue(encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public P putInt(final int value, final IntValueEncoder encoder) {
+        validateWrite(0);
+        return completeValue(encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public P putDouble(final double value, final DoubleValueEncoder encoder) {
+        validateWrite(0);
+        return completeValue(encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public <S> P put(final S src, final int srcOffset, final ByteReader<? super S> reader, final int length) {
+        final int dataOffset = validateWrite(length);
+        buffer.checkLimit(dataOffset + length);
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            long word = 0;
+            for (int j = 0; j < Long.BYTES; j++) {
+                word |= (reader.read(src, srcOffset + i + j) & 0xffL) << (j << 3);
+            }
+            buffer.putLong(dataOffset + i, word, LITTLE_ENDIAN);
+        }
+        for (; i < length; i++) {
+            buffer.putByte(dataOffset + i, reader.read(src, srcOffset + i));
+        }
+        return complete(length);
+    }
+
+    @Override
+    public MutableDirectBuffer wrap(final MutableDirectBuffer view) {
+        final int dataOffset = validateWrite(0);
+        view.wrap(buffer, dataOffset, remaining(dataOffset));
+        wrapped = true;
+        return view;
+    }
+
+    @Override
+    public <E extends MutableDirectView> E wrap(final E view) {
+        final int dataOffset = validateWrite(0);
+        view.wrap(buffer, dataOffset, remaining(dataOffset));
+        wrapped = true;
+        return view;
+    }
+
+    @Override
+    public <E extends EncoderFlyweight> E wrap(final E encoder) {
+        return wrap(encoder, 0);
+    }
+
+    @Override
+    public <E extends EncoderFlyweight> E wrap(final E encoder, final int offset) {
+        final int dataOffset = validateWrite(offset);
+        encoder.wrap(buffer, dataOffset + offset);
+        wrapped = true;
+        return encoder;
+    }
+
+    /**
+     * Writes a standard SBE message header with the identifiers of the given encoder at the start of the data and
+     * wraps the encoder after it.
+     *
+     * @param encoder the message encoder to wrap
+     * @param <E> the encoder type
+     * @return the wrapped encoder
+     */
+    @Override
+    public <E extends MessageEncoder<?>> E wrapAndApplyHeader(final E encoder) {
+        final int dataOffset = validateWrite(0);
+        buffer.putShort(dataOffset, (short)encoder.sbeBlockLength(), byteOrder);
+        buffer.putShort(dataOffset + 2, (short)encoder.sbeTemplateId(), byteOrder);
+        buffer.putShort(dataOffset + 4, (short)encoder.sbeSchemaId(), byteOrder);
+        buffer.putShort(dataOffset + 6, (short)encoder.sbeSchemaVersion(), byteOrder);
+        encoder.wrap(buffer, dataOffset + FlyweightDataDecoder.MESSAGE_HEADER_LENGTH);
+        wrapped = true;
+        return encoder;
+    }
+
+    /**
+     * Completes data wrapped by a buffer or an encoder flyweight view.
+     */
+    @Override
+    public P unwrap(final MutableDirectView view) {
+        if (view instanceof MutableDirectBuffer) {
+            return unwrap((MutableDirectBuffer)view);
+        }
+        if (view instanceof EncoderFlyweight) {
+            return unwrap((EncoderFlyweight)view);
+        }
+        throw new IllegalArgumentException("Data length of view " + view + " is unknown, use unwrap(int) instead");
+    }
+
+    /**
+     * Completes data wrapped by the given buffer using its capacity as data length;  callers writing less than the
+     * capacity can re-wrap the buffer with the written length first, or use {@link #unwrap(int)} instead.
+     */
+    @Override
+    public P unwrap(final MutableDirectBuffer view) {
+        validateWrapped();
+        final int length = view.capacity();
+        view.wrap(0, 0);
+        return complete(length);
+    }
+
+    /**
+     * Completes data encoded by the given flyweight, using the end of the encoded flyweight as end of the data.
+     */
+    @Override
+    public P unwrap(final EncoderFlyweight encoder) {
+        final int dataOffset = validateWrapped();
+        if (encoder.buffer() != buffer) {
+            throw new IllegalArgumentException("Encoder was not wrapped at " + metaData.name());
+        }
+        return complete(encoder.offset() + encoder.encodedLength() - dataOffset);
+    }
+
+    @Override
+    public P unwrap(final int length) {
+        validateWrapped();
+        return complete(length);
+    }
+
+    @Override
+    public String toString() {
+        return metaData.name() + (buffer == null ? "(?)" : wrapped ? "(wrapped)" : "");
+    }
+}
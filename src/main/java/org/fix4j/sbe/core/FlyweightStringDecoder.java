@@ -29,21 +29,28 @@ import org.fix4j.sbe.bytes.ByteWriter;
 import org.fix4j.sbe.bytes.CharWriter;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
 
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
 
 abstract public class FlyweightStringDecoder implements StringDecoder {
 
+    private final CharCodec charCodec;
+    private final StringView view = new StringView();
+
     private DirectBuffer buffer;
     private int offset;
 
+    public FlyweightStringDecoder(final CharCodec charCodec) {
+        this.charCodec = requireNonNull(charCodec);
+    }
+
     public static class FixedLen extends FlyweightStringDecoder implements StringDecoder.FixedLen {
 
         private final MetaData.Char metaData;
 
         public FixedLen(final MetaData.Char metaData) {
+            super(CharCodec.forMetaData(metaData));
             this.metaData = requireNonNull(metaData);
         }
 
@@ -59,12 +66,7 @@ abstract public class FlyweightStringDecoder implements StringDecoder {
 
         @Override
         public int dataLength() {
-            final int offset = dataOffset();
-            int length = length();
-            while (length > 0 && buffer().getByte(offset + length - 1) == 0) {
-                length--;
-            }
-            return length;
+            return Swar.trimmedLength(buffer(), dataOffset(), length());
         }
 
         @Override
@@ -78,6 +80,7 @@ abstract public class FlyweightStringDecoder implements StringDecoder {
         private final MetaData.VarChar metaData;
 
         public VarLen(final MetaData.VarChar metaData) {
+            super(CharCodec.forMetaData(metaData));
             this.metaData = requireNonNull(metaData);
         }
 
@@ -115,16 +118,16 @@ abstract public class FlyweightStringDecoder implements StringDecoder {
         return offset;
     }
 
+    public CharCodec charCodec() {
+        return charCodec;
+    }
+
     abstract public int dataOffset();
     abstract public int dataLength();
 
     @Override
     public String get() {
-        final int off = dataOffset();
-        final int len = dataLength();
-        final byte[] bytes = new byte[len];
-        buffer.getBytes(off, bytes, 0, len);
-        return new String(bytes, Charset.forName(metaData().characterEncoding()));
+        return charCodec.decode(buffer, dataOffset(), dataLength());
     }
 
     @Override
@@ -133,6 +136,24 @@ abstract public class FlyweightStringDecoder implements StringDecoder {
         return decoder.get(buffer, dataOffset(), length);
     }
 
+    @Override
+    public long getLong(final LongValueDecoder decoder) {
+        final int length = decoder.trailingZeros() ? length() : dataLength();
+        return decoder.get(buffer, dataOffset(), length);
+    }
+
+    @Override
+    public int getInt(final IntValueDecoder decoder) {
+        final int length = decoder.trailingZeros() ? length() : dataLength();
+        return decoder.get(buffer, dataOffset(), length);
+    }
+
+    @Override
+    public double getDouble(final DoubleValueDecoder decoder) {
+        final int length = decoder.trailingZeros() ? length() : dataLength();
+        return decoder.get(buffer, dataOffset(), length);
+    }
+
     @Override
     public <D> int get(final D dst, final int dstOffset, final ByteWriter<? super D> writer, final int length) {
         final DirectBuffer buffer = buffer();
@@ -147,65 +168,31 @@ abstract public class FlyweightStringDecoder implements StringDecoder {
 
     @Override
     public <D> int get(final D dst, final int dstOffset, final CharWriter<? super D> writer, final int length) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            final DirectBuffer buffer = buffer();
-            final int dataOff = dataOffset();
-            final int copyLen = Math.min(length(), length);
-            for (int i = 0; i < copyLen; i++) {
-                final byte b = buffer.getByte(dataOff + i);
-                writer.write(dst, dstOffset + i, dstOffset + copyLen, (char)b);
-            }
-            return copyLen;
-        }
-        final String s = get();
-        final int slen = s.length();
-        for (int i = 0; i < slen; i++) {
-            writer.write(dst, dstOffset + i, dstOffset + slen, s.charAt(i));
-        }
-        return slen;
-
+        return charCodec.decode(buffer, dataOffset(), dataLength(), dst, dstOffset, writer, length);
     }
 
     @Override
     public int appendTo(final Appendable appendable) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            final DirectBuffer buffer = buffer();
-            final int off = dataOffset();
-            final int len = dataLength();
-            for (int i = 0; i < len; i++) {
-                final byte b = buffer.getByte(off + i);
-                try {
-                    appendable.append((char) b);
-                } catch (final IOException e) {
-                    throw new RuntimeException("Appendable exception: e=" + e, e);
-                }
-            }
-            return len;
-        }
-        final String s = get();
         try {
-            appendable.append(s);
+            return charCodec.appendTo(buffer, dataOffset(), dataLength(), appendable);
         } catch (final IOException e) {
             throw new RuntimeException("Appendable exception: e=" + e, e);
         }
-        return s.length();
     }
 
     @Override
     public int appendTo(final StringBuilder stringBuilder) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            final DirectBuffer buffer = buffer();
-            final int off = dataOffset();
-            final int len = dataLength();
-            for (int i = 0; i < len; i++) {
-                final byte b = buffer.getByte(off + i);
-                stringBuilder.append((char) b);
-            }
-            return len;
+        return charCodec.appendTo(buffer, dataOffset(), dataLength(), stringBuilder);
+    }
+
+    @Override
+    public StringView view() {
+        if (!charCodec.isSingleByte()) {
+            throw new IllegalStateException("String view not supported for " + charCodec + " encoding of " +
+                    metaData().name());
         }
-        final String s = get();
-        stringBuilder.append(s);
-        return s.length();
+        view.wrap(buffer, dataOffset(), dataLength());
+        return view;
     }
 
     @Override
@@ -29,7 +29,6 @@ import org.fix4j.sbe.meta.MetaData;
 import org.fix4j.sbe.bytes.ByteReader;
 import org.fix4j.sbe.bytes.CharReader;
 
-import java.nio.charset.Charset;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -39,12 +38,14 @@ import static java.util.Objects.requireNonNull;
 abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
 
     private final Supplier<? extends P> payloadSupplier;
+    private final CharCodec charCodec;
 
     private MutableDirectBuffer buffer;
     private int offset;
 
-    public FlyweightStringEncoder(final Supplier<? extends P> payloadSupplier) {
+    public FlyweightStringEncoder(final Supplier<? extends P> payloadSupplier, final CharCodec charCodec) {
         this.payloadSupplier = requireNonNull(payloadSupplier);
+        this.charCodec = requireNonNull(charCodec);
     }
 
     protected P payload() {
@@ -64,6 +65,10 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
         return offset;
     }
 
+    public CharCodec charCodec() {
+        return charCodec;
+    }
+
     @Override
     public P empty() {
         return put("");
@@ -73,50 +78,59 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
 
     abstract protected int length(int length);
 
-    @Override
-    public P put(final String s) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            return putAscii(s);
+    private P complete(final int offset, final int length, final int maxlen) {
+        if (maxlen > length) {
+            buffer().setMemory(offset + length, maxlen - length, (byte)0);
         }
-        return putNonAscii(s);
+        return payload();
     }
 
     @Override
-    public P put(final CharSequence s) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            return putAscii(s);
-        }
-        return putNonAscii(s.toString());
+    public P put(final String s) {
+        return put((CharSequence)s);
     }
 
-    private P putAscii(final CharSequence s) {
-        final MutableDirectBuffer buffer = buffer();
-        final int length = s.length();
+    @Override
+    public P put(final CharSequence s) {
+        final int length = charCodec.byteLength(s);
         final int maxlen = length(length);
         final int offset = dataOffset();
-        if (length > 0) {
-            for (int i = 0; i < length; i++) {
-                buffer.putByte(offset + i, (byte) s.charAt(i));
-            }
-        }
-        if (maxlen > length) {
-            buffer.setMemory(offset + length, maxlen - length, (byte)0);
-        }
-        return payload();
+        charCodec.encode(s, buffer(), offset);
+        return complete(offset, length, maxlen);
     }
 
-    private P putNonAscii(final String s) {
-        final byte[] bytes = s.getBytes(Charset.forName(metaData().characterEncoding()));
-        return put(bytes, 0, bytes.length);
+    @Override
+    public <T> P put(final T value, final ValueEncoder<? super T> encoder) {
+        final LengthToBuffer lengthToBuffer = lengthToBuffer();
+        return complete(lengthToBuffer, encoder.put(value, lengthToBuffer));
     }
 
     @Override
-    public <T> P put(final T value, final ValueEncoder<? super T> encoder) {
+    public P putLong(final long value, final LongValueEncoder encoder) {
+        final LengthToBuffer lengthToBuffer = lengthToBuffer();
+        return complete(lengthToBuffer, encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public P putInt(final int value, final IntValueEncoder encoder) {
         final LengthToBuffer lengthToBuffer = lengthToBuffer();
-        final int maxlen = lengthToBuffer.view.capacity();
-        final int copied = encoder.put(value, lengthToBuffer);
+        return complete(lengthToBuffer, encoder.put(value, lengthToBuffer));
+    }
+
+    @Override
+    public P putDouble(final double value, final DoubleValueEncoder encoder) {
+        final LengthToBuffer lengthToBuffer = lengthToBuffer();
+        return complete(lengthToBuffer, encoder.put(value, lengthToBuffer));
+    }
+
+    /**
+     * Zero pads the data written by a value encoder up to the length requested via lengthToBuffer.
+     */
+    private P complete(final LengthToBuffer lengthToBuffer, final int copied) {
+        final MutableDirectBuffer view = lengthToBuffer.view;
+        final int maxlen = view.capacity();
         if (copied < maxlen) {
-            lengthToBuffer.view.setMemory(copied, maxlen - copied, (byte)0);
+            view.setMemory(copied, maxlen - copied, (byte)0);
         }
         lengthToBuffer.reset();
         return payload();
@@ -124,35 +138,17 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
 
     @Override
     public P put(final byte[] src, final int srcOffset, final int length) {
-        final MutableDirectBuffer buffer = buffer();
         final int maxlen = length(length);
         final int offset = dataOffset();
         if (length > 0) {
-            buffer.putBytes(offset, src, srcOffset, length);
+            buffer().putBytes(offset, src, srcOffset, length);
         }
-        if (maxlen > length) {
-            buffer.setMemory(offset + length, maxlen - length, (byte)0);
-        }
-        return payload();
+        return complete(offset, length, maxlen);
     }
 
     @Override
     public P put(final char[] src, final int srcOffset, final int length) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            final MutableDirectBuffer buffer = buffer();
-            final int maxlen = length(length);
-            final int offset = dataOffset();
-            if (length > 0) {
-                for (int i = 0; i < length; i++) {
-                    buffer.putByte(offset + i, (byte) src[srcOffset + i]);
-                }
-            }
-            if (maxlen > length) {
-                buffer.setMemory(offset + length, maxlen - length, (byte)0);
-            }
-            return payload();
-        }
-        return putNonAscii(new String(src, srcOffset, length));
+        return put(src, srcOffset, CharReader.CHAR_ARRAY_READER, length);
     }
 
     @Override
@@ -160,38 +156,27 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
         final MutableDirectBuffer buffer = buffer();
         final int maxlen = length(length);
         final int offset = dataOffset();
-        if (length > 0) {
-            for (int i = 0; i < length; i++) {
-                buffer.putByte(offset + i, reader.read(src, srcOffset + i));
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            long word = 0;
+            for (int j = 0; j < Long.BYTES; j++) {
+                word |= (reader.read(src, srcOffset + i + j) & 0xffL) << (j << 3);
             }
+            buffer.putLong(offset + i, word, LITTLE_ENDIAN);
         }
-        if (maxlen > length) {
-            buffer.setMemory(offset + length, maxlen - length, (byte)0);
+        for (; i < length; i++) {
+            buffer.putByte(offset + i, reader.read(src, srcOffset + i));
         }
-        return payload();
+        return complete(offset, length, maxlen);
     }
 
     @Override
     public <S> P put(final S src, final int srcOffset, final CharReader<? super S> reader, final int length) {
-        if ("ASCII".equals(metaData().characterEncoding())) {
-            final MutableDirectBuffer buffer = buffer();
-            final int maxlen = length(length);
-            final int offset = dataOffset();
-            if (length > 0) {
-                for (int i = 0; i < length; i++) {
-                    buffer.putByte(offset + i, (byte)reader.read(src, srcOffset + i));
-                }
-            }
-            if (maxlen > length) {
-                buffer.setMemory(offset + length, maxlen - length, (byte)0);
-            }
-            return payload();
-        }
-        final char[] chars = new char[length];
-        for (int i = 0; i < length; i++) {
-            chars[i] = reader.read(src, srcOffset + i);
-        }
-        return putNonAscii(new String(chars, 0, length));
+        final int byteLength = charCodec.byteLength(src, srcOffset, reader, length);
+        final int maxlen = length(byteLength);
+        final int offset = dataOffset();
+        charCodec.encode(src, srcOffset, reader, length, buffer(), offset);
+        return complete(offset, byteLength, maxlen);
     }
 
     public static class FixedLen<P> extends FlyweightStringEncoder<P> implements StringEncoder.FixedLen<P> {
@@ -199,7 +184,7 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
         private final MetaData.Char metaData;
 
         public FixedLen(final MetaData.Char metaData, final Supplier<? extends P> payloadSupplier) {
-            super(payloadSupplier);
+            super(payloadSupplier, CharCodec.forMetaData(metaData));
             this.metaData = requireNonNull(metaData);
         }
 
@@ -229,7 +214,7 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
         private final MetaData.VarChar metaData;
 
         public VarLen(final MetaData.VarChar metaData, final Supplier<? extends P> payloadSupplier) {
-            super(payloadSupplier);
+            super(payloadSupplier, CharCodec.forMetaData(metaData));
             this.metaData = requireNonNull(metaData);
         }
 
@@ -250,6 +235,10 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
             buffer().putInt(offset(), length, LITTLE_ENDIAN);
             return length;
         }
+
+        public int dataLength() {
+            return buffer().getInt(offset(), LITTLE_ENDIAN);
+        }
     }
 
     private class LengthToBuffer implements IntFunction<MutableDirectBuffer> {
@@ -257,6 +246,7 @@ abstract public class FlyweightStringEncoder<P> implements StringEncoder<P> {
         @Override
         public MutableDirectBuffer apply(final int length) {
             final int maxlen = length(length);
+            buffer().checkLimit(dataOffset() + maxlen);
             view.wrap(buffer(), dataOffset(), maxlen);
             return view;
         }
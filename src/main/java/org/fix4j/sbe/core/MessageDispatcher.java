@@ -0,0 +1,231 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Dispatches SBE messages to typed handlers by schema and template id as found in the standard SBE message header.
+ * <p>
+ * Handlers are registered together with a pre-allocated decoder, or a function wrapping one, and looked up in an
+ * array indexed by template id, hence dispatching is allocation free.  The decoder is wrapped at the message before
+ * the handler is invoked and unwrapped after it returns.  Messages without registered handler are passed to the
+ * {@link UnhandledMessageHandler}.
+ * <p>
+ * The dispatcher is a {@link MessageHandler} and can be used to read ring buffers or journals;  {@link #poll} walks
+ * a batch of messages each prefixed with an int32 length as encoded by a length prefixed
+ * {@link org.fix4j.sbe.payload.BatchPayloadViewProvider}.  Instances are not thread safe.
+ */
+public final class MessageDispatcher implements MessageHandler {
+
+    /** Length of the standard SBE message header with blockLength, templateId, schemaId and version fields */
+    public static final int HEADER_LENGTH = 8;
+    public static final int LENGTH_PREFIX_LENGTH = Integer.BYTES;
+
+    private static final int BLOCK_LENGTH_OFFSET = 0;
+    private static final int TEMPLATE_ID_OFFSET = 2;
+    private static final int SCHEMA_ID_OFFSET = 4;
+    private static final int VERSION_OFFSET = 6;
+    private static final int MAX_ID = 0xffff;
+
+    @FunctionalInterface
+    public interface DecoderWrapper<D extends MessageDecoder<?>> {
+        D wrap(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion);
+    }
+
+    @FunctionalInterface
+    public interface Handler<D> {
+        void onMessage(D decoder);
+    }
+
+    @FunctionalInterface
+    public interface UnhandledMessageHandler {
+        UnhandledMessageHandler IGNORE = (schemaId, templateId, buffer, offset, length) -> {};
+
+        /**
+         * Invoked for messages without registered handler or with a truncated header;  schemaId and templateId are -1
+         * in the latter case.
+         *
+         * @param schemaId the schema id from the message header
+         * @param templateId the template id from the message header
+         * @param buffer the buffer containing the message
+         * @param offset the offset of the message header in buffer
+         * @param length the length of header plus message
+         */
+        void onUnhandled(int schemaId, int templateId, DirectBuffer buffer, int offset, int length);
+    }
+
+    private final ByteOrder byteOrder;
+    private UnhandledMessageHandler unhandledMessageHandler = UnhandledMessageHandler.IGNORE;
+    private Entry<?>[] entries = new Entry<?>[0];
+
+    public MessageDispatcher() {
+        this(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public MessageDispatcher(final ByteOrder byteOrder) {
+        this.byteOrder = requireNonNull(byteOrder);
+    }
+
+    public MessageDispatcher unhandledMessageHandler(final UnhandledMessageHandler unhandledMessageHandler) {
+        this.unhandledMessageHandler = requireNonNull(unhandledMessageHandler);
+        return this;
+    }
+
+    public <D extends MessageDecoder<D>> MessageDispatcher register(final int schemaId,
+                                                                  final int templateId,
+                                                                  final D decoder,
+                                                                  final Handler<? super D> handler) {
+        requireNonNull(decoder);
+        return register(schemaId, templateId, decoder::wrap, handler);
+    }
+
+    public <D extends MessageDecoder<?>> MessageDispatcher register(final int schemaId,
+                                                                  final int templateId,
+                                                                  final DecoderWrapper<? extends D> decoderWrapper,
+                                                                  final Handler<? super D> handler) {
+        if (schemaId < 0 || schemaId > MAX_ID) {
+            throw new IllegalArgumentException("Invalid schema id: " + schemaId);
+        }
+        if (templateId < 0 || templateId > MAX_ID) {
+            throw new IllegalArgumentException("Invalid template id: " + templateId);
+        }
+        final Entry<D> entry = new Entry<>(schemaId, requireNonNull(decoderWrapper), requireNonNull(handler));
+        if (templateId >= entries.length) {
+            entries = Arrays.copyOf(entries, templateId + 1);
+        }
+        Entry<?> previous = null;
+        for (Entry<?> e = entries[templateId]; e != null; previous = e, e = e.next) {
+            if (e.schemaId == schemaId) {
+                throw new IllegalArgumentException("Handler already registered for schemaId=" + schemaId +
+                        ", templateId=" + templateId);
+            }
+        }
+        if (previous == null) {
+            entries[templateId] = entry;
+        } else {
+            previous.next = entry;
+        }
+        return this;
+    }
+
+    public boolean isRegistered(final int schemaId, final int templateId) {
+        return lookup(schemaId, templateId) != null;
+    }
+
+    private Entry<?> lookup(final int schemaId, final int templateId) {
+        Entry<?> entry = templateId < entries.length ? entries[templateId] : null;
+        while (entry != null && entry.schemaId != schemaId) {
+            entry = entry.next;
+        }
+        return entry;
+    }
+
+    /**
+     * Dispatches a single message starting with the message header.
+     *
+     * @param buffer the buffer containing the message
+     * @param offset the offset of the message header in buffer
+     * @param length the length of header plus message
+     * @return true if the message was passed to a registered handler, false otherwise
+     */
+    public boolean dispatch(final DirectBuffer buffer, final int offset, final int length) {
+        if (length < HEADER_LENGTH) {
+            unhandledMessageHandler.onUnhandled(-1, -1, buffer, offset, length);
+            return false;
+        }
+        final int templateId = buffer.getShort(offset + TEMPLATE_ID_OFFSET, byteOrder) & 0xffff;
+        final int schemaId = buffer.getShort(offset + SCHEMA_ID_OFFSET, byteOrder) & 0xffff;
+        final Entry<?> entry = lookup(schemaId, templateId);
+        if (entry == null) {
+            unhandledMessageHandler.onUnhandled(schemaId, templateId, buffer, offset, length);
+            return false;
+        }
+        entry.dispatch(buffer, offset + HEADER_LENGTH,
+                buffer.getShort(offset + BLOCK_LENGTH_OFFSET, byteOrder) & 0xffff,
+                buffer.getShort(offset + VERSION_OFFSET, byteOrder) & 0xffff);
+        return true;
+    }
+
+    /**
+     * Dispatches all messages of a batch where every message is prefixed with its length as int32 value.
+     *
+     * @param buffer the buffer containing the batch
+     * @param offset the offset of the first length prefix in buffer
+     * @param length the length of the batch in bytes
+     * @return the number of dispatched messages including unhandled messages
+     * @throws IllegalArgumentException if a length prefix exceeds the batch
+     */
+    public int poll(final DirectBuffer buffer, final int offset, final int length) {
+        final int end = offset + length;
+        int position = offset;
+        int count = 0;
+        while (position + LENGTH_PREFIX_LENGTH <= end) {
+            final int messageLength = buffer.getInt(position, byteOrder);
+            final int messageOffset = position + LENGTH_PREFIX_LENGTH;
+            if (messageLength < 0 || messageLength > end - messageOffset) {
+                throw new IllegalArgumentException("Invalid message length " + messageLength + " at offset " +
+                        position);
+            }
+            dispatch(buffer, messageOffset, messageLength);
+            position = messageOffset + messageLength;
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+        dispatch(buffer, index, length);
+    }
+
+    private static final class Entry<D extends MessageDecoder<?>> {
+        final int schemaId;
+        final DecoderWrapper<? extends D> decoderWrapper;
+        final Handler<? super D> handler;
+        Entry<?> next;
+
+        Entry(final int schemaId, final DecoderWrapper<? extends D> decoderWrapper, final Handler<? super D> handler) {
+            this.schemaId = schemaId;
+            this.decoderWrapper = decoderWrapper;
+            this.handler = handler;
+        }
+
+        void dispatch(final DirectBuffer buffer, final int offset, final int blockLength, final int version) {
+            final D decoder = decoderWrapper.wrap(buffer, offset, blockLength, version);
+            try {
+                handler.onMessage(decoder);
+            } finally {
+                decoder.unwrap();
+            }
+        }
+    }
+}
@@ -32,11 +32,24 @@ public interface StringDecoder {
     int length();
     String get();
     <T> T get(ValueDecoder<T> decoder);
+    long getLong(LongValueDecoder decoder);
+    int getInt(IntValueDecoder decoder);
+    double getDouble(DoubleValueDecoder decoder);
     <D> int get(D dst, int dstOffset, ByteWriter<? super D> writer, int length);
     <D> int get(D dst, int dstOffset, CharWriter<? super D> writer, int length);
     int appendTo(Appendable appendable);
     int appendTo(StringBuilder stringBuilder);
 
+    /**
+     * Returns a view of the string data without creating a string;  the view is reused and is only valid until this
+     * decoder is wrapped to other data.  Views are only supported for single byte charsets such as ASCII and
+     * ISO-8859-1.
+     *
+     * @return a char sequence view of the string data
+     * @throws IllegalStateException if the character encoding is not a single byte charset
+     */
+    StringView view();
+
     interface FixedLen extends StringDecoder {
         @Override
         MetaData.Char metaData();
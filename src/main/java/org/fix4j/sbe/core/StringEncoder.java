@@ -33,6 +33,9 @@ public interface StringEncoder<P> {
     P put(String s);
     P put(CharSequence s);
     <T> P put(T value, ValueEncoder<? super T> encoder);
+    P putLong(long value, LongValueEncoder encoder);
+    P putInt(int value, IntValueEncoder encoder);
+    P putDouble(double value, DoubleValueEncoder encoder);
     P put(byte[] src, int srcOffset, int length);
     P put(char[] src, int srcOffset, int length);
     <S> P put(S src, int srcOffset, ByteReader<? super S> reader, int length);
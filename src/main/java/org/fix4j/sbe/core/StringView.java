@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Flyweight {@link CharSequence} view of single byte string data, every byte is taken as unsigned ISO-8859-1 char
+ * which is identical to ASCII for ASCII data.  The view does not copy the data and can be re-wrapped to other data.
+ * <p>
+ * {@link #hashCode()} is the same as the hash code of the equivalent {@link String}, and {@link #equals(Object)}
+ * returns true for strings and other char sequences with equal content.  Hence a view can be used to look up values
+ * in hash maps with string keys without creating a string;  note however that equality is not symmetric as a string
+ * is never equal to a view.  A view must not be used as key when adding to a map unless it is no longer re-wrapped.
+ */
+public final class StringView implements CharSequence, DirectView {
+
+    //powers of 31 for hash codes of 8 chars at once
+    private static final int P1 = 31;
+    private static final int P2 = P1 * 31;
+    private static final int P3 = P2 * 31;
+    private static final int P4 = P3 * 31;
+    private static final int P5 = P4 * 31;
+    private static final int P6 = P5 * 31;
+    private static final int P7 = P6 * 31;
+    private static final int P8 = P7 * 31;
+
+    private DirectBuffer buffer;
+    private int offset;
+    private int length;
+
+    public StringView() {
+        //unwrapped view
+    }
+
+    public StringView(final DirectBuffer buffer, final int offset, final int length) {
+        wrap(buffer, offset, length);
+    }
+
+    @Override
+    public void wrap(final DirectBuffer buffer, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Invalid view range: offset=" + offset + ", length=" + length +
+                    ", capacity=" + buffer.capacity());
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public StringView wrap(final StringView view) {
+        wrap(view.buffer, view.offset, view.length);
+        return this;
+    }
+
+    public void unwrap() {
+        this.buffer = null;
+        this.offset = 0;
+        this.length = 0;
+    }
+
+    public DirectBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + " for length " + length);
+        }
+        return (char)(buffer.getByte(offset + index) & 0xff);
+    }
+
+    /**
+     * Returns a new view of the sub-sequence sharing the data of this view.
+     */
+    @Override
+    public StringView subSequence(final int start, final int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid sub-sequence range [" + start + ", " + end + ") for length " +
+                    length);
+        }
+        return new StringView(buffer, offset + start, end - start);
+    }
+
+    /**
+     * Compares the content of this view with the given data.
+     *
+     * @param buffer the buffer with the data to compare
+     * @param offset the offset in buffer
+     * @param length the length of the data
+     * @return true if the data bytes are equal to the bytes of this view
+     */
+    public boolean contentEquals(final DirectBuffer buffer, final int offset, final int length) {
+        if (this.length != length) {
+            return false;
+        }
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if (this.buffer.getLong(this.offset + i, LITTLE_ENDIAN) != buffer.getLong(offset + i, LITTLE_ENDIAN)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (this.buffer.getByte(this.offset + i) != buffer.getByte(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the content of this view with the given characters.
+     *
+     * @param chars the characters to compare
+     * @return true if this view has the same length and the same chars as {@code chars}
+     */
+    public boolean contentEquals(final CharSequence chars) {
+        if (chars instanceof StringView) {
+            final StringView view = (StringView)chars;
+            return contentEquals(view.buffer, view.offset, view.length);
+        }
+        final int length = this.length;
+        if (chars.length() != length) {
+            return false;
+        }
+        final DirectBuffer buffer = this.buffer;
+        final int offset = this.offset;
+        for (int i = 0; i < length; i++) {
+            if ((buffer.getByte(offset + i) & 0xff) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj == this || (obj instanceof CharSequence && contentEquals((CharSequence)obj));
+    }
+
+    /**
+     * @return the same hash code as {@link String#hashCode()} for the string of this view
+     */
+    @Override
+    public int hashCode() {
+        final DirectBuffer buffer = this.buffer;
+        final int offset = this.offset;
+        final int length = this.length;
+        int hash = 0;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            final long word = buffer.getLong(offset + i, LITTLE_ENDIAN);
+            hash = hash * P8 +
+                    (int)(word & 0xff) * P7 +
+                    (int)((word >>> 8) & 0xff) * P6 +
+                    (int)((word >>> 16) & 0xff) * P5 +
+                    (int)((word >>> 24) & 0xff) * P4 +
+                    (int)((word >>> 32) & 0xff) * P3 +
+                    (int)((word >>> 40) & 0xff) * P2 +
+                    (int)((word >>> 48) & 0xff) * P1 +
+                    (int)(word >>> 56);
+        }
+        for (; i < length; i++) {
+            hash = hash * P1 + (buffer.getByte(offset + i) & 0xff);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return buffer == null ? "" : Strings.latin1(buffer, offset, length);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String construction from buffer data with as few copies and as little garbage as possible.
+ * <p>
+ * Data of on-heap buffers is passed to the string constructor directly.  Data of off-heap buffers is first copied
+ * into a scratch array confined to the current thread which grows to the largest string seen, up to
+ * {@value #MAX_SCRATCH_LENGTH} bytes.  Latin-1 strings and ASCII data in ASCII or UTF-8 charsets are constructed
+ * without charset decoding in a single copy from the source array.
+ */
+public final class Strings {
+
+    static final int MAX_SCRATCH_LENGTH = 1 << 16;
+    private static final int MIN_SCRATCH_LENGTH = 64;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private Strings() {
+        throw new IllegalStateException("No Strings for you");
+    }
+
+    /**
+     * Decodes a string in the given charset.
+     *
+     * @param buffer    the source buffer
+     * @param offset    the offset in buffer
+     * @param length    the number of bytes to decode
+     * @param charset   the charset
+     * @return the decoded string
+     */
+    public static String decode(final DirectBuffer buffer, final int offset, final int length,
+                                final Charset charset) {
+        if (length == 0) {
+            return "";
+        }
+        if (charset == StandardCharsets.ISO_8859_1) {
+            return latin1(buffer, offset, length);
+        }
+        if ((charset == StandardCharsets.US_ASCII || charset == StandardCharsets.UTF_8) &&
+                Swar.asciiLength(buffer, offset, length) == length) {
+            return latin1(buffer, offset, length);
+        }
+        final byte[] bytes = buffer.byteArray();
+        if (bytes != null) {
+            return new String(bytes, buffer.wrapAdjustment() + offset, length, charset);
+        }
+        return new String(scratchBytes(buffer, offset, length), 0, length, charset);
+    }
+
+    /**
+     * Constructs a string with one char per byte, the bytes taken as unsigned ISO-8859-1 chars.
+     *
+     * @param buffer    the source buffer
+     * @param offset    the offset in buffer
+     * @param length    the number of bytes
+     * @return the string
+     */
+    @SuppressWarnings("deprecation")
+    public static String latin1(final DirectBuffer buffer, final int offset, final int length) {
+        if (length == 0) {
+            return "";
+        }
+        final byte[] bytes = buffer.byteArray();
+        if (bytes != null) {
+            return new String(bytes, 0, buffer.wrapAdjustment() + offset, length);
+        }
+        return new String(scratchBytes(buffer, offset, length), 0, 0, length);
+    }
+
+    /**
+     * Constructs a string from 2 byte chars in native byte order.
+     *
+     * @param buffer    the source buffer
+     * @param offset    the offset in buffer
+     * @param length    the number of bytes, an odd trailing byte is ignored
+     * @return the string
+     */
+    public static String chars(final DirectBuffer buffer, final int offset, final int length) {
+        final int charLen = length / Character.BYTES;
+        if (charLen == 0) {
+            return "";
+        }
+        final char[] chars = scratchChars(charLen);
+        for (int i = 0; i < charLen; i++) {
+            chars[i] = buffer.getChar(offset + i * Character.BYTES);
+        }
+        return new String(chars, 0, charLen);
+    }
+
+    private static byte[] scratchBytes(final DirectBuffer buffer, final int offset, final int length) {
+        final byte[] bytes = length <= MAX_SCRATCH_LENGTH ? SCRATCH.get().bytes(length) : new byte[length];
+        buffer.getBytes(offset, bytes, 0, length);
+        return bytes;
+    }
+
+    private static char[] scratchChars(final int length) {
+        return length <= MAX_SCRATCH_LENGTH / Character.BYTES ? SCRATCH.get().chars(length) : new char[length];
+    }
+
+    private static final class Scratch {
+        byte[] bytes = new byte[MIN_SCRATCH_LENGTH];
+        char[] chars = new char[0];
+
+        byte[] bytes(final int length) {
+            if (bytes.length < length) {
+                bytes = new byte[BitUtil.findNextPositivePowerOfTwo(length)];
+            }
+            return bytes;
+        }
+
+        char[] chars(final int length) {
+            if (chars.length < length) {
+                chars = new char[Math.max(MIN_SCRATCH_LENGTH, BitUtil.findNextPositivePowerOfTwo(length))];
+            }
+            return chars;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.core;
+
+import org.agrona.DirectBuffer;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * SIMD within a register: helpers processing 8 bytes at a time in a long word.  All words are read and written in
+ * little endian byte order, that is, the first byte in memory is the least significant byte of the word.
+ */
+public final class Swar {
+
+    public static final long HIGH_BITS = 0x8080808080808080L;
+    public static final long LOW_BITS = 0x0101010101010101L;
+
+    private Swar() {
+        throw new IllegalStateException("No Swar for you");
+    }
+
+    /**
+     * @param word 8 bytes read in little endian byte order
+     * @return true if all 8 bytes are ASCII chars, that is, if none of them has the high bit set
+     */
+    public static boolean isAscii(final long word) {
+        return (word & HIGH_BITS) == 0;
+    }
+
+    /**
+     * @param word 8 bytes read in little endian byte order
+     * @return the number of zero bytes at the end of the word in memory order
+     */
+    public static int trailingZeroBytes(final long word) {
+        return Long.numberOfLeadingZeros(word) >>> 3;
+    }
+
+    /**
+     * @param buffer the buffer
+     * @param offset the offset in buffer
+     * @param length the length in bytes
+     * @return the length without trailing zero bytes
+     */
+    public static int trimmedLength(final DirectBuffer buffer, final int offset, final int length) {
+        int len = length;
+        while (len >= Long.BYTES) {
+            final long word = buffer.getLong(offset + len - Long.BYTES, LITTLE_ENDIAN);
+            if (word != 0) {
+                return len - trailingZeroBytes(word);
+            }
+            len -= Long.BYTES;
+        }
+        while (len > 0 && buffer.getByte(offset + len - 1) == 0) {
+            len--;
+        }
+        return len;
+    }
+
+    /**
+     * @param buffer the buffer
+     * @param offset the offset in buffer
+     * @param length the length in bytes
+     * @return the length of the leading run of ASCII bytes, equal to length if all bytes are ASCII
+     */
+    public static int asciiLength(final DirectBuffer buffer, final int offset, final int length) {
+        int i = 0;
+        while (i + Long.BYTES <= length) {
+            final long word = buffer.getLong(offset + i, LITTLE_ENDIAN);
+            if (!isAscii(word)) {
+                return i + (Long.numberOfTrailingZeros(word & HIGH_BITS) >>> 3);
+            }
+            i += Long.BYTES;
+        }
+        while (i < length && buffer.getByte(offset + i) >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Reads up to 8 bytes into a word in little endian byte order, the unused high bytes of the word are zero.  A
+     * single 8 byte read is used if the buffer capacity permits, otherwise the bytes are read one by one.
+     *
+     * @param buffer the buffer
+     * @param offset the offset in buffer
+     * @param length the number of bytes to read, from 0 to 8
+     * @return the bytes as word
+     */
+    public static long getWord(final DirectBuffer buffer, final int offset, final int length) {
+        if (length <= 0) {
+            return 0;
+        }
+        if (offset + Long.BYTES <= buffer.capacity()) {
+            return buffer.getLong(offset, LITTLE_ENDIAN) & (-1L >>> ((Long.BYTES - length) << 3));
+        }
+        long word = 0;
+        for (int i = 0; i < length; i++) {
+            word |= (buffer.getByte(offset + i) & 0xffL) << (i << 3);
+        }
+        return word;
+    }
+
+    /**
+     * Compares two byte ranges lexicographically as unsigned bytes after applying the given mask to every byte.
+     * Words are read in big endian byte order so that the first mismatch in memory order decides the unsigned
+     * comparison of the two words.
+     *
+     * @param buf1      the first buffer
+     * @param offset1   the offset in the first buffer
+     * @param length1   the length of the first byte range
+     * @param buf2      the second buffer
+     * @param offset2   the offset in the second buffer
+     * @param length2   the length of the second byte range
+     * @param byteMask  the mask applied to every byte, for instance 0xff or 0x7f
+     * @return the difference of the first mismatching masked bytes, or the length difference if one range is a
+     *         prefix of the other
+     */
+    public static int compare(final DirectBuffer buf1, final int offset1, final int length1,
+                              final DirectBuffer buf2, final int offset2, final int length2,
+                              final int byteMask) {
+        final long wordMask = (byteMask & 0xffL) * LOW_BITS;
+        final int length = Math.min(length1, length2);
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            final long word1 = buf1.getLong(offset1 + i, BIG_ENDIAN) & wordMask;
+            final long word2 = buf2.getLong(offset2 + i, BIG_ENDIAN) & wordMask;
+            if (word1 != word2) {
+                final int shift = (Long.SIZE - Byte.SIZE) - (Long.numberOfLeadingZeros(word1 ^ word2) & ~0x7);
+                return (int)((word1 >>> shift) & 0xff) - (int)((word2 >>> shift) & 0xff);
+            }
+        }
+        for (; i < length; i++) {
+            final int byte1 = buf1.getByte(offset1 + i) & byteMask;
+            final int byte2 = buf2.getByte(offset2 + i) & byteMask;
+            if (byte1 != byte2) {
+                return byte1 - byte2;
+            }
+        }
+        return length1 - length2;
+    }
+
+    /**
+     * Returns the byte at the given index of a word read in little endian byte order, as unsigned char value.
+     *
+     * @param word  8 bytes read in little endian byte order
+     * @param index the byte index from 0 to 7 in memory order
+     * @return the byte as unsigned char
+     */
+    public static char charAt(final long word, final int index) {
+        return (char)((word >>> (index << 3)) & 0xff);
+    }
+}
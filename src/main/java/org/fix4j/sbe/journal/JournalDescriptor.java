@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.journal;
+
+import org.agrona.BitUtil;
+
+import java.io.File;
+
+/**
+ * Layout of journal segment files.
+ * <p>
+ * A journal is a directory of equally sized, zero filled segment files named by their zero padded segment index.
+ * Each segment contains a sequence of frames aligned to {@link #FRAME_ALIGNMENT} bytes.  A frame starts with a
+ * {@link #FRAME_HEADER_LENGTH} bytes header whose first int (in native byte order) holds the length of the header plus
+ * message bytes that follow;  it is written with ordered semantics after the message was encoded.  A frame length of
+ * zero marks the end of the data written so far, and {@link #END_OF_SEGMENT} marks that the journal continues in the
+ * segment with the next index.
+ */
+public final class JournalDescriptor {
+
+    public static final int FRAME_HEADER_LENGTH = 8;
+    public static final int FRAME_ALIGNMENT = 8;
+    public static final int END_OF_SEGMENT = -1;
+    public static final String SEGMENT_SUFFIX = ".journal";
+
+    /** Message type identifier passed to {@link org.agrona.concurrent.MessageHandler} on replay */
+    public static final int MSG_TYPE_ID = 1;
+
+    private static final int SEGMENT_INDEX_DIGITS = 10;
+
+    private JournalDescriptor() {
+        throw new IllegalStateException("No JournalDescriptor for you");
+    }
+
+    public static int frameLength(final int messageLength) {
+        return BitUtil.align(FRAME_HEADER_LENGTH + messageLength, FRAME_ALIGNMENT);
+    }
+
+    /**
+     * Returns the minimum segment length for the given maximum message length such that a message always fits and
+     * room for the end of segment marker remains.
+     *
+     * @param maxMessageLength the maximum length of header plus message in bytes
+     * @return the minimum segment length in bytes
+     */
+    public static int minSegmentLength(final int maxMessageLength) {
+        return frameLength(maxMessageLength) + FRAME_HEADER_LENGTH;
+    }
+
+    public static File segmentFile(final File directory, final int segmentIndex) {
+        if (segmentIndex < 0) {
+            throw new IllegalArgumentException("Segment index cannot be negative: " + segmentIndex);
+        }
+        final StringBuilder name = new StringBuilder(SEGMENT_INDEX_DIGITS + SEGMENT_SUFFIX.length());
+        name.append(segmentIndex);
+        while (name.length() < SEGMENT_INDEX_DIGITS) {
+            name.insert(0, '0');
+        }
+        return new File(directory, name.append(SEGMENT_SUFFIX).toString());
+    }
+
+    public static int firstSegmentIndex(final File directory) {
+        return segmentIndex(directory, true);
+    }
+
+    public static int lastSegmentIndex(final File directory) {
+        return segmentIndex(directory, false);
+    }
+
+    private static int segmentIndex(final File directory, final boolean first) {
+        final String[] names = directory.list();
+        int result = -1;
+        if (names != null) {
+            for (final String name : names) {
+                final int index = parseSegmentIndex(name);
+                if (index >= 0 && (result < 0 || (first ? index < result : index > result))) {
+                    result = index;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int parseSegmentIndex(final String name) {
+        if (name.length() != SEGMENT_INDEX_DIGITS + SEGMENT_SUFFIX.length() || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        long index = 0;
+        for (int i = 0; i < SEGMENT_INDEX_DIGITS; i++) {
+            final char ch = name.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            index = index * 10 + (ch - '0');
+        }
+        return index <= Integer.MAX_VALUE ? (int)index : -1;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.journal;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * Payload view of an SBE message appended to a journal.  The message bytes remain valid in the mapped segment
+ * until the writer rolls over to the next segment.
+ *
+ * @see JournalWriter
+ */
+public interface JournalPayloadView {
+
+    int segmentIndex();
+
+    /**
+     * The mapped buffer of the segment containing the message.
+     *
+     * @return the segment buffer
+     */
+    DirectBuffer buffer();
+
+    /**
+     * The offset of the message (or its header if a header was applied) in the segment buffer.
+     *
+     * @return the message offset in the segment, or -1 if nothing has been appended yet
+     */
+    int offset();
+
+    /**
+     * The length of the message including its header but excluding the frame header.
+     *
+     * @return the message length in bytes
+     */
+    int length();
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.journal;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static org.fix4j.sbe.journal.JournalDescriptor.END_OF_SEGMENT;
+import static org.fix4j.sbe.journal.JournalDescriptor.FRAME_HEADER_LENGTH;
+import static org.fix4j.sbe.journal.JournalDescriptor.MSG_TYPE_ID;
+import static org.fix4j.sbe.journal.JournalDescriptor.frameLength;
+
+/**
+ * Replays messages of a journal from the first segment, passing the mapped segment bytes to a
+ * {@link MessageHandler} without copying, for instance a handler returned by
+ * {@link org.fix4j.sbe.sample.DecoderSupplier#handler(java.util.function.Consumer)}.
+ * <p>
+ * The reader can follow a journal that is concurrently appended by a writer in the same or in another process: polling
+ * stops at the end of the data written so far and resumes from there on the next poll.  Segments are unmapped when
+ * the reader moves on to the next segment, hence handlers must not keep references to the message bytes.
+ *
+ * @see JournalWriter
+ */
+public class JournalReader implements AutoCloseable {
+
+    private final File directory;
+    private final UnsafeBuffer segmentBuffer = new UnsafeBuffer(0, 0);
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    private int position;
+    private boolean closed;
+
+    public JournalReader(final File directory) {
+        this.directory = requireNonNull(directory);
+    }
+
+    public int segmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * The offset in the current segment of the next frame to read.
+     *
+     * @return the read position in the current segment
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Reads all messages available in the journal.
+     *
+     * @param handler the handler invoked with the segment buffer, message offset and message length
+     * @return the number of messages read
+     */
+    public int poll(final MessageHandler handler) {
+        return poll(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads up to limit messages available in the journal.
+     *
+     * @param handler the handler invoked with the segment buffer, message offset and message length
+     * @param limit the maximum number of messages to read
+     * @return the number of messages read
+     */
+    public int poll(final MessageHandler handler, final int limit) {
+        requireNonNull(handler);
+        if (closed) {
+            throw new IllegalStateException("Journal reader is closed");
+        }
+        int read = 0;
+        while (read < limit && (segment != null || open(JournalDescriptor.firstSegmentIndex(directory)))) {
+            if (position + FRAME_HEADER_LENGTH > segmentBuffer.capacity()) {
+                if (!open(segmentIndex + 1)) {
+                    break;
+                }
+                continue;
+            }
+            final int length = segmentBuffer.getIntVolatile(position);
+            if (length == 0) {
+                break;
+            }
+            if (length == END_OF_SEGMENT) {
+                if (!open(segmentIndex + 1)) {
+                    break;
+                }
+                continue;
+            }
+            handler.onMessage(MSG_TYPE_ID, segmentBuffer, position + FRAME_HEADER_LENGTH, length);
+            position += frameLength(length);
+            read++;
+        }
+        return read;
+    }
+
+    private boolean open(final int index) {
+        if (index < 0) {
+            return false;
+        }
+        final File file = JournalDescriptor.segmentFile(directory, index);
+        if (!file.exists()) {
+            return false;
+        }
+        final MappedByteBuffer next = IoUtil.mapExistingFile(file, "journal segment");
+        unmap();
+        segment = next;
+        segmentBuffer.wrap(next);
+        segmentIndex = index;
+        position = 0;
+        return true;
+    }
+
+    private void unmap() {
+        if (segment != null) {
+            segmentBuffer.wrap(0, 0);
+            IoUtil.unmap(segment);
+            segment = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        unmap();
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalReader{directory=" + directory + ", segmentIndex=" + segmentIndex + ", position=" + position +
+                "}";
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.journal;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.sbe.CompositeEncoderFlyweight;
+import org.agrona.sbe.MessageEncoderFlyweight;
+import org.fix4j.sbe.payload.PayloadViewProvider;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static org.fix4j.sbe.journal.JournalDescriptor.END_OF_SEGMENT;
+import static org.fix4j.sbe.journal.JournalDescriptor.FRAME_ALIGNMENT;
+import static org.fix4j.sbe.journal.JournalDescriptor.FRAME_HEADER_LENGTH;
+import static org.fix4j.sbe.journal.JournalDescriptor.frameLength;
+
+/**
+ * Append only journal writer encoding messages directly into memory mapped segment files.  New segments are zero
+ * filled when created so that pages are touched before messages are appended.
+ * <p>
+ * The encoder is wrapped at offset zero of the buffer returned by {@link #claim()} which is bounded to the maximum
+ * message length inside the current segment.  The frame is committed when the encoder completes and invokes
+ * {@link #payload(CompositeEncoderFlyweight, MessageEncoderFlyweight)}, and the journal rolls over to a new segment
+ * if the remaining space cannot hold a message of maximum length.  If encoding fails the claim must be released via
+ * {@link #abort()};  otherwise it is reused by the next claim.
+ * <p>
+ * Appended messages survive a crash of the process but not of the operating system unless {@link #force()} is
+ * invoked.  Opening a writer on an existing journal continues after the last complete frame.  Instances are not thread
+ * safe, and only a single writer must be used per journal directory.
+ *
+ * @see JournalDescriptor
+ * @see JournalReader
+ */
+public class JournalWriter implements PayloadViewProvider<JournalPayloadView>, AutoCloseable {
+
+    private final File directory;
+    private final int segmentLength;
+    private final int maxMessageLength;
+    private final UnsafeBuffer segmentBuffer = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer claimBuffer = new UnsafeBuffer(0, 0);
+    private final View view = new View();
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private int position;
+    private boolean claimed;
+    private int lastOffset = -1;
+    private int lastLength;
+
+    public JournalWriter(final File directory, final int segmentLength, final int maxMessageLength) {
+        if (maxMessageLength < 1) {
+            throw new IllegalArgumentException("Max message length must be positive: " + maxMessageLength);
+        }
+        if (segmentLength < JournalDescriptor.minSegmentLength(maxMessageLength) ||
+                segmentLength % FRAME_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Segment length " + segmentLength + " must be a multiple of " +
+                    FRAME_ALIGNMENT + " and at least " + JournalDescriptor.minSegmentLength(maxMessageLength));
+        }
+        this.directory = requireNonNull(directory);
+        this.segmentLength = segmentLength;
+        this.maxMessageLength = maxMessageLength;
+        IoUtil.ensureDirectoryExists(directory, "journal");
+        final int last = JournalDescriptor.lastSegmentIndex(directory);
+        if (last < 0) {
+            map(0, IoUtil.mapNewFile(JournalDescriptor.segmentFile(directory, 0), segmentLength, true));
+        } else {
+            map(last, IoUtil.mapExistingFile(JournalDescriptor.segmentFile(directory, last), "journal segment"));
+            position = recover();
+        }
+    }
+
+    private void map(final int segmentIndex, final MappedByteBuffer segment) {
+        this.segmentIndex = segmentIndex;
+        this.segment = segment;
+        this.segmentBuffer.wrap(segment);
+        this.position = 0;
+    }
+
+    private int recover() {
+        final int capacity = segmentBuffer.capacity();
+        int offset = 0;
+        while (offset + FRAME_HEADER_LENGTH <= capacity) {
+            final int length = segmentBuffer.getIntVolatile(offset);
+            if (length == 0) {
+                //clear bytes of an incomplete frame so they are not mistaken for frame headers later
+                segmentBuffer.setMemory(offset, Math.min(capacity - offset, frameLength(maxMessageLength)), (byte)0);
+                return offset;
+            }
+            if (length == END_OF_SEGMENT) {
+                return capacity;
+            }
+            offset += frameLength(length);
+        }
+        return capacity;
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    public int segmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * The offset in the current segment where the next frame will be appended.
+     *
+     * @return the append position in the current segment
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Claims space for the next message unless a claim is already pending, rolling over to a new segment if necessary.
+     *
+     * @return the buffer to encode the next message into at offset zero
+     */
+    public MutableDirectBuffer claim() {
+        if (segment == null) {
+            throw new IllegalStateException("Journal writer is closed");
+        }
+        if (!claimed) {
+            if (position + frameLength(maxMessageLength) + FRAME_HEADER_LENGTH > segmentBuffer.capacity()) {
+                roll();
+            }
+            claimBuffer.wrap(segmentBuffer, position + FRAME_HEADER_LENGTH, maxMessageLength);
+            claimed = true;
+        }
+        return claimBuffer;
+    }
+
+    public boolean hasClaim() {
+        return claimed;
+    }
+
+    /**
+     * Aborts the pending claim if any and clears bytes that may have been encoded already.
+     */
+    public void abort() {
+        if (claimed) {
+            claimBuffer.setMemory(0, claimBuffer.capacity(), (byte)0);
+            release();
+        }
+    }
+
+    private void release() {
+        claimed = false;
+        claimBuffer.wrap(0, 0);
+    }
+
+    private void roll() {
+        final int next = segmentIndex + 1;
+        final MappedByteBuffer nextSegment = IoUtil.mapNewFile(JournalDescriptor.segmentFile(directory, next),
+                segmentLength, true);
+        if (position + FRAME_HEADER_LENGTH <= segmentBuffer.capacity()) {
+            segmentBuffer.putIntOrdered(position, END_OF_SEGMENT);
+        }
+        IoUtil.unmap(segment);
+        map(next, nextSegment);
+    }
+
+    /**
+     * Flushes the current segment to the storage device.
+     */
+    public void force() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public JournalPayloadView view() {
+        return view;
+    }
+
+    @Override
+    public JournalPayloadView payload(final CompositeEncoderFlyweight header, final MessageEncoderFlyweight message) {
+        if (!claimed) {
+            throw new IllegalStateException("No pending journal claim");
+        }
+        if (message.buffer() != claimBuffer || (header != null && header.buffer() != claimBuffer)) {
+            throw new IllegalStateException("Message was not encoded into the claim buffer");
+        }
+        final int messageOffset = header != null ? header.offset() : message.offset();
+        if (messageOffset != 0) {
+            throw new IllegalStateException("Message must be encoded at offset 0 of the claim buffer but was at " +
+                    messageOffset);
+        }
+        final int length = (header != null ? header.encodedLength() : 0) + message.encodedLength();
+        release();
+        segmentBuffer.putIntOrdered(position, length);
+        lastOffset = position + FRAME_HEADER_LENGTH;
+        lastLength = length;
+        position += frameLength(length);
+        return view;
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            abort();
+            IoUtil.unmap(segment);
+            segment = null;
+            segmentBuffer.wrap(0, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JournalWriter{directory=" + directory + ", segmentIndex=" + segmentIndex + ", position=" + position +
+                ", claimed=" + claimed + "}";
+    }
+
+    private final class View implements JournalPayloadView {
+        @Override
+        public int segmentIndex() {
+            return segmentIndex;
+        }
+
+        @Override
+        public DirectBuffer buffer() {
+            return segmentBuffer;
+        }
+
+        @Override
+        public int offset() {
+            return lastOffset;
+        }
+
+        @Override
+        public int length() {
+            return lastLength;
+        }
+
+        @Override
+        public String toString() {
+            return JournalWriter.this.toString();
+        }
+    }
+}
@@ -29,10 +29,18 @@ public class DefaultMetaData implements MetaData {
 
     private final String name;
     private final int id;
+    private final String epoch;
+    private final String timeUnit;
 
     public DefaultMetaData(final String name, final int id) {
+        this(name, id, "", "");
+    }
+
+    public DefaultMetaData(final String name, final int id, final String epoch, final String timeUnit) {
         this.name = requireNonNull(name);
         this.id = id;
+        this.epoch = requireNonNull(epoch);
+        this.timeUnit = requireNonNull(timeUnit);
     }
 
     @Override
@@ -57,12 +65,12 @@ public class DefaultMetaData implements MetaData {
 
     @Override
     public String epoch() {
-        return "";//FIXME
+        return epoch;
     }
 
     @Override
     public String timeUnit() {
-        return "";//FIXME
+        return timeUnit;
     }
 
     @Override
@@ -123,4 +131,39 @@ public class DefaultMetaData implements MetaData {
             return 127;
         }
     }
+
+    public static class DefaultVarData extends DefaultMetaData implements VarData {
+        private final int headerLength;
+        public DefaultVarData(final String name, final int id, final int headerLength) {
+            super(name, id);
+            this.headerLength = headerLength;
+        }
+
+        @Override
+        public int headerLength() {
+            return headerLength;
+        }
+    }
+
+    public static class DefaultVarChar extends DefaultMetaData implements VarChar {
+        private final int headerLength;
+        private final String charEncoding;
+        public DefaultVarChar(final String name, final int id,
+                              final int headerLength,
+                              final String charEncoding) {
+            super(name, id);
+            this.headerLength = headerLength;
+            this.charEncoding = requireNonNull(charEncoding);
+        }
+
+        @Override
+        public int headerLength() {
+            return headerLength;
+        }
+
+        @Override
+        public String characterEncoding() {
+            return charEncoding;
+        }
+    }
 }
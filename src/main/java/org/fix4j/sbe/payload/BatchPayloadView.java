@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.payload;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Payload view of a batch of SBE messages encoded back to back into one buffer, optionally each preceded by a
+ * little endian int32 length prefix.  The batch occupies the contiguous region from {@link #offset()} to
+ * {@link #limit()} and can be written or sent with a single I/O call.
+ *
+ * @see BatchPayloadViewProvider
+ */
+public interface BatchPayloadView {
+    /** Length of the optional frame prefix holding the length of header plus message in bytes */
+    int LENGTH_PREFIX_LENGTH = Integer.BYTES;
+
+    MutableDirectBuffer buffer();
+
+    /**
+     * The offset of the first byte of the batch in the buffer.
+     *
+     * @return the offset where the batch starts
+     */
+    int offset();
+
+    /**
+     * The offset of the first byte after the batch in the buffer, that is, where the next message will be framed.
+     *
+     * @return the offset where the batch ends
+     */
+    int limit();
+
+    /**
+     * The length of the whole batch in bytes including length prefixes if any.
+     *
+     * @return the batch length in bytes
+     */
+    int length();
+
+    /**
+     * The number of messages encoded into this batch.
+     *
+     * @return the message count
+     */
+    int messageCount();
+
+    /**
+     * The offset of the most recently encoded message (or its header if a header was applied), or -1 if the batch is
+     * empty.
+     *
+     * @return the offset of the last message in the batch
+     */
+    int lastMessageOffset();
+
+    /**
+     * The length of the most recently encoded message including its header but excluding the length prefix, or zero
+     * if the batch is empty.
+     *
+     * @return the length of the last message in the batch
+     */
+    int lastMessageLength();
+
+    boolean lengthPrefixed();
+
+    default boolean isEmpty() {
+        return messageCount() == 0;
+    }
+
+    /**
+     * Discards all messages of the batch, for instance after flushing it, so that the next message is encoded at the
+     * batch start offset again.
+     */
+    void clear();
+
+    static BatchPayloadViewProvider provider(final MutableDirectBuffer buffer, final int offset) {
+        return new BatchPayloadViewProvider(buffer, offset, false);
+    }
+
+    static BatchPayloadViewProvider lengthPrefixedProvider(final MutableDirectBuffer buffer, final int offset) {
+        return new BatchPayloadViewProvider(buffer, offset, true);
+    }
+}
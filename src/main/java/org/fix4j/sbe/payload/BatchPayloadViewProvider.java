@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.payload;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.sbe.CompositeEncoderFlyweight;
+import org.agrona.sbe.MessageEncoderFlyweight;
+
+import java.nio.ByteOrder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Payload view provider advancing a cursor through a buffer so that messages are encoded back to back.  Encoders
+ * must be wrapped at {@link #nextOffset()} for every message, for instance via
+ * {@link org.fix4j.sbe.sample.EncoderSupplier#supplier(BatchPayloadViewProvider)};  the provider appends the
+ * encoded message to the batch when the encoder completes and then writes the length prefix if framing is enabled.
+ */
+public class BatchPayloadViewProvider implements PayloadViewProvider<BatchPayloadView> {
+
+    private final View view = new View();
+    private final boolean lengthPrefixed;
+    private MutableDirectBuffer buffer;
+    private int offset;
+    private int limit;
+    private int count;
+    private int lastOffset = -1;
+    private int lastLength;
+
+    public BatchPayloadViewProvider(final MutableDirectBuffer buffer, final int offset, final boolean lengthPrefixed) {
+        this.lengthPrefixed = lengthPrefixed;
+        wrap(buffer, offset);
+    }
+
+    /**
+     * Starts a new empty batch in the given buffer.
+     *
+     * @param buffer the buffer to encode the batch into
+     * @param offset the offset of the batch in buffer
+     * @return this provider
+     */
+    public BatchPayloadViewProvider wrap(final MutableDirectBuffer buffer, final int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+        }
+        this.buffer = requireNonNull(buffer);
+        this.offset = offset;
+        view.clear();
+        return this;
+    }
+
+    public MutableDirectBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * The offset where the next message (or its header) has to be encoded, leaving room for the length prefix if
+     * framing is enabled.
+     *
+     * @return the offset for wrapping the next encoder
+     */
+    public int nextOffset() {
+        return lengthPrefixed ? limit + BatchPayloadView.LENGTH_PREFIX_LENGTH : limit;
+    }
+
+    public BatchPayloadView view() {
+        return view;
+    }
+
+    @Override
+    public BatchPayloadView payload(final CompositeEncoderFlyweight header, final MessageEncoderFlyweight message) {
+        if (header != null && header.buffer() != message.buffer()) {
+            throw new IllegalArgumentException("header and message must use the same buffer instance");
+        }
+        if (message.buffer() != buffer) {
+            throw new IllegalStateException("Message was not encoded into the batch buffer");
+        }
+        final int messageOffset = header != null ? header.offset() : message.offset();
+        if (messageOffset != nextOffset()) {
+            throw new IllegalStateException("Message was encoded at offset " + messageOffset +
+                    " but the next batch offset is " + nextOffset());
+        }
+        final int messageLength = (header != null ? header.encodedLength() : 0) + message.encodedLength();
+        if (lengthPrefixed) {
+            buffer.putInt(limit, messageLength, ByteOrder.LITTLE_ENDIAN);
+        }
+        lastOffset = messageOffset;
+        lastLength = messageLength;
+        limit = messageOffset + messageLength;
+        count++;
+        return view;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPayloadViewProvider{offset=" + offset + ", limit=" + limit + ", count=" + count +
+                ", lengthPrefixed=" + lengthPrefixed + "}";
+    }
+
+    private final class View implements BatchPayloadView {
+        @Override
+        public MutableDirectBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public int offset() {
+            return offset;
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public int length() {
+            return limit - offset;
+        }
+
+        @Override
+        public int messageCount() {
+            return count;
+        }
+
+        @Override
+        public int lastMessageOffset() {
+            return lastOffset;
+        }
+
+        @Override
+        public int lastMessageLength() {
+            return lastLength;
+        }
+
+        @Override
+        public boolean lengthPrefixed() {
+            return lengthPrefixed;
+        }
+
+        @Override
+        public void clear() {
+            limit = offset;
+            count = 0;
+            lastOffset = -1;
+            lastLength = 0;
+        }
+
+        @Override
+        public String toString() {
+            return BatchPayloadViewProvider.this.toString();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.payload;
+
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+/**
+ * Payload view of an SBE message that has been encoded in place into a claimed ring buffer record and committed.
+ * <p>
+ * Note that the record is visible to the consumer as soon as it is committed, hence the message bytes must not be
+ * accessed through this view any more;  it only reports where and how much was written.
+ *
+ * @see RingBufferPayloadViewProvider
+ */
+public interface RingBufferPayloadView {
+
+    RingBuffer ringBuffer();
+
+    /**
+     * The message type identifier of the ring buffer record.
+     *
+     * @return the ring buffer message type identifier
+     */
+    int msgTypeId();
+
+    /**
+     * The index of the committed record payload in the ring buffer's underlying buffer.
+     *
+     * @return the record index, or -1 if nothing has been committed yet
+     */
+    int index();
+
+    /**
+     * The length of the encoded header plus message in bytes.
+     *
+     * @return the encoded length of the committed message
+     */
+    int length();
+
+    /**
+     * The length claimed for the record which is at least {@link #length()};  consumers see a record of this length
+     * and use the SBE message header to determine the encoded message length.
+     *
+     * @return the claimed record length in bytes
+     */
+    int claimLength();
+}
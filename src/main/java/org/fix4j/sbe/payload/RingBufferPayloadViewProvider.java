@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.payload;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.sbe.CompositeEncoderFlyweight;
+import org.agrona.sbe.MessageEncoderFlyweight;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Payload view provider encoding messages in place into records claimed from an Agrona {@link RingBuffer}, such as a
+ * {@link org.agrona.concurrent.ringbuffer.OneToOneRingBuffer} or
+ * {@link org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer} on heap, direct or memory mapped memory.
+ * <p>
+ * Since the encoded length is unknown before encoding, a record of fixed claim length is claimed via {@link #claim()}
+ * and the encoder is wrapped at offset zero of {@link #claimBuffer()} which is bounded to the claimed record.  The
+ * claim is committed when the encoder completes and invokes {@link #payload(CompositeEncoderFlyweight,
+ * MessageEncoderFlyweight)}.  If encoding fails the claim must be released via {@link #abort()};  otherwise it is
+ * reused by the next claim.
+ * <p>
+ * Instances are not thread safe and should be used by a single producer thread only.
+ */
+public class RingBufferPayloadViewProvider implements PayloadViewProvider<RingBufferPayloadView> {
+
+    private static final int NO_CLAIM = -1;
+
+    private final RingBuffer ringBuffer;
+    private final int msgTypeId;
+    private final int claimLength;
+    private final UnsafeBuffer claimBuffer = new UnsafeBuffer(0, 0);
+    private final View view = new View();
+    private int claimIndex = NO_CLAIM;
+    private int index = NO_CLAIM;
+    private int length;
+
+    public RingBufferPayloadViewProvider(final RingBuffer ringBuffer, final int msgTypeId, final int claimLength) {
+        this.ringBuffer = requireNonNull(ringBuffer);
+        if (msgTypeId < 1) {
+            throw new IllegalArgumentException("Message type id must be positive: " + msgTypeId);
+        }
+        if (claimLength < 1 || claimLength > ringBuffer.maxMsgLength()) {
+            throw new IllegalArgumentException("Claim length " + claimLength + " must be in [1, " +
+                    ringBuffer.maxMsgLength() + "]");
+        }
+        this.msgTypeId = msgTypeId;
+        this.claimLength = claimLength;
+    }
+
+    /**
+     * Claims a record in the ring buffer unless a claim is already pending.
+     *
+     * @return true if a claim is pending, false if the ring buffer has insufficient capacity
+     */
+    public boolean claim() {
+        if (claimIndex != NO_CLAIM) {
+            return true;
+        }
+        final int claimed = ringBuffer.tryClaim(msgTypeId, claimLength);
+        if (claimed < 0) {
+            return false;
+        }
+        claimIndex = claimed;
+        claimBuffer.wrap(ringBuffer.buffer(), claimed, claimLength);
+        return true;
+    }
+
+    public boolean hasClaim() {
+        return claimIndex != NO_CLAIM;
+    }
+
+    /**
+     * Returns the buffer bounded to the pending claim, or an empty buffer if no claim is pending.
+     *
+     * @return the buffer to encode into at offset zero
+     */
+    public MutableDirectBuffer claimBuffer() {
+        return claimBuffer;
+    }
+
+    /**
+     * Aborts the pending claim if any, for instance if encoding has failed.
+     */
+    public void abort() {
+        if (claimIndex != NO_CLAIM) {
+            final int aborted = claimIndex;
+            release();
+            ringBuffer.abort(aborted);
+        }
+    }
+
+    public RingBufferPayloadView view() {
+        return view;
+    }
+
+    @Override
+    public RingBufferPayloadView payload(final CompositeEncoderFlyweight header, final MessageEncoderFlyweight message) {
+        if (claimIndex == NO_CLAIM) {
+            throw new IllegalStateException("No pending ring buffer claim");
+        }
+        if (message.buffer() != claimBuffer || (header != null && header.buffer() != claimBuffer)) {
+            throw new IllegalStateException("Message was not encoded into the claim buffer");
+        }
+        final int messageOffset = header != null ? header.offset() : message.offset();
+        if (messageOffset != 0) {
+            throw new IllegalStateException("Message must be encoded at offset 0 of the claim buffer but was at " +
+                    messageOffset);
+        }
+        final int committed = claimIndex;
+        length = (header != null ? header.encodedLength() : 0) + message.encodedLength();
+        index = committed;
+        release();
+        ringBuffer.commit(committed);
+        return view;
+    }
+
+    private void release() {
+        claimIndex = NO_CLAIM;
+        claimBuffer.wrap(0, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferPayloadViewProvider{msgTypeId=" + msgTypeId + ", claimLength=" + claimLength +
+                ", claimIndex=" + claimIndex + ", index=" + index + ", length=" + length + "}";
+    }
+
+    private final class View implements RingBufferPayloadView {
+        @Override
+        public RingBuffer ringBuffer() {
+            return ringBuffer;
+        }
+
+        @Override
+        public int msgTypeId() {
+            return msgTypeId;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int claimLength() {
+            return claimLength;
+        }
+
+        @Override
+        public String toString() {
+            return RingBufferPayloadViewProvider.this.toString();
+        }
+    }
+}
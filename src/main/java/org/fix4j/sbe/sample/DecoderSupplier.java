@@ -24,8 +24,14 @@
 package org.fix4j.sbe.sample;
 
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.fix4j.sbe.core.MessageDispatcher;
 import org.fix4j.sbe.payload.StandardPayloadView;
 
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
 public interface DecoderSupplier {
     default ExecRptDecoder execRpt(StandardPayloadView standardPayloadAccess) {
         return execRpt(
@@ -37,6 +43,32 @@ public interface DecoderSupplier {
     }
     ExecRptDecoder execRpt(DirectBuffer buffer, int offset, int actingBlockLength, int actingVersion);
 
+    /**
+     * Registers the ExecRpt decoder of this supplier with the dispatcher.
+     *
+     * @param dispatcher the dispatcher to register with
+     * @param handler the handler invoked with the decoder wrapped at each ExecRpt message
+     * @return the dispatcher
+     */
+    default MessageDispatcher register(final MessageDispatcher dispatcher,
+                                       final MessageDispatcher.Handler<? super ExecRptDecoder> handler) {
+        return dispatcher.register(trading.ExecRptDecoder.SCHEMA_ID, trading.ExecRptDecoder.TEMPLATE_ID,
+                this::execRpt, handler);
+    }
+
+    /**
+     * Returns a ring buffer message handler that wraps the decoder in place at each record containing an ExecRpt
+     * message and passes it to the consumer;  records with other messages are skipped.  The decoder is unwrapped when
+     * the consumer returns as the record space is reclaimed by the ring buffer after reading.
+     *
+     * @param consumer the consumer invoked with the decoder wrapped at the record
+     * @return a handler for {@link org.agrona.concurrent.ringbuffer.RingBuffer#read(MessageHandler)}
+     */
+    default MessageHandler handler(final Consumer<? super ExecRptDecoder> consumer) {
+        requireNonNull(consumer);
+        return register(new MessageDispatcher(), consumer::accept);
+    }
+
     static DecoderSupplier supplier() {
         final ExecRptDecoder decoder = ExecRptDecoder.create();
         return decoder::wrap;
@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.sample;
+
+import org.agrona.DirectBuffer;
+import org.agrona.sbe.MessageDecoderFlyweight;
+import org.fix4j.sbe.core.DataDecoder;
+import org.fix4j.sbe.core.FlyweightDataDecoder;
+import org.fix4j.sbe.meta.DefaultMetaData;
+import org.fix4j.sbe.meta.MetaData;
+
+public class DefaultEnvelopeDecoder implements EnvelopeDecoder {
+
+    private static final MetaData.VarData DATA_META_DATA = new DefaultMetaData.DefaultVarData("data",
+            trading.EnvelopeDecoder.dataId(), trading.EnvelopeDecoder.dataHeaderLength());
+
+    private final trading.EnvelopeDecoder decoder = new trading.EnvelopeDecoder();
+    private final DefaultData data = new DefaultData();
+    private int actingBlockLength;
+
+    @Override
+    public EnvelopeDecoder wrap(final DirectBuffer buffer, final int offset, final int actingBlockLength, final int actingVersion) {
+        decoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+        this.actingBlockLength = actingBlockLength;
+        data.wrap(null, 0);
+        return this;
+    }
+
+    @Override
+    public EnvelopeDecoder unwrap() {
+        decoder.wrap(null, 0, 0, 0);
+        actingBlockLength = 0;
+        data.wrap(null, 0);
+        return this;
+    }
+
+    @Override
+    public EnvelopeDecoder reset() {
+        decoder.limit(offset() + actingBlockLength);
+        return this;
+    }
+
+    @Override
+    public DirectBuffer buffer() {
+        return decoder.buffer();
+    }
+
+    @Override
+    public int offset() {
+        return decoder.offset();
+    }
+
+    @Override
+    public int limit() {
+        return decoder.limit();
+    }
+
+    @Override
+    public void limit(final int limit) {
+        decoder.limit(limit);
+    }
+
+    @Override
+    public int sbeSchemaId() {
+        return decoder.sbeSchemaId();
+    }
+
+    @Override
+    public int sbeSchemaVersion() {
+        return decoder.sbeSchemaVersion();
+    }
+
+    @Override
+    public int sbeTemplateId() {
+        return decoder.sbeTemplateId();
+    }
+
+    @Override
+    public int sbeBlockLength() {
+        return decoder.sbeBlockLength();
+    }
+
+    @Override
+    public String sbeSemanticType() {
+        return decoder.sbeSemanticType();
+    }
+
+    @Override
+    public int encodedLength() {
+        return decoder.encodedLength();
+    }
+
+    @Override
+    public long time() {
+        return decoder.time();
+    }
+
+    @Override
+    public long seqNo() {
+        return decoder.seqNo();
+    }
+
+    @Override
+    public DataDecoder data() {
+        if (decoder.buffer() == null) {
+            throw new IllegalStateException("envelope decoder is not wrapped");
+        }
+        if (data.buffer() == null) {
+            data.wrap(decoder.buffer(), decoder.offset() + actingBlockLength);
+            final int limit = data.dataOffset() + data.dataLength();
+            if (decoder.limit() < limit) {
+                decoder.limit(limit);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public StringBuilder appendTo(final StringBuilder builder) {
+        return decoder.appendTo(builder);
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    private class DefaultData extends FlyweightDataDecoder {
+        DefaultData() {
+            super(DATA_META_DATA);
+        }
+
+        /**
+         * The nested message identifiers are stored in the root block of the envelope, hence the message is wrapped
+         * at the start of the data using the envelope's block length and version.
+         */
+        @Override
+        public <D extends MessageDecoderFlyweight> D wrap(final D messageDecoder) {
+            validate(messageDecoder, decoder.schemaId(), decoder.templateId());
+            return wrap(messageDecoder, 0, decoder.blockLength(), decoder.version());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.sample;
+
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.DataEncoder;
+import org.fix4j.sbe.core.FlyweightDataEncoder;
+import org.fix4j.sbe.core.MessageEncoder;
+import org.fix4j.sbe.meta.DefaultMetaData;
+import org.fix4j.sbe.meta.MetaData;
+import org.fix4j.sbe.payload.PayloadViewProvider;
+import trading.MessageHeaderEncoder;
+
+import static java.util.Objects.requireNonNull;
+
+public class DefaultEnvelopeEncoder<P> implements EnvelopeEncoder<P> {
+
+    private static final MetaData.VarData DATA_META_DATA = new DefaultMetaData.DefaultVarData("data",
+            trading.EnvelopeEncoder.dataId(), trading.EnvelopeEncoder.dataHeaderLength());
+
+    private final PayloadViewProvider<? extends P> payloadViewProvider;
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final trading.EnvelopeEncoder encoder = new trading.EnvelopeEncoder();
+    private final DefaultData data = new DefaultData();
+    private final PayloadViewProvider<P> dataPayloadViewProvider = (header, message) -> data.unwrap(message);
+    private boolean dataWritten;
+
+    public DefaultEnvelopeEncoder(final PayloadViewProvider<? extends P> payloadViewProvider) {
+        this.payloadViewProvider = requireNonNull(payloadViewProvider);
+    }
+
+    @Override
+    public EnvelopeEncoder<P> wrap(final MutableDirectBuffer buffer, final int offset) {
+        this.headerEncoder.wrap(null, 0);
+        this.encoder.wrap(buffer, offset);
+        return cleanup();
+    }
+
+    @Override
+    public EnvelopeEncoder<P> wrapAndApplyHeader(final MutableDirectBuffer buffer, final int offset) {
+        this.encoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
+        return cleanup();
+    }
+
+    private EnvelopeEncoder<P> cleanup() {
+        data.wrap((MutableDirectBuffer)null, 0);
+        dataWritten = false;
+        return this;
+    }
+
+    @Override
+    public EnvelopeEncoder<P> unwrap() {
+        headerEncoder.wrap(null, 0);
+        encoder.wrap(null, 0);
+        return cleanup();
+    }
+
+    @Override
+    public MutableDirectBuffer buffer() {
+        return encoder.buffer();
+    }
+
+    @Override
+    public int offset() {
+        return encoder.offset();
+    }
+
+    @Override
+    public int limit() {
+        return encoder.limit();
+    }
+
+    @Override
+    public void limit(final int limit) {
+        encoder.limit(limit);
+    }
+
+    @Override
+    public int sbeSchemaId() {
+        return encoder.sbeSchemaId();
+    }
+
+    @Override
+    public int sbeSchemaVersion() {
+        return encoder.sbeSchemaVersion();
+    }
+
+    @Override
+    public int sbeTemplateId() {
+        return encoder.sbeTemplateId();
+    }
+
+    @Override
+    public int sbeBlockLength() {
+        return encoder.sbeBlockLength();
+    }
+
+    @Override
+    public String sbeSemanticType() {
+        return encoder.sbeSemanticType();
+    }
+
+    @Override
+    public int encodedLength() {
+        return encoder.encodedLength();
+    }
+
+    @Override
+    public EnvelopeEncoder<P> time(final long time) {
+        encoder.time(time);
+        return this;
+    }
+
+    @Override
+    public EnvelopeEncoder<P> seqNo(final long seqNo) {
+        encoder.seqNo(seqNo);
+        return this;
+    }
+
+    @Override
+    public DataEncoder<P> data() {
+        if (encoder.buffer() == null) {
+            throw new IllegalStateException("envelope encoder is not wrapped");
+        }
+        if (dataWritten) {
+            throw new IllegalStateException("out of order encoding of data");
+        }
+        if (data.buffer() == null) {
+            data.wrap(encoder.buffer(), encoder.offset() + encoder.sbeBlockLength());
+        }
+        return data;
+    }
+
+    @Override
+    public PayloadViewProvider<P> dataPayloadViewProvider() {
+        return dataPayloadViewProvider;
+    }
+
+    private P dataComplete() {
+        encoder.limit(data.dataOffset() + data.dataLength());
+        data.wrap((MutableDirectBuffer)null, 0);
+        dataWritten = true;
+        return payloadViewProvider.payload(
+                headerEncoder.buffer() != null ? headerEncoder : null, encoder
+        );
+    }
+
+    @Override
+    public String toString() {
+        try (EnvelopeDecoder decoder = EnvelopeDecoder.create()) {
+            return decoder.wrap(buffer(), offset(), sbeBlockLength(), sbeSchemaVersion()).toString();
+        }
+    }
+
+    private class DefaultData extends FlyweightDataEncoder<P> {
+        DefaultData() {
+            super(DATA_META_DATA, DefaultEnvelopeEncoder.this::dataComplete);
+        }
+
+        /**
+         * The nested message identifiers are stored in the root block of the envelope, hence the message is wrapped
+         * at the start of the data without a message header.
+         */
+        @Override
+        public <E extends MessageEncoder<?>> E wrapAndApplyHeader(final E messageEncoder) {
+            wrap(messageEncoder, 0);
+            encoder
+                    .templateId(messageEncoder.sbeTemplateId())
+                    .blockLength(messageEncoder.sbeBlockLength())
+                    .schemaId(messageEncoder.sbeSchemaId())
+                    .version(messageEncoder.sbeSchemaVersion());
+            return messageEncoder;
+        }
+    }
+}
@@ -24,6 +24,7 @@
 package org.fix4j.sbe.sample;
 
 import org.agrona.DirectBuffer;
+import org.fix4j.sbe.core.Decimal64;
 import org.fix4j.sbe.core.FlyweightStringDecoder.FixedLen;
 import org.fix4j.sbe.core.FlyweightStringDecoder.VarLen;
 import org.fix4j.sbe.core.StringDecoder;
@@ -32,6 +33,7 @@ import org.fix4j.sbe.meta.MetaData;
 import trading.ExecRptDecoder.LegsDecoder;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 public class DefaultExecRptDecoder implements ExecRptDecoder {
 
@@ -145,13 +147,18 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
                 new DefaultMetaData.DefaultChar("settlDate", LegsDecoder.settlDateId(),
                         LegsDecoder.settlDateEncodingOffset(), LegsDecoder.settlDateLength(),
                         LegsDecoder.settlDateCharacterEncoding()));
+        final Decimal64 price = new Decimal64();
         LegsDecoder legsDecoder;
+        int headerOffset;
+        int firstLegOffset;
         int index = -1;
         DefaultLegGroup init() {
             if (legsDecoder != null) {
                 throw new IllegalStateException("out of order decoding of legGroup");
             }
+            headerOffset = decoder.limit();
             legsDecoder = decoder.legs();
+            firstLegOffset = decoder.limit();
             index = -1;
             return this;
         }
@@ -160,9 +167,7 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
             if (legsDecoder == null) {
                 init();
             }
-            while (index + 1 < count()) {
-                next();
-            }
+            decoder.limit(legOffset(count()));
             index = count();//make it same as count to prevent further leg access
         }
 
@@ -172,6 +177,10 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
             index = -1;
         }
 
+        int legOffset(final int index) {
+            return firstLegOffset + index * legsDecoder.actingBlockLength();
+        }
+
         @Override
         public int count() {
             return legsDecoder.count();
@@ -187,7 +196,7 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
 
         @Override
         public boolean hasNext() {
-            return legsDecoder.hasNext();
+            return index + 1 < count();
         }
 
         trading.ExecRptDecoder.LegsDecoder validateIndex() {
@@ -199,11 +208,33 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
 
         @Override
         public Leg next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("index >= count");
+            }
             legsDecoder.next();
             index++;
             return this;
         }
 
+        @Override
+        public Leg leg(final int index) {
+            if (index < 0 || index >= count()) {
+                throw new IndexOutOfBoundsException("index=" + index + ", count=" + count());
+            }
+            if (this.index >= count()) {
+                throw new IllegalStateException("out of order decoding of legGroup");
+            }
+            if (index != this.index + 1) {
+                //re-wrap to reset the iteration index of the SBE decoder
+                decoder.limit(headerOffset);
+                legsDecoder = decoder.legs();
+                decoder.limit(legOffset(index));
+            }
+            legsDecoder.next();
+            this.index = index;
+            return this;
+        }
+
         @Override
         public StringDecoder settlDate() {
             validateIndex();
@@ -217,8 +248,9 @@ public class DefaultExecRptDecoder implements ExecRptDecoder {
         }
 
         @Override
-        public double price() {
-            return validateIndex().price();
+        public Decimal64 price() {
+            final trading.Decimal64Decoder decimal = validateIndex().price();
+            return price.set(decimal.mantissa(), decimal.exponent());
         }
     }
 
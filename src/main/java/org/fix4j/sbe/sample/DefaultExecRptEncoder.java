@@ -25,7 +25,11 @@ package org.fix4j.sbe.sample;
 
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.core.DoubleValueEncoder;
 import org.fix4j.sbe.core.FlyweightStringEncoder.FixedLen;
+import org.fix4j.sbe.core.IntValueEncoder;
+import org.fix4j.sbe.core.LongValueEncoder;
 import org.fix4j.sbe.core.StringEncoder;
 import org.fix4j.sbe.core.ValueEncoder;
 import org.fix4j.sbe.meta.DefaultMetaData;
@@ -39,6 +43,7 @@ import trading.MessageHeaderEncoder;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Iterator;
+import java.util.function.IntFunction;
 
 import static java.util.Objects.requireNonNull;
 
@@ -160,6 +165,7 @@ public class DefaultExecRptEncoder<P> implements ExecRptEncoder<P> {
                         LegsEncoder.settlDateCharacterEncoding()),
                 () -> DefaultLegGroup.this
         );
+        final Decimal64 doublePrice = new Decimal64();
         LegsEncoder legsEncoder;
         int count;
         int index = -1;
@@ -237,14 +243,25 @@ public class DefaultExecRptEncoder<P> implements ExecRptEncoder<P> {
         }
 
         @Override
-        public Leg<P> price(final double price) {
-            validateIndex().price(price);
+        public Leg<P> price(final long mantissa, final int exponent) {
+            validateIndex().price().mantissa(mantissa).exponent(Decimal64.exponent(exponent));
             return this;
         }
+
+        @Override
+        public Leg<P> price(final Decimal64 price) {
+            return price(price.mantissa(), price.exponent());
+        }
+
+        @Override
+        public Leg<P> price(final double price) {
+            return price(doublePrice.set(price, DOUBLE_PRICE_EXPONENT).normalize());
+        }
     }
 
     private class DefaultRejectText implements RejectText<P>, StringEncoder<P>, MetaData.VarChar {
         private final MutableDirectBuffer bufferView = new UnsafeBuffer(0, 0);
+        private final IntFunction<MutableDirectBuffer> lengthToBuffer = this::lengthToBuffer;
         boolean written;
 
         void unwrap() {
@@ -281,23 +298,49 @@ public class DefaultExecRptEncoder<P> implements ExecRptEncoder<P> {
             return put(text, 0, CharReader.CHAR_SEQUENCE_READER, text.length());
         }
 
+        private MutableDirectBuffer lengthToBuffer(final int length) {
+            validateWrite();
+            if (length > 1073741824)
+            {
+                throw new IllegalStateException("length > maxValue for type: " + length);
+            }
+            final int headerLength = 4;
+            final int limit = encoder.limit();
+            encoder.buffer().putInt(limit, length, java.nio.ByteOrder.LITTLE_ENDIAN);
+            encoder.limit(limit + headerLength + length);
+            written = true;
+            bufferView.wrap(encoder.buffer(), limit + headerLength, length);
+            return bufferView;
+        }
+
         @Override
         public <T> P put(final T value, final ValueEncoder<? super T> valueEncoder) {
             validateWrite();
-            valueEncoder.put(value, length -> {
-                validateWrite();
-                if (length > 1073741824)
-                {
-                    throw new IllegalStateException("length > maxValue for type: " + length);
-                }
-                final int headerLength = 4;
-                final int limit = encoder.limit();
-                encoder.buffer().putInt(limit, length, java.nio.ByteOrder.LITTLE_ENDIAN);
-                encoder.limit(limit + headerLength + length);
-                written = true;
-                bufferView.wrap(encoder.buffer(), limit + headerLength, length);
-                return bufferView;
-            });
+            valueEncoder.put(value, lengthToBuffer);
+            bufferView.wrap(0, 0);
+            return payload();
+        }
+
+        @Override
+        public P putLong(final long value, final LongValueEncoder valueEncoder) {
+            validateWrite();
+            valueEncoder.put(value, lengthToBuffer);
+            bufferView.wrap(0, 0);
+            return payload();
+        }
+
+        @Override
+        public P putInt(final int value, final IntValueEncoder valueEncoder) {
+            validateWrite();
+            valueEncoder.put(value, lengthToBuffer);
+            bufferView.wrap(0, 0);
+            return payload();
+        }
+
+        @Override
+        public P putDouble(final double value, final DoubleValueEncoder valueEncoder) {
+            validateWrite();
+            valueEncoder.put(value, lengthToBuffer);
             bufferView.wrap(0, 0);
             return payload();
         }
@@ -24,7 +24,13 @@
 package org.fix4j.sbe.sample;
 
 import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.journal.JournalPayloadView;
+import org.fix4j.sbe.journal.JournalWriter;
+import org.fix4j.sbe.payload.BatchPayloadView;
+import org.fix4j.sbe.payload.BatchPayloadViewProvider;
 import org.fix4j.sbe.payload.PayloadViewProvider;
+import org.fix4j.sbe.payload.RingBufferPayloadView;
+import org.fix4j.sbe.payload.RingBufferPayloadViewProvider;
 import org.fix4j.sbe.payload.StandardPayloadView;
 
 public interface EncoderSupplier<T> {
@@ -42,4 +48,48 @@ public interface EncoderSupplier<T> {
         final ExecRptEncoder<P> encoder = ExecRptEncoder.create(pap);
         return () -> encoder.wrapAndApplyHeader(buffer, offset);
     }
+
+    /**
+     * Returns a supplier wrapping the encoder at the next batch offset of the given provider every time, hence
+     * consecutive messages are encoded back to back into the batch buffer.
+     *
+     * @param batch the batch payload view provider
+     * @return an encoder supplier appending messages to the batch
+     */
+    static EncoderSupplier<BatchPayloadView> supplier(final BatchPayloadViewProvider batch) {
+        final ExecRptEncoder<BatchPayloadView> encoder = ExecRptEncoder.create(batch);
+        return () -> encoder.wrapAndApplyHeader(batch.buffer(), batch.nextOffset());
+    }
+
+    /**
+     * Returns a supplier wrapping the encoder in place at the pending ring buffer claim, claiming a new record if
+     * necessary.  The record is committed when the message is complete.  Callers can invoke
+     * {@link RingBufferPayloadViewProvider#claim()} first to handle back pressure, otherwise an exception is thrown if
+     * the ring buffer is full.
+     *
+     * @param ring the ring buffer payload view provider
+     * @return an encoder supplier encoding directly into ring buffer records
+     * @throws IllegalStateException if no record can be claimed due to insufficient ring buffer capacity
+     */
+    static EncoderSupplier<RingBufferPayloadView> supplier(final RingBufferPayloadViewProvider ring) {
+        final ExecRptEncoder<RingBufferPayloadView> encoder = ExecRptEncoder.create(ring);
+        return () -> {
+            if (!ring.claim()) {
+                throw new IllegalStateException("Insufficient capacity in ring buffer");
+            }
+            return encoder.wrapAndApplyHeader(ring.claimBuffer(), 0);
+        };
+    }
+
+    /**
+     * Returns a supplier wrapping the encoder directly at the pending claim of the journal, claiming space for the next
+     * message if necessary.  The frame is appended when the message is complete.
+     *
+     * @param journal the journal writer
+     * @return an encoder supplier encoding directly into the memory mapped journal
+     */
+    static EncoderSupplier<JournalPayloadView> supplier(final JournalWriter journal) {
+        final ExecRptEncoder<JournalPayloadView> encoder = ExecRptEncoder.create(journal);
+        return () -> encoder.wrapAndApplyHeader(journal.claim(), 0);
+    }
 }
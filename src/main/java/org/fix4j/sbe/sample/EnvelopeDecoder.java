@@ -25,13 +25,28 @@ package org.fix4j.sbe.sample;
 
 import org.fix4j.sbe.core.DataDecoder;
 import org.fix4j.sbe.core.MessageDecoder;
+import org.fix4j.sbe.meta.DefaultMetaData;
+import org.fix4j.sbe.meta.MetaData;
+import org.fix4j.sbe.transform.TimestampConverter;
+import trading.MetaAttribute;
+
+import java.util.concurrent.TimeUnit;
 
 public interface EnvelopeDecoder extends MessageDecoder<EnvelopeDecoder> {
-//    static EnvelopeDecoder create() {
-//        return new DefaultEnvelopeDecoder();
-//    }
+
+    MetaData TIME_META_DATA = new DefaultMetaData("time", trading.EnvelopeDecoder.timeId(),
+            trading.EnvelopeDecoder.timeMetaAttribute(MetaAttribute.EPOCH),
+            trading.EnvelopeDecoder.timeMetaAttribute(MetaAttribute.TIME_UNIT));
+    TimestampConverter TIME_CONVERTER = TimestampConverter.forMetaData(TIME_META_DATA);
+
+    static EnvelopeDecoder create() {
+        return new DefaultEnvelopeDecoder();
+    }
 
     long time();
+    default long time(final TimeUnit unit) {
+        return TIME_CONVERTER.convert(time(), unit);
+    }
     long seqNo();
 
     DataDecoder data();
@@ -25,20 +25,50 @@ package org.fix4j.sbe.sample;
 
 import org.fix4j.sbe.core.DataEncoder;
 import org.fix4j.sbe.core.MessageEncoder;
+import org.fix4j.sbe.meta.DefaultMetaData;
+import org.fix4j.sbe.meta.MetaData;
+import org.fix4j.sbe.payload.PayloadViewProvider;
+import org.fix4j.sbe.payload.StandardPayloadView;
+import org.fix4j.sbe.payload.StandardPayloadViewProvider;
+import org.fix4j.sbe.transform.CachedClock;
+import org.fix4j.sbe.transform.TimestampConverter;
+import trading.MetaAttribute;
 
 public interface EnvelopeEncoder<P> extends MessageEncoder<EnvelopeEncoder<P>> {
 
-//    static EnvelopeEncoder<StandardPayloadAccess> create() {
-//        return create(new DefaultStandardPayloadAccess());
-//    }
-//
-//    static <P> EnvelopeEncoder<P> create(PayloadAccessProvider<? extends P> payloadAccessProvider) {
-//        return new DefaultEnvelopeEncoder<>(payloadAccessProvider);
-//    }
+    MetaData TIME_META_DATA = new DefaultMetaData("time", trading.EnvelopeEncoder.timeId(),
+            trading.EnvelopeEncoder.timeMetaAttribute(MetaAttribute.EPOCH),
+            trading.EnvelopeEncoder.timeMetaAttribute(MetaAttribute.TIME_UNIT));
+    TimestampConverter TIME_CONVERTER = TimestampConverter.forMetaData(TIME_META_DATA);
+
+    static EnvelopeEncoder<StandardPayloadView> create() {
+        return create(new StandardPayloadViewProvider());
+    }
+
+    static <P> EnvelopeEncoder<P> create(PayloadViewProvider<? extends P> payloadViewProvider) {
+        return new DefaultEnvelopeEncoder<>(payloadViewProvider);
+    }
 
     EnvelopeEncoder<P> time(long time);
+    default EnvelopeEncoder<P> time(final CachedClock clock) {
+        return time(clock.time(TIME_CONVERTER));
+    }
     EnvelopeEncoder<P> seqNo(long seqNo);
 
     DataEncoder<P> data();
 
+    /**
+     * Returns a payload view provider for the encoder of the nested message.  When the nested message is complete,
+     * the provider back-fills the length of the data field and returns the payload of this envelope, for instance:
+     * <pre>
+     * ExecRptEncoder&lt;P&gt; execRpt = ExecRptEncoder.create(envelope.dataPayloadViewProvider());
+     * P payload = envelope.wrapAndApplyHeader(buffer, offset).time(clock).seqNo(seqNo)
+     *                 .data().wrapAndApplyHeader(execRpt)
+     *                 .symbol("AUDUSD")...rejectText().empty();
+     * </pre>
+     *
+     * @return the payload view provider completing the data field with the nested message
+     */
+    PayloadViewProvider<P> dataPayloadViewProvider();
+
 }
@@ -23,6 +23,7 @@
  */
 package org.fix4j.sbe.sample;
 
+import org.fix4j.sbe.core.Decimal64;
 import org.fix4j.sbe.core.MessageDecoder;
 import org.fix4j.sbe.core.StringDecoder;
 
@@ -40,11 +41,21 @@ public interface ExecRptDecoder extends MessageDecoder<ExecRptDecoder> {
     interface LegGroup extends Iterable<Leg> {
         int count();
         Leg next();
+
+        /**
+         * Positions the group at the leg with the given index.  Legs have a fixed block length, hence the leg is
+         * accessed in constant time;  iteration via {@link #next()} continues with the leg following it.
+         *
+         * @param index the zero based leg index
+         * @return this group positioned at the leg with the given index
+         * @throws IndexOutOfBoundsException if index is negative or not less than count
+         */
+        Leg leg(int index);
     }
 
     interface Leg extends LegGroup {
         StringDecoder settlDate();
         long quantity();
-        double price();
+        Decimal64 price();
     }
 }
@@ -23,6 +23,7 @@
  */
 package org.fix4j.sbe.sample;
 
+import org.fix4j.sbe.core.Decimal64;
 import org.fix4j.sbe.core.MessageEncoder;
 import org.fix4j.sbe.core.StringEncoder;
 import org.fix4j.sbe.payload.PayloadViewProvider;
@@ -49,8 +50,21 @@ public interface ExecRptEncoder<P> extends MessageEncoder<ExecRptEncoder<P>> {
     }
 
     interface Leg<P> extends LegGroup<P> {
+        /** Exponent used to convert double prices, values are rounded half up to this many decimals */
+        int DOUBLE_PRICE_EXPONENT = -8;
+
         StringEncoder<Leg<P>> settlDate();
         Leg<P> quantity(long quantity);
+        Leg<P> price(long mantissa, int exponent);
+        Leg<P> price(Decimal64 price);
+
+        /**
+         * Sets the price from a double value, rounded half up to {@link #DOUBLE_PRICE_EXPONENT} and stripped of
+         * trailing zeros, for instance 1.23 is encoded with mantissa 123 and exponent -2.
+         *
+         * @param price the price as double value
+         * @return this leg
+         */
         Leg<P> price(double price);
     }
 
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.core.DoubleValueDecoder;
+import org.fix4j.sbe.core.DoubleValueEncoder;
+
+import java.util.function.IntFunction;
+
+/**
+ * Codec for double values encoded as ASCII decimal numbers, for instance prices in char fields.
+ * <p>
+ * Values are formatted rounded half up to the codec's max number of decimals, without trailing zero decimals and
+ * without exponent, and parsed from decimal numbers with optional sign and decimal point.  Codecs created via
+ * {@link #fixedDecimals(int)} always format exactly the given number of decimals, for instance "1.20".  See
+ * {@link AsciiNumbers} for the precision of parsed values.
+ */
+public final class AsciiDoubleCodec implements DoubleValueDecoder, DoubleValueEncoder {
+
+    /** Codec formatting values with up to 8 decimals */
+    public static final AsciiDoubleCodec DEFAULT = new AsciiDoubleCodec(8, false);
+
+    private final int maxDecimals;
+    private final boolean fixedDecimals;
+
+    private AsciiDoubleCodec(final int maxDecimals, final boolean fixedDecimals) {
+        if (maxDecimals < 0 || maxDecimals > AsciiNumbers.MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be in [0, " + AsciiNumbers.MAX_DECIMALS + "]: " +
+                    maxDecimals);
+        }
+        this.maxDecimals = maxDecimals;
+        this.fixedDecimals = fixedDecimals;
+    }
+
+    /**
+     * Returns a codec formatting values with at most the given number of decimals.
+     *
+     * @param maxDecimals the max number of decimals from 0 to {@link AsciiNumbers#MAX_DECIMALS}
+     * @return a codec rounding values to maxDecimals
+     */
+    public static AsciiDoubleCodec maxDecimals(final int maxDecimals) {
+        return maxDecimals == DEFAULT.maxDecimals ? DEFAULT : new AsciiDoubleCodec(maxDecimals, false);
+    }
+
+    /**
+     * Returns a codec formatting values with exactly the given number of decimals, keeping trailing zeros.
+     *
+     * @param decimals the number of decimals from 0 to {@link AsciiNumbers#MAX_DECIMALS}
+     * @return a codec rounding values to decimals and padding them with trailing zeros
+     */
+    public static AsciiDoubleCodec fixedDecimals(final int decimals) {
+        return new AsciiDoubleCodec(decimals, true);
+    }
+
+    public int maxDecimals() {
+        return maxDecimals;
+    }
+
+    public boolean fixedDecimals() {
+        return fixedDecimals;
+    }
+
+    @Override
+    public double get(final DirectBuffer buffer, final int offset, final int length) {
+        return AsciiNumbers.parseDouble(buffer, offset, length);
+    }
+
+    @Override
+    public int put(final double value, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
+        if (fixedDecimals) {
+            final long mantissa = Decimal64.mantissa(value, -maxDecimals);
+            final int length = AsciiNumbers.length(mantissa, -maxDecimals);
+            return AsciiNumbers.formatDecimal(mantissa, -maxDecimals, lengthToBuffer.apply(length), 0);
+        }
+        final int length = AsciiNumbers.length(value, maxDecimals);
+        return AsciiNumbers.formatDouble(value, maxDecimals, lengthToBuffer.apply(length), 0);
+    }
+
+    @Override
+    public String toString() {
+        return "AsciiDoubleCodec{maxDecimals=" + maxDecimals + ", fixedDecimals=" + fixedDecimals + "}";
+    }
+}
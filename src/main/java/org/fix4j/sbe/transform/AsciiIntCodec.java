@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.IntValueDecoder;
+import org.fix4j.sbe.core.IntValueEncoder;
+
+import java.util.function.IntFunction;
+
+/**
+ * Codec for int values encoded as ASCII decimal integers;  the int counterpart of {@link AsciiLongCodec}.
+ */
+public final class AsciiIntCodec implements IntValueDecoder, IntValueEncoder {
+
+    /** Codec formatting values with the minimum number of digits */
+    public static final AsciiIntCodec DEFAULT = new AsciiIntCodec(AsciiLongCodec.DEFAULT);
+
+    private final AsciiLongCodec longCodec;
+
+    private AsciiIntCodec(final AsciiLongCodec longCodec) {
+        this.longCodec = longCodec;
+    }
+
+    /**
+     * Returns a codec formatting values with leading zeros to at least the given number of digits.
+     *
+     * @param width the min number of digits
+     * @return a codec padding values with leading zeros
+     */
+    public static AsciiIntCodec zeroPadded(final int width) {
+        return width == 0 ? DEFAULT : new AsciiIntCodec(AsciiLongCodec.zeroPadded(width));
+    }
+
+    public int width() {
+        return longCodec.width();
+    }
+
+    @Override
+    public int get(final DirectBuffer buffer, final int offset, final int length) {
+        return AsciiNumbers.parseInt(buffer, offset, length);
+    }
+
+    @Override
+    public int put(final int value, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
+        return longCodec.put(value, lengthToBuffer);
+    }
+
+    @Override
+    public String toString() {
+        return "AsciiIntCodec{width=" + width() + "}";
+    }
+}
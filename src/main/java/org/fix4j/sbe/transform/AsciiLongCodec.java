@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.LongValueDecoder;
+import org.fix4j.sbe.core.LongValueEncoder;
+
+import java.util.function.IntFunction;
+
+/**
+ * Codec for long values encoded as ASCII decimal integers, for instance quantities or IDs in char fields.
+ * <p>
+ * Values are parsed and formatted directly from and into the buffer via {@link AsciiNumbers}.  A zero padded codec
+ * formats values with leading zeros up to the given number of digits, for instance to fill a fixed length field.
+ */
+public final class AsciiLongCodec implements LongValueDecoder, LongValueEncoder {
+
+    /** Codec formatting values with the minimum number of digits */
+    public static final AsciiLongCodec DEFAULT = new AsciiLongCodec(0);
+
+    private final int width;
+
+    private AsciiLongCodec(final int width) {
+        if (width < 0 || width >= AsciiNumbers.MAX_LONG_LENGTH) {
+            throw new IllegalArgumentException("Width must be in [0, " + AsciiNumbers.MAX_LONG_LENGTH + "): " + width);
+        }
+        this.width = width;
+    }
+
+    /**
+     * Returns a codec formatting values with leading zeros to at least the given number of digits.
+     *
+     * @param width the min number of digits
+     * @return a codec padding values with leading zeros
+     */
+    public static AsciiLongCodec zeroPadded(final int width) {
+        return width == 0 ? DEFAULT : new AsciiLongCodec(width);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public long get(final DirectBuffer buffer, final int offset, final int length) {
+        return AsciiNumbers.parseLong(buffer, offset, length);
+    }
+
+    @Override
+    public int put(final long value, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
+        final int length = AsciiNumbers.length(value);
+        final int padding = Math.max(0, width - (value < 0 ? length - 1 : length));
+        return AsciiNumbers.formatLong(value, width, lengthToBuffer.apply(length + padding), 0);
+    }
+
+    @Override
+    public String toString() {
+        return "AsciiLongCodec{width=" + width + "}";
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.Decimal64;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Parses and formats numbers in ASCII decimal notation directly from and to buffers without intermediate strings.
+ * <p>
+ * Integers are parsed 8 digits at a time if the buffer has 8 readable bytes at the digit position, and formatted two
+ * digits at a time from a lookup table.  Decimals are parsed as unscaled value and scale;  doubles are obtained by a
+ * single exact division if the unscaled value is less than 2^53, and through {@link Double#parseDouble(String)} which
+ * allocates otherwise, hence parsed doubles are always correctly rounded.  Doubles are formatted with at most 14
+ * significant digits and rounded half up as in their shortest decimal representation, that is, 17.465 is rounded to
+ * 17.47.
+ */
+public final class AsciiNumbers {
+
+    /** Max length of a formatted long value: 19 digits plus sign */
+    public static final int MAX_LONG_LENGTH = 20;
+    /** Max number of decimals supported when formatting doubles */
+    public static final int MAX_DECIMALS = 18;
+
+    private static final byte ZERO = '0';
+    private static final byte MINUS = '-';
+    private static final byte PLUS = '+';
+    private static final byte DOT = '.';
+    private static final int MAX_SAFE_DIGITS = 18;
+    private static final double MAX_FORMAT_UNSCALED = 1e14;
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long ZEROS = 0x3030303030303030L;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SAFE_DIGITS + 1];
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+    private static final byte[] MIN_LONG = {
+            '-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5', '4', '7', '7', '5', '8', '0', '8'
+    };
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte)(ZERO + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte)(ZERO + i % 10);
+        }
+    }
+
+    private AsciiNumbers() {
+        throw new IllegalStateException("No AsciiNumbers for you");
+    }
+
+    /**
+     * Parses a decimal integer with optional sign.
+     *
+     * @param buffer the buffer with the ASCII digits
+     * @param offset the offset in buffer
+     * @param length the number of chars
+     * @return the parsed value
+     * @throws NumberFormatException if the chars are not a valid long value
+     */
+    public static long parseLong(final DirectBuffer buffer, final int offset, final int length) {
+        final int signLength = signLength(buffer, offset, length);
+        final boolean negative = signLength > 0 && buffer.getByte(offset) == MINUS;
+        final int digits = length - signLength;
+        if (digits <= 0) {
+            throw invalid(buffer, offset, length);
+        }
+        if (digits <= MAX_SAFE_DIGITS) {
+            final long value = parseDigits(buffer, offset + signLength, digits, offset, length);
+            return negative ? -value : value;
+        }
+        //slow path with overflow checks, accumulating negatively to cover Long.MIN_VALUE
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long limitDiv10 = limit / 10;
+        long value = 0;
+        for (int i = offset + signLength; i < offset + length; i++) {
+            final int digit = buffer.getByte(i) - ZERO;
+            if (digit < 0 || digit > 9) {
+                throw invalid(buffer, offset, length);
+            }
+            if (value < limitDiv10 || value * 10 < limit + digit) {
+                throw new NumberFormatException("Value out of long range: " + toString(buffer, offset, length));
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses a decimal integer with optional sign into an int.
+     *
+     * @throws NumberFormatException if the chars are not a valid int value
+     */
+    public static int parseInt(final DirectBuffer buffer, final int offset, final int length) {
+        final long value = parseLong(buffer, offset, length);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of int range: " + toString(buffer, offset, length));
+        }
+        return (int)value;
+    }
+
+    /**
+     * Parses a decimal number with optional sign and optional decimal point into a double;  exponent notation such as
+     * "1.5e3" is not supported.  The result is correctly rounded like {@link Double#parseDouble(String)}:  values with
+     * an unscaled value of up to 2^53 (all values with at most 15 digits) are converted without allocation, longer
+     * values are converted through a string.
+     *
+     * @param buffer the buffer with the ASCII chars
+     * @param offset the offset in buffer
+     * @param length the number of chars
+     * @return the parsed value
+     * @throws NumberFormatException if the chars are not a valid decimal number, for instance if they use exponent
+     *                               notation
+     */
+    public static double parseDouble(final DirectBuffer buffer, final int offset, final int length) {
+        final int signLength = signLength(buffer, offset, length);
+        final boolean negative = signLength > 0 && buffer.getByte(offset) == MINUS;
+        final int start = offset + signLength;
+        final int end = offset + length;
+        final int dot = indexOfDot(buffer, start, end);
+        final int intDigits = dot - start;
+        final int fracDigits = dot < end ? end - dot - 1 : 0;
+        if (intDigits + fracDigits == 0) {
+            throw invalid(buffer, offset, length);
+        }
+        if (intDigits + fracDigits <= MAX_SAFE_DIGITS) {
+            final long unscaled = unscaled(buffer, start, intDigits, fracDigits, offset, length);
+            if (unscaled < MAX_EXACT_DOUBLE) {
+                final double value = Decimal64.toDouble(unscaled, -fracDigits);
+                return negative ? -value : value;
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                final int digit = buffer.getByte(i) - ZERO;
+                if (i != dot && (digit < 0 || digit > 9)) {
+                    throw invalid(buffer, offset, length);
+                }
+            }
+        }
+        //validated sign, digits and decimal point only:  the JDK's correctly rounded conversion
+        return Double.parseDouble(toString(buffer, offset, length));
+    }
+
+    /**
+     * Parses a decimal number with optional sign and optional decimal point into a fixed point decimal, the exponent
+     * is set to minus the number of decimals, that is, "1.20" yields mantissa 120 and exponent -2.
+     *
+     * @param buffer the buffer with the ASCII chars
+     * @param offset the offset in buffer
+     * @param length the number of chars
+     * @param target the decimal to set
+     * @return the target decimal
+     * @throws NumberFormatException if the chars are not a valid decimal number or have more than 18 digits
+     */
+    public static Decimal64 parseDecimal(final DirectBuffer buffer, final int offset, final int length,
+                                         final Decimal64 target) {
+        final int signLength = signLength(buffer, offset, length);
+        final boolean negative = signLength > 0 && buffer.getByte(offset) == MINUS;
+        final int start = offset + signLength;
+        final int end = offset + length;
+        final int dot = indexOfDot(buffer, start, end);
+        final int intDigits = dot - start;
+        final int fracDigits = dot < end ? end - dot - 1 : 0;
+        if (intDigits + fracDigits == 0) {
+            throw invalid(buffer, offset, length);
+        }
+        if (intDigits + fracDigits > MAX_SAFE_DIGITS || fracDigits > -Decimal64.MIN_EXPONENT) {
+            throw new NumberFormatException("Too many digits for decimal: " + toString(buffer, offset, length));
+        }
+        final long unscaled = unscaled(buffer, start, intDigits, fracDigits, offset, length);
+        return target.set(negative ? -unscaled : unscaled, -fracDigits);
+    }
+
+    /**
+     * Returns the number of chars required to format the given decimal value.
+     *
+     * @param mantissa the mantissa of the value
+     * @param exponent the exponent of the value
+     * @return the number of chars including sign and decimal point
+     */
+    public static int length(final long mantissa, final int exponent) {
+        if (exponent >= 0) {
+            return mantissa == 0 ? 1 : length(mantissa) + exponent;
+        }
+        final int signLength = mantissa < 0 ? 1 : 0;
+        final int digits = length(mantissa) - signLength;
+        return signLength + Math.max(digits, 1 - exponent) + 1;
+    }
+
+    /**
+     * Formats a decimal value in plain notation keeping all decimals of the exponent, for instance mantissa 120 and
+     * exponent -2 is formatted as "1.20" and mantissa 12 with exponent 2 as "1200".
+     *
+     * @param mantissa the mantissa of the value
+     * @param exponent the exponent of the value
+     * @param buffer   the target buffer
+     * @param offset   the offset in buffer
+     * @return the number of chars written
+     */
+    public static int formatDecimal(final long mantissa, final int exponent,
+                                    final MutableDirectBuffer buffer, final int offset) {
+        if (exponent >= 0) {
+            if (mantissa == 0) {
+                buffer.putByte(offset, ZERO);
+                return 1;
+            }
+            final int length = formatLong(mantissa, 0, buffer, offset);
+            buffer.setMemory(offset + length, exponent, ZERO);
+            return length + exponent;
+        }
+        final int signLength = mantissa < 0 ? 1 : 0;
+        final int decimals = -exponent;
+        //mantissa digits padded with leading zeros to have at least one integer digit
+        final int width = decimals + 1;
+        final int length = formatLong(mantissa, width, buffer, offset);
+        final int dot = offset + length - decimals;
+        for (int i = offset + length; i > dot; i--) {
+            buffer.putByte(i, buffer.getByte(i - 1));
+        }
+        buffer.putByte(dot, DOT);
+        return length + 1;
+    }
+
+    /**
+     * Returns the number of chars required to format the given value.
+     *
+     * @param value the value
+     * @return the number of chars including sign
+     */
+    public static int length(final long value) {
+        if (value < 0) {
+            return value == Long.MIN_VALUE ? MIN_LONG.length : 1 + digitCount(-value);
+        }
+        return digitCount(value);
+    }
+
+    /**
+     * Formats a long value.
+     *
+     * @param value     the value to format
+     * @param width     the min number of digits, leading zeros are added if necessary
+     * @param buffer    the target buffer
+     * @param offset    the offset in buffer
+     * @return the number of chars written
+     */
+    public static int formatLong(final long value, final int width,
+                                 final MutableDirectBuffer buffer, final int offset) {
+        if (value == Long.MIN_VALUE) {
+            final int padding = Math.max(0, width - (MIN_LONG.length - 1));
+            buffer.putByte(offset, MINUS);
+            if (padding > 0) {
+                buffer.setMemory(offset + 1, padding, ZERO);
+            }
+            buffer.putBytes(offset + 1 + padding, MIN_LONG, 1, MIN_LONG.length - 1);
+            return MIN_LONG.length + padding;
+        }
+        final int signLength = value < 0 ? 1 : 0;
+        final long abs = Math.abs(value);
+        final int digits = digitCount(abs);
+        final int padding = Math.max(0, width - digits);
+        if (signLength > 0) {
+            buffer.putByte(offset, MINUS);
+        }
+        if (padding > 0) {
+            buffer.setMemory(offset + signLength, padding, ZERO);
+        }
+        final int length = signLength + padding + digits;
+        putDigits(abs, buffer, offset + length, digits);
+        return length;
+    }
+
+    /**
+     * Returns the number of chars required to format the given value with at most maxDecimals decimals.
+     *
+     * @param value         the value, must be finite
+     * @param maxDecimals   the max number of decimals from 0 to {@link #MAX_DECIMALS}
+     * @return the number of chars including sign and decimal point
+     * @throws IllegalArgumentException if value is not finite or too large
+     */
+    public static int length(final double value, final int maxDecimals) {
+        final int scale = scale(value, maxDecimals);
+        final long unscaled = unscaled(value, scale);
+        final int decimals = decimals(unscaled, scale);
+        final long abs = Math.abs(unscaled);
+        final int sign = unscaled < 0 ? 1 : 0;
+        final int intDigits = digitCount(abs / POWERS_OF_TEN[scale]);
+        return sign + intDigits + (decimals > 0 ? 1 + decimals : 0);
+    }
+
+    /**
+     * Formats a double value rounded half up to at most maxDecimals decimals, without trailing zero decimals.  Fewer
+     * decimals are formatted if more than 14 significant digits would be required for maxDecimals.
+     *
+     * @param value         the value, must be finite
+     * @param maxDecimals   the max number of decimals from 0 to {@link #MAX_DECIMALS}
+     * @param buffer        the target buffer
+     * @param offset        the offset in buffer
+     * @return the number of chars written
+     * @throws IllegalArgumentException if value is not finite or too large
+     */
+    public static int formatDouble(final double value, final int maxDecimals,
+                                   final MutableDirectBuffer buffer, final int offset) {
+        final int scale = scale(value, maxDecimals);
+        final long unscaled = unscaled(value, scale);
+        final int decimals = decimals(unscaled, scale);
+        final long abs = Math.abs(unscaled);
+        final long intPart = abs / POWERS_OF_TEN[scale];
+        final long fracPart = (abs % POWERS_OF_TEN[scale]) / POWERS_OF_TEN[scale - decimals];
+        int pos = offset;
+        if (unscaled < 0) {
+            buffer.putByte(pos++, MINUS);
+        }
+        final int intDigits = digitCount(intPart);
+        pos += intDigits;
+        putDigits(intPart, buffer, pos, intDigits);
+        if (decimals > 0) {
+            buffer.putByte(pos++, DOT);
+            pos += decimals;
+            putDigits(fracPart, buffer, pos, decimals);
+        }
+        return pos - offset;
+    }
+
+    /**
+     * @return the number of digits of a non-negative value
+     */
+    static int digitCount(final long value) {
+        int digits = 1;
+        while (digits <= MAX_SAFE_DIGITS && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Writes the digits of a non-negative value backwards, ending before the given end offset.
+     */
+    private static void putDigits(final long value, final MutableDirectBuffer buffer, final int end,
+                                  final int digits) {
+        long remaining = value;
+        int pos = end;
+        while (pos - 2 >= end - digits) {
+            final int pair = (int)(remaining % 100);
+            remaining /= 100;
+            pos -= 2;
+            buffer.putByte(pos, DIGIT_PAIRS[2 * pair]);
+            buffer.putByte(pos + 1, DIGIT_PAIRS[2 * pair + 1]);
+        }
+        if (pos > end - digits) {
+            buffer.putByte(pos - 1, (byte)(ZERO + remaining % 10));
+        }
+    }
+
+    /**
+     * Returns the number of decimals to format, maxDecimals reduced so that the unscaled value has at most 14 digits
+     * and hence no digits beyond double precision.
+     */
+    private static int scale(final double value, final int maxDecimals) {
+        if (maxDecimals < 0 || maxDecimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be in [0, " + MAX_DECIMALS + "]: " + maxDecimals);
+        }
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Cannot format " + value);
+        }
+        final double abs = Math.abs(value);
+        if (abs >= Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of long range: " + value);
+        }
+        int scale = maxDecimals;
+        while (scale > 0 && abs * POWERS_OF_TEN[scale] >= MAX_FORMAT_UNSCALED) {
+            scale--;
+        }
+        return scale;
+    }
+
+    private static long unscaled(final double value, final int scale) {
+        return Decimal64.mantissa(value, -scale);
+    }
+
+    /**
+     * @return the number of decimals without trailing zeros
+     */
+    private static int decimals(final long unscaled, final int maxDecimals) {
+        long remaining = Math.abs(unscaled);
+        int decimals = maxDecimals;
+        while (decimals > 0 && remaining % 10 == 0) {
+            remaining /= 10;
+            decimals--;
+        }
+        return decimals;
+    }
+
+    private static int signLength(final DirectBuffer buffer, final int offset, final int length) {
+        if (length > 0) {
+            final byte first = buffer.getByte(offset);
+            return first == MINUS || first == PLUS ? 1 : 0;
+        }
+        return 0;
+    }
+
+    private static int indexOfDot(final DirectBuffer buffer, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.getByte(i) == DOT) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static long unscaled(final DirectBuffer buffer, final int start, final int intDigits,
+                                 final int fracDigits, final int offset, final int length) {
+        final long intPart = intDigits == 0 ? 0 : parseDigits(buffer, start, intDigits, offset, length);
+        final long fracPart = fracDigits == 0 ? 0 : parseDigits(buffer, start + intDigits + 1, fracDigits, offset, length);
+        return intPart * POWERS_OF_TEN[fracDigits] + fracPart;
+    }
+
+    /**
+     * Parses at most 18 digits, 8 at a time if the buffer capacity permits.
+     */
+    private static long parseDigits(final DirectBuffer buffer, final int start, final int digits,
+                                    final int offset, final int length) {
+        final int end = start + digits;
+        final int capacity = buffer.capacity();
+        long value = 0;
+        int i = start;
+        for (; i + Long.BYTES <= end && i + Long.BYTES <= capacity; i += Long.BYTES) {
+            final long word = buffer.getLong(i, LITTLE_ENDIAN);
+            if (!isEightDigits(word)) {
+                throw invalid(buffer, offset, length);
+            }
+            value = value * POWERS_OF_TEN[8] + eightDigits(word);
+        }
+        for (; i < end; i++) {
+            final int digit = buffer.getByte(i) - ZERO;
+            if (digit < 0 || digit > 9) {
+                throw invalid(buffer, offset, length);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    static boolean isEightDigits(final long word) {
+        return ((word & 0xf0f0f0f0f0f0f0f0L) | (((word + 0x0606060606060606L) & 0xf0f0f0f0f0f0f0f0L) >>> 4)) ==
+                0x3333333333333333L;
+    }
+
+    /**
+     * Converts 8 ASCII digits read in little endian byte order into their value, first digit most significant.
+     */
+    static long eightDigits(final long word) {
+        long value = word - ZEROS;
+        value = (value * 10) + (value >>> 8);
+        return (((value & 0x000000ff000000ffL) * (100 + (1000000L << 32))) +
+                (((value >>> 16) & 0x000000ff000000ffL) * (1 + (10000L << 32)))) >>> 32;
+    }
+
+    private static NumberFormatException invalid(final DirectBuffer buffer, final int offset, final int length) {
+        return new NumberFormatException("Invalid number: '" + toString(buffer, offset, length) + "'");
+    }
+
+    private static String toString(final DirectBuffer buffer, final int offset, final int length) {
+        return buffer.getStringWithoutLengthAscii(offset, length);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.EpochMicroClock;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Wall clock returning the time cached by the last {@link #update()} call, for stamping messages without reading
+ * the system clock for every message.
+ * <p>
+ * The owner of the clock calls {@link #update()} once per duty cycle, for instance before processing a batch of
+ * messages;  all timestamps taken until the next update have the same value.  The default source clock derives
+ * epoch nanos from {@link System#nanoTime()} and an offset sampled once, hence even updates avoid the allocation
+ * and system call of reading the calendar clock.  A single thread must update the clock, but any thread may read
+ * the cached time.
+ */
+public final class CachedClock implements EpochClock, EpochMicroClock, EpochNanoClock {
+
+    private static final long NANOS_PER_MICRO = 1000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final EpochNanoClock source;
+    private volatile long epochNanos;
+
+    public CachedClock() {
+        this(new OffsetEpochNanoClock());
+    }
+
+    public CachedClock(final EpochNanoClock source) {
+        this.source = requireNonNull(source);
+        update();
+    }
+
+    /**
+     * Reads the source clock and caches the current time.
+     *
+     * @return the current time in nanos since the epoch
+     */
+    public long update() {
+        final long now = source.nanoTime();
+        epochNanos = now;
+        return now;
+    }
+
+    /**
+     * Sets the cached time explicitly, for instance when replaying messages.
+     *
+     * @param epochNanos the time in nanos since the epoch
+     */
+    public void update(final long epochNanos) {
+        this.epochNanos = epochNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return epochNanos;
+    }
+
+    @Override
+    public long microTime() {
+        return Math.floorDiv(epochNanos, NANOS_PER_MICRO);
+    }
+
+    /**
+     * @return the cached time in millis since the epoch
+     */
+    @Override
+    public long time() {
+        return Math.floorDiv(epochNanos, NANOS_PER_MILLI);
+    }
+
+    /**
+     * @param unit the time unit of the result
+     * @return the cached time in the given unit since the epoch
+     */
+    public long time(final TimeUnit unit) {
+        return TimestampConverter.convert(epochNanos, TimeUnit.NANOSECONDS, unit);
+    }
+
+    /**
+     * Returns the cached time as value for a timestamp field, for instance for an encoder's time field.
+     *
+     * @param converter the converter of the timestamp field
+     * @return the cached time in the field's time unit
+     */
+    public long time(final TimestampConverter converter) {
+        return converter.fromNanos(epochNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedClock{epochNanos=" + epochNanos + "}";
+    }
+}
@@ -27,18 +27,36 @@ import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.fix4j.sbe.core.ValueDecoder;
+import org.fix4j.sbe.core.Swar;
 import org.fix4j.sbe.core.ValueEncoder;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
 import static org.fix4j.sbe.cache.DirectBufferComparator.ASCII;
 
+/**
+ * Codec for enum values encoded as their name in ASCII characters.
+ * <p>
+ * All names are encoded once when the codec is created into a single buffer.  Values are encoded by copying the
+ * pre-encoded name bytes of the value's ordinal, and decoded via a minimal perfect hash table built for the enum's
+ * names:  the hash of the input selects exactly one candidate name which is then compared with the input.  Should no
+ * perfect hash be found for an enum, decoding falls back to binary search of the sorted names.
+ *
+ * @param <E> the enum type
+ */
 public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueEncoder<E> {
+    private static final long PRIME = 0x9E3779B97F4A7C15L;
+    private static final int MAX_SEED_ATTEMPTS = 1 << 10;
+    private static final int MAX_TABLE_BITS = 16;
+    private static final int EMPTY = -1;
+
     private final E[] enumValues;
     private final Class<E> enumType;
     private final DirectBuffer[] enumNames;
@@ -46,6 +64,19 @@ public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueE
     private final Function<? super DirectBuffer, ? extends E> valueForUnknownString;
     private final DirectBuffer view = new UnsafeBuffer(0, 0);
 
+    //pre-encoded names
+    private final UnsafeBuffer names;
+    private final int[] nameOffsets;
+    private final int[] nameLengths;
+    private final int[] nameIndexByOrdinal;
+    private final E[] enumValuesByOrdinal;
+    private final int enumNameMaxLength;
+
+    //perfect hash table from hash to name index, null if none was found
+    private final int[] hashTable;
+    private final long hashSeed;
+    private final int hashShift;
+
     public EnumNameCodec(final Class<E> enumType) {
         this(enumType, null, (E)null);
     }
@@ -59,14 +90,53 @@ public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueE
     public EnumNameCodec(final Class<E> enumType,
                          final Supplier<? extends E> valueForEmptyString,
                          final Function<? super DirectBuffer, ? extends E> valueForUnknownString) {
-        this.enumValues = enumType.getEnumConstants();
-        if (enumValues == null) {
+        this.enumValuesByOrdinal = enumType.getEnumConstants();
+        if (enumValuesByOrdinal == null) {
             throw new IllegalArgumentException(enumType.getName() + " is not an enum type");
         }
+        this.enumValues = enumValuesByOrdinal.clone();
         this.enumType = enumType;
         this.valueForEmptyString = requireNonNull(valueForEmptyString);
         this.valueForUnknownString = requireNonNull(valueForUnknownString);
-        this.enumNames = sortByName(enumValues);
+        final int count = enumValues.length;
+        this.nameOffsets = new int[count];
+        this.nameLengths = new int[count];
+        this.nameIndexByOrdinal = new int[count];
+        this.names = encodeNames(sortByName(enumValues), nameOffsets, nameLengths);
+        this.enumNames = new DirectBuffer[count];
+        int maxLength = 0;
+        for (int i = 0; i < count; i++) {
+            enumNames[i] = new UnsafeBuffer(names, nameOffsets[i], nameLengths[i]);
+            nameIndexByOrdinal[enumValues[i].ordinal()] = i;
+            maxLength = Math.max(maxLength, nameLengths[i]);
+        }
+        this.enumNameMaxLength = maxLength;
+
+        //find perfect hash, doubling the table size if no seed without collisions is found
+        final long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = hash(names, nameOffsets[i], nameLengths[i]);
+        }
+        final SplittableRandom random = new SplittableRandom(count);
+        int bits = 1 + Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, count - 1));
+        int[] table = null;
+        long seed = 0;
+        while (table == null && bits <= MAX_TABLE_BITS) {
+            final int[] candidate = new int[1 << bits];
+            Arrays.fill(candidate, EMPTY);
+            for (int attempt = 0; table == null && attempt < MAX_SEED_ATTEMPTS; attempt++) {
+                seed = random.nextLong() | 1;
+                if (fillHashTable(hashes, seed, bits, candidate)) {
+                    table = candidate;
+                }
+            }
+            if (table == null) {
+                bits++;
+            }
+        }
+        this.hashTable = table;
+        this.hashSeed = seed;
+        this.hashShift = Long.SIZE - bits;
     }
 
     public Class<E> enumType() {
@@ -78,11 +148,7 @@ public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueE
     }
 
     public int enumNameMaxLength() {
-        int max = 0;
-        for (final E value : enumValues) {
-            max = Math.max(max, value.name().length());
-        }
-        return max;
+        return enumNameMaxLength;
     }
 
     public E enumValueByNameIndex(final int index) {
@@ -99,15 +165,17 @@ public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueE
 
     @Override
     public E get(final DirectBuffer buffer, final int offset, final int length) {
+        if (length == 0) {
+            return valueForEmptyString();
+        }
+        final int index = length > enumNameMaxLength ? EMPTY :
+                hashTable != null ? hashLookup(buffer, offset, length)
+                        : binarySearch(buffer, offset, length);
+        if (index >= 0) {
+            return enumValues[index];
+        }
         view.wrap(buffer, offset, length);
         try {
-            if (length == 0) {
-                return valueForEmptyString();
-            }
-            final int index = Arrays.binarySearch(enumNames, view, ASCII);
-            if (index >= 0) {
-                return enumValues[index];
-            }
             return valueForUnknownString(view);
         } finally {
             view.wrap(0, 0);
@@ -116,53 +184,118 @@ public class EnumNameCodec<E extends Enum<E>> implements ValueDecoder<E>, ValueE
 
     @Override
     public int put(final E value, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
-        final String name;
-        if (value != null) {
-            final Class<?> type = value.getClass();
-            if (type != enumType && type.getSuperclass() != enumType) {
-                throw new IllegalArgumentException("Invalid enum value " + value + " of type " + type.getName() +
-                        " (expected: " + enumType.getName() + ")");
+        if (value == null) {
+            lengthToBuffer.apply(0);
+            return 0;
+        }
+        final int ordinal = value.ordinal();
+        if (ordinal >= enumValuesByOrdinal.length || enumValuesByOrdinal[ordinal] != value) {
+            throw new IllegalArgumentException("Invalid enum value " + value + " of type " +
+                    value.getClass().getName() + " (expected: " + enumType.getName() + ")");
+        }
+        final int index = nameIndexByOrdinal[ordinal];
+        final int length = nameLengths[index];
+        final MutableDirectBuffer buffer = lengthToBuffer.apply(length);
+        buffer.putBytes(0, names, nameOffsets[index], length);
+        return length;
+    }
+
+    private int hashLookup(final DirectBuffer buffer, final int offset, final int length) {
+        final int index = hashTable[(int)((hash(buffer, offset, length) * hashSeed) >>> hashShift)];
+        return index != EMPTY && nameEquals(index, buffer, offset, length) ? index : EMPTY;
+    }
+
+    private int binarySearch(final DirectBuffer buffer, final int offset, final int length) {
+        view.wrap(buffer, offset, length);
+        try {
+            return Math.max(EMPTY, Arrays.binarySearch(enumNames, view, ASCII));
+        } finally {
+            view.wrap(0, 0);
+        }
+    }
+
+    private boolean nameEquals(final int index, final DirectBuffer buffer, final int offset, final int length) {
+        if (nameLengths[index] != length) {
+            return false;
+        }
+        final int nameOffset = nameOffsets[index];
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if (names.getLong(nameOffset + i, LITTLE_ENDIAN) != buffer.getLong(offset + i, LITTLE_ENDIAN)) {
+                return false;
             }
-            name = value.name();
-        } else {
-            name = "";
         }
-        final int chars = name.length();
-        final MutableDirectBuffer buffer = lengthToBuffer.apply(chars);
-        for (int i = 0; i < chars; i++) {
-            putAscii(buffer, i, name.charAt(i));
+        return i == length ||
+                Swar.getWord(names, nameOffset + i, length - i) == Swar.getWord(buffer, offset + i, length - i);
+    }
+
+    private static long hash(final DirectBuffer buffer, final int offset, final int length) {
+        long hash = length;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            hash = (hash ^ buffer.getLong(offset + i, LITTLE_ENDIAN)) * PRIME;
+        }
+        if (i < length) {
+            hash = (hash ^ Swar.getWord(buffer, offset + i, length - i)) * PRIME;
         }
-        return chars;
+        return hash ^ (hash >>> 29);
     }
 
-    private static DirectBuffer[] sortByName(final Enum<?>[] values) {
-        final int length = values.length;
-        int totalLength = 0;
+    /**
+     * Fills the name index per slot into the given empty table;  the table is left empty again if the seed yields a
+     * collision.
+     *
+     * @return true if the table was filled without collision
+     */
+    private static boolean fillHashTable(final long[] hashes, final long seed, final int bits, final int[] table) {
+        final int shift = Long.SIZE - bits;
+        for (int i = 0; i < hashes.length; i++) {
+            final int slot = (int)((hashes[i] * seed) >>> shift);
+            if (table[slot] != EMPTY) {
+                for (int j = 0; j < i; j++) {
+                    table[(int)((hashes[j] * seed) >>> shift)] = EMPTY;
+                }
+                return false;
+            }
+            table[slot] = i;
+        }
+        return true;
+    }
 
-        //1) sort by name (yes, the primitive "slow" way)
-        for (int i = 1; i < length; i++) {
+    private static <T extends Enum<?>> T[] sortByName(final T[] values) {
+        //sort by name (yes, the primitive "slow" way)
+        for (int i = 1; i < values.length; i++) {
             final String name = values[i].name();
             for (int j = i; j > 0 && name.compareTo(values[j - 1].name()) < 0; j--) {
                 swap(values, j, j - 1);
             }
-            totalLength += name.length();
         }
+        return values;
+    }
 
-        //2) allocate name buffers, backed by single continuous byte buffer
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(totalLength);
-        final DirectBuffer[] names = new DirectBuffer[length];
+    /**
+     * Encodes all names into a single continuous buffer, padded so that the last name can be read as a full word.
+     *
+     * @return the buffer with all names
+     */
+    private static UnsafeBuffer encodeNames(final Enum<?>[] values, final int[] offsets, final int[] lengths) {
+        int totalLength = 0;
+        for (final Enum<?> value : values) {
+            totalLength += value.name().length();
+        }
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(totalLength + Long.BYTES));
         int offset = 0;
-        for (int i = 0; i < length; i++) {
+        for (int i = 0; i < values.length; i++) {
             final String name = values[i].name();
             final int chars = name.length();
-            final UnsafeBuffer unsafeBuffer = new UnsafeBuffer(byteBuffer, offset, chars);
             for (int j = 0; j < chars; j++) {
-                putAscii(unsafeBuffer, j, name.charAt(j));
+                putAscii(buffer, offset + j, name.charAt(j));
             }
-            names[i] = unsafeBuffer;
+            offsets[i] = offset;
+            lengths[i] = chars;
             offset += chars;
         }
-        return names;
+        return buffer;
     }
 
     private static void putAscii(final MutableDirectBuffer buffer, final int index, final char ch) {
@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.IntValueDecoder;
+import org.fix4j.sbe.core.IntValueEncoder;
+
+import java.util.function.IntFunction;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Codec for FIX LocalMktDate values in {@code yyyyMMdd} ASCII format, converted to and from the number of days since
+ * 1970-01-01 as used by {@link java.time.LocalDate#toEpochDay()}.
+ * <p>
+ * The 8 digits are read and validated as a single word and the date is computed arithmetically, hence no objects are
+ * created when decoding or encoding.  An empty field, for instance a fixed length field with only zero bytes, is
+ * decoded as {@link #NULL_VALUE} and {@link #NULL_VALUE} is encoded as empty field.
+ */
+public final class LocalMktDateCodec implements IntValueDecoder, IntValueEncoder {
+
+    public static final LocalMktDateCodec DEFAULT = new LocalMktDateCodec();
+
+    /** Epoch day value for an empty date field */
+    public static final int NULL_VALUE = Integer.MIN_VALUE;
+    /** Length of a date in yyyyMMdd format */
+    public static final int LENGTH = 8;
+    /** Epoch day of 0000-01-01 */
+    public static final int MIN_EPOCH_DAY = -719528;
+    /** Epoch day of 9999-12-31 */
+    public static final int MAX_EPOCH_DAY = 2932896;
+
+    private static final int DAYS_PER_CYCLE = 146097;
+    private static final long ZEROS = 0x3030303030303030L;
+
+    private LocalMktDateCodec() {
+        //use DEFAULT
+    }
+
+    @Override
+    public int get(final DirectBuffer buffer, final int offset, final int length) {
+        if (length == 0) {
+            return NULL_VALUE;
+        }
+        final int yyyyMMdd = length == LENGTH ? yyyyMMdd(buffer, offset) : -1;
+        if (yyyyMMdd < 0) {
+            throw invalid(buffer, offset, length);
+        }
+        return epochDay(yyyyMMdd / 10000, (yyyyMMdd / 100) % 100, yyyyMMdd % 100);
+    }
+
+    @Override
+    public int put(final int epochDay, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
+        if (epochDay == NULL_VALUE) {
+            lengthToBuffer.apply(0);
+            return 0;
+        }
+        final long word = toWord(toYyyyMMdd(epochDay));
+        lengthToBuffer.apply(LENGTH).putLong(0, word, LITTLE_ENDIAN);
+        return LENGTH;
+    }
+
+    /**
+     * Returns the epoch day of a date without validation of the date fields.
+     *
+     * @param year  the year from 0 to 9999
+     * @param month the month from 1 to 12
+     * @param day   the day of month from 1 to 31
+     * @return the number of days since 1970-01-01
+     */
+    public static int epochDay(final int year, final int month, final int day) {
+        //days since 0000-03-01, with years starting in March so that the leap day is the last day of the year
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_CYCLE + dayOfEra - 719468;
+    }
+
+    /**
+     * Converts an epoch day into an int with the decimal digits yyyyMMdd.
+     *
+     * @param epochDay the number of days since 1970-01-01, from {@link #MIN_EPOCH_DAY} to {@link #MAX_EPOCH_DAY}
+     * @return the date as int, for instance 20191010
+     * @throws IllegalArgumentException if the epoch day is out of range
+     */
+    public static int toYyyyMMdd(final int epochDay) {
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new IllegalArgumentException("Epoch day out of range [" + MIN_EPOCH_DAY + ", " + MAX_EPOCH_DAY +
+                    "]: " + epochDay);
+        }
+        final int days = epochDay + 719468;
+        final int era = Math.floorDiv(days, DAYS_PER_CYCLE);
+        final int dayOfEra = days - era * DAYS_PER_CYCLE;
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int monthIndex = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        final int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        final int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Reads and validates a date in yyyyMMdd format.
+     *
+     * @param buffer the buffer with at least 8 bytes at offset
+     * @param offset the offset of the date
+     * @return the date as int, or -1 if the 8 chars are not a valid date
+     */
+    static int yyyyMMdd(final DirectBuffer buffer, final int offset) {
+        final long word = offset + Long.BYTES <= buffer.capacity() ? buffer.getLong(offset, LITTLE_ENDIAN) :
+                bytesToWord(buffer, offset);
+        if (!AsciiNumbers.isEightDigits(word)) {
+            return -1;
+        }
+        final int yyyyMMdd = (int)AsciiNumbers.eightDigits(word);
+        final int year = yyyyMMdd / 10000;
+        final int month = (yyyyMMdd / 100) % 100;
+        final int day = yyyyMMdd % 100;
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return -1;
+        }
+        return yyyyMMdd;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return the 8 ASCII digits of value in little endian byte order, most significant digit first
+     */
+    static long toWord(final int value) {
+        long word = ZEROS;
+        int remaining = value;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            word |= (long)(remaining % 10) << shift;
+            remaining /= 10;
+        }
+        return word;
+    }
+
+    private static long bytesToWord(final DirectBuffer buffer, final int offset) {
+        long word = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            word |= (buffer.getByte(offset + i) & 0xffL) << (8 * i);
+        }
+        return word;
+    }
+
+    private static IllegalArgumentException invalid(final DirectBuffer buffer, final int offset, final int length) {
+        return new IllegalArgumentException("Invalid LocalMktDate: '" +
+                buffer.getStringWithoutLengthAscii(offset, length) + "'");
+    }
+
+    @Override
+    public String toString() {
+        return "LocalMktDateCodec";
+    }
+}
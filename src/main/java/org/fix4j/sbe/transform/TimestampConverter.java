@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.fix4j.sbe.meta.MetaData;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Converts timestamp field values between the time unit declared in the field's {@link MetaData} and nanos, micros
+ * or millis since the unix epoch.
+ * <p>
+ * Conversions to a coarser unit round towards negative infinity so that timestamps before the epoch are converted
+ * consistently, conversions to a finer unit saturate at {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE} as with
+ * {@link TimeUnit#convert(long, TimeUnit)}.
+ */
+public final class TimestampConverter {
+
+    /** Epoch of SBE time fields if none is declared */
+    public static final String UNIX_EPOCH = "unix";
+
+    public static final TimestampConverter NANOS = new TimestampConverter(TimeUnit.NANOSECONDS);
+    public static final TimestampConverter MICROS = new TimestampConverter(TimeUnit.MICROSECONDS);
+    public static final TimestampConverter MILLIS = new TimestampConverter(TimeUnit.MILLISECONDS);
+    public static final TimestampConverter SECONDS = new TimestampConverter(TimeUnit.SECONDS);
+
+    private final TimeUnit fieldUnit;
+
+    private TimestampConverter(final TimeUnit fieldUnit) {
+        this.fieldUnit = requireNonNull(fieldUnit);
+    }
+
+    /**
+     * Returns the converter for the given field unit.
+     *
+     * @param fieldUnit one of seconds, millis, micros or nanos
+     * @return the converter for fieldUnit
+     * @throws IllegalArgumentException if fieldUnit is coarser than seconds
+     */
+    public static TimestampConverter of(final TimeUnit fieldUnit) {
+        switch (fieldUnit) {
+            case NANOSECONDS:
+                return NANOS;
+            case MICROSECONDS:
+                return MICROS;
+            case MILLISECONDS:
+                return MILLIS;
+            case SECONDS:
+                return SECONDS;
+            default:
+                throw new IllegalArgumentException("Unsupported timestamp unit: " + fieldUnit);
+        }
+    }
+
+    /**
+     * Returns the converter for the epoch and time unit of the given field meta data.
+     *
+     * @param metaData the meta data of a timestamp field
+     * @return the converter for the field
+     * @throws IllegalArgumentException if the epoch is not unix or the time unit is not supported
+     */
+    public static TimestampConverter forMetaData(final MetaData metaData) {
+        final String epoch = metaData.epoch();
+        if (!epoch.isEmpty() && !UNIX_EPOCH.equals(epoch)) {
+            throw new IllegalArgumentException("Unsupported epoch for field " + metaData.name() + ": " + epoch);
+        }
+        return of(timeUnit(metaData.timeUnit()));
+    }
+
+    /**
+     * Returns the time unit for an SBE time unit name;  an empty name yields nanoseconds, the SBE default.
+     *
+     * @param timeUnit the time unit name, for instance "nanosecond" or "ms"
+     * @return the time unit
+     * @throws IllegalArgumentException if the name is not a known time unit
+     */
+    public static TimeUnit timeUnit(final String timeUnit) {
+        switch (timeUnit) {
+            case "":
+            case "nanosecond":
+            case "nanoseconds":
+            case "ns":
+                return TimeUnit.NANOSECONDS;
+            case "microsecond":
+            case "microseconds":
+            case "us":
+                return TimeUnit.MICROSECONDS;
+            case "millisecond":
+            case "milliseconds":
+            case "ms":
+                return TimeUnit.MILLISECONDS;
+            case "second":
+            case "seconds":
+            case "s":
+                return TimeUnit.SECONDS;
+            default:
+                throw new IllegalArgumentException("Unsupported time unit: " + timeUnit);
+        }
+    }
+
+    public TimeUnit fieldUnit() {
+        return fieldUnit;
+    }
+
+    /**
+     * Converts a field value into the given unit.
+     *
+     * @param fieldValue the field value in field units since the epoch
+     * @param unit       the target unit
+     * @return the value in target units since the epoch
+     */
+    public long convert(final long fieldValue, final TimeUnit unit) {
+        return convert(fieldValue, fieldUnit, unit);
+    }
+
+    /**
+     * Converts a value in the given unit into a field value.
+     *
+     * @param value the value in the given units since the epoch
+     * @param unit  the unit of value
+     * @return the field value in field units since the epoch
+     */
+    public long fieldValue(final long value, final TimeUnit unit) {
+        return convert(value, unit, fieldUnit);
+    }
+
+    public long toNanos(final long fieldValue) {
+        return convert(fieldValue, TimeUnit.NANOSECONDS);
+    }
+
+    public long toMicros(final long fieldValue) {
+        return convert(fieldValue, TimeUnit.MICROSECONDS);
+    }
+
+    public long toMillis(final long fieldValue) {
+        return convert(fieldValue, TimeUnit.MILLISECONDS);
+    }
+
+    public long fromNanos(final long nanos) {
+        return fieldValue(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long fromMicros(final long micros) {
+        return fieldValue(micros, TimeUnit.MICROSECONDS);
+    }
+
+    public long fromMillis(final long millis) {
+        return fieldValue(millis, TimeUnit.MILLISECONDS);
+    }
+
+    static long convert(final long value, final TimeUnit from, final TimeUnit to) {
+        if (from.compareTo(to) >= 0) {
+            return to.convert(value, from);
+        }
+        return Math.floorDiv(value, from.convert(1, to));
+    }
+
+    @Override
+    public String toString() {
+        return "TimestampConverter{fieldUnit=" + fieldUnit + "}";
+    }
+}
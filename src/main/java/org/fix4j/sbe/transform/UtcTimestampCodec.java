@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe.transform;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.LongValueDecoder;
+import org.fix4j.sbe.core.LongValueEncoder;
+import org.fix4j.sbe.meta.MetaData;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Codec for FIX UTCTimestamp values in {@code yyyyMMdd-HH:mm:ss[.sss|.ssssss|.sssssssss]} ASCII format, converted to
+ * and from long values since the unix epoch.
+ * <p>
+ * The unit of the long values is given by the value unit, for instance the unit of an SBE time field as per
+ * {@link TimestampConverter#forMetaData(MetaData)};  the precision determines the number of decimals of formatted
+ * seconds.  Decoding accepts 0 to 9 decimals independent of the precision, fractions finer than the value unit are
+ * truncated.  An empty field is decoded as {@link #NULL_VALUE} and {@link #NULL_VALUE} is encoded as empty field.
+ * No objects are created when decoding or encoding.
+ */
+public final class UtcTimestampCodec implements LongValueDecoder, LongValueEncoder {
+
+    /** Value for an empty timestamp field */
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+    /** Length of a timestamp without fraction of second */
+    public static final int SECONDS_LENGTH = 17;
+
+    private static final long SECONDS_PER_DAY = 86400;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final byte DASH = '-';
+    private static final byte COLON = ':';
+    private static final byte DOT = '.';
+    private static final byte ZERO = '0';
+
+    private final TimeUnit valueUnit;
+    private final TimeUnit precision;
+    private final long unitsPerSecond;
+    private final long nanosPerUnit;
+    private final int decimals;
+    private final long nanosPerDecimal;
+
+    /**
+     * Constructor for timestamp codec.
+     *
+     * @param valueUnit the unit of the long values, one of seconds, millis, micros or nanos
+     * @param precision the precision of formatted timestamps, one of seconds, millis, micros or nanos
+     * @throws IllegalArgumentException if a unit is coarser than seconds
+     */
+    public UtcTimestampCodec(final TimeUnit valueUnit, final TimeUnit precision) {
+        this.valueUnit = TimestampConverter.of(valueUnit).fieldUnit();
+        this.precision = TimestampConverter.of(precision).fieldUnit();
+        this.unitsPerSecond = valueUnit.convert(1, TimeUnit.SECONDS);
+        this.nanosPerUnit = TimeUnit.NANOSECONDS.convert(1, valueUnit);
+        this.nanosPerDecimal = TimeUnit.NANOSECONDS.convert(1, precision);
+        this.decimals = decimals(nanosPerDecimal);
+    }
+
+    /**
+     * Returns a codec for the time field with the given meta data.
+     *
+     * @param metaData  the meta data of the time field providing epoch and time unit of the values
+     * @param precision the precision of formatted timestamps
+     * @return a new codec for values of the time field
+     */
+    public static UtcTimestampCodec forMetaData(final MetaData metaData, final TimeUnit precision) {
+        return new UtcTimestampCodec(TimestampConverter.forMetaData(metaData).fieldUnit(), requireNonNull(precision));
+    }
+
+    public TimeUnit valueUnit() {
+        return valueUnit;
+    }
+
+    public TimeUnit precision() {
+        return precision;
+    }
+
+    /**
+     * @return the length of timestamps formatted by this codec
+     */
+    public int length() {
+        return decimals == 0 ? SECONDS_LENGTH : SECONDS_LENGTH + 1 + decimals;
+    }
+
+    @Override
+    public long get(final DirectBuffer buffer, final int offset, final int length) {
+        if (length == 0) {
+            return NULL_VALUE;
+        }
+        if (length < SECONDS_LENGTH || length == SECONDS_LENGTH + 1 || length > SECONDS_LENGTH + 10) {
+            throw invalid(buffer, offset, length);
+        }
+        final int yyyyMMdd = LocalMktDateCodec.yyyyMMdd(buffer, offset);
+        final int hour = twoDigits(buffer, offset + 9);
+        final int minute = twoDigits(buffer, offset + 12);
+        final int second = twoDigits(buffer, offset + 15);
+        if (yyyyMMdd < 0 || buffer.getByte(offset + 8) != DASH ||
+                buffer.getByte(offset + 11) != COLON || buffer.getByte(offset + 14) != COLON ||
+                hour > 23 || minute > 59 || second > 60) {
+            throw invalid(buffer, offset, length);
+        }
+        long nanos = 0;
+        if (length > SECONDS_LENGTH) {
+            if (buffer.getByte(offset + SECONDS_LENGTH) != DOT) {
+                throw invalid(buffer, offset, length);
+            }
+            for (int i = offset + SECONDS_LENGTH + 1; i < offset + SECONDS_LENGTH + 10; i++) {
+                final int digit = i < offset + length ? buffer.getByte(i) - ZERO : 0;
+                if (digit < 0 || digit > 9) {
+                    throw invalid(buffer, offset, length);
+                }
+                nanos = nanos * 10 + digit;
+            }
+        }
+        final int epochDay = LocalMktDateCodec.epochDay(yyyyMMdd / 10000, (yyyyMMdd / 100) % 100, yyyyMMdd % 100);
+        final long seconds = epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        return Math.addExact(Math.multiplyExact(seconds, unitsPerSecond), nanos / nanosPerUnit);
+    }
+
+    @Override
+    public int put(final long value, final IntFunction<? extends MutableDirectBuffer> lengthToBuffer) {
+        if (value == NULL_VALUE) {
+            lengthToBuffer.apply(0);
+            return 0;
+        }
+        final long seconds = Math.floorDiv(value, unitsPerSecond);
+        final long nanos = Math.floorMod(value, unitsPerSecond) * nanosPerUnit;
+        final int epochDay = Math.toIntExact(Math.floorDiv(seconds, SECONDS_PER_DAY));
+        final int secondOfDay = (int)Math.floorMod(seconds, SECONDS_PER_DAY);
+        final long date = LocalMktDateCodec.toWord(LocalMktDateCodec.toYyyyMMdd(epochDay));
+        final int length = length();
+        final MutableDirectBuffer buffer = lengthToBuffer.apply(length);
+        buffer.putLong(0, date, LITTLE_ENDIAN);
+        buffer.putByte(8, DASH);
+        putTwoDigits(buffer, 9, secondOfDay / 3600);
+        buffer.putByte(11, COLON);
+        putTwoDigits(buffer, 12, (secondOfDay / 60) % 60);
+        buffer.putByte(14, COLON);
+        putTwoDigits(buffer, 15, secondOfDay % 60);
+        if (decimals > 0) {
+            buffer.putByte(SECONDS_LENGTH, DOT);
+            AsciiNumbers.formatLong(nanos / nanosPerDecimal, decimals, buffer, SECONDS_LENGTH + 1);
+        }
+        return length;
+    }
+
+    private static int decimals(final long nanosPerDecimal) {
+        int decimals = 0;
+        for (long nanos = nanosPerDecimal; nanos < NANOS_PER_SECOND; nanos *= 10) {
+            decimals++;
+        }
+        return decimals;
+    }
+
+    private static int twoDigits(final DirectBuffer buffer, final int offset) {
+        final int tens = buffer.getByte(offset) - ZERO;
+        final int ones = buffer.getByte(offset + 1) - ZERO;
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return Integer.MAX_VALUE;
+        }
+        return tens * 10 + ones;
+    }
+
+    private static void putTwoDigits(final MutableDirectBuffer buffer, final int offset, final int value) {
+        buffer.putByte(offset, (byte)(ZERO + value / 10));
+        buffer.putByte(offset + 1, (byte)(ZERO + value % 10));
+    }
+
+    private static IllegalArgumentException invalid(final DirectBuffer buffer, final int offset, final int length) {
+        return new IllegalArgumentException("Invalid UTCTimestamp: '" +
+                buffer.getStringWithoutLengthAscii(offset, length) + "'");
+    }
+
+    @Override
+    public String toString() {
+        return "UtcTimestampCodec{valueUnit=" + valueUnit + ", precision=" + precision + "}";
+    }
+}
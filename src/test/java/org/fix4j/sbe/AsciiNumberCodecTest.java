@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.transform.AsciiDoubleCodec;
+import org.fix4j.sbe.transform.AsciiIntCodec;
+import org.fix4j.sbe.transform.AsciiLongCodec;
+import org.fix4j.sbe.transform.AsciiNumbers;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class AsciiNumberCodecTest {
+
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+
+    private String format(final int length) {
+        return buffer.getStringWithoutLengthAscii(0, length);
+    }
+
+    private static UnsafeBuffer ascii(final String value) {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(value.length());
+        direct.put(value.getBytes(US_ASCII));
+        return new UnsafeBuffer(direct);
+    }
+
+    @Test
+    public void longRoundTrip() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final long value = i < 2 ? (i == 0 ? Long.MIN_VALUE : Long.MAX_VALUE) :
+                    random.nextLong() >> random.nextInt(64);
+            final int length = AsciiLongCodec.DEFAULT.put(value, len -> buffer);
+            assertEquals(Long.toString(value), format(length));
+            assertEquals(value, AsciiLongCodec.DEFAULT.get(ascii(Long.toString(value)), 0, length));
+        }
+    }
+
+    @Test
+    public void zeroPadded() {
+        assertEquals("-00000042", format(AsciiLongCodec.zeroPadded(8).put(-42L, len -> buffer)));
+        assertEquals("007", format(AsciiIntCodec.zeroPadded(3).put(7, len -> buffer)));
+        assertEquals("12345", format(AsciiIntCodec.zeroPadded(3).put(12345, len -> buffer)));
+        assertEquals(-42, AsciiIntCodec.DEFAULT.get(ascii("-00000042"), 0, 9));
+    }
+
+    @Test
+    public void doubleFormat() {
+        assertEquals("1.25", format(AsciiDoubleCodec.DEFAULT.put(1.25, len -> buffer)));
+        assertEquals("-0.1", format(AsciiDoubleCodec.DEFAULT.put(-0.1, len -> buffer)));
+        assertEquals("0", format(AsciiDoubleCodec.DEFAULT.put(-0.0000000001, len -> buffer)));
+        assertEquals("100", format(AsciiDoubleCodec.maxDecimals(2).put(99.999, len -> buffer)));
+        assertEquals("17.47", format(AsciiDoubleCodec.maxDecimals(2).put(17.465, len -> buffer)));
+        assertEquals("123456789.12346", format(AsciiDoubleCodec.DEFAULT.put(123456789.123456789, len -> buffer)));
+    }
+
+    @Test
+    public void doubleFixedDecimals() {
+        final AsciiDoubleCodec codec = AsciiDoubleCodec.fixedDecimals(2);
+        assertEquals("1.20", format(codec.put(1.2, len -> buffer)));
+        assertEquals("-0.05", format(codec.put(-0.05, len -> buffer)));
+        assertEquals("100.00", format(codec.put(99.999, len -> buffer)));
+        assertEquals("17.47", format(codec.put(17.465, len -> buffer)));
+        assertEquals("0.00", format(codec.put(0, len -> buffer)));
+        assertEquals("42", format(AsciiDoubleCodec.fixedDecimals(0).put(41.5, len -> buffer)));
+        assertEquals(1.2, codec.get(ascii("1.20"), 0, 4), 0.0);
+    }
+
+    @Test
+    public void doubleParse() {
+        final String[] values = {"0", "-0.25", "+3", "1.", ".5", "00012.500", "97.125", "0.000000000000000000001",
+                "123456789012345678901.5", "-1234.5678"};
+        for (final String value : values) {
+            assertEquals(value, Double.parseDouble(value),
+                    AsciiDoubleCodec.DEFAULT.get(ascii(value), 0, value.length()), 0.0);
+        }
+    }
+
+    @Test
+    public void doubleParseIsCorrectlyRounded() {
+        final String[] values = {"613552.10980898451", "9007199254740993", "0.30000000000000004", "-9.999999999999999",
+                "1234567890.123456789012"};
+        for (final String value : values) {
+            assertEquals(value, Double.parseDouble(value),
+                    AsciiNumbers.parseDouble(ascii(value), 0, value.length()), 0.0);
+        }
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final String digits = Long.toString(Math.abs(random.nextLong() % 1_000_000_000_000_000_000L));
+            final int dot = random.nextInt(digits.length() + 1);
+            final String value = (random.nextBoolean() ? "-" : "") + digits.substring(0, dot) + "." +
+                    digits.substring(dot);
+            assertEquals(value, Double.parseDouble(value),
+                    AsciiNumbers.parseDouble(ascii(value), 0, value.length()), 0.0);
+        }
+    }
+
+    @Test
+    public void doubleParseRejectsExponentNotation() {
+        final String[] values = {"1.5e3", "1E5", "12345678901234567890e1", "1.0d", "NaN", "-"};
+        for (final String value : values) {
+            try {
+                AsciiNumbers.parseDouble(ascii(value), 0, value.length());
+                fail("Expected NumberFormatException for '" + value + "'");
+            } catch (final NumberFormatException e) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void decimal() {
+        final Decimal64 price = AsciiNumbers.parseDecimal(ascii("-1.20"), 0, 5, new Decimal64());
+        assertEquals(-120, price.mantissa());
+        assertEquals(-2, price.exponent());
+        assertEquals("-1.20", format(AsciiNumbers.formatDecimal(price.mantissa(), price.exponent(), buffer, 0)));
+        assertEquals("0.005", format(AsciiNumbers.formatDecimal(5, -3, buffer, 0)));
+        assertEquals("1200", format(AsciiNumbers.formatDecimal(12, 2, buffer, 0)));
+
+        price.add(new Decimal64(5, -3)).multiply(2);
+        assertEquals(new Decimal64(-2390, -3), price);
+        assertEquals(new Decimal64(-239, -2), price.rescale(-2));
+        assertEquals(new Decimal64(-24, -1), price.rescale(-1));
+        assertEquals(1747, Decimal64.mantissa(17.465, -2));
+        assertEquals(-2.4, price.toDouble(), 0.0);
+    }
+
+    @Test
+    public void invalid() {
+        final String[] values = {"", "-", "1a", "12345678x", "1.2", "9223372036854775808", "-9223372036854775809"};
+        for (final String value : values) {
+            try {
+                AsciiLongCodec.DEFAULT.get(ascii(value), 0, value.length());
+                fail("Expected NumberFormatException for '" + value + "'");
+            } catch (final NumberFormatException e) {
+                //expected
+            }
+        }
+        try {
+            AsciiIntCodec.DEFAULT.get(ascii("2147483648"), 0, 10);
+            fail("Expected NumberFormatException");
+        } catch (final NumberFormatException e) {
+            //expected
+        }
+    }
+}
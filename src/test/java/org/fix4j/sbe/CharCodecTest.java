@@ -0,0 +1,268 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.bytes.CharReader;
+import org.fix4j.sbe.bytes.CharWriter;
+import org.fix4j.sbe.core.CharCodec;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares all char codecs with the JDK's {@link String#getBytes(Charset)} and {@link String#String(byte[], Charset)}.
+ */
+public class CharCodecTest {
+
+    private static final int OFFSET = 3;
+    private static final CharReader<String> READER = String::charAt;
+    private static final CharWriter<char[]> WRITER = (dst, index, end, ch) -> dst[index] = ch;
+    private static final CharCodec[] CODECS = {
+            CharCodec.ASCII, CharCodec.ISO_8859_1, CharCodec.UTF_8,
+            CharCodec.UTF_16, CharCodec.UTF_16BE, CharCodec.UTF_16LE,
+            CharCodec.forCharEncoding("UTF-32")
+    };
+
+    private final Random random = new Random(123);
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(1024);
+
+    private static Charset encodeCharset(final CharCodec codec) {
+        //our UTF-16 codec writes big endian without byte order mark
+        return codec == CharCodec.UTF_16 ? StandardCharsets.UTF_16BE : codec.charset();
+    }
+
+    private static DirectBuffer direct(final byte[] bytes) {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(OFFSET + bytes.length);
+        final UnsafeBuffer buffer = new UnsafeBuffer(direct);
+        buffer.putBytes(OFFSET, bytes);
+        return buffer;
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : bytes) {
+            sb.append(String.format("%02x ", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    private char randomChar() {
+        switch (random.nextInt(8)) {
+            case 0:
+                return (char)(0xa0 + random.nextInt(0x60));
+            case 1:
+                return (char)(0x100 + random.nextInt(0x700));
+            case 2:
+                return (char)(0x800 + random.nextInt(0xd000));
+            case 3:
+                return (char)(Character.MIN_SURROGATE + random.nextInt(0x800));
+            case 4:
+                return (char)(0xe000 + random.nextInt(0x2000));
+            default:
+                return (char)random.nextInt(0x80);
+        }
+    }
+
+    private String randomString() {
+        final StringBuilder sb = new StringBuilder();
+        final int length = random.nextInt(40);
+        while (sb.length() < length) {
+            if (random.nextInt(8) == 0) {
+                sb.appendCodePoint(Character.MIN_SUPPLEMENTARY_CODE_POINT +
+                        random.nextInt(Character.MAX_CODE_POINT - Character.MIN_SUPPLEMENTARY_CODE_POINT));
+            } else {
+                sb.append(randomChar());
+            }
+        }
+        return sb.toString();
+    }
+
+    private byte[] randomBytes(final CharCodec codec) {
+        final byte[] bytes = new byte[random.nextInt(40)];
+        if (codec == CharCodec.UTF_8) {
+            for (int i = 0; i < bytes.length; i++) {
+                final int range = random.nextInt(4);
+                bytes[i] = (byte)(range == 0 ? random.nextInt(0x80) : range == 1 ? 0x80 + random.nextInt(0x40) :
+                        0xc0 + random.nextInt(0x40));
+            }
+        } else if (codec == CharCodec.UTF_16 || codec == CharCodec.UTF_16BE || codec == CharCodec.UTF_16LE) {
+            final ByteOrder order = codec == CharCodec.UTF_16LE ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            final UnsafeBuffer wrapper = new UnsafeBuffer(bytes);
+            for (int i = 0; i + 1 < bytes.length; i += 2) {
+                final int type = random.nextInt(8);
+                wrapper.putChar(i, type == 0 ? '\uFEFF' : type == 1 ? '\uFFFE' : randomChar(), order);
+            }
+            if ((bytes.length & 1) != 0) {
+                bytes[bytes.length - 1] = (byte)random.nextInt();
+            }
+        } else {
+            random.nextBytes(bytes);
+            if (codec == CharCodec.ASCII) {
+                //ASCII is decoded as ISO-8859-1 and hence only compared for 7-bit input
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] &= 0x7f;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void assertEncode(final CharCodec codec, final String s) {
+        final byte[] expected = s.getBytes(encodeCharset(codec));
+        final String message = codec + ": " + hex(s.getBytes(StandardCharsets.UTF_16BE));
+        assertEquals(message, expected.length, codec.byteLength(s));
+        assertEquals(message, expected.length, codec.byteLength("xx" + s, 2, READER, s.length()));
+
+        buffer.setMemory(0, buffer.capacity(), (byte)0);
+        assertEquals(message, expected.length, codec.encode(s, buffer, OFFSET));
+        assertEquals(message, hex(expected), hex(bytes(buffer, OFFSET, expected.length)));
+
+        buffer.setMemory(0, buffer.capacity(), (byte)0);
+        assertEquals(message, expected.length, codec.encode("xx" + s, 2, READER, s.length(), buffer, OFFSET));
+        assertEquals(message, hex(expected), hex(bytes(buffer, OFFSET, expected.length)));
+    }
+
+    private static byte[] bytes(final DirectBuffer buffer, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        buffer.getBytes(offset, bytes);
+        return bytes;
+    }
+
+    private void assertDecode(final CharCodec codec, final byte[] bytes) throws IOException {
+        final String expected = new String(bytes, codec.charset());
+        final String message = codec + ": " + hex(bytes);
+        final DirectBuffer src = direct(bytes);
+        final int length = bytes.length;
+
+        assertEquals(message, expected, codec.decode(src, OFFSET, length));
+        assertEquals(message, expected.length(), codec.charLength(src, OFFSET, length));
+
+        final char[] chars = new char[expected.length() + 2];
+        assertEquals(message, expected.length(), codec.decode(src, OFFSET, length, chars, 1, WRITER, chars.length));
+        assertEquals(message, expected, new String(chars, 1, expected.length()));
+
+        final int maxChars = expected.length() / 2;
+        final int decoded = codec.decode(src, OFFSET, length, chars, 0, WRITER, maxChars);
+        assertTrue(message, decoded == maxChars || decoded == maxChars - 1);
+        assertEquals(message, expected.substring(0, decoded), new String(chars, 0, decoded));
+
+        final StringBuilder builder = new StringBuilder("x");
+        assertEquals(message, expected.length(), codec.appendTo(src, OFFSET, length, builder));
+        assertEquals(message, "x" + expected, builder.toString());
+
+        final Appendable appendable = new StringBuilder("y");
+        assertEquals(message, expected.length(), codec.appendTo(src, OFFSET, length, appendable));
+        assertEquals(message, "y" + expected, appendable.toString());
+    }
+
+    private static void assertCompare(final CharCodec codec, final byte[] bytes1, final byte[] bytes2) {
+        final String expected1 = new String(bytes1, codec.charset());
+        final String expected2 = new String(bytes2, codec.charset());
+        final String message = codec + ": " + hex(bytes1) + "<=>" + hex(bytes2);
+        final int expected = Integer.signum(expected1.compareTo(expected2));
+        assertEquals(message, expected,
+                Integer.signum(codec.compare(direct(bytes1), OFFSET, bytes1.length, direct(bytes2), OFFSET, bytes2.length)));
+        assertEquals(message, -expected,
+                Integer.signum(codec.compare(direct(bytes2), OFFSET, bytes2.length, direct(bytes1), OFFSET, bytes1.length)));
+    }
+
+    @Test
+    public void encodeAndDecodeRandomStrings() throws IOException {
+        for (final CharCodec codec : CODECS) {
+            for (int i = 0; i < 5000; i++) {
+                final String s = randomString();
+                assertEncode(codec, s);
+                assertDecode(codec, s.getBytes(encodeCharset(codec)));
+            }
+        }
+    }
+
+    @Test
+    public void encodeLoneSurrogatesAndSupplementaryChars() throws IOException {
+        final String[] strings = {
+                "", "abc", "\uD800", "\uDC00", "a\uD800", "\uDC00a", "\uD800\uD800\uDC00", "\uD800\uDC00\uDC00",
+                "\uD83D\uDE00", "12345678\uD83D\uDE00", "1234567\uD83D\uDE00x", "abcdefg\uD800", "\u00E9t\u00E9 \u20AC"
+        };
+        for (final CharCodec codec : CODECS) {
+            for (final String s : strings) {
+                assertEncode(codec, s);
+                assertDecode(codec, s.getBytes(encodeCharset(codec)));
+            }
+        }
+    }
+
+    @Test
+    public void decodeRandomBytes() throws IOException {
+        for (final CharCodec codec : CODECS) {
+            for (int i = 0; i < 20000; i++) {
+                assertDecode(codec, randomBytes(codec));
+            }
+        }
+    }
+
+    @Test
+    public void decodeMalformedUtf8() throws IOException {
+        final int[][] inputs = {
+                {0xe2, 0x82, 0x58}, {0xe2, 0x82}, {0xc0, 0x80}, {0xc1, 0xbf}, {0xe0, 0x80, 0x80}, {0xe0, 0x9f, 0xbf},
+                {0xed, 0xa0, 0x80}, {0xed, 0xbf, 0xbf}, {0xed, 0xa0}, {0xf0, 0x80, 0x80, 0x80}, {0xf0, 0x8f, 0xbf, 0xbf},
+                {0xf4, 0x90, 0x80, 0x80}, {0xf5, 0x80, 0x80, 0x80}, {0xf0, 0x9f, 0x98}, {0xf0, 0x9f, 0x98, 0x41},
+                {0xf8, 0x88, 0x80, 0x80, 0x80}, {0xff, 0xfe}, {0x80}, {0x41, 0x42, 0x43, 0x44, 0x45, 0x46, 0x47, 0xe2}
+        };
+        for (final int[] input : inputs) {
+            final byte[] bytes = new byte[input.length];
+            for (int i = 0; i < input.length; i++) {
+                bytes[i] = (byte)input[i];
+            }
+            assertDecode(CharCodec.UTF_8, bytes);
+        }
+        assertEquals("\uFFFDX", CharCodec.UTF_8.decode(direct(new byte[]{(byte)0xe2, (byte)0x82, 0x58}), OFFSET, 3));
+        assertEquals("\uFFFD\uFFFD", CharCodec.UTF_8.decode(direct(new byte[]{(byte)0xc0, (byte)0x80}), OFFSET, 2));
+        assertEquals(2, CharCodec.UTF_8.charLength(direct(new byte[]{(byte)0xc0, (byte)0x80}), OFFSET, 2));
+    }
+
+    @Test
+    public void compareRandomStrings() {
+        for (final CharCodec codec : CODECS) {
+            for (int i = 0; i < 5000; i++) {
+                final String s1 = randomString();
+                final String s2 = random.nextBoolean() ? s1.substring(0, random.nextInt(s1.length() + 1)) + randomString() :
+                        randomString();
+                assertCompare(codec, s1.getBytes(encodeCharset(codec)), s2.getBytes(encodeCharset(codec)));
+                assertCompare(codec, randomBytes(codec), randomBytes(codec));
+            }
+        }
+    }
+}
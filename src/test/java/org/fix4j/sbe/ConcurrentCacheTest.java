@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.cache.CacheStats;
+import org.fix4j.sbe.cache.ConcurrentValueCache;
+import org.fix4j.sbe.cache.Eviction;
+import org.fix4j.sbe.cache.StringCache;
+import org.fix4j.sbe.cache.StringFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentCacheTest {
+
+    private static final int THREADS = 8;
+    private static final int KEYS = 5000;
+    private static final int LOOKUPS = 200_000;
+
+    private static String key(final int index) {
+        return "KEY" + index;
+    }
+
+    private static List<String> lookup(final StringCache cache, final int seed) {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+        final Random random = new Random(seed);
+        final List<String> values = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            values.add(null);
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int index = random.nextInt(KEYS);
+            final String key = key(index);
+            final int offset = random.nextInt(8);
+            final int length = buffer.putStringWithoutLengthAscii(offset, key);
+            final String value = cache.get(buffer, offset, length);
+            assertEquals(key, value);
+            values.set(index, value);
+        }
+        return values;
+    }
+
+    private static List<List<String>> lookupConcurrently(final StringCache cache) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int seed = t;
+                final Callable<List<String>> task = () -> lookup(cache, seed);
+                futures.add(executor.submit(task));
+            }
+            final List<List<String>> results = new ArrayList<>();
+            for (final Future<List<String>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void unboundedCacheReturnsSameInstanceToAllThreads() throws Exception {
+        final StringCache cache = StringCache.concurrent(16, Integer.MAX_VALUE, StringFactory.ASCII);
+        final List<List<String>> results = lookupConcurrently(cache);
+
+        final CacheStats stats = cache.stats().snapshot();
+        long keyBytes = 0;
+        for (int i = 0; i < KEYS; i++) {
+            keyBytes += key(i).length();
+        }
+        assertEquals(KEYS, cache.size());
+        assertEquals(THREADS * LOOKUPS, stats.hits() + stats.misses());
+        assertEquals(KEYS, stats.misses());
+        assertEquals(KEYS, stats.inserts());
+        assertEquals(0, stats.evictions());
+        assertEquals(keyBytes, stats.bytes());
+        for (int i = 0; i < KEYS; i++) {
+            String expected = null;
+            for (final List<String> values : results) {
+                final String value = values.get(i);
+                if (expected == null) {
+                    expected = value;
+                } else if (value != null) {
+                    assertSame(key(i), expected, value);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void boundedCacheReturnsCorrectValues() throws Exception {
+        final int maxCapacity = 512;
+        final StringCache cache = StringCache.concurrent(16, maxCapacity, StringFactory.ASCII);
+        lookupConcurrently(cache);
+
+        final CacheStats stats = cache.stats().snapshot();
+        assertTrue("size=" + cache.size(), cache.size() <= maxCapacity);
+        assertEquals(THREADS * LOOKUPS, stats.hits() + stats.misses());
+        assertEquals(cache.size(), stats.inserts() - stats.evictions());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().bytes());
+    }
+
+    @Test
+    public void maxCapacityIsSplitExactlyAcrossSegments() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+        final int[] maxCapacities = {1, 3, 100, 1000};
+        for (final int maxCapacity : maxCapacities) {
+            final ConcurrentValueCache<String> cache = new ConcurrentValueCache<>(0, maxCapacity, 16, Eviction.RANDOM,
+                    StringFactory.ASCII);
+            for (int i = 0; i < 20 * maxCapacity + 1000; i++) {
+                cache.get(buffer, 0, buffer.putStringWithoutLengthAscii(0, key(i)));
+            }
+            assertEquals(maxCapacity, cache.size());
+        }
+    }
+
+    @Test
+    public void maxCapacityMustBePositive() {
+        try {
+            new ConcurrentValueCache<>(0, 0, 16, Eviction.RANDOM, StringFactory.ASCII);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            //expected
+        }
+    }
+}
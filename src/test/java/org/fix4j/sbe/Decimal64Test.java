@@ -0,0 +1,229 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.transform.AsciiDoubleCodec;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class Decimal64Test {
+
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final Random random = new Random(42);
+
+    private long randomMantissa() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(2000) - 1000;
+            case 1:
+                return random.nextInt();
+            default:
+                return random.nextLong() >> random.nextInt(64);
+        }
+    }
+
+    private int randomExponent() {
+        return random.nextInt(41) - 20;
+    }
+
+    private static BigDecimal big(final long mantissa, final int exponent) {
+        return BigDecimal.valueOf(mantissa, -exponent);
+    }
+
+    private static BigDecimal big(final Decimal64 value) {
+        return big(value.mantissa(), value.exponent());
+    }
+
+    private static boolean fitsLong(final BigInteger value) {
+        return value.compareTo(MIN_LONG) >= 0 && value.compareTo(MAX_LONG) <= 0;
+    }
+
+    private static void assertResult(final String message, final BigDecimal expected, final int expectedExponent,
+                                     final Decimal64 actual) {
+        assertEquals(message, expectedExponent, actual.exponent());
+        assertEquals(message, 0, expected.compareTo(big(actual)));
+    }
+
+    @Test
+    public void mantissaRoundsHalfUp() {
+        assertEquals(1747, Decimal64.mantissa(17.465, -2));
+        assertEquals(-1747, Decimal64.mantissa(-17.465, -2));
+        assertEquals(102, Decimal64.mantissa(0.1015, -3));
+        assertEquals(-101, Decimal64.mantissa(-0.10149999999999999, -3));
+        assertEquals(101, Decimal64.mantissa(0.10149999999999999, -3));
+        assertEquals(0, Decimal64.mantissa(0.49999999999999994, 0));
+        assertEquals(1, Decimal64.mantissa(0.5, 0));
+        assertEquals(125, Decimal64.mantissa(1.245, -2));
+        assertEquals(13, Decimal64.mantissa(1250, 2));
+    }
+
+    @Test
+    public void mantissaMatchesRoundedDecimalString() {
+        for (int i = 0; i < 200_000; i++) {
+            //at most 15 significant digits, hence the string is the shortest representation of the double
+            final int digits = 1 + random.nextInt(15);
+            final long unscaled = (random.nextLong() >>> 1) % pow10(digits);
+            final int decimals = random.nextInt(digits + 3);
+            final BigDecimal decimal = BigDecimal.valueOf(random.nextBoolean() ? unscaled : -unscaled, decimals);
+            final double value = decimal.doubleValue();
+            //result with at most 15 significant digits
+            final int scale = random.nextInt(Math.max(1, 16 - Math.max(0, digits - decimals)));
+            final long expected = decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(decimal + " at scale " + scale, expected, Decimal64.mantissa(value, -scale));
+        }
+    }
+
+    @Test
+    public void asciiDoubleCodecRoundsHalfUp() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+        final int length = AsciiDoubleCodec.maxDecimals(3).put(-0.10149999999999999, len -> buffer);
+        assertEquals("-0.101", buffer.getStringWithoutLengthAscii(0, length));
+    }
+
+    private static long pow10(final int n) {
+        long power = 1;
+        for (int i = 0; i < n; i++) {
+            power *= 10;
+        }
+        return power;
+    }
+
+    @Test
+    public void addWithOverflowingRescaledOperand() {
+        final Decimal64 value = new Decimal64(-1481692862963697078L, -19).add(938070076L, -9);
+        assertResult("add", big(-1481692862963697078L, -19).add(big(938070076L, -9)), -19, value);
+        assertResult("add", new BigDecimal("1000000000000000000"), 0,
+                new Decimal64(1, 19).add(-9_000_000_000_000_000_000L, 0));
+        assertResult("add", new BigDecimal("-776627963145224193"), 0,
+                new Decimal64(-1, 19).add(Long.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void addMatchesBigDecimal() {
+        for (int i = 0; i < 200_000; i++) {
+            final long mantissa1 = randomMantissa();
+            final long mantissa2 = randomMantissa();
+            final int exponent1 = randomExponent();
+            final int exponent2 = random.nextInt(4) == 0 ? exponent1 : randomExponent();
+            final int exponent = Math.min(exponent1, exponent2);
+            final BigDecimal expected = big(mantissa1, exponent1).add(big(mantissa2, exponent2));
+            final String message = mantissa1 + "e" + exponent1 + " + " + mantissa2 + "e" + exponent2;
+            final Decimal64 value = new Decimal64(mantissa1, exponent1);
+            if (fitsLong(expected.setScale(-exponent).unscaledValue())) {
+                assertResult(message, expected, exponent, value.add(mantissa2, exponent2));
+            } else {
+                try {
+                    value.add(mantissa2, exponent2);
+                    fail(message + " should overflow");
+                } catch (final ArithmeticException e) {
+                    //expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void subtractMatchesBigDecimal() {
+        for (int i = 0; i < 100_000; i++) {
+            final long mantissa1 = randomMantissa();
+            final long mantissa2 = randomMantissa() | 1;
+            final int exponent1 = randomExponent();
+            final int exponent2 = randomExponent();
+            final BigDecimal expected = big(mantissa1, exponent1).subtract(big(mantissa2, exponent2));
+            final String message = mantissa1 + "e" + exponent1 + " - " + mantissa2 + "e" + exponent2;
+            final int exponent = Math.min(exponent1, exponent2);
+            if (fitsLong(expected.setScale(-exponent).unscaledValue())) {
+                assertResult(message, expected, exponent,
+                        new Decimal64(mantissa1, exponent1).subtract(new Decimal64(mantissa2, exponent2)));
+            }
+        }
+    }
+
+    @Test
+    public void multiplyMatchesBigDecimal() {
+        for (int i = 0; i < 100_000; i++) {
+            final long mantissa1 = randomMantissa();
+            final long mantissa2 = randomMantissa();
+            final int exponent1 = randomExponent();
+            final int exponent2 = randomExponent();
+            final BigDecimal expected = big(mantissa1, exponent1).multiply(big(mantissa2, exponent2));
+            final String message = mantissa1 + "e" + exponent1 + " * " + mantissa2 + "e" + exponent2;
+            final Decimal64 value = new Decimal64(mantissa1, exponent1);
+            if (fitsLong(BigInteger.valueOf(mantissa1).multiply(BigInteger.valueOf(mantissa2)))) {
+                assertResult(message, expected, exponent1 + exponent2, value.multiply(mantissa2, exponent2));
+            } else {
+                try {
+                    value.multiply(mantissa2, exponent2);
+                    fail(message + " should overflow");
+                } catch (final ArithmeticException e) {
+                    //expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rescaleMatchesBigDecimal() {
+        for (int i = 0; i < 100_000; i++) {
+            final long mantissa = randomMantissa();
+            final int exponent = randomExponent();
+            final int rescaled = randomExponent();
+            final BigDecimal expected = big(mantissa, exponent).setScale(-rescaled, RoundingMode.HALF_UP);
+            final String message = mantissa + "e" + exponent + " rescaled to " + rescaled;
+            if (fitsLong(expected.unscaledValue())) {
+                assertResult(message, expected, rescaled, new Decimal64(mantissa, exponent).rescale(rescaled));
+            }
+        }
+    }
+
+    @Test
+    public void compareMatchesBigDecimal() {
+        for (int i = 0; i < 100_000; i++) {
+            final long mantissa1 = randomMantissa();
+            final long mantissa2 = random.nextBoolean() ? mantissa1 : randomMantissa();
+            final int exponent1 = randomExponent();
+            final int exponent2 = randomExponent();
+            final int expected = big(mantissa1, exponent1).compareTo(big(mantissa2, exponent2));
+            assertEquals(mantissa1 + "e" + exponent1 + " <=> " + mantissa2 + "e" + exponent2, expected,
+                    Integer.signum(Decimal64.compare(mantissa1, exponent1, mantissa2, exponent2)));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void addRejectsExponentOutOfRange() {
+        new Decimal64(1, 0).add(1, -200);
+    }
+}
@@ -25,14 +25,33 @@ package org.fix4j.sbe;
 
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
 import org.fix4j.sbe.sample.DecoderSupplier;
 import org.fix4j.sbe.sample.EncoderSupplier;
 import org.fix4j.sbe.sample.ExecRptDecoder;
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.core.MessageDispatcher;
+import org.fix4j.sbe.payload.BatchPayloadView;
+import org.fix4j.sbe.payload.BatchPayloadViewProvider;
+import org.fix4j.sbe.payload.RingBufferPayloadView;
+import org.fix4j.sbe.payload.RingBufferPayloadViewProvider;
 import org.fix4j.sbe.payload.StandardPayloadView;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.fix4j.sbe.bytes.CharWriter.STRING_BUILDER_WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DecoderTest {
 
@@ -59,7 +78,7 @@ public class DecoderTest {
 
         System.out.printf("symbol=%s\n", decoder.symbol());
         for (final ExecRptDecoder.Leg leg : decoder.legs()) {
-            System.out.printf("  leg{quantity=%d, price=%f, settlDate=%s}\n",
+            System.out.printf("  leg{quantity=%d, price=%s, settlDate=%s}\n",
                     leg.quantity(), leg.price(), leg.settlDate().get());
         }
         System.out.printf("rejectTextLength=%d, rejectText=%s\n",
@@ -77,6 +96,126 @@ public class DecoderTest {
         System.out.println(stringBuilder);
     }
 
+    @Test
+    public void randomAccessToLegs() {
+        final DecoderSupplier decoders = DecoderSupplier.supplier();
+        final ExecRptDecoder decoder = decoders.execRpt(payload);
+
+        final ExecRptDecoder.LegGroup legs = decoder.legs();
+        assertEquals(120000, legs.leg(1).quantity());
+        assertEquals("20191020", legs.leg(1).settlDate().get());
+        assertEquals(new Decimal64(134, -2), legs.leg(1).price());
+        assertEquals(100000, legs.leg(0).quantity());
+        assertEquals(120000, legs.next().quantity());
+        assertEquals("bla", decoder.rejectText().get());
+
+        decoder.reset();
+        assertEquals("bla", decoder.rejectText().get());
+    }
+
+    @Test
+    public void encodeAndDecodeInPlaceViaRingBuffer() {
+        final RingBuffer ringBuffer = new OneToOneRingBuffer(new UnsafeBuffer(
+                ByteBuffer.allocateDirect(1024 + RingBufferDescriptor.TRAILER_LENGTH)));
+        final RingBufferPayloadViewProvider ring = new RingBufferPayloadViewProvider(ringBuffer, 1, 128);
+        final EncoderSupplier<RingBufferPayloadView> encoders = EncoderSupplier.supplier(ring);
+
+        int committed = 0;
+        while (ring.claim()) {
+            final RingBufferPayloadView view = encoders.execRpt()
+                    .symbol("AUDUSD")
+                    .legGroupStart(1)
+                        .next().quantity(committed).price(1.23).settlDate().put("20191010")
+                    .legGroupComplete()
+                    .rejectText().put("bla");
+            assertTrue(view.length() <= view.claimLength());
+            committed++;
+        }
+        assertFalse(ring.hasClaim());
+
+        final List<Long> quantities = new ArrayList<>();
+        final int read = ringBuffer.read(DecoderSupplier.supplier().handler(decoder -> {
+            assertEquals("AUDUSD", decoder.symbol());
+            quantities.add(decoder.legs().next().quantity());
+            assertEquals("bla", decoder.rejectText().get());
+        }));
+        assertEquals(committed, read);
+        for (int i = 0; i < committed; i++) {
+            assertEquals(i, quantities.get(i).longValue());
+        }
+
+        assertTrue(ring.claim());
+        ring.abort();
+        assertFalse(ring.hasClaim());
+        assertEquals(0, ringBuffer.read(DecoderSupplier.supplier().handler(decoder -> quantities.add(-1L))));
+    }
+
+    @Test
+    public void encodeFailsWhenRingBufferIsFull() {
+        final RingBuffer ringBuffer = new OneToOneRingBuffer(new UnsafeBuffer(
+                ByteBuffer.allocateDirect(1024 + RingBufferDescriptor.TRAILER_LENGTH)));
+        final RingBufferPayloadViewProvider ring = new RingBufferPayloadViewProvider(ringBuffer, 1, 128);
+        final EncoderSupplier<RingBufferPayloadView> encoders = EncoderSupplier.supplier(ring);
+        while (ring.claim()) {
+            encoders.execRpt().symbol("AUDUSD").legGroupEmpty().rejectText().put("bla");
+        }
+        assertFalse(ring.claim());
+
+        try {
+            encoders.execRpt();
+            fail("expected ring buffer full exception");
+        } catch (final IllegalStateException e) {
+            assertEquals("Insufficient capacity in ring buffer", e.getMessage());
+        }
+    }
+
+    @Test
+    public void dispatchLengthPrefixedBatch() {
+        final BatchPayloadViewProvider batch = BatchPayloadView.lengthPrefixedProvider(new ExpandableArrayBuffer(), 0);
+        final EncoderSupplier<BatchPayloadView> encoders = EncoderSupplier.supplier(batch);
+        for (int i = 0; i < 3; i++) {
+            encoders.execRpt()
+                    .symbol("AUDUSD")
+                    .legGroupStart(1)
+                        .next().quantity(i).price(1.23).settlDate().put("20191010")
+                    .legGroupComplete()
+                    .rejectText().put("bla");
+        }
+        //append an unknown message consisting of a header with templateId 99 only
+        final MutableDirectBuffer buffer = batch.buffer();
+        final int unknown = batch.view().limit();
+        buffer.putInt(unknown, MessageDispatcher.HEADER_LENGTH, ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(unknown + MessageDispatcher.LENGTH_PREFIX_LENGTH, 0, ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(unknown + MessageDispatcher.LENGTH_PREFIX_LENGTH + 2, (short)99, ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(unknown + MessageDispatcher.LENGTH_PREFIX_LENGTH + 4, (short)trading.ExecRptDecoder.SCHEMA_ID,
+                ByteOrder.LITTLE_ENDIAN);
+        final int length = batch.view().length() + MessageDispatcher.LENGTH_PREFIX_LENGTH + MessageDispatcher.HEADER_LENGTH;
+
+        final List<Long> quantities = new ArrayList<>();
+        final List<Integer> unhandled = new ArrayList<>();
+        final MessageDispatcher dispatcher = DecoderSupplier.supplier()
+                .register(new MessageDispatcher(), decoder -> quantities.add(decoder.legs().next().quantity()))
+                .unhandledMessageHandler((schemaId, templateId, buf, offset, len) -> unhandled.add(templateId));
+        assertTrue(dispatcher.isRegistered(trading.ExecRptDecoder.SCHEMA_ID, trading.ExecRptDecoder.TEMPLATE_ID));
+        assertFalse(dispatcher.isRegistered(trading.ExecRptDecoder.SCHEMA_ID + 1, trading.ExecRptDecoder.TEMPLATE_ID));
+
+        assertEquals(4, dispatcher.poll(buffer, 0, length));
+        assertEquals(3, quantities.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, quantities.get(i).longValue());
+        }
+        assertEquals(1, unhandled.size());
+        assertEquals(99, unhandled.get(0).intValue());
+
+        final List<String> symbols = new ArrayList<>();
+        final MessageDispatcher flyweights = new MessageDispatcher().register(trading.ExecRptDecoder.SCHEMA_ID,
+                trading.ExecRptDecoder.TEMPLATE_ID, trading.flyweight.ExecRptDecoder.create(),
+                decoder -> symbols.add(decoder.symbol().get()));
+        assertEquals(4, flyweights.poll(buffer, 0, length));
+        assertEquals(3, symbols.size());
+        assertEquals("AUDUSD", symbols.get(2));
+    }
+
     public void decodeVarTwiceWithoutReset() {
         final DecoderSupplier decoders = DecoderSupplier.supplier();
         final ExecRptDecoder decoder = decoders.execRpt(payload);
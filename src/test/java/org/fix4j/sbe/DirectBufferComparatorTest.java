@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.cache.DirectBufferComparator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class DirectBufferComparatorTest {
+
+    private final Random random = new Random(11);
+
+    private DirectBuffer wrap(final byte[] bytes) {
+        final int offset = random.nextInt(9);
+        final byte[] array = new byte[offset + bytes.length + random.nextInt(9)];
+        System.arraycopy(bytes, 0, array, offset, bytes.length);
+        if (random.nextBoolean()) {
+            return new UnsafeBuffer(array, offset, bytes.length);
+        }
+        final ByteBuffer direct = ByteBuffer.allocateDirect(array.length);
+        direct.put(array);
+        return new UnsafeBuffer(direct, offset, bytes.length);
+    }
+
+    private byte[] randomBytes(final byte[] prefix) {
+        final byte[] bytes = Arrays.copyOf(prefix, random.nextInt(prefix.length + 2));
+        if (bytes.length > 0 && random.nextBoolean()) {
+            bytes[random.nextInt(bytes.length)] ^= random.nextBoolean() ? 0x80 : random.nextInt(256);
+        }
+        return bytes;
+    }
+
+    private static byte[] masked(final byte[] bytes, final int mask) {
+        final byte[] masked = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            masked[i] = (byte)(bytes[i] & mask);
+        }
+        return masked;
+    }
+
+    private String randomString() {
+        final char[] chars = new char[random.nextInt(20)];
+        for (int i = 0; i < chars.length; i++) {
+            switch (random.nextInt(4)) {
+                case 0: chars[i] = (char)('A' + random.nextInt(3)); break;
+                case 1: chars[i] = (char)(0x80 + random.nextInt(0x80)); break;
+                case 2: chars[i] = (char)(0x3000 + random.nextInt(3)); break;
+                default: chars[i] = (char)(0xff00 + random.nextInt(3)); break;
+            }
+        }
+        return new String(chars);
+    }
+
+    private static byte[] nativeChars(final String string) {
+        final ByteBuffer bytes = ByteBuffer.allocate(string.length() * Character.BYTES).order(ByteOrder.nativeOrder());
+        bytes.asCharBuffer().put(string);
+        return bytes.array();
+    }
+
+    @Test
+    public void byteAndAsciiComparatorsAgreeWithMaskedUnsignedOrder() {
+        final byte[] prefix = new byte[32];
+        for (int run = 0; run < 5000; run++) {
+            random.nextBytes(prefix);
+            final byte[] bytes1 = randomBytes(prefix);
+            final byte[] bytes2 = randomBytes(prefix);
+            final DirectBuffer buf1 = wrap(bytes1);
+            final DirectBuffer buf2 = wrap(bytes2);
+            assertEquals(Integer.signum(Arrays.compareUnsigned(bytes1, bytes2)),
+                    Integer.signum(DirectBufferComparator.BYTE.compare(buf1, buf2)));
+            assertEquals(Integer.signum(Arrays.compareUnsigned(masked(bytes1, 0x7f), masked(bytes2, 0x7f))),
+                    Integer.signum(DirectBufferComparator.ASCII.compare(buf1, buf2)));
+        }
+    }
+
+    @Test
+    public void asciiComparatorIgnoresHighBit() {
+        final byte[] bytes1 = "ABCDEFGHIJK".getBytes(StandardCharsets.US_ASCII);
+        final byte[] bytes2 = bytes1.clone();
+        bytes2[3] |= (byte)0x80;
+        bytes2[9] |= (byte)0x80;
+        assertEquals(0, DirectBufferComparator.ASCII.compare(wrap(bytes1), wrap(bytes2)));
+        assertEquals(-1, Integer.signum(DirectBufferComparator.BYTE.compare(wrap(bytes1), wrap(bytes2))));
+    }
+
+    @Test
+    public void charComparatorAgreesWithStringOrder() {
+        for (int run = 0; run < 5000; run++) {
+            final String string1 = randomString();
+            final String string2 = random.nextBoolean() ? randomString() :
+                    string1.substring(0, random.nextInt(string1.length() + 1));
+            assertEquals(string1 + " <> " + string2, Integer.signum(string1.compareTo(string2)),
+                    Integer.signum(DirectBufferComparator.CHAR.compare(wrap(nativeChars(string1)),
+                            wrap(nativeChars(string2)))));
+        }
+    }
+
+    @Test
+    public void stringComparatorAgreesWithStringOrder() {
+        final Charset[] charsets = {StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8, StandardCharsets.UTF_16BE,
+                StandardCharsets.UTF_16LE};
+        for (final Charset charset : charsets) {
+            final Comparator<DirectBuffer> comparator = DirectBufferComparator.stringComparator(charset);
+            for (int run = 0; run < 2000; run++) {
+                String string1 = randomString();
+                String string2 = random.nextBoolean() ? randomString() :
+                        string1.substring(0, random.nextInt(string1.length() + 1));
+                if (charset == StandardCharsets.ISO_8859_1) {
+                    string1 = new String(string1.getBytes(charset), charset);
+                    string2 = new String(string2.getBytes(charset), charset);
+                }
+                assertEquals(charset + ": " + string1 + " <> " + string2, Integer.signum(string1.compareTo(string2)),
+                        Integer.signum(comparator.compare(wrap(string1.getBytes(charset)),
+                                wrap(string2.getBytes(charset)))));
+            }
+        }
+    }
+}
@@ -25,14 +25,26 @@ package org.fix4j.sbe;
 
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.sbe.CompositeEncoderFlyweight;
 import org.agrona.sbe.MessageEncoderFlyweight;
 import org.fix4j.sbe.bytes.CharReader;
 import org.fix4j.sbe.sample.EncoderSupplier;
+import org.fix4j.sbe.sample.EnvelopeDecoder;
+import org.fix4j.sbe.sample.EnvelopeEncoder;
+import org.fix4j.sbe.sample.ExecRptDecoder;
 import org.fix4j.sbe.sample.ExecRptEncoder;
+import org.fix4j.sbe.payload.BatchPayloadView;
+import org.fix4j.sbe.payload.BatchPayloadViewProvider;
 import org.fix4j.sbe.payload.PayloadViewProvider;
 import org.fix4j.sbe.payload.StandardPayloadView;
 import org.junit.Test;
+import trading.MessageHeaderDecoder;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
 
 public class EncoderTest {
 
@@ -112,6 +124,79 @@ public class EncoderTest {
         legGroup.legGroupComplete().rejectText().put("bla").route();
     }
 
+    @Test
+    public void encodeLengthPrefixedBatch() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+        final BatchPayloadViewProvider batch = BatchPayloadView.lengthPrefixedProvider(buffer, 8);
+        final EncoderSupplier<BatchPayloadView> encoders = EncoderSupplier.supplier(batch);
+
+        BatchPayloadView payload = null;
+        for (int i = 0; i < 3; i++) {
+            payload = encoders.execRpt()
+                    .symbol("AUDUSD")
+                    .legGroupStart(1)
+                        .next().quantity(100000 * i).price(1.23).settlDate().put("20191010")
+                    .legGroupComplete()
+                    .rejectText().put(i == 1 ? "rejected" : "");
+        }
+        assertEquals(3, payload.messageCount());
+        assertEquals(8, payload.offset());
+
+        final UnsafeBuffer frames = new UnsafeBuffer(payload.buffer(), payload.offset(), payload.length());
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        int offset = 0;
+        int count = 0;
+        while (offset < frames.capacity()) {
+            final int length = frames.getInt(offset, ByteOrder.LITTLE_ENDIAN);
+            header.wrap(frames, offset + BatchPayloadView.LENGTH_PREFIX_LENGTH);
+            assertEquals(trading.ExecRptDecoder.TEMPLATE_ID, header.templateId());
+            offset += BatchPayloadView.LENGTH_PREFIX_LENGTH + length;
+            count++;
+        }
+        assertEquals(payload.length(), offset);
+        assertEquals(3, count);
+        assertEquals(payload.limit() - payload.lastMessageLength(), payload.lastMessageOffset());
+
+        payload.clear();
+        assertEquals(8 + BatchPayloadView.LENGTH_PREFIX_LENGTH, batch.nextOffset());
+        assertEquals(0, payload.length());
+    }
+
+    @Test
+    public void encodeNestedInEnvelope() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(16);
+        final EnvelopeEncoder<StandardPayloadView> envelope = EnvelopeEncoder.create();
+        final ExecRptEncoder<StandardPayloadView> execRpt = ExecRptEncoder.create(envelope.dataPayloadViewProvider());
+
+        final StandardPayloadView payload = envelope.wrapAndApplyHeader(buffer, 0)
+                .time(1570710896123456789L)
+                .seqNo(42)
+                .data().wrapAndApplyHeader(execRpt)
+                .symbol("AUDUSD")
+                .legGroupStart(1)
+                    .next().quantity(100000).price(1.23).settlDate().put("20191010")
+                .legGroupComplete()
+                .rejectText().put("nested");
+        assertEquals(trading.EnvelopeEncoder.TEMPLATE_ID, payload.sbeTemplateId());
+
+        final EnvelopeDecoder decoder = EnvelopeDecoder.create().wrap(payload.buffer(),
+                payload.offset() + payload.headerLength(), payload.sbeBlockLength(), payload.sbeSchemaVersion());
+        assertEquals(1570710896123L, decoder.time(TimeUnit.MILLISECONDS));
+        assertEquals(42, decoder.seqNo());
+        assertEquals(execRpt.encodedLength(), decoder.data().length());
+        final ExecRptDecoder nested = decoder.data().wrap(ExecRptDecoder.create());
+        assertEquals("AUDUSD", nested.symbol());
+        assertEquals(100000, nested.legs().next().quantity());
+        assertEquals("nested", nested.rejectText().get());
+        assertEquals(payload.totalLength() - payload.headerLength(), decoder.limit() - decoder.offset());
+
+        final UnsafeBuffer raw = new UnsafeBuffer(0, 0);
+        final StandardPayloadView copy = envelope.wrapAndApplyHeader(new ExpandableArrayBuffer(16), 0)
+                .seqNo(43)
+                .data().put(decoder.data().wrap(raw), 0, raw.capacity());
+        assertEquals(payload.totalLength(), copy.totalLength());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void legGroupIncomplete() {
         final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
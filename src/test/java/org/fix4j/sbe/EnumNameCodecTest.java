@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.transform.EnumNameCodec;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class EnumNameCodecTest {
+
+    private enum Side {BUY, SELL, SELL_SHORT, SELL_SHORT_EXEMPT, CROSS, CROSS_SHORT, UNDISCLOSED}
+
+    private enum Single {ONLY_CONSTANT_OF_THIS_ENUM}
+
+    private enum LongestFirst {VERY_LONG_LEADING_NAME, B, C}
+
+    private enum Status {NEW, FILLED, UNKNOWN, EMPTY}
+
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+
+    private String format(final int length) {
+        return buffer.getStringWithoutLengthAscii(0, length);
+    }
+
+    private static UnsafeBuffer ascii(final String value) {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(value.length());
+        direct.put(value.getBytes(US_ASCII));
+        return new UnsafeBuffer(direct);
+    }
+
+    private <E extends Enum<E>> void assertRoundTrip(final EnumNameCodec<E> codec) {
+        for (final E value : codec.enumType().getEnumConstants()) {
+            final int length = codec.put(value, len -> buffer);
+            assertEquals(value.name(), format(length));
+            assertEquals(value, codec.get(ascii(value.name()), 0, length));
+            assertEquals(value, codec.get(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        assertRoundTrip(new EnumNameCodec<>(Side.class));
+        assertRoundTrip(new EnumNameCodec<>(Single.class));
+        assertRoundTrip(new EnumNameCodec<>(Status.class));
+    }
+
+    @Test
+    public void metadata() {
+        final EnumNameCodec<Side> codec = new EnumNameCodec<>(Side.class);
+        assertEquals(Side.class, codec.enumType());
+        assertEquals(Side.values().length, codec.enumValueCount());
+        assertEquals("SELL_SHORT_EXEMPT".length(), codec.enumNameMaxLength());
+    }
+
+    @Test
+    public void unknownAndEmptyDefaultToNull() {
+        final EnumNameCodec<Side> codec = new EnumNameCodec<>(Side.class);
+        assertNull(codec.get(ascii(""), 0, 0));
+        assertNull(codec.get(ascii("XYZ"), 0, 3));
+    }
+
+    @Test
+    public void unknownAndEmptyInput() {
+        final EnumNameCodec<Status> codec = new EnumNameCodec<>(Status.class, Status.EMPTY, Status.UNKNOWN);
+        assertEquals(Status.EMPTY, codec.get(ascii(""), 0, 0));
+        assertEquals(Status.EMPTY, codec.get(ascii("NEW"), 1, 0));
+        assertEquals(Status.UNKNOWN, codec.get(ascii("CANCELED"), 0, 8));
+        //prefix and suffix of a valid name
+        assertEquals(Status.UNKNOWN, codec.get(ascii("FILL"), 0, 4));
+        assertEquals(Status.UNKNOWN, codec.get(ascii("FILLED"), 1, 5));
+        //valid name followed by more characters, and longer than any name
+        assertEquals(Status.UNKNOWN, codec.get(ascii("FILLEDX"), 0, 7));
+        assertEquals(Status.UNKNOWN, codec.get(ascii("FILLED_AND_MORE"), 0, 15));
+        //case sensitive
+        assertEquals(Status.UNKNOWN, codec.get(ascii("new"), 0, 3));
+        //valid name inside a larger buffer
+        assertEquals(Status.FILLED, codec.get(ascii("--FILLED--"), 2, 6));
+    }
+
+    @Test
+    public void unknownInputIsPassedToFunction() {
+        final String[] unknown = {null};
+        final Supplier<Status> emptyValue = () -> Status.EMPTY;
+        final Function<DirectBuffer, Status> unknownValue = name -> {
+            unknown[0] = name.getStringWithoutLengthAscii(0, name.capacity());
+            return Status.UNKNOWN;
+        };
+        final EnumNameCodec<Status> codec = new EnumNameCodec<>(Status.class, emptyValue, unknownValue);
+        assertEquals(Status.UNKNOWN, codec.get(ascii("xxREJECTEDxx"), 2, 8));
+        assertEquals("REJECTED", unknown[0]);
+    }
+
+    @Test
+    public void putNull() {
+        final EnumNameCodec<Side> codec = new EnumNameCodec<>(Side.class);
+        assertEquals(0, codec.put(null, len -> buffer));
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void putRejectsValueOfOtherEnumType() {
+        final EnumNameCodec codec = new EnumNameCodec<>(Side.class);
+        try {
+            codec.put(Status.NEW, len -> buffer);
+            fail("expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void firstNameIsCountedInNameBufferSize() {
+        //regression: the name buffer size used to exclude the first constant's name, which failed the
+        //construction of any enum whose first constant was needed to fit the names into the buffer
+        assertRoundTrip(new EnumNameCodec<>(Single.class));
+        assertRoundTrip(new EnumNameCodec<>(LongestFirst.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void constructorRejectsNonEnumType() {
+        new EnumNameCodec((Class)String.class);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.cache.Eviction;
+import org.fix4j.sbe.cache.EvictionPolicy;
+import org.fix4j.sbe.cache.HashValueCache;
+import org.fix4j.sbe.core.ValueDecoder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EvictionTest {
+
+    private static final ValueDecoder<String> NEW_STRING = (buffer, offset, length) ->
+            buffer.getStringWithoutLengthAscii(offset, length);
+
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+
+    private String get(final HashValueCache<String> cache, final String key) {
+        return cache.get(buffer, 0, buffer.putStringWithoutLengthAscii(0, key));
+    }
+
+    private static void insert(final EvictionPolicy policy, final int entries) {
+        for (int entry = 0; entry < entries; entry++) {
+            policy.onMiss(entry);
+            policy.onInsert(entry, entry);
+        }
+    }
+
+    @Test
+    public void clockGivesReferencedEntriesSecondChance() {
+        final EvictionPolicy policy = Eviction.CLOCK.create(4);
+        insert(policy, 4);
+        policy.onHit(0, 0);
+        policy.onHit(2, 2);
+
+        //0 is referenced and gets a second chance, 1 is evicted
+        assertEquals(1, policy.victim(4));
+        policy.onInsert(1, 11);
+        //2 is referenced and gets a second chance, 3 is evicted
+        assertEquals(3, policy.victim(4));
+        policy.onInsert(3, 13);
+        //the hand wraps around, the second chance of 0 is used up
+        assertEquals(0, policy.victim(4));
+        policy.onInsert(0, 10);
+        policy.onHit(1, 11);
+        //1 was hit after replacement, second chance of 2 is used up
+        assertEquals(2, policy.victim(4));
+    }
+
+    @Test
+    public void clockEvictsInOrderWithoutHits() {
+        final EvictionPolicy policy = Eviction.CLOCK.create(3);
+        insert(policy, 3);
+        for (int i = 0; i < 6; i++) {
+            final int victim = policy.victim(3);
+            assertEquals(i % 3, victim);
+            policy.onInsert(victim, 100 + i);
+        }
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        final EvictionPolicy policy = Eviction.LRU.create(4);
+        insert(policy, 4);
+        assertEquals(0, policy.victim(4));
+
+        policy.onHit(0, 0);
+        assertEquals(1, policy.victim(4));
+        policy.onHit(2, 2);
+        policy.onHit(1, 1);
+        assertEquals(3, policy.victim(4));
+
+        //replacing the victim makes it the most recently used entry
+        policy.onInsert(3, 13);
+        assertEquals(0, policy.victim(4));
+        policy.onHit(0, 0);
+        assertEquals(2, policy.victim(4));
+        policy.onHit(2, 2);
+        assertEquals(1, policy.victim(4));
+
+        policy.clear();
+        insert(policy, 2);
+        assertEquals(0, policy.victim(2));
+    }
+
+    @Test
+    public void lruCacheKeepsRecentlyUsedKeys() {
+        final HashValueCache<String> cache = new HashValueCache<>(4, 4, Eviction.LRU, NEW_STRING);
+        final String a = get(cache, "A");
+        final String b = get(cache, "B");
+        get(cache, "C");
+        get(cache, "D");
+        assertSame(a, get(cache, "A"));
+        //B is the least recently used key and is evicted
+        get(cache, "E");
+        assertEquals(4, cache.size());
+        assertSame(a, get(cache, "A"));
+        assertNotSame(b, get(cache, "B"));
+    }
+
+    @Test
+    public void tinyLfuAdmitsOnlyMoreFrequentCandidates() {
+        final EvictionPolicy policy = Eviction.LRU.withTinyLfu().create(16);
+        final int hot = 42;
+        final int cold = 4711;
+        policy.onMiss(hot);
+        policy.onInsert(0, hot);
+        for (int i = 0; i < 10; i++) {
+            policy.onHit(0, hot);
+        }
+        policy.onMiss(cold);
+        assertFalse(policy.admit(cold, hot));
+        assertTrue(policy.admit(hot, cold));
+
+        policy.clear();
+        policy.onMiss(hot);
+        policy.onMiss(cold);
+        assertFalse("equal frequency is not admitted", policy.admit(cold, hot));
+        policy.onMiss(cold);
+        assertTrue(policy.admit(cold, hot));
+    }
+
+    @Test
+    public void tinyLfuHotKeySurvivesScan() {
+        for (final Eviction eviction : Eviction.values()) {
+            final HashValueCache<String> cache = new HashValueCache<>(8, 8, eviction.withTinyLfu(), NEW_STRING);
+            final List<String> hot = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                hot.add(get(cache, "HOT" + i));
+            }
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 4; i++) {
+                    assertSame(eviction.name(), hot.get(i), get(cache, "HOT" + i));
+                }
+            }
+            //hot keys keep being used while a stream of keys used only once passes through the cache
+            for (int i = 0; i < 1000; i++) {
+                get(cache, "SCAN" + i);
+                if (i % 10 == 9) {
+                    for (int j = 0; j < 4; j++) {
+                        assertSame(eviction.name(), hot.get(j), get(cache, "HOT" + j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void scanEvictsHotKeyWithoutTinyLfu() {
+        final HashValueCache<String> cache = new HashValueCache<>(8, 8, Eviction.LRU, NEW_STRING);
+        final String hot = get(cache, "HOT");
+        for (int i = 0; i < 10; i++) {
+            assertSame(hot, get(cache, "HOT"));
+        }
+        for (int i = 0; i < 8; i++) {
+            get(cache, "SCAN" + i);
+        }
+        assertNotSame(hot, get(cache, "HOT"));
+    }
+
+    @Test
+    public void tinyLfuAdmissionAfterConcurrentHits() throws Exception {
+        final EvictionPolicy policy = Eviction.CLOCK.withTinyLfu().create(1024);
+        assertTrue(policy.lockFreeHits());
+        final int threads = 8;
+        final int hash = 123;
+        policy.onMiss(hash);
+        policy.onInsert(0, hash);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        policy.onHit(0, hash);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        //saturated counters are halved when the sketch ages, but never wrap around to zero
+        for (int other = 0; other < 1000; other++) {
+            if (other != hash) {
+                assertTrue("other=" + other, policy.admit(hash, other));
+                assertFalse("other=" + other, policy.admit(other, hash));
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.fix4j.sbe.core.DataDecoder;
+import org.fix4j.sbe.core.DataEncoder;
+import org.fix4j.sbe.core.Decimal64;
+import org.fix4j.sbe.core.FlyweightDataDecoder;
+import org.fix4j.sbe.core.StringView;
+import org.fix4j.sbe.payload.StandardPayloadView;
+import org.fix4j.sbe.sample.EnvelopeDecoder;
+import org.fix4j.sbe.transform.CachedClock;
+import org.fix4j.sbe.transform.LocalMktDateCodec;
+import org.fix4j.sbe.transform.TimestampConverter;
+import org.fix4j.sbe.transform.UtcTimestampCodec;
+import org.junit.Test;
+import trading.flyweight.ExecRptDecoder;
+import trading.flyweight.ExecRptEncoder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlyweightCodecTest {
+
+    @Test
+    public void encodeAndDecode() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final ExecRptEncoder<StandardPayloadView> encoder = ExecRptEncoder.create();
+
+        final StandardPayloadView payload = encoder.wrapAndApplyHeader(buffer, 0)
+                .symbol().put("AUDUSD")
+                .legsGroupStart(2)
+                    .next().quantity(100000).price(123, -2).settlDate().put("20191010")
+                    .next().quantity(120000).price(134, -2).settlDate().put("20191020")
+                .legsGroupComplete()
+                .rejectText().put("bla");
+
+        final ExecRptDecoder decoder = ExecRptDecoder.create().wrap(payload.buffer(),
+                payload.offset() + payload.headerLength(), encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
+
+        assertEquals("AUDUSD", decoder.symbol().get());
+        final ExecRptDecoder.LegsGroup legs = decoder.legs();
+        assertEquals(2, legs.count());
+        ExecRptDecoder.Legs leg = legs.next();
+        assertEquals(100000, leg.quantity());
+        assertEquals("20191010", leg.settlDate().get());
+        leg = legs.next();
+        assertEquals(new Decimal64(134, -2), leg.price());
+        assertEquals(1.34, leg.price().toDouble(), 0.0);
+        assertEquals("20191020", leg.settlDate().get());
+        assertFalse(legs.hasNext());
+        assertEquals("bla", decoder.rejectText().get());
+
+        decoder.reset();
+
+        assertEquals("bla", decoder.rejectText().get());
+    }
+
+    @Test
+    public void symbolViewLooksUpStringKeys() {
+        final ExecRptEncoder<StandardPayloadView> encoder = ExecRptEncoder.create();
+        final StandardPayloadView payload = encoder.wrapAndApplyHeader(new ExpandableArrayBuffer(), 0)
+                .symbol().put("EUR")
+                .legsGroupStart(0)
+                .legsGroupComplete()
+                .rejectText().put("");
+        final ExecRptDecoder decoder = ExecRptDecoder.create().wrap(payload.buffer(),
+                payload.offset() + payload.headerLength(), encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
+        final Map<String, Integer> books = new HashMap<>();
+        books.put("EUR", 1);
+        books.put("AUDUSD", 2);
+
+        final StringView symbol = decoder.symbol().view();
+
+        assertEquals(3, symbol.length());
+        assertEquals("EUR".hashCode(), symbol.hashCode());
+        assertTrue(symbol.contentEquals("EUR"));
+        assertEquals(Integer.valueOf(1), books.get(symbol));
+        assertEquals("EUR", symbol.toString());
+    }
+
+    @Test
+    public void settlDateAsEpochDay() {
+        final int settlDate = (int)LocalDate.of(2019, 10, 10).toEpochDay();
+        final ExecRptEncoder<StandardPayloadView> encoder = ExecRptEncoder.create();
+        final StandardPayloadView payload = encoder.wrapAndApplyHeader(new ExpandableArrayBuffer(), 0)
+                .symbol().put("AUDUSD")
+                .legsGroupStart(2)
+                    .next().quantity(100000).price(123, -2).settlDate().putInt(settlDate, LocalMktDateCodec.DEFAULT)
+                    .next().quantity(120000).price(134, -2).settlDate().putInt(LocalMktDateCodec.NULL_VALUE, LocalMktDateCodec.DEFAULT)
+                .legsGroupComplete()
+                .rejectText().put("");
+        final ExecRptDecoder decoder = ExecRptDecoder.create().wrap(payload.buffer(),
+                payload.offset() + payload.headerLength(), encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
+        final ExecRptDecoder.LegsGroup legs = decoder.legs();
+        ExecRptDecoder.Legs leg = legs.next();
+        assertEquals("20191010", leg.settlDate().get());
+        assertEquals(settlDate, leg.settlDate().getInt(LocalMktDateCodec.DEFAULT));
+        leg = legs.next();
+        assertEquals(LocalMktDateCodec.NULL_VALUE, leg.settlDate().getInt(LocalMktDateCodec.DEFAULT));
+    }
+
+    @Test
+    public void envelopeTimeAsUtcTimestamp() {
+        final TimestampConverter converter = TimestampConverter.forMetaData(EnvelopeDecoder.TIME_META_DATA);
+        assertEquals(TimeUnit.NANOSECONDS, converter.fieldUnit());
+
+        final CachedClock clock = new CachedClock();
+        clock.update(1570710896123456789L);
+        final long time = clock.time(converter);
+        assertEquals(1570710896123L, converter.toMillis(time));
+
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer(32);
+        final UtcTimestampCodec micros = UtcTimestampCodec.forMetaData(EnvelopeDecoder.TIME_META_DATA, TimeUnit.MICROSECONDS);
+        final int length = micros.put(time, len -> buffer);
+        assertEquals("20191010-12:34:56.123456", buffer.getStringWithoutLengthAscii(0, length));
+        assertEquals(1570710896123456000L, micros.get(buffer, 0, length));
+        assertEquals(UtcTimestampCodec.NULL_VALUE, micros.get(buffer, 0, 0));
+    }
+
+    @Test
+    public void envelopeDataWithNestedMessage() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final trading.flyweight.EnvelopeEncoder<StandardPayloadView> envelope = trading.flyweight.EnvelopeEncoder.create();
+        final ExecRptEncoder<StandardPayloadView> execRpt = ExecRptEncoder.create();
+
+        final DataEncoder<StandardPayloadView> data = envelope.wrapAndApplyHeader(buffer, 0)
+                .time(1570710896123456789L)
+                .seqNo(7)
+                .templateId(0).blockLength(0).schemaId(0).version(0)
+                .data();
+        data.wrapAndApplyHeader(execRpt)
+                .symbol().put("AUDUSD")
+                .legsGroupStart(1)
+                    .next().quantity(100000).price(123, -2).settlDate().put("20191010")
+                .legsGroupComplete()
+                .rejectText().put("nested");
+        final StandardPayloadView payload = data.unwrap(execRpt);
+
+        final trading.flyweight.EnvelopeDecoder decoder = trading.flyweight.EnvelopeDecoder.create().wrap(payload.buffer(),
+                payload.offset() + payload.headerLength(), payload.sbeBlockLength(), payload.sbeSchemaVersion());
+        assertEquals(7, decoder.seqNo());
+        final DataDecoder dataDecoder = decoder.data();
+        assertEquals(FlyweightDataDecoder.MESSAGE_HEADER_LENGTH + execRpt.encodedLength(), dataDecoder.length());
+        assertEquals(payload.totalLength() - payload.headerLength(), decoder.limit() - decoder.offset());
+
+        final ExecRptDecoder nested = dataDecoder.wrap(ExecRptDecoder.create());
+        assertEquals("AUDUSD", nested.symbol().get());
+        assertEquals(100000, nested.legs().next().quantity());
+        assertEquals("nested", nested.rejectText().get());
+
+        final ByteBuffer view = dataDecoder.byteBuffer();
+        assertTrue(view.isReadOnly());
+        assertEquals(dataDecoder.length(), view.remaining());
+        final byte[] bytes = new byte[dataDecoder.length()];
+        assertEquals(bytes.length, dataDecoder.get(bytes, 0, Integer.MAX_VALUE));
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(bytes[i], view.get(view.position() + i));
+        }
+
+        final StandardPayloadView copy = envelope.wrapAndApplyHeader(new ExpandableArrayBuffer(16), 0)
+                .time(1570710896123456789L)
+                .seqNo(8)
+                .templateId(0).blockLength(0).schemaId(0).version(0)
+                .data().put(view, view.position(), view.remaining());
+        assertEquals(payload.totalLength(), copy.totalLength());
+    }
+
+    @Test
+    public void randomAccessToGroupElements() {
+        final ExecRptEncoder<StandardPayloadView> encoder = ExecRptEncoder.create();
+        final ExecRptEncoder.LegsGroup<ExecRptEncoder.RejectText<StandardPayloadView>> legsGroup = encoder
+                .wrap(new ExpandableArrayBuffer(), 0)
+                .symbol().put("AUDUSD")
+                .legsGroupStart(5);
+        for (int i = 0; i < 5; i++) {
+            legsGroup.next().quantity(100 * i).price(i, -2).settlDate().put("2019101" + i);
+        }
+        final StandardPayloadView payload = legsGroup.legsGroupComplete().rejectText().put("bla");
+
+        final ExecRptDecoder decoder = ExecRptDecoder.create().wrap(payload.buffer(), payload.offset(),
+                encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
+        final ExecRptDecoder.LegsGroup legs = decoder.legs();
+        assertEquals(400, legs.legs(4).quantity());
+        assertEquals("20191014", legs.legs(4).settlDate().get());
+        assertFalse(legs.hasNext());
+        assertEquals(100, legs.legs(1).quantity());
+        assertEquals(200, legs.next().quantity());
+        assertEquals("bla", decoder.rejectText().get());
+
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final baseline.CarEncoder car = encodeCar(buffer, "Highway Cycle");
+        final baseline.flyweight.CarDecoder carDecoder = baseline.flyweight.CarDecoder.create().wrap(buffer, 0,
+                car.sbeBlockLength(), car.sbeSchemaVersion());
+        final baseline.flyweight.CarDecoder.FuelFiguresGroup fuel = carDecoder.fuelFigures();
+        assertEquals("Cycle 2", fuel.fuelFigures(2).usageDescription().get());
+        assertEquals(30, fuel.fuelFigures(0).speed());
+        assertEquals("Highway Cycle", fuel.fuelFigures(1).usageDescription().get());
+        final baseline.flyweight.CarDecoder.FuelFigures last = fuel.next();
+        assertEquals(90, last.speed());
+        assertEquals("Cycle 2", last.usageDescription().get());
+        final baseline.flyweight.CarDecoder.PerformanceFiguresGroup performance = carDecoder.performanceFigures();
+        final baseline.flyweight.CarDecoder.PerformanceFigures second = performance.performanceFigures(1);
+        assertEquals(96, second.octaneRating());
+        assertEquals(6.5f, second.acceleration().acceleration(1).seconds(), 0.0f);
+        assertEquals(95, performance.performanceFigures(0).octaneRating());
+        assertEquals(3.0f, performance.performanceFigures(1).acceleration().acceleration(0).seconds(), 0.0f);
+        assertEquals("Civic VTi", carDecoder.model().get());
+    }
+
+    @Test
+    public void resetKeepsGroupOffsetsUntilWrap() {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final baseline.CarEncoder car = encodeCar(buffer, "Highway Cycle");
+        final baseline.flyweight.CarDecoder decoder = baseline.flyweight.CarDecoder.create().wrap(buffer, 0,
+                car.sbeBlockLength(), car.sbeSchemaVersion());
+        assertEquals("Civic VTi", decoder.model().get());
+        final int limit = decoder.limit();
+
+        for (int i = 0; i < 3; i++) {
+            decoder.reset();
+            assertEquals("Highway Cycle", decoder.fuelFigures().fuelFigures(1).usageDescription().get());
+            assertEquals("Civic VTi", decoder.model().get());
+            assertEquals(limit, decoder.limit());
+        }
+
+        encodeCar(buffer, "Combined Highway and Urban Cycle");
+        decoder.wrap(buffer, 0, car.sbeBlockLength(), car.sbeSchemaVersion());
+        assertEquals("Civic VTi", decoder.model().get());
+        assertEquals(limit + 19, decoder.limit());
+        decoder.reset();
+        assertEquals(96, decoder.performanceFigures().performanceFigures(1).octaneRating());
+        assertEquals("Honda", decoder.manufacturer().get());
+    }
+
+    private static baseline.CarEncoder encodeCar(final MutableDirectBuffer buffer, final String usageDescription) {
+        final baseline.CarEncoder car = new baseline.CarEncoder().wrap(buffer, 0);
+        final baseline.CarEncoder.FuelFiguresEncoder fuelFigures = car.fuelFiguresCount(3);
+        for (int i = 0; i < 3; i++) {
+            fuelFigures.next().speed(30 * (i + 1)).mpg(35.9f).usageDescription(i == 1 ? usageDescription : "Cycle " + i);
+        }
+        final baseline.CarEncoder.PerformanceFiguresEncoder performanceFigures = car.performanceFiguresCount(2);
+        for (int i = 0; i < 2; i++) {
+            performanceFigures.next().octaneRating((short)(95 + i)).accelerationCount(2)
+                    .next().mph(30).seconds(4.0f - i)
+                    .next().mph(60).seconds(7.5f - i);
+        }
+        return car.manufacturer("Honda").model("Civic VTi").activationCode("abcdef");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void legsGroupIncomplete() {
+        final ExecRptEncoder<StandardPayloadView> encoder = ExecRptEncoder.create();
+        final ExecRptEncoder.LegsGroup<ExecRptEncoder.RejectText<StandardPayloadView>> legs = encoder
+                .wrap(new ExpandableArrayBuffer(), 0)
+                .legsGroupStart(2);
+        legs.next().quantity(100000).price(123, -2).settlDate().put("20191010");
+        legs.legsGroupComplete();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.cache.Eviction;
+import org.fix4j.sbe.cache.HashValueCache;
+import org.fix4j.sbe.core.ValueDecoder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class HashValueCacheTest {
+
+    private static final ValueDecoder<DirectBuffer> VIEW = (buffer, offset, length) ->
+            new UnsafeBuffer(buffer, offset, length);
+
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer(64);
+
+    private DirectBuffer get(final HashValueCache<DirectBuffer> cache, final String key) {
+        final DirectBuffer value = cache.get(buffer, 0, buffer.putStringWithoutLengthAscii(0, key));
+        //the caller's buffer is reused, the value must still see the original key
+        buffer.setMemory(0, buffer.capacity(), (byte)'#');
+        return value;
+    }
+
+    private static String key(final int index) {
+        return "KEY-" + index + "-" + "abcdefghijklmnopqrstuvwxyz".substring(index % 26);
+    }
+
+    private static String string(final DirectBuffer view) {
+        return view.getStringWithoutLengthAscii(0, view.capacity());
+    }
+
+    @Test
+    public void valueFactoryReceivesStableKeyCopy() {
+        final HashValueCache<DirectBuffer> cache = new HashValueCache<>(4, 4, 0, Eviction.LRU, VIEW);
+        final List<DirectBuffer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(get(cache, key(i)));
+        }
+        cache.clear();
+        for (int i = 0; i < 10; i++) {
+            get(cache, key(i + 1000));
+        }
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(key(i), string(values.get(i)));
+        }
+    }
+
+    @Test
+    public void backwardShiftRemovalKeepsRemainingEntriesReachable() {
+        final int capacity = 8;
+        final HashValueCache<DirectBuffer> cache = new HashValueCache<>(capacity, capacity, Eviction.LRU, VIEW);
+        final List<DirectBuffer> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(get(cache, key(i)));
+            final long misses = cache.stats().misses();
+            //touch in insertion order so that the LRU order remains unchanged
+            for (int j = Math.max(0, i - capacity + 1); j <= i; j++) {
+                assertSame(key(j), values.get(j), get(cache, key(j)));
+            }
+            assertEquals(misses, cache.stats().misses());
+            assertEquals(Math.min(i + 1, capacity), cache.size());
+        }
+        assertEquals(2000 - capacity, cache.stats().evictions());
+    }
+
+    @Test
+    public void slabIsCompactedOnGrowth() {
+        final int capacity = 16;
+        final HashValueCache<DirectBuffer> cache = new HashValueCache<>(1, capacity, 0, Eviction.LRU, VIEW);
+        long bytes = 0;
+        for (int i = 0; i < 5000; i++) {
+            final String key = key(i);
+            assertEquals(key, string(get(cache, key)));
+            bytes += key.length();
+            if (i >= capacity) {
+                bytes -= key(i - capacity).length();
+            }
+            assertEquals(bytes, cache.stats().bytes());
+        }
+        final long misses = cache.stats().misses();
+        for (int i = 5000 - capacity; i < 5000; i++) {
+            assertEquals(key(i), string(get(cache, key(i))));
+        }
+        assertEquals(misses, cache.stats().misses());
+        assertEquals(key(0), string(get(cache, key(0))));
+        assertEquals(misses + 1, cache.stats().misses());
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        final HashValueCache<DirectBuffer> cache = new HashValueCache<>(4, 8, VIEW);
+        final DirectBuffer first = get(cache, key(1));
+        get(cache, key(2));
+        assertSame(first, get(cache, key(1)));
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().bytes());
+
+        final DirectBuffer second = get(cache, key(1));
+        assertNotSame(first, second);
+        assertEquals(key(1), string(first));
+        assertEquals(key(1), string(second));
+        assertSame(second, get(cache, key(1)));
+        assertEquals(1, cache.size());
+        assertEquals(key(1).length(), cache.stats().bytes());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.fix4j.sbe.journal.JournalDescriptor;
+import org.fix4j.sbe.journal.JournalPayloadView;
+import org.fix4j.sbe.journal.JournalReader;
+import org.fix4j.sbe.journal.JournalWriter;
+import org.fix4j.sbe.sample.DecoderSupplier;
+import org.fix4j.sbe.sample.EncoderSupplier;
+import org.fix4j.sbe.sample.ExecRptEncoder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalTest {
+
+    private static final int SEGMENT_LENGTH = 1024;
+    private static final int MAX_MESSAGE_LENGTH = 256;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static JournalPayloadView append(final EncoderSupplier<JournalPayloadView> encoders, final long quantity) {
+        return encoders.execRpt()
+                .symbol("AUDUSD")
+                .legGroupStart(1)
+                    .next().quantity(quantity).price(123, -2).settlDate().put("20191010")
+                .legGroupComplete()
+                .rejectText().put(quantity % 3 == 0 ? "rejected" : "");
+    }
+
+    @Test
+    public void appendRollReopenAndReplay() throws Exception {
+        final File directory = folder.newFolder("journal");
+        final List<Long> replayed = new ArrayList<>();
+        final DecoderSupplier decoders = DecoderSupplier.supplier();
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertEquals(0, reader.poll(decoders.handler(decoder -> replayed.add(-1L))));
+
+            try (JournalWriter journal = new JournalWriter(directory, SEGMENT_LENGTH, MAX_MESSAGE_LENGTH)) {
+                final EncoderSupplier<JournalPayloadView> encoders = EncoderSupplier.supplier(journal);
+                for (int i = 0; i < 20; i++) {
+                    final JournalPayloadView view = append(encoders, i);
+                    assertEquals(journal.position() - JournalDescriptor.frameLength(view.length()),
+                            view.offset() - JournalDescriptor.FRAME_HEADER_LENGTH);
+                }
+                final ExecRptEncoder.Leg<JournalPayloadView> aborted = encoders.execRpt()
+                        .symbol("EURUSD").legGroupStart(2).next().quantity(-1);
+                assertTrue(aborted != null && journal.hasClaim());
+                journal.abort();
+                assertTrue(journal.segmentIndex() > 0);
+            }
+
+            assertEquals(10, reader.poll(decoders.handler(decoder -> replayed.add(decoder.legs().next().quantity())), 10));
+
+            try (JournalWriter journal = new JournalWriter(directory, SEGMENT_LENGTH, MAX_MESSAGE_LENGTH)) {
+                final EncoderSupplier<JournalPayloadView> encoders = EncoderSupplier.supplier(journal);
+                for (int i = 20; i < 50; i++) {
+                    append(encoders, i);
+                }
+            }
+
+            assertEquals(40, reader.poll(decoders.handler(decoder -> {
+                assertEquals("AUDUSD", decoder.symbol());
+                final long quantity = decoder.legs().next().quantity();
+                assertEquals(quantity % 3 == 0 ? "rejected" : "", decoder.rejectText().get());
+                replayed.add(quantity);
+            })));
+        }
+        assertEquals(50, replayed.size());
+        for (int i = 0; i < replayed.size(); i++) {
+            assertEquals(i, replayed.get(i).longValue());
+        }
+        assertEquals(0, JournalDescriptor.firstSegmentIndex(directory));
+        assertTrue(JournalDescriptor.lastSegmentIndex(directory) > 1);
+    }
+}
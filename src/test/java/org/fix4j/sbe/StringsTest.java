@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.core.Strings;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringsTest {
+
+    private static final int WRAP_OFFSET = 5;
+    private static final int OFFSET = 3;
+    private static final String[] STRINGS = {
+            "", "A", "Hello World", "caf\u00e9 cr\u00e8me", "\u00ff\u0080\u007f",
+            "\u65e5\u672c\u8a9e", "emoji \ud83d\ude00 pair", repeat("0123456789", 100), repeat("\u00e9\u00e8", 40000)
+    };
+
+    private static String repeat(final String string, final int count) {
+        final StringBuilder sb = new StringBuilder(string.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(string);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a heap and an off-heap buffer wrapping the bytes at {@link #OFFSET}, both with wrap adjustment.
+     */
+    private static DirectBuffer[] buffers(final byte[] bytes) {
+        final byte[] array = new byte[WRAP_OFFSET + OFFSET + bytes.length + 3];
+        Arrays.fill(array, (byte)'#');
+        System.arraycopy(bytes, 0, array, WRAP_OFFSET + OFFSET, bytes.length);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(array.length);
+        direct.put(array);
+        return new DirectBuffer[] {
+                new UnsafeBuffer(array, WRAP_OFFSET, array.length - WRAP_OFFSET),
+                new UnsafeBuffer(direct, WRAP_OFFSET, array.length - WRAP_OFFSET)
+        };
+    }
+
+    @Test
+    public void decodeOnHeapAndOffHeap() {
+        final Charset[] charsets = {StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8,
+                StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE};
+        for (final Charset charset : charsets) {
+            for (final String string : STRINGS) {
+                final byte[] bytes = string.getBytes(charset);
+                final String expected = new String(bytes, charset);
+                for (final DirectBuffer buffer : buffers(bytes)) {
+                    assertEquals(charset + (buffer.byteArray() != null ? "/heap" : "/direct"), expected,
+                            Strings.decode(buffer, OFFSET, bytes.length, charset));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void latin1OnHeapAndOffHeap() {
+        for (final String string : STRINGS) {
+            final byte[] bytes = string.getBytes(StandardCharsets.ISO_8859_1);
+            final String expected = new String(bytes, StandardCharsets.ISO_8859_1);
+            for (final DirectBuffer buffer : buffers(bytes)) {
+                assertEquals(expected, Strings.latin1(buffer, OFFSET, bytes.length));
+            }
+        }
+    }
+
+    @Test
+    public void charsOnHeapAndOffHeap() {
+        for (final String string : STRINGS) {
+            final ByteBuffer chars = ByteBuffer.allocate(string.length() * Character.BYTES)
+                    .order(ByteOrder.nativeOrder());
+            chars.asCharBuffer().put(string);
+            final byte[] bytes = chars.array();
+            for (final DirectBuffer buffer : buffers(bytes)) {
+                assertEquals(string, Strings.chars(buffer, OFFSET, bytes.length));
+                //an odd trailing byte is ignored
+                assertEquals(string, Strings.chars(buffer, OFFSET, bytes.length + 1));
+            }
+        }
+    }
+
+    @Test
+    public void scratchArrayIsReusedForShorterStrings() {
+        final byte[] longBytes = repeat("\u00e9", 1000).getBytes(StandardCharsets.UTF_8);
+        final byte[] shortBytes = "\u00e8!".getBytes(StandardCharsets.UTF_8);
+        final DirectBuffer longBuffer = buffers(longBytes)[1];
+        final DirectBuffer shortBuffer = buffers(shortBytes)[1];
+        assertEquals(repeat("\u00e9", 1000), Strings.decode(longBuffer, OFFSET, longBytes.length,
+                StandardCharsets.UTF_8));
+        assertEquals("\u00e8!", Strings.decode(shortBuffer, OFFSET, shortBytes.length, StandardCharsets.UTF_8));
+        assertEquals(repeat("\u00e9", 1000), Strings.decode(longBuffer, OFFSET, longBytes.length,
+                StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019-2022 fix4j-sbe, Marco Terzer, Anton Anufriev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.fix4j.sbe;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.fix4j.sbe.core.Swar;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SwarTest {
+
+    private static final int CAPACITY = 48;
+    private static final int MAX_OFFSET = 9;
+    private static final int MAX_LENGTH = 27;
+
+    private final Random random = new Random(7);
+
+    private static MutableDirectBuffer[] buffers() {
+        return new MutableDirectBuffer[] {
+                new UnsafeBuffer(new byte[CAPACITY]),
+                new UnsafeBuffer(ByteBuffer.allocateDirect(CAPACITY))
+        };
+    }
+
+    private static int naiveTrimmedLength(final MutableDirectBuffer buffer, final int offset, final int length) {
+        int len = length;
+        while (len > 0 && buffer.getByte(offset + len - 1) == 0) {
+            len--;
+        }
+        return len;
+    }
+
+    private static int naiveAsciiLength(final MutableDirectBuffer buffer, final int offset, final int length) {
+        int len = 0;
+        while (len < length && buffer.getByte(offset + len) >= 0) {
+            len++;
+        }
+        return len;
+    }
+
+    private static int naiveCompare(final MutableDirectBuffer buf1, final int offset1, final int length1,
+                                    final MutableDirectBuffer buf2, final int offset2, final int length2,
+                                    final int byteMask) {
+        for (int i = 0; i < Math.min(length1, length2); i++) {
+            final int byte1 = buf1.getByte(offset1 + i) & byteMask;
+            final int byte2 = buf2.getByte(offset2 + i) & byteMask;
+            if (byte1 != byte2) {
+                return byte1 - byte2;
+            }
+        }
+        return length1 - length2;
+    }
+
+    @Test
+    public void trimmedLengthAtAllOffsetsAndLengths() {
+        for (final MutableDirectBuffer buffer : buffers()) {
+            for (int zeros = 0; zeros <= MAX_LENGTH; zeros++) {
+                for (int i = 0; i < CAPACITY; i++) {
+                    buffer.putByte(i, (byte)(1 + random.nextInt(255)));
+                }
+                final int zeroStart = random.nextInt(CAPACITY - zeros + 1);
+                buffer.setMemory(zeroStart, zeros, (byte)0);
+                for (int offset = 0; offset <= MAX_OFFSET; offset++) {
+                    for (int length = 0; length <= MAX_LENGTH; length++) {
+                        assertEquals("offset=" + offset + ", length=" + length,
+                                naiveTrimmedLength(buffer, offset, length),
+                                Swar.trimmedLength(buffer, offset, length));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void asciiLengthAtAllOffsetsAndLengths() {
+        for (final MutableDirectBuffer buffer : buffers()) {
+            for (int nonAscii = 0; nonAscii < CAPACITY; nonAscii++) {
+                for (int i = 0; i < CAPACITY; i++) {
+                    buffer.putByte(i, (byte)random.nextInt(128));
+                }
+                buffer.putByte(nonAscii, (byte)(0x80 | random.nextInt(128)));
+                for (int offset = 0; offset <= MAX_OFFSET; offset++) {
+                    for (int length = 0; length <= MAX_LENGTH; length++) {
+                        assertEquals("offset=" + offset + ", length=" + length,
+                                naiveAsciiLength(buffer, offset, length),
+                                Swar.asciiLength(buffer, offset, length));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void compareAtAllOffsetsAndLengths() {
+        final MutableDirectBuffer[] buffers1 = buffers();
+        final MutableDirectBuffer[] buffers2 = buffers();
+        for (int b = 0; b < buffers1.length; b++) {
+            final MutableDirectBuffer buf1 = buffers1[b];
+            final MutableDirectBuffer buf2 = buffers2[buffers2.length - 1 - b];
+            for (int run = 0; run < 50; run++) {
+                //equal prefixes with a single mismatch that may differ in the high bit only
+                final int offset1 = random.nextInt(MAX_OFFSET + 1);
+                final int offset2 = random.nextInt(MAX_OFFSET + 1);
+                for (int i = 0; i < CAPACITY - MAX_OFFSET; i++) {
+                    final byte value = (byte)random.nextInt(256);
+                    buf1.putByte(offset1 + i, value);
+                    buf2.putByte(offset2 + i, value);
+                }
+                final int mismatch = offset2 + random.nextInt(MAX_LENGTH + 1);
+                buf2.putByte(mismatch, (byte)(random.nextBoolean() ? buf2.getByte(mismatch) ^ 0x80 :
+                        random.nextInt(256)));
+                for (int length1 = 0; length1 <= MAX_LENGTH; length1++) {
+                    for (int length2 = 0; length2 <= MAX_LENGTH; length2++) {
+                        for (final int mask : new int[] {0xff, 0x7f}) {
+                            assertEquals("length1=" + length1 + ", length2=" + length2 + ", mask=" + mask,
+                                    Integer.signum(naiveCompare(buf1, offset1, length1, buf2, offset2, length2, mask)),
+                                    Integer.signum(Swar.compare(buf1, offset1, length1, buf2, offset2, length2, mask)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getWordAtBufferEnd() {
+        for (final MutableDirectBuffer buffer : buffers()) {
+            for (int i = 0; i < CAPACITY; i++) {
+                buffer.putByte(i, (byte)(0x80 | i));
+            }
+            for (int length = 0; length <= Long.BYTES; length++) {
+                for (int offset = CAPACITY - Long.BYTES - 1; offset + length <= CAPACITY; offset++) {
+                    long expected = 0;
+                    for (int i = 0; i < length; i++) {
+                        expected |= (buffer.getByte(offset + i) & 0xffL) << (i * Byte.SIZE);
+                    }
+                    assertEquals("offset=" + offset + ", length=" + length,
+                            expected, Swar.getWord(buffer, offset, length));
+                    for (int i = 0; i < length; i++) {
+                        assertEquals(buffer.getByte(offset + i) & 0xff, Swar.charAt(expected, i));
+                    }
+                }
+            }
+        }
+    }
+}